@@ -0,0 +1,255 @@
+package fr.upjv.uno.config;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.FunctionTimer;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+import org.springframework.web.socket.sockjs.transport.SockJsSession;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.zip.Deflater;
+
+/**
+ * Compression DEFLATE des trames envoyées aux clients qui la demandent.
+ * <p>
+ * Un client demande la compression dès l'ouverture de la connexion, avec le paramètre
+ * {@code uno-compression=deflate} dans l'URL du WebSocket natif (voir {@link WebSocketConfig}), à la place de
+ * l'extension {@code permessage-deflate} ; SockJS, qui ne transporte que du texte, garde cette extension.
+ * Chaque trame STOMP d'au moins {@code minSize} caractères est alors envoyée en message binaire, compressée
+ * en DEFLATE brut (RFC 1951, sans en-tête zlib) ; les trames plus petites, où le gain ne paie pas le coût,
+ * et celles que la compression n'aurait pas réduites partent en texte.
+ * </p>
+ * <p>
+ * Les compresseurs ne sont pas liés aux sessions : ils sont empruntés à un pool borné le temps d'un message,
+ * puis réinitialisés (pas de contexte conservé d'un message à l'autre). La mémoire ne croît donc pas avec
+ * le nombre de connexions ; si le pool est vide, la trame part sans compression.
+ * </p>
+ * <p>
+ * Volume avant et après compression, nombre de trames et temps passé à compresser sont exposés via Micrometer
+ * ({@code uno.websocket.compression.*}).
+ * </p>
+ */
+public class CompressingOutboundDecorator implements WebSocketHandlerDecoratorFactory, MeterBinder {
+  /** Attribut de session posé quand le client a demandé la compression. */
+  public static final String COMPRESSION_ATTRIBUTE = "uno-compression";
+  /** Paramètre de l'URL du WebSocket natif par lequel le client demande la compression. */
+  public static final String COMPRESSION_PARAMETER = "uno-compression";
+
+  private final int minSize;
+  private final int poolSize;
+  private final BlockingQueue<Deflater> pool;
+  private final AtomicInteger created = new AtomicInteger();
+
+  private final LongAdder compressed = new LongAdder();
+  private final LongAdder skipped = new LongAdder();
+  private final LongAdder poolExhausted = new LongAdder();
+  private final LongAdder rawBytes = new LongAdder();
+  private final LongAdder compressedBytes = new LongAdder();
+  private final LongAdder compressionCount = new LongAdder();
+  private final LongAdder compressionNanos = new LongAdder();
+
+  /**
+   * @param minSize  taille minimale d'une trame à compresser, en caractères.
+   * @param poolSize nombre maximal de compresseurs, donc de compressions simultanées.
+   */
+  public CompressingOutboundDecorator(int minSize, int poolSize) {
+    this.minSize = minSize;
+    this.poolSize = poolSize;
+    this.pool = new ArrayBlockingQueue<>(poolSize);
+  }
+
+  @Override
+  public WebSocketHandler decorate(WebSocketHandler handler) {
+    return new CompressingHandler(handler);
+  }
+
+  /**
+   * @return le nombre de trames envoyées compressées.
+   */
+  public long getCompressedCount() {
+    return compressed.sum();
+  }
+
+  /**
+   * @return le nombre de trames envoyées en texte faute de gain (trop petites ou incompressibles).
+   */
+  public long getSkippedCount() {
+    return skipped.sum();
+  }
+
+  /**
+   * @return le nombre de trames envoyées en texte faute de compresseur libre.
+   */
+  public long getPoolExhaustedCount() {
+    return poolExhausted.sum();
+  }
+
+  /**
+   * @return le nombre de compresseurs créés, au plus la taille du pool.
+   */
+  public int getCreatedCount() {
+    return created.get();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("uno.websocket.compression.messages", compressed, LongAdder::sum)
+            .tag("result", "compressed")
+            .description("Trames envoyées aux clients")
+            .register(registry);
+    FunctionCounter.builder("uno.websocket.compression.messages", skipped, LongAdder::sum)
+            .tag("result", "skipped")
+            .description("Trames envoyées aux clients")
+            .register(registry);
+    FunctionCounter.builder("uno.websocket.compression.messages", poolExhausted, LongAdder::sum)
+            .tag("result", "pool_exhausted")
+            .description("Trames envoyées aux clients")
+            .register(registry);
+    FunctionCounter.builder("uno.websocket.compression.bytes", rawBytes, LongAdder::sum)
+            .tag("stage", "raw")
+            .baseUnit("bytes")
+            .description("Volume des trames compressées, avant et après compression")
+            .register(registry);
+    FunctionCounter.builder("uno.websocket.compression.bytes", compressedBytes, LongAdder::sum)
+            .tag("stage", "compressed")
+            .baseUnit("bytes")
+            .description("Volume des trames compressées, avant et après compression")
+            .register(registry);
+    Gauge.builder("uno.websocket.compression.ratio", this, CompressingOutboundDecorator::ratio)
+            .description("Taille compressée rapportée à la taille d'origine, trames compressées uniquement")
+            .register(registry);
+    FunctionTimer.builder("uno.websocket.compression.time", this,
+                    d -> d.compressionCount.sum(), d -> d.compressionNanos.sum(), TimeUnit.NANOSECONDS)
+            .description("Temps passé à compresser les trames")
+            .register(registry);
+    Gauge.builder("uno.websocket.compression.pool.created", created, AtomicInteger::get)
+            .description("Compresseurs créés, bornés par la taille du pool")
+            .register(registry);
+  }
+
+  /**
+   * Libère la mémoire native des compresseurs à l'extinction du serveur.
+   */
+  @PreDestroy
+  public void shutdown() {
+    Deflater deflater;
+    while ((deflater = pool.poll()) != null)
+      deflater.end();
+  }
+
+  private double ratio() {
+    long raw = rawBytes.sum();
+    return raw == 0 ? 1.0 : (double) compressedBytes.sum() / raw;
+  }
+
+  /**
+   * @return la trame compressée, ou {@code null} si elle doit partir telle quelle.
+   */
+  BinaryMessage compress(TextMessage message) {
+    if (message.getPayloadLength() < minSize) {
+      skipped.increment();
+      return null;
+    }
+    Deflater deflater = borrow();
+    if (deflater == null) {
+      poolExhausted.increment();
+      return null;
+    }
+
+    long start = System.nanoTime();
+    byte[] raw = message.getPayload().getBytes(StandardCharsets.UTF_8);
+    byte[] out;
+    try {
+      deflater.setInput(raw);
+      deflater.finish();
+      ByteArrayOutputStream buffer = new ByteArrayOutputStream(raw.length / 2);
+      byte[] chunk = new byte[Math.min(raw.length, 8192)];
+      while (!deflater.finished())
+        buffer.write(chunk, 0, deflater.deflate(chunk));
+      out = buffer.toByteArray();
+    } finally {
+      deflater.reset();
+      pool.offer(deflater);
+    }
+    compressionCount.increment();
+    compressionNanos.add(System.nanoTime() - start);
+
+    if (out.length >= raw.length) {
+      skipped.increment();
+      return null;
+    }
+    compressed.increment();
+    rawBytes.add(raw.length);
+    compressedBytes.add(out.length);
+    return new BinaryMessage(out);
+  }
+
+  private Deflater borrow() {
+    Deflater deflater = pool.poll();
+    if (deflater != null)
+      return deflater;
+    // création paresseuse, dans la limite du pool
+    while (true) {
+      int count = created.get();
+      if (count >= poolSize)
+        return pool.poll();
+      if (created.compareAndSet(count, count + 1))
+        return new Deflater(Deflater.DEFAULT_COMPRESSION, true);
+    }
+  }
+
+  /**
+   * Transmet à Spring la session décorée, pour que ses envois passent par la compression.
+   */
+  private final class CompressingHandler extends WebSocketHandlerDecorator {
+
+    private CompressingHandler(WebSocketHandler delegate) {
+      super(delegate);
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+      // SockJS encapsule chaque trame dans du JSON : pas de message binaire possible
+      super.afterConnectionEstablished(session instanceof SockJsSession ? session : new CompressingSession(session));
+    }
+  }
+
+  /**
+   * Session dont les trames texte sont compressées si le client l'a demandé.
+   */
+  private final class CompressingSession extends WebSocketSessionDecorator {
+
+    private CompressingSession(WebSocketSession delegate) {
+      super(delegate);
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+      if (message instanceof TextMessage text && getAttributes().containsKey(COMPRESSION_ATTRIBUTE)) {
+        BinaryMessage binary = compress(text);
+        if (binary != null) {
+          super.sendMessage(binary);
+          return;
+        }
+      }
+      super.sendMessage(message);
+    }
+  }
+}
@@ -0,0 +1,329 @@
+package fr.upjv.uno.config;
+
+import fr.upjv.uno.service.GameBroadcaster;
+import fr.upjv.uno.util.NamedThreadFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.web.socket.CloseStatus;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.handler.SessionLimitExceededException;
+import org.springframework.web.socket.handler.WebSocketHandlerDecorator;
+import org.springframework.web.socket.handler.WebSocketHandlerDecoratorFactory;
+import org.springframework.web.socket.handler.WebSocketSessionDecorator;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * File d'envoi par session WebSocket où le dernier état l'emporte.
+ * <p>
+ * Chaque message d'état ({@code MESSAGE} STOMP vers un topic {@code /topic/game...} ou vers la main
+ * {@link GameBroadcaster#HAND_SUBSCRIPTION}) remplace le message
+ * encore en attente pour la même destination : un joueur dont la connexion est lente reçoit l'état le plus
+ * récent au lieu de tous les états intermédiaires. S'il s'agissait d'un patch, le client voit que sa version
+ * ne correspond plus et redemande l'état complet. Les autres trames (CONNECTED, RECEIPT, ERROR...) ne sont
+ * jamais remplacées.
+ * </p>
+ * <p>
+ * L'écriture se fait hors du thread appelant, pour que les messages s'accumulent ici et non dans le tampon
+ * de Spring, qui ne sait pas les remplacer. Les écritures passent par un pool borné
+ * ({@code uno.websocket.send-threads}) : une session n'y a jamais plus d'une tâche, qui rend la main après
+ * un lot de messages ; des clients lents ne multiplient donc pas les threads, ils occupent au plus le pool
+ * et les autres sessions attendent leur tour. Avec {@code spring.threads.virtual.enabled=true}, chaque
+ * écriture s'exécute sur un thread virtuel : une écriture bloquée ne retient plus de thread de plateforme.
+ * Les limites restent celles de {@link WebSocketConfig} :
+ * au-delà de la taille de tampon, les plus anciens messages d'état en attente sont abandonnés ; une écriture
+ * bloquée plus longtemps que la limite de temps ferme la session.
+ * </p>
+ * <p>
+ * Les messages remplacés et abandonnés sont exposés via Micrometer
+ * ({@code uno.websocket.outbound.conflated}, {@code uno.websocket.outbound.dropped}).
+ * </p>
+ */
+public class ConflatingOutboundDecorator implements WebSocketHandlerDecoratorFactory, MeterBinder {
+  private static final String STATE_FRAME_PREFIX = "MESSAGE\n";
+  private static final String STATE_DESTINATION_PREFIX = "/topic/game";
+  /** Nombre maximal de messages écrits pour une session avant de rendre le thread aux autres sessions. */
+  private static final int WRITE_BATCH_SIZE = 32;
+
+  private final long sendTimeLimitMillis;
+  private final int bufferSizeLimit;
+  private final Executor writers;
+
+  private final LongAdder conflated = new LongAdder();
+  private final LongAdder dropped = new LongAdder();
+
+  /**
+   * @param sendTimeLimitMillis durée maximale d'une écriture, en millisecondes.
+   * @param bufferSizeLimit     taille maximale des messages en attente d'une session, en caractères.
+   * @param writerThreads       nombre de threads d'écriture partagés par toutes les sessions.
+   * @param virtualThreads      {@code true} pour écrire sur des threads virtuels (Java 21), sans borne.
+   */
+  public ConflatingOutboundDecorator(long sendTimeLimitMillis, int bufferSizeLimit, int writerThreads,
+                                     boolean virtualThreads) {
+    this.sendTimeLimitMillis = sendTimeLimitMillis;
+    this.bufferSizeLimit = bufferSizeLimit;
+    if (virtualThreads) {
+      this.writers = new VirtualThreadTaskExecutor("ws-send-");
+    } else {
+      // file non bornée, mais jamais plus d'une tâche par session
+      ThreadPoolExecutor pool = new ThreadPoolExecutor(writerThreads, writerThreads, 60L, TimeUnit.SECONDS,
+              new LinkedBlockingQueue<>(), new NamedThreadFactory("ws-send-"));
+      pool.allowCoreThreadTimeOut(true);
+      this.writers = pool;
+    }
+  }
+
+  @Override
+  public WebSocketHandler decorate(WebSocketHandler handler) {
+    return new ConflatingHandler(handler);
+  }
+
+  /**
+   * @return le nombre de messages d'état remplacés par un plus récent avant d'être écrits.
+   */
+  public long getConflatedCount() {
+    return conflated.sum();
+  }
+
+  /**
+   * @return le nombre de messages d'état abandonnés faute de place dans le tampon.
+   */
+  public long getDroppedCount() {
+    return dropped.sum();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("uno.websocket.outbound.conflated", conflated, LongAdder::sum)
+            .description("Messages d'état remplacés par un plus récent avant d'être envoyés")
+            .register(registry);
+    FunctionCounter.builder("uno.websocket.outbound.dropped", dropped, LongAdder::sum)
+            .description("Messages d'état abandonnés, tampon d'envoi plein")
+            .register(registry);
+  }
+
+  /**
+   * Arrête les threads d'écriture à l'extinction du serveur.
+   */
+  @PreDestroy
+  public void shutdown() {
+    if (writers instanceof ExecutorService executorService)
+      executorService.shutdownNow();
+  }
+
+  /**
+   * @return la destination d'une trame MESSAGE vers un topic de partie ou vers la main, {@code null} pour
+   * les autres trames.
+   */
+  static String conflationKey(WebSocketMessage<?> message) {
+    if (!(message instanceof TextMessage text))
+      return null;
+    String frame = text.getPayload();
+    if (!frame.startsWith(STATE_FRAME_PREFIX))
+      return null;
+    int headersEnd = frame.indexOf("\n\n");
+    int start = frame.indexOf("\ndestination:");
+    if (start < 0 || headersEnd >= 0 && start > headersEnd)
+      return null;
+    start += "\ndestination:".length();
+    int end = frame.indexOf('\n', start);
+    String destination = end < 0 ? frame.substring(start) : frame.substring(start, end);
+    return destination.startsWith(STATE_DESTINATION_PREFIX) || destination.equals(GameBroadcaster.HAND_SUBSCRIPTION)
+            ? destination : null;
+  }
+
+  /**
+   * Transmet à Spring la session décorée, pour que tous ses envois passent par la file.
+   */
+  private final class ConflatingHandler extends WebSocketHandlerDecorator {
+    private final Map<String, ConflatingSession> sessions = new ConcurrentHashMap<>();
+
+    private ConflatingHandler(WebSocketHandler delegate) {
+      super(delegate);
+    }
+
+    @Override
+    public void afterConnectionEstablished(WebSocketSession session) throws Exception {
+      ConflatingSession decorated = new ConflatingSession(session);
+      sessions.put(session.getId(), decorated);
+      super.afterConnectionEstablished(decorated);
+    }
+
+    @Override
+    public void handleMessage(WebSocketSession session, WebSocketMessage<?> message) throws Exception {
+      super.handleMessage(decorated(session), message);
+    }
+
+    @Override
+    public void handleTransportError(WebSocketSession session, Throwable exception) throws Exception {
+      super.handleTransportError(decorated(session), exception);
+    }
+
+    @Override
+    public void afterConnectionClosed(WebSocketSession session, CloseStatus closeStatus) throws Exception {
+      ConflatingSession decorated = sessions.remove(session.getId());
+      if (decorated != null)
+        decorated.discard();
+      super.afterConnectionClosed(decorated != null ? decorated : session, closeStatus);
+    }
+
+    private WebSocketSession decorated(WebSocketSession session) {
+      WebSocketSession decorated = sessions.get(session.getId());
+      return decorated != null ? decorated : session;
+    }
+  }
+
+  /**
+   * Session dont les envois passent par une file où un message d'état remplace le précédent
+   * pour la même destination. Un seul thread écrit à la fois sur la session d'origine.
+   */
+  private final class ConflatingSession extends WebSocketSessionDecorator {
+    private final Deque<Pending> queue = new ArrayDeque<>();
+    private int bufferSize;
+    private boolean writing;
+    /** Début de l'écriture en cours, 0 si aucune. */
+    private volatile long writeStartedAt;
+
+    private ConflatingSession(WebSocketSession delegate) {
+      super(delegate);
+    }
+
+    @Override
+    public void sendMessage(WebSocketMessage<?> message) throws IOException {
+      long startedAt = writeStartedAt;
+      if (startedAt != 0 && System.currentTimeMillis() - startedAt > sendTimeLimitMillis)
+        throw new SessionLimitExceededException("Envoi bloqué depuis plus de " + sendTimeLimitMillis + " ms",
+                CloseStatus.SESSION_NOT_RELIABLE);
+
+      String key = conflationKey(message);
+      synchronized (queue) {
+        if (key != null)
+          removePending(key);
+        queue.addLast(new Pending(key, message));
+        bufferSize += message.getPayloadLength();
+        dropOldestStates();
+        if (bufferSize > bufferSizeLimit)
+          throw new SessionLimitExceededException("Tampon d'envoi plein (" + bufferSize + " caractères)",
+                  CloseStatus.SESSION_NOT_RELIABLE);
+        if (writing)
+          return;
+        writing = true;
+      }
+      writers.execute(this::write);
+    }
+
+    private void removePending(String key) {
+      for (Iterator<Pending> it = queue.iterator(); it.hasNext(); ) {
+        Pending pending = it.next();
+        if (key.equals(pending.key)) {
+          it.remove();
+          bufferSize -= pending.message.getPayloadLength();
+          conflated.increment();
+          return;
+        }
+      }
+    }
+
+    private void dropOldestStates() {
+      for (Iterator<Pending> it = queue.iterator(); it.hasNext() && bufferSize > bufferSizeLimit; ) {
+        Pending pending = it.next();
+        // le message le plus récent est gardé : c'est lui qui remplace les autres
+        if (pending.key != null && it.hasNext()) {
+          it.remove();
+          bufferSize -= pending.message.getPayloadLength();
+          dropped.increment();
+        }
+      }
+    }
+
+    private void write() {
+      for (int written = 0; ; written++) {
+        Pending pending;
+        synchronized (queue) {
+          pending = queue.pollFirst();
+          if (pending == null) {
+            writing = false;
+            return;
+          }
+          if (written == WRITE_BATCH_SIZE) {
+            // lot terminé : la session repasse derrière les autres, l'écriture reste réservée
+            queue.addFirst(pending);
+            break;
+          }
+          bufferSize -= pending.message.getPayloadLength();
+        }
+        writeStartedAt = System.currentTimeMillis();
+        try {
+          getDelegate().sendMessage(pending.message);
+        } catch (IOException | RuntimeException e) {
+          synchronized (queue) {
+            discard();
+            writing = false;
+          }
+          closeQuietly();
+          return;
+        } finally {
+          writeStartedAt = 0;
+        }
+      }
+      resubmit();
+    }
+
+    private void resubmit() {
+      try {
+        writers.execute(this::write);
+      } catch (RejectedExecutionException e) {
+        discard(); // arrêt en cours
+        synchronized (queue) {
+          writing = false;
+        }
+      }
+    }
+
+    private void discard() {
+      synchronized (queue) {
+        queue.clear();
+        bufferSize = 0;
+      }
+    }
+
+    private void closeQuietly() {
+      try {
+        getDelegate().close(CloseStatus.SESSION_NOT_RELIABLE);
+      } catch (IOException ignored) {
+        // la session est déjà inutilisable
+      }
+    }
+  }
+
+  /**
+   * Message en attente d'écriture, avec sa clé de remplacement ({@code null} : jamais remplacé).
+   */
+  private static final class Pending {
+    private final String key;
+    private final WebSocketMessage<?> message;
+
+    private Pending(String key, WebSocketMessage<?> message) {
+      this.key = key;
+      this.message = message;
+    }
+  }
+}
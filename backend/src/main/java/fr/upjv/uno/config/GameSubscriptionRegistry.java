@@ -0,0 +1,235 @@
+package fr.upjv.uno.config;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.broker.AbstractSubscriptionRegistry;
+import org.springframework.messaging.simp.broker.DefaultSubscriptionRegistry;
+import org.springframework.messaging.simp.broker.SubscriptionRegistry;
+import org.springframework.util.LinkedMultiValueMap;
+import org.springframework.util.MultiValueMap;
+
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * Registre des abonnements du broker en mémoire, indexé par partie.
+ * <p>
+ * Les topics d'une partie ({@code /topic/game/{gameId}} et {@code /topic/game-binary/{gameId}}) sont découpés
+ * une seule fois, à l'abonnement comme à l'envoi, puis rangés par partie : retrouver les abonnés d'un message
+ * coûte un accès à une table, quel que soit le nombre de parties. Les files propres à une session (main, refus),
+ * de type {@code /queue/hand-user{sessionId}} une fois résolues par Spring, sont rangées par destination exacte.
+ * Le registre par défaut de Spring compare au contraire chaque destination à tous les abonnements, avec un
+ * cache de correspondances borné qui ne suit plus dès qu'il y a une file par session.
+ * </p>
+ * <p>
+ * Une partie disparaît de l'index avec son dernier abonnement, ou dès qu'elle est supprimée
+ * ({@link #removeGame(String)}), une file avec son dernier abonnement : la mémoire suit le nombre d'abonnements
+ * actifs. Les autres destinations restent confiées à un {@link DefaultSubscriptionRegistry}.
+ * Les motifs ({@code *}, {@code **}) et sélecteurs ne sont pas pris en charge sur les destinations indexées.
+ * </p>
+ */
+public class GameSubscriptionRegistry extends AbstractSubscriptionRegistry implements MeterBinder {
+  private static final String GAME_PREFIX = "/topic/game/";
+  private static final String BINARY_PREFIX = "/topic/game-binary/";
+  private static final String QUEUE_PREFIX = "/queue/";
+
+  private final Map<String, GameSubscriptions> games = new ConcurrentHashMap<>();
+  // destination -> sessionId -> identifiants d'abonnement, pour les files par session
+  private final Map<String, Map<String, Set<String>>> queues = new ConcurrentHashMap<>();
+  // sessionId -> subscriptionId -> destination indexée
+  private final Map<String, Map<String, String>> sessions = new ConcurrentHashMap<>();
+  private final SubscriptionRegistry fallback = new DefaultSubscriptionRegistry();
+  private final LongAdder subscriptionCount = new LongAdder();
+
+  /** Topic de l'état public d'une partie, en JSON ou en binaire. */
+  record Topic(String gameId, boolean binary) {
+
+    /**
+     * @return le topic désigné par la destination, {@code null} si ce n'est pas un topic de partie.
+     */
+    static Topic parse(String destination) {
+      if (isPattern(destination))
+        return null;
+      boolean binary = destination.startsWith(BINARY_PREFIX);
+      if (!binary && !destination.startsWith(GAME_PREFIX))
+        return null;
+      String gameId = destination.substring(binary ? BINARY_PREFIX.length() : GAME_PREFIX.length());
+      return gameId.isEmpty() || gameId.indexOf('/') >= 0 ? null : new Topic(gameId, binary);
+    }
+  }
+
+  private static boolean isPattern(String destination) {
+    return destination.indexOf('*') >= 0 || destination.indexOf('{') >= 0;
+  }
+
+  private static boolean isQueue(String destination) {
+    return destination.startsWith(QUEUE_PREFIX) && !isPattern(destination);
+  }
+
+  /**
+   * Supprime les abonnements d'une partie, sans attendre la déconnexion de ses joueurs.
+   *
+   * @param gameId identifiant de la partie supprimée.
+   */
+  public void removeGame(String gameId) {
+    GameSubscriptions removed = games.remove(gameId);
+    if (removed != null)
+      removed.forEach((sessionId, subscriptionId) -> {
+        subscriptionCount.decrement();
+        sessions.computeIfPresent(sessionId, (id, subscriptions) -> {
+          subscriptions.remove(subscriptionId);
+          return subscriptions.isEmpty() ? null : subscriptions;
+        });
+      });
+  }
+
+  /**
+   * @return le nombre de parties ayant au moins un abonné.
+   */
+  public int getGameCount() {
+    return games.size();
+  }
+
+  /**
+   * @return le nombre d'abonnements aux topics de partie et aux files par session.
+   */
+  public long getSubscriptionCount() {
+    return subscriptionCount.sum();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("uno.websocket.subscriptions.games", games, Map::size)
+            .description("Parties ayant au moins un abonné")
+            .register(registry);
+    Gauge.builder("uno.websocket.subscriptions", subscriptionCount, LongAdder::sum)
+            .description("Abonnements aux topics de partie et aux files par session")
+            .register(registry);
+  }
+
+  @Override
+  protected void addSubscriptionInternal(String sessionId, String subscriptionId, String destination,
+                                         Message<?> message) {
+    Topic topic = Topic.parse(destination);
+    if (topic != null) {
+      games.compute(topic.gameId(), (id, game) -> {
+        GameSubscriptions subscriptions = game != null ? game : new GameSubscriptions();
+        if (subscriptions.add(topic, sessionId, subscriptionId))
+          subscriptionCount.increment();
+        return subscriptions;
+      });
+    } else if (isQueue(destination)) {
+      queues.compute(destination, (id, subscribers) -> {
+        Map<String, Set<String>> queue = subscribers != null ? subscribers : new ConcurrentHashMap<>();
+        if (queue.computeIfAbsent(sessionId, s -> ConcurrentHashMap.newKeySet()).add(subscriptionId))
+          subscriptionCount.increment();
+        return queue;
+      });
+    } else {
+      fallback.registerSubscription(message);
+      return;
+    }
+    sessions.computeIfAbsent(sessionId, id -> new ConcurrentHashMap<>()).put(subscriptionId, destination);
+  }
+
+  @Override
+  protected void removeSubscriptionInternal(String sessionId, String subscriptionId, Message<?> message) {
+    String[] removed = new String[1];
+    sessions.computeIfPresent(sessionId, (id, subscriptions) -> {
+      removed[0] = subscriptions.remove(subscriptionId);
+      return subscriptions.isEmpty() ? null : subscriptions;
+    });
+    if (removed[0] != null)
+      remove(removed[0], sessionId, subscriptionId);
+    else
+      fallback.unregisterSubscription(message);
+  }
+
+  @Override
+  public void unregisterAllSubscriptions(String sessionId) {
+    Map<String, String> subscriptions = sessions.remove(sessionId);
+    if (subscriptions != null)
+      subscriptions.forEach((subscriptionId, destination) -> remove(destination, sessionId, subscriptionId));
+    fallback.unregisterAllSubscriptions(sessionId);
+  }
+
+  @Override
+  protected MultiValueMap<String, String> findSubscriptionsInternal(String destination, Message<?> message) {
+    Topic topic = Topic.parse(destination);
+    Map<String, Set<String>> subscribers;
+    if (topic != null) {
+      GameSubscriptions game = games.get(topic.gameId());
+      subscribers = game != null ? game.get(topic) : null;
+    } else if (isQueue(destination)) {
+      subscribers = queues.get(destination);
+    } else {
+      return fallback.findSubscriptions(message);
+    }
+    MultiValueMap<String, String> result = new LinkedMultiValueMap<>();
+    if (subscribers != null)
+      subscribers.forEach((sessionId, ids) -> ids.forEach(id -> result.add(sessionId, id)));
+    return result;
+  }
+
+  private void remove(String destination, String sessionId, String subscriptionId) {
+    Topic topic = Topic.parse(destination);
+    if (topic != null) {
+      games.computeIfPresent(topic.gameId(), (id, game) -> {
+        if (game.remove(topic, sessionId, subscriptionId))
+          subscriptionCount.decrement();
+        return game.isEmpty() ? null : game;
+      });
+      return;
+    }
+    queues.computeIfPresent(destination, (id, queue) -> {
+      if (removeSubscriber(queue, sessionId, subscriptionId))
+        subscriptionCount.decrement();
+      return queue.isEmpty() ? null : queue;
+    });
+  }
+
+  private static boolean removeSubscriber(Map<String, Set<String>> subscribers, String sessionId,
+                                          String subscriptionId) {
+    Set<String> ids = subscribers.get(sessionId);
+    boolean removed = ids != null && ids.remove(subscriptionId);
+    if (ids != null && ids.isEmpty())
+      subscribers.remove(sessionId);
+    return removed;
+  }
+
+  /**
+   * Abonnés d'une partie : sessionId -> identifiants d'abonnement, par topic.
+   * Modifiés sous le verrou de la partie dans {@link #games}, lus sans verrou.
+   */
+  private static final class GameSubscriptions {
+    private final Map<String, Set<String>> json = new ConcurrentHashMap<>();
+    private final Map<String, Set<String>> binary = new ConcurrentHashMap<>();
+
+    Map<String, Set<String>> get(Topic topic) {
+      return topic.binary() ? binary : json;
+    }
+
+    boolean add(Topic topic, String sessionId, String subscriptionId) {
+      return get(topic).computeIfAbsent(sessionId, id -> ConcurrentHashMap.newKeySet()).add(subscriptionId);
+    }
+
+    boolean remove(Topic topic, String sessionId, String subscriptionId) {
+      return removeSubscriber(get(topic), sessionId, subscriptionId);
+    }
+
+    boolean isEmpty() {
+      return json.isEmpty() && binary.isEmpty();
+    }
+
+    void forEach(BiConsumer<String, String> action) {
+      BiConsumer<String, Set<String>> each = (sessionId, ids) -> ids.forEach(id -> action.accept(sessionId, id));
+      json.forEach(each);
+      binary.forEach(each);
+    }
+  }
+}
@@ -0,0 +1,113 @@
+package fr.upjv.uno.config;
+
+import fr.upjv.uno.util.NamedThreadFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.ChannelInterceptor;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Repère les sessions que le broker ferme faute de heartbeat du client, et le signale aussitôt.
+ * <p>
+ * Quand un client n'envoie plus rien pendant trois intervalles de heartbeat, le broker envoie vers lui
+ * un {@code DISCONNECT_ACK} sans trame DISCONNECT d'origine, puis la connexion est fermée. Intercepter ce
+ * message sur le canal sortant permet de marquer le joueur déconnecté sans attendre la fin de la fermeture,
+ * qui peut traîner sur une connexion mobile perdue.
+ * </p>
+ * <p>
+ * Le message passe sur le thread des heartbeats du broker, partagé par toutes les sessions : le signalement,
+ * qui attend la file de commandes de la partie, est confié à un petit pool ({@code ws-session-lost-}).
+ * </p>
+ * <p>
+ * Les sessions perdues sont comptées dans {@code uno.websocket.heartbeat.lost}.
+ * </p>
+ */
+public class HeartbeatLossInterceptor implements ChannelInterceptor, MeterBinder {
+  /** Threads qui signalent les sessions perdues. */
+  private static final int REPORTER_THREADS = 2;
+
+  private final Consumer<String> onSessionLost;
+  private final Executor reporters;
+  private final LongAdder lost = new LongAdder();
+
+  /**
+   * @param onSessionLost appelé avec l'identifiant de la session perdue, hors du thread des heartbeats.
+   */
+  public HeartbeatLossInterceptor(Consumer<String> onSessionLost) {
+    this(onSessionLost, newReporterPool());
+  }
+
+  /**
+   * @param onSessionLost appelé avec l'identifiant de la session perdue.
+   * @param reporters     exécute les signalements.
+   */
+  HeartbeatLossInterceptor(Consumer<String> onSessionLost, Executor reporters) {
+    this.onSessionLost = onSessionLost;
+    this.reporters = reporters;
+  }
+
+  private static ExecutorService newReporterPool() {
+    ThreadPoolExecutor pool = new ThreadPoolExecutor(REPORTER_THREADS, REPORTER_THREADS, 60L, TimeUnit.SECONDS,
+            new LinkedBlockingQueue<>(), new NamedThreadFactory("ws-session-lost-"));
+    pool.allowCoreThreadTimeOut(true);
+    return pool;
+  }
+
+  /**
+   * Arrête le pool des signalements à l'extinction du serveur.
+   */
+  public void shutdown() {
+    if (reporters instanceof ExecutorService pool)
+      pool.shutdown();
+  }
+
+  /**
+   * @return le nombre de sessions fermées faute de heartbeat.
+   */
+  public long getLostCount() {
+    return lost.sum();
+  }
+
+  @Override
+  public Message<?> preSend(Message<?> message, MessageChannel channel) {
+    MessageHeaders headers = message.getHeaders();
+    // une déconnexion demandée par le client, ou constatée à la fermeture, porte son message d'origine
+    if (SimpMessageHeaderAccessor.getMessageType(headers) == SimpMessageType.DISCONNECT_ACK
+            && headers.get(SimpMessageHeaderAccessor.DISCONNECT_MESSAGE_HEADER) == null) {
+      String sessionId = SimpMessageHeaderAccessor.getSessionId(headers);
+      if (sessionId != null) {
+        lost.increment();
+        reporters.execute(() -> report(sessionId));
+      }
+    }
+    return message;
+  }
+
+  private void report(String sessionId) {
+    try {
+      onSessionLost.accept(sessionId);
+    } catch (RuntimeException e) {
+      System.err.println("Erreur lors du signalement de la session perdue " + sessionId + " : " + e.getMessage());
+    }
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("uno.websocket.heartbeat.lost", lost, LongAdder::sum)
+            .description("Sessions fermées faute de heartbeat du client")
+            .register(registry);
+  }
+}
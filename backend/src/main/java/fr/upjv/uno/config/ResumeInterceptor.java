@@ -0,0 +1,82 @@
+package fr.upjv.uno.config;
+
+import fr.upjv.uno.service.GameBroadcaster;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.simp.user.UserDestinationMessageHandler;
+import org.springframework.messaging.support.ExecutorChannelInterceptor;
+
+import java.util.function.Supplier;
+
+/**
+ * Reprend les abonnements aux topics de partie et à la main après une coupure.
+ * <p>
+ * Un client qui se réabonne donne dans sa trame SUBSCRIBE le dernier numéro de diffusion reçu sur ce topic
+ * (en-tête {@link #RESUME_HEADER}) : le diffuseur lui renvoie les messages manqués, ou l'état complet
+ * ({@link GameBroadcaster#resume}). La reprise est demandée une fois l'abonnement enregistré par le broker,
+ * pour qu'aucune diffusion ne tombe entre les messages rejoués et les suivants ; un message reçu deux fois
+ * porte le même numéro, et le client l'ignore.
+ * </p>
+ */
+public class ResumeInterceptor implements ExecutorChannelInterceptor {
+  /** En-tête STOMP du dernier numéro de diffusion reçu, sur une trame SUBSCRIBE. */
+  public static final String RESUME_HEADER = "uno-resume";
+
+  private final Supplier<GameBroadcaster> broadcaster;
+
+  /**
+   * @param broadcaster diffuseur qui rejoue les messages manqués, résolu à l'usage.
+   */
+  public ResumeInterceptor(Supplier<GameBroadcaster> broadcaster) {
+    this.broadcaster = broadcaster;
+  }
+
+  @Override
+  public void afterMessageHandled(Message<?> message, MessageChannel channel, MessageHandler handler,
+                                  Exception ex) {
+    if (ex != null)
+      return;
+    StompHeaderAccessor accessor = StompHeaderAccessor.wrap(message);
+    String resume = accessor.getFirstNativeHeader(RESUME_HEADER);
+    if (accessor.getMessageType() != SimpMessageType.SUBSCRIBE || resume == null
+            || accessor.getSessionId() == null || accessor.getDestination() == null)
+      return;
+
+    // le canal entrant passe chaque message à plusieurs handlers : seul celui qui enregistre l'abonnement
+    // compte, le résolveur des destinations utilisateur pour la main, le broker pour les topics
+    String gameId;
+    String playerId = null;
+    GameBroadcaster.WireFormat format;
+    if (GameBroadcaster.HAND_SUBSCRIPTION.equals(accessor.getDestination())) {
+      if (!(handler instanceof UserDestinationMessageHandler))
+        return;
+      gameId = accessor.getFirstNativeHeader(WebSocketEventListener.GAME_HEADER);
+      playerId = accessor.getFirstNativeHeader(WebSocketEventListener.PLAYER_HEADER);
+      if (gameId == null || playerId == null)
+        return;
+      // main : format choisi à la connexion
+      format = WebSocketEventListener.format(accessor.getSessionAttributes());
+    } else {
+      if (!(handler instanceof AbstractBrokerMessageHandler))
+        return;
+      GameSubscriptionRegistry.Topic topic = GameSubscriptionRegistry.Topic.parse(accessor.getDestination());
+      if (topic == null)
+        return;
+      gameId = topic.gameId();
+      format = topic.binary() ? GameBroadcaster.WireFormat.BINARY : GameBroadcaster.WireFormat.JSON;
+    }
+
+    long lastSequence;
+    try {
+      lastSequence = Long.parseLong(resume);
+    } catch (NumberFormatException e) {
+      lastSequence = -1; // numéro illisible : état complet
+    }
+    broadcaster.get().resume(gameId, playerId, format, lastSequence, accessor.getSessionId(),
+            accessor.getSubscriptionId());
+  }
+}
@@ -1,6 +1,7 @@
 package fr.upjv.uno.config;
 
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.HttpHeaders;
 import org.springframework.web.servlet.config.annotation.CorsRegistry;
 import org.springframework.web.servlet.config.annotation.WebMvcConfigurer;
 
@@ -22,6 +23,7 @@ public class WebConfig implements WebMvcConfigurer {
             .allowedOrigins("http://localhost:3000", "http://localhost:5173", "https://uno-upjv.vercel.app")
             .allowedMethods("GET", "POST", "PUT", "DELETE", "OPTIONS")
             .allowedHeaders("*")
+            .exposedHeaders(HttpHeaders.ETAG) // lu par le long polling de l'état
             .allowCredentials(true);
   }
 }
\ No newline at end of file
@@ -1,10 +1,35 @@
 package fr.upjv.uno.config;
 
+import fr.upjv.uno.service.GameBroadcaster;
+import jakarta.annotation.PreDestroy;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletRequestWrapper;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.server.ServerHttpRequest;
+import org.springframework.http.server.ServerHttpResponse;
+import org.springframework.http.server.ServletServerHttpRequest;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.config.ChannelRegistration;
 import org.springframework.messaging.simp.config.MessageBrokerRegistry;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskScheduler;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketHandler;
 import org.springframework.web.socket.config.annotation.EnableWebSocketMessageBroker;
 import org.springframework.web.socket.config.annotation.StompEndpointRegistry;
 import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerConfigurer;
+import org.springframework.web.socket.config.annotation.WebSocketTransportRegistration;
+import org.springframework.web.socket.server.standard.StandardWebSocketUpgradeStrategy;
+import org.springframework.web.socket.server.support.DefaultHandshakeHandler;
+
+import java.security.Principal;
+import java.util.Collections;
+import java.util.Enumeration;
+import java.util.List;
+import java.util.Map;
 
 /**
  * Configuration du serveur WebSocket pour la communication bidirectionnelle en temps réel via le protocole STOMP.
@@ -12,29 +37,318 @@ import org.springframework.web.socket.config.annotation.WebSocketMessageBrokerCo
 @Configuration
 @EnableWebSocketMessageBroker
 public class WebSocketConfig implements WebSocketMessageBrokerConfigurer {
+  /** Endpoint WebSocket natif, à privilégier. */
+  public static final String NATIVE_ENDPOINT = "/ws-uno-upjv-native";
+  /** Endpoint SockJS, solution de repli. */
+  public static final String SOCKJS_ENDPOINT = "/ws-uno-upjv";
+
+  private static final String PERMESSAGE_DEFLATE = "permessage-deflate";
+
+  private final int sendTimeLimitMillis;
+  private final int sendBufferSizeLimit;
+  private final int sendThreads;
+  private final boolean virtualThreads;
+  private final boolean compressionEnabled;
+  private final int compressionMinSize;
+  private final int compressionPoolSize;
+  private final long heartbeatServerMillis;
+  private final long heartbeatClientMillis;
+  private final ObjectProvider<WebSocketEventListener> eventListener;
+  private final ObjectProvider<GameBroadcaster> broadcaster;
+  private final boolean relayEnabled;
+  private final String relayHost;
+  private final int relayPort;
+  private final String relayLogin;
+  private final String relayPasscode;
+  /** Planificateur des heartbeats du broker en mémoire, géré par cette configuration. */
+  private final ThreadPoolTaskScheduler heartbeatScheduler = newHeartbeatScheduler();
+
+  /**
+   * @param sendTimeLimitMillis durée maximale de l'écriture d'un message vers un client, en millisecondes.
+   * @param sendBufferSizeLimit taille maximale des messages en attente pour un client.
+   * @param sendThreads         nombre de threads d'écriture vers les clients, partagés par toutes les sessions.
+   * @param virtualThreads      {@code true} pour écrire vers les clients sur des threads virtuels (Java 21).
+   * @param compressionEnabled  {@code true} pour compresser les trames des clients qui le demandent.
+   * @param compressionMinSize  taille minimale d'une trame à compresser, en caractères.
+   * @param compressionPoolSize nombre maximal de compresseurs partagés entre les sessions.
+   * @param heartbeatServerMillis intervalle des heartbeats envoyés aux clients, en millisecondes (0 : aucun).
+   * @param heartbeatClientMillis intervalle des heartbeats attendus des clients, en millisecondes (0 : aucun).
+   * @param eventListener         écouteur des sessions, prévenu des sessions perdues faute de heartbeat.
+   * @param broadcaster           diffuseur, qui rejoue les messages manqués aux abonnements repris.
+   * @param relayEnabled          {@code true} pour relayer vers un broker STOMP externe au lieu du broker en mémoire.
+   * @param relayHost             hôte du broker externe.
+   * @param relayPort             port STOMP du broker externe.
+   * @param relayLogin            identifiant de connexion au broker externe.
+   * @param relayPasscode         mot de passe de connexion au broker externe.
+   */
+  public WebSocketConfig(@Value("${uno.websocket.send-time-limit-ms:10000}") int sendTimeLimitMillis,
+                         @Value("${uno.websocket.send-buffer-size-limit:524288}") int sendBufferSizeLimit,
+                         @Value("${uno.websocket.send-threads:16}") int sendThreads,
+                         @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads,
+                         @Value("${uno.websocket.compression.enabled:true}") boolean compressionEnabled,
+                         @Value("${uno.websocket.compression.min-size:512}") int compressionMinSize,
+                         @Value("${uno.websocket.compression.pool-size:8}") int compressionPoolSize,
+                         @Value("${uno.websocket.heartbeat.server-ms:10000}") long heartbeatServerMillis,
+                         @Value("${uno.websocket.heartbeat.client-ms:2000}") long heartbeatClientMillis,
+                         ObjectProvider<WebSocketEventListener> eventListener,
+                         ObjectProvider<GameBroadcaster> broadcaster,
+                         @Value("${uno.websocket.broker.relay.enabled:false}") boolean relayEnabled,
+                         @Value("${uno.websocket.broker.relay.host:localhost}") String relayHost,
+                         @Value("${uno.websocket.broker.relay.port:61613}") int relayPort,
+                         @Value("${uno.websocket.broker.relay.login:guest}") String relayLogin,
+                         @Value("${uno.websocket.broker.relay.passcode:guest}") String relayPasscode) {
+    this.sendTimeLimitMillis = sendTimeLimitMillis;
+    this.sendBufferSizeLimit = sendBufferSizeLimit;
+    this.sendThreads = sendThreads;
+    this.virtualThreads = virtualThreads;
+    this.compressionEnabled = compressionEnabled;
+    this.compressionMinSize = compressionMinSize;
+    this.compressionPoolSize = compressionPoolSize;
+    this.heartbeatServerMillis = heartbeatServerMillis;
+    this.heartbeatClientMillis = heartbeatClientMillis;
+    this.eventListener = eventListener;
+    this.broadcaster = broadcaster;
+    this.relayEnabled = relayEnabled;
+    this.relayHost = relayHost;
+    this.relayPort = relayPort;
+    this.relayLogin = relayLogin;
+    this.relayPasscode = relayPasscode;
+  }
+
+  /**
+   * @return la file d'envoi par session, où le dernier état d'une partie remplace les précédents.
+   */
+  @Bean
+  public ConflatingOutboundDecorator conflatingOutboundDecorator() {
+    return new ConflatingOutboundDecorator(sendTimeLimitMillis, sendBufferSizeLimit, sendThreads, virtualThreads);
+  }
+
+  /**
+   * @return la compression des trames, avec un pool de compresseurs borné.
+   */
+  @Bean
+  public CompressingOutboundDecorator compressingOutboundDecorator() {
+    return new CompressingOutboundDecorator(compressionMinSize, compressionPoolSize);
+  }
+
+  /**
+   * @return le registre des abonnements du broker en mémoire, indexé par partie.
+   */
+  @Bean
+  public GameSubscriptionRegistry gameSubscriptionRegistry() {
+    return new GameSubscriptionRegistry();
+  }
 
   /**
-   * Configure le message broker en mémoire.
-   * Définit les préfixes de destination pour le routage des messages entrants et sortants.
+   * Remplace le registre des abonnements du broker en mémoire par {@link GameSubscriptionRegistry},
+   * avant son démarrage. Sans effet en mode relais.
+   *
+   * @param registry le registre indexé par partie.
+   * @return le post-processeur qui l'installe.
+   */
+  @Bean
+  public static BeanPostProcessor gameSubscriptionRegistryInstaller(ObjectProvider<GameSubscriptionRegistry> registry) {
+    return new BeanPostProcessor() {
+      @Override
+      public Object postProcessAfterInitialization(Object bean, String beanName) {
+        if (bean instanceof SimpleBrokerMessageHandler handler)
+          handler.setSubscriptionRegistry(registry.getObject());
+        return bean;
+      }
+    };
+  }
+
+  /**
+   * Arrête le planificateur des heartbeats à l'extinction du serveur.
+   */
+  @PreDestroy
+  public void shutdown() {
+    heartbeatScheduler.shutdown();
+  }
+
+  /**
+   * Le planificateur des heartbeats n'est pas un bean : exposé, il serait un {@code Executor} de plus, et
+   * Spring Boot le choisirait pour les canaux STOMP au lieu de créer son propre exécuteur.
+   *
+   * @return le planificateur des heartbeats du broker, à part des autres tâches.
+   */
+  private static ThreadPoolTaskScheduler newHeartbeatScheduler() {
+    ThreadPoolTaskScheduler scheduler = new ThreadPoolTaskScheduler();
+    scheduler.setPoolSize(1);
+    scheduler.setThreadNamePrefix("ws-heartbeat-");
+    scheduler.initialize();
+    return scheduler;
+  }
+
+  /**
+   * @return l'intercepteur qui marque aussitôt déconnecté le joueur d'une session perdue faute de heartbeat.
+   */
+  @Bean
+  public HeartbeatLossInterceptor heartbeatLossInterceptor() {
+    // résolu à l'usage : l'écouteur dépend du diffuseur, qui dépend lui-même de cette configuration
+    return new HeartbeatLossInterceptor(sessionId -> eventListener.getObject().handleSessionLost(sessionId));
+  }
+
+  /**
+   * @return l'intercepteur qui rattrape les abonnements repris après une coupure.
+   */
+  @Bean
+  public ResumeInterceptor resumeInterceptor() {
+    return new ResumeInterceptor(broadcaster::getObject);
+  }
+
+  /**
+   * Configure le message broker.
+   * Définit les préfixes de destination pour le routage des messages entrants et sortants :
+   * {@code /topic} pour les états de partie, {@code /queue} pour les réponses propres à une session
+   * (refus d'une action, voir {@link fr.upjv.uno.controller.GameCommandController}).
+   * <p>
+   * Par défaut, le broker est en mémoire : il échange des heartbeats avec chaque client, et un client muet
+   * pendant trois intervalles ({@code uno.websocket.heartbeat.client-ms}) est déconnecté, son joueur marqué
+   * absent ({@link HeartbeatLossInterceptor}) pour que la partie continue sans lui.
+   * </p>
+   * <p>
+   * Avec {@code uno.websocket.broker.relay.enabled}, les abonnements et la distribution sont confiés à un
+   * broker STOMP externe (RabbitMQ, ActiveMQ Artemis...) : chaque instance du serveur lui relaie les trames
+   * de ses clients, ce qui permet d'en lancer plusieurs derrière un répartiteur de charge. Les heartbeats
+   * des clients sont alors négociés avec ce broker.
+   * </p>
    *
    * @param config Le registre de configuration du routeur de messages.
    */
   @Override
   public void configureMessageBroker(MessageBrokerRegistry config) {
-    config.enableSimpleBroker("/topic");
+    if (relayEnabled) {
+      config.enableStompBrokerRelay("/topic", "/queue")
+              .setRelayHost(relayHost)
+              .setRelayPort(relayPort)
+              .setClientLogin(relayLogin)
+              .setClientPasscode(relayPasscode)
+              .setSystemLogin(relayLogin)
+              .setSystemPasscode(relayPasscode);
+    } else {
+      config.enableSimpleBroker("/topic", "/queue")
+              .setHeartbeatValue(new long[]{heartbeatServerMillis, heartbeatClientMillis})
+              .setTaskScheduler(heartbeatScheduler);
+    }
     config.setApplicationDestinationPrefixes("/app");
   }
 
   /**
-   * Enregistre le point de terminaison (endpoint) principal d'accroche pour les clients WebSocket.
-   * Configure également les origines CORS spécifiques à cette connexion et active SockJS comme solution de repli.
+   * Enregistre les points de terminaison (endpoints) d'accroche pour les clients WebSocket.
+   * <p>
+   * {@link #NATIVE_ENDPOINT} est un WebSocket natif : une trame STOMP par message, sans l'enveloppe JSON
+   * de SockJS ni la requête {@code /info} avant la connexion. {@link #SOCKJS_ENDPOINT} reste la solution de
+   * repli, pour les navigateurs ou proxys qui ne laissent pas passer WebSocket.
+   * Les deux acceptent les mêmes origines et partagent le même broker.
+   * </p>
+   * <p>
+   * L'extension {@code permessage-deflate} reste négociée par défaut, sur les deux endpoints. Quand la
+   * compression est activée, un client du WebSocket natif peut lui préférer celle de
+   * {@link CompressingOutboundDecorator} (seuil de taille, pool de compresseurs borné au lieu d'un compresseur
+   * par session) en ajoutant {@code ?uno-compression=deflate} à l'URL : pour cette seule session,
+   * l'extension est refusée, pour ne pas compresser deux fois.
+   * </p>
    *
    * @param registry Le registre permettant d'ajouter et configurer les endpoints STOMP.
    */
   @Override
   public void registerStompEndpoints(StompEndpointRegistry registry) {
-    registry.addEndpoint("/ws-uno-upjv")
+    registry.addEndpoint(NATIVE_ENDPOINT)
+            .setHandshakeHandler(compressionEnabled
+                    ? new DefaultHandshakeHandler(new CompressionUpgradeStrategy())
+                    : new DefaultHandshakeHandler())
+            .setAllowedOriginPatterns("*");
+    registry.addEndpoint(SOCKJS_ENDPOINT)
             .setAllowedOriginPatterns("*")
             .withSockJS();
   }
-}
\ No newline at end of file
+
+  /**
+   * Rejoue les messages manqués aux abonnements repris, une fois enregistrés par le broker.
+   *
+   * @param registration Le registre de configuration du canal entrant.
+   */
+  @Override
+  public void configureClientInboundChannel(ChannelRegistration registration) {
+    registration.interceptors(resumeInterceptor());
+  }
+
+  /**
+   * Observe les messages vers les clients pour repérer les sessions perdues faute de heartbeat.
+   *
+   * @param registration Le registre de configuration du canal sortant.
+   */
+  @Override
+  public void configureClientOutboundChannel(ChannelRegistration registration) {
+    registration.interceptors(heartbeatLossInterceptor());
+  }
+
+  /**
+   * Applique les limites d'envoi vers les clients, la file où le dernier état l'emporte, puis la compression
+   * (appliquée par le thread d'écriture de la file, sur les seuls messages qui n'ont pas été remplacés).
+   *
+   * @param registration Le registre de configuration du transport WebSocket.
+   */
+  @Override
+  public void configureWebSocketTransport(WebSocketTransportRegistration registration) {
+    registration.setSendTimeLimit(sendTimeLimitMillis)
+            .setSendBufferSizeLimit(sendBufferSizeLimit)
+            .addDecoratorFactory(conflatingOutboundDecorator());
+    if (compressionEnabled)
+      registration.addDecoratorFactory(compressingOutboundDecorator());
+  }
+
+  /**
+   * Montée en WebSocket qui ne négocie pas {@code permessage-deflate} pour les clients ayant demandé
+   * la compression de {@link CompressingOutboundDecorator}, et marque leur session pour elle.
+   * Les autres clients négocient les extensions comme d'habitude.
+   * <p>
+   * Tomcat choisit les extensions d'après les en-têtes de la requête, sans tenir compte de la sélection
+   * de Spring : l'en-tête {@code Sec-WebSocket-Extensions} lui est donc masqué.
+   * </p>
+   */
+  private static final class CompressionUpgradeStrategy extends StandardWebSocketUpgradeStrategy {
+    private static final String EXTENSIONS_HEADER = "Sec-WebSocket-Extensions";
+
+    @Override
+    public List<WebSocketExtension> getSupportedExtensions(ServerHttpRequest request) {
+      List<WebSocketExtension> extensions = super.getSupportedExtensions(request);
+      if (!isCompressionRequested(request))
+        return extensions;
+      return extensions.stream()
+              .filter(extension -> !PERMESSAGE_DEFLATE.equalsIgnoreCase(extension.getName()))
+              .toList();
+    }
+
+    @Override
+    public void upgrade(ServerHttpRequest request, ServerHttpResponse response, String selectedProtocol,
+                        List<WebSocketExtension> selectedExtensions, Principal user,
+                        WebSocketHandler wsHandler, Map<String, Object> attrs) {
+      if (!isCompressionRequested(request)) {
+        super.upgrade(request, response, selectedProtocol, selectedExtensions, user, wsHandler, attrs);
+        return;
+      }
+      attrs.put(CompressingOutboundDecorator.COMPRESSION_ATTRIBUTE, Boolean.TRUE);
+      HttpServletRequest servletRequest = getHttpServletRequest(request);
+      HttpServletRequest withoutExtensions = new HttpServletRequestWrapper(servletRequest) {
+        @Override
+        public String getHeader(String name) {
+          return EXTENSIONS_HEADER.equalsIgnoreCase(name) ? null : super.getHeader(name);
+        }
+
+        @Override
+        public Enumeration<String> getHeaders(String name) {
+          return EXTENSIONS_HEADER.equalsIgnoreCase(name) ? Collections.emptyEnumeration() : super.getHeaders(name);
+        }
+      };
+      super.upgrade(new ServletServerHttpRequest(withoutExtensions), response, selectedProtocol,
+              selectedExtensions, user, wsHandler, attrs);
+    }
+
+    private boolean isCompressionRequested(ServerHttpRequest request) {
+      return "deflate".equalsIgnoreCase(
+              getHttpServletRequest(request).getParameter(CompressingOutboundDecorator.COMPRESSION_PARAMETER));
+    }
+  }
+}
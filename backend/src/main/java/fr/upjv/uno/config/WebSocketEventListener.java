@@ -1,32 +1,76 @@
 package fr.upjv.uno.config;
 
+import fr.upjv.uno.service.GameBroadcaster;
 import fr.upjv.uno.service.GameService;
 import org.springframework.context.event.EventListener;
 import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
 import org.springframework.stereotype.Component;
+import org.springframework.web.socket.messaging.SessionConnectEvent;
 import org.springframework.web.socket.messaging.SessionDisconnectEvent;
 import org.springframework.web.socket.messaging.SessionSubscribeEvent;
 
+import java.util.Map;
+
 /**
  * Permet d'écouter les events WebSocket, notamment les déconnexions STOMP.
  * Notifie le GameService si ça arrive.
+ * <p>
+ * Un client peut demander les messages d'état au format binaire avec l'en-tête
+ * {@code uno-format: binary} de sa trame CONNECT. Un réabonnement après une coupure
+ * peut porter le dernier numéro de diffusion reçu ({@link ResumeInterceptor}).
+ * </p>
  */
 @Component
 public class WebSocketEventListener {
+  /** En-tête STOMP du format demandé, et attribut de session qui le retient. */
+  public static final String FORMAT_HEADER = "uno-format";
+  /** En-tête STOMP de la partie suivie, sur l'abonnement à la main. */
+  public static final String GAME_HEADER = "uno-game";
+  /** En-tête STOMP du joueur suivi, sur l'abonnement à la main. */
+  public static final String PLAYER_HEADER = "uno-player";
 
   private final GameService gameService;
+  private final GameBroadcaster broadcaster;
 
   /**
    * Constructeur.
    *
    * @param gameService service qui sera notifié en cas de déconnexion.
+   * @param broadcaster diffuseur, informé du format choisi par chaque session.
+   * @param subscriptions registre des abonnements, purgé des parties supprimées (comme le diffuseur).
    */
-  public WebSocketEventListener(GameService gameService) {
+  public WebSocketEventListener(GameService gameService, GameBroadcaster broadcaster,
+                                GameSubscriptionRegistry subscriptions) {
     this.gameService = gameService;
+    this.broadcaster = broadcaster;
+    gameService.setCreationCallback(broadcaster::registerGame);
+    gameService.setRemovalCallback(game -> {
+      subscriptions.removeGame(game.getId());
+      broadcaster.removeGame(game.getId());
+    });
+  }
+
+  /**
+   * Retient le format demandé par le client à la connexion.
+   *
+   * @param event Événement de connexion STOMP.
+   */
+  @EventListener
+  public void handleWebSocketConnectListener(SessionConnectEvent event) {
+    StompHeaderAccessor headerAccessor = StompHeaderAccessor.wrap(event.getMessage());
+    Map<String, Object> attributes = headerAccessor.getSessionAttributes();
+    if (attributes != null && "binary".equalsIgnoreCase(headerAccessor.getFirstNativeHeader(FORMAT_HEADER)))
+      attributes.put(FORMAT_HEADER, GameBroadcaster.WireFormat.BINARY);
   }
 
   /**
    * Gère la connexion du joueur.
+   * <p>
+   * Chaque joueur s'abonne à l'état public de la partie ({@code /topic/game/{gameId}}, ou
+   * {@code /topic/game-binary/{gameId}} en binaire), sans effet ici, et à sa main
+   * ({@link GameBroadcaster#HAND_SUBSCRIPTION}), qui l'identifie par les en-têtes {@link #GAME_HEADER}
+   * et {@link #PLAYER_HEADER}. La main n'est ensuite envoyée qu'à cette session.
+   * </p>
    * @param event Événement de connexion.
    */
   @EventListener
@@ -35,16 +79,26 @@ public class WebSocketEventListener {
     String sessionId = headerAccessor.getSessionId();
     String destination = headerAccessor.getDestination();
 
-    // destination de type : /topic/game/{gameId}/{playerId}
-    if (sessionId != null && destination != null && destination.startsWith("/topic/game/")) {
-      String[] parts = destination.split("/");
-      if (parts.length >= 5) {
-        String gameId = parts[3];
-        String playerId = parts[4];
+    // seul l'abonnement à la main désigne un joueur
+    if (sessionId != null && GameBroadcaster.HAND_SUBSCRIPTION.equals(destination)) {
+      String gameId = headerAccessor.getFirstNativeHeader(GAME_HEADER);
+      String playerId = headerAccessor.getFirstNativeHeader(PLAYER_HEADER);
+      if (gameId != null && playerId != null) {
+        broadcaster.registerSession(sessionId, playerId, format(headerAccessor.getSessionAttributes()));
         gameService.connectPlayer(sessionId, gameId, playerId);
       }
     }
   }
+
+  /**
+   * @param attributes attributs de la session STOMP.
+   * @return le format choisi par la session à la connexion, JSON par défaut.
+   */
+  static GameBroadcaster.WireFormat format(Map<String, Object> attributes) {
+    Object format = attributes != null ? attributes.get(FORMAT_HEADER) : null;
+    return format != null ? (GameBroadcaster.WireFormat) format : GameBroadcaster.WireFormat.JSON;
+  }
+
   /**
    * Gère la déconnexion du joueur.
    *
@@ -54,8 +108,18 @@ public class WebSocketEventListener {
   public void handleWebSocketDisconnectListener(SessionDisconnectEvent event) {
     StompHeaderAccessor headerAccessor = StompHeaderAccessor.wrap(event.getMessage());
     String sessionId = headerAccessor.getSessionId();
-    if (sessionId != null) {
-      gameService.disconnectPlayer(sessionId);
-    }
+    if (sessionId != null)
+      handleSessionLost(sessionId);
+  }
+
+  /**
+   * Oublie la session et marque son joueur comme déconnecté, à la fermeture de la connexion ou dès que
+   * le broker constate l'absence de heartbeat ({@link HeartbeatLossInterceptor}). Sans effet la seconde fois.
+   *
+   * @param sessionId Identifiant de la session WebSocket.
+   */
+  public void handleSessionLost(String sessionId) {
+    broadcaster.unregisterSession(sessionId);
+    gameService.disconnectPlayer(sessionId);
   }
 }
\ No newline at end of file
@@ -0,0 +1,168 @@
+package fr.upjv.uno.controller;
+
+import fr.upjv.uno.dto.request.DrawCardRequest;
+import fr.upjv.uno.dto.request.PlayCardRequest;
+import fr.upjv.uno.dto.response.CommandErrorDTO;
+import fr.upjv.uno.model.Game;
+import fr.upjv.uno.service.CommandResult;
+import fr.upjv.uno.service.GameBroadcaster;
+import fr.upjv.uno.service.GameService;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.handler.annotation.DestinationVariable;
+import org.springframework.messaging.handler.annotation.MessageExceptionHandler;
+import org.springframework.messaging.handler.annotation.MessageMapping;
+import org.springframework.messaging.handler.annotation.Payload;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Controller;
+
+/**
+ * Actions de jeu reçues sur la connexion STOMP déjà ouverte par chaque joueur,
+ * sans requête HTTP par action.
+ * <p>
+ * Le client envoie une trame SEND vers {@code /app/game/{gameId}/play|draw|uno|rematch}, avec le même
+ * corps JSON que l'endpoint REST correspondant de {@link GameController}. L'action passe par la même
+ * file de la partie ({@link GameService}) et est diffusée de la même manière.
+ * </p>
+ * <p>
+ * Si la trame porte un en-tête {@code receipt}, une action acceptée est confirmée par une trame RECEIPT.
+ * Un refus est envoyé à la seule session émettrice, sur {@link #ERRORS_DESTINATION}
+ * ({@link CommandErrorDTO}, avec l'identifiant du receipt) : une trame ERROR fermerait la connexion.
+ * </p>
+ */
+@Controller
+public class GameCommandController {
+  /** Destination des refus, à laquelle le client s'abonne via {@code /user/queue/errors}. */
+  public static final String ERRORS_DESTINATION = "/queue/errors";
+
+  private final GameService gameService;
+  private final GameBroadcaster broadcaster;
+  private final SimpMessageSendingOperations messagingTemplate;
+  private final MessageChannel clientOutboundChannel;
+
+  /**
+   * @param gameService           service Uno.
+   * @param broadcaster           diffuseur de l'état des parties.
+   * @param messagingTemplate     envoi des refus à la session émettrice.
+   * @param clientOutboundChannel canal des trames vers les clients, pour les RECEIPT.
+   */
+  public GameCommandController(GameService gameService, GameBroadcaster broadcaster,
+                               SimpMessageSendingOperations messagingTemplate,
+                               @Qualifier("clientOutboundChannel") MessageChannel clientOutboundChannel) {
+    this.gameService = gameService;
+    this.broadcaster = broadcaster;
+    this.messagingTemplate = messagingTemplate;
+    this.clientOutboundChannel = clientOutboundChannel;
+  }
+
+  /**
+   * Joue une carte, comme {@code POST /api/games/{gameId}/play}.
+   *
+   * @param gameId   id de la partie.
+   * @param request  action du joueur.
+   * @param accessor en-têtes de la trame (session, receipt).
+   */
+  @MessageMapping("/game/{gameId}/play")
+  public void playCard(@DestinationVariable String gameId, @Payload PlayCardRequest request,
+                       StompHeaderAccessor accessor) {
+    reply(gameId, accessor, gameService.tryPlayCard(gameId, request.getExpectedVersion(),
+            request.getPlayerId(), request.getCardId(), request.getChosenColor()));
+  }
+
+  /**
+   * Pioche volontairement une carte, comme {@code POST /api/games/{gameId}/draw}.
+   *
+   * @param gameId   id de la partie.
+   * @param request  requête contenant l'identifiant du joueur.
+   * @param accessor en-têtes de la trame (session, receipt).
+   */
+  @MessageMapping("/game/{gameId}/draw")
+  public void chooseToDraw(@DestinationVariable String gameId, @Payload DrawCardRequest request,
+                           StompHeaderAccessor accessor) {
+    reply(gameId, accessor, gameService.tryChooseToDraw(gameId, request.getExpectedVersion(), request.getPlayerId()));
+  }
+
+  /**
+   * Déclenche un Uno ou un Contre-Uno, comme {@code POST /api/games/{gameId}/uno}.
+   *
+   * @param gameId   id de la partie.
+   * @param request  requête contenant l'identifiant du joueur.
+   * @param accessor en-têtes de la trame (session, receipt).
+   */
+  @MessageMapping("/game/{gameId}/uno")
+  public void callUno(@DestinationVariable String gameId, @Payload DrawCardRequest request,
+                      StompHeaderAccessor accessor) {
+    reply(gameId, accessor, gameService.tryCallUno(gameId, request.getExpectedVersion(), request.getPlayerId()));
+  }
+
+  /**
+   * Vote pour relancer la partie, comme {@code POST /api/games/{gameId}/rematch}.
+   *
+   * @param gameId   id de la partie.
+   * @param request  requête contenant l'identifiant du joueur.
+   * @param accessor en-têtes de la trame (session, receipt).
+   */
+  @MessageMapping("/game/{gameId}/rematch")
+  public void voteRematch(@DestinationVariable String gameId, @Payload DrawCardRequest request,
+                          StompHeaderAccessor accessor) {
+    reply(gameId, accessor, gameService.tryVoteRematch(gameId, request.getExpectedVersion(), request.getPlayerId()));
+  }
+
+  /**
+   * Refuse une trame illisible (corps absent ou JSON invalide) sans fermer la connexion.
+   *
+   * @param e        erreur de conversion ou de traitement.
+   * @param accessor en-têtes de la trame (session, receipt).
+   */
+  @MessageExceptionHandler
+  public void handleInvalidRequest(Exception e, StompHeaderAccessor accessor) {
+    sendError(accessor, CommandErrorDTO.builder()
+            .receiptId(accessor.getReceipt())
+            .code("INVALID_REQUEST")
+            .message("Requête invalide : " + e.getClass().getSimpleName())
+            .build());
+  }
+
+  private void reply(String gameId, StompHeaderAccessor accessor, CommandResult result) {
+    if (!result.isOk()) {
+      sendError(accessor, CommandErrorDTO.builder()
+              .receiptId(accessor.getReceipt())
+              .code(result.getCode().name())
+              .message(result.getMessage())
+              .currentVersion(result.getCurrentVersion() >= 0 ? result.getCurrentVersion() : null)
+              .build());
+      return;
+    }
+
+    Game game = gameService.findGame(gameId);
+    if (game != null) // la partie a pu être supprimée par l'action
+      broadcaster.markDirty(game);
+    sendReceipt(accessor);
+  }
+
+  private void sendReceipt(StompHeaderAccessor accessor) {
+    String receipt = accessor.getReceipt();
+    if (receipt == null || accessor.getSessionId() == null)
+      return;
+    StompHeaderAccessor headers = StompHeaderAccessor.create(StompCommand.RECEIPT);
+    headers.setReceiptId(receipt);
+    headers.setSessionId(accessor.getSessionId());
+    clientOutboundChannel.send(MessageBuilder.createMessage(new byte[0], headers.getMessageHeaders()));
+  }
+
+  private void sendError(StompHeaderAccessor accessor, CommandErrorDTO error) {
+    String sessionId = accessor.getSessionId();
+    if (sessionId == null)
+      return;
+    // sans utilisateur authentifié, la session tient lieu d'utilisateur : /user/{sessionId}/queue/errors
+    SimpMessageHeaderAccessor headers = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+    headers.setSessionId(sessionId);
+    headers.setLeaveMutable(true);
+    messagingTemplate.convertAndSendToUser(sessionId, ERRORS_DESTINATION, error, headers.getMessageHeaders());
+  }
+}
@@ -1,21 +1,29 @@
 package fr.upjv.uno.controller;
 
+import fr.upjv.uno.dto.GameStateBinaryEncoder;
+import fr.upjv.uno.dto.GameStateMapper;
 import fr.upjv.uno.dto.request.*;
-import fr.upjv.uno.dto.response.CardDTO;
 import fr.upjv.uno.dto.response.GameStateDTO;
-import fr.upjv.uno.dto.response.PlayerDTO;
-import fr.upjv.uno.model.Card;
 import fr.upjv.uno.model.Game;
+import fr.upjv.uno.model.GameSnapshot;
 import fr.upjv.uno.model.Player;
+import fr.upjv.uno.service.CommandResult;
+import fr.upjv.uno.service.GameBroadcaster;
 import fr.upjv.uno.service.GameService;
+import fr.upjv.uno.util.NamedThreadFactory;
+import jakarta.annotation.PreDestroy;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
-import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Controller;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.async.DeferredResult;
 
-import java.util.List;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 // TODO: Client pouvoir annuler le choix d'une couleur quand on joue un joker ou +4
 // TODO: Client doit bloquer quand on rejoint directement via le lien et non par le menu
@@ -27,8 +35,18 @@ import java.util.stream.Collectors;
  * Contrôleur REST gérant les requêtes liées aux parties de Uno.
  * <p>
  * Création, join et le déroulement du jeu.
- * Utilise {@link org.springframework.messaging.simp.SimpMessagingTemplate} pour diffuser
- * l'état de la partie en temps réel via WebSockets de manière sécurisée (mains adverses masquées).
+ * Utilise {@link GameBroadcaster} pour diffuser l'état de la partie en temps réel via WebSockets
+ * de manière sécurisée (mains adverses masquées), en regroupant les changements rapprochés.
+ * </p>
+ * <p>
+ * Chaque action et sa diffusion forment une seule commande déposée dans la file de la partie
+ * ({@link GameService#execute}), la requête attend son application avant de répondre.
+ * Les actions de jeu peuvent préciser {@code expectedVersion} : une action basée sur un état
+ * périmé est refusée avec 409 Conflict.
+ * </p>
+ * <p>
+ * Les réponses et diffusions sont construites à partir de la photographie immuable
+ * de la partie ({@link GameSnapshot}) : les lectures ne passent pas par la file.
  * </p>
  */
 
@@ -36,21 +54,35 @@ import java.util.stream.Collectors;
 @RequestMapping("/api/games")
 @Controller
 public class GameController {
+  /** Attente maximale d'une requête de long polling sur l'état, en millisecondes. */
+  static final long MAX_WAIT_MILLIS = 30_000;
+
   private final GameService gameService;
-  private final SimpMessagingTemplate messagingTemplate;
+  private final GameBroadcaster broadcaster;
+  /** Construit les réponses des requêtes en attente, hors de la file de la partie qui publie le changement. */
+  private final ExecutorService pollPool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+          new NamedThreadFactory("game-poll-"));
 
   /**
    * Controller gérant les requêtes liées aux parties de Uno.
    *
-   * @param gameService       service Uno.
-   * @param messagingTemplate template de message.
+   * @param gameService service Uno.
+   * @param broadcaster diffuseur de l'état des parties.
    */
-  public GameController(GameService gameService, SimpMessagingTemplate messagingTemplate) {
+  public GameController(GameService gameService, GameBroadcaster broadcaster) {
     this.gameService = gameService;
-    this.messagingTemplate = messagingTemplate;
+    this.broadcaster = broadcaster;
     gameService.setBroadcastCallback(this::broadcastGameState);
   }
 
+  /**
+   * Arrête le pool des requêtes en attente à l'extinction du serveur.
+   */
+  @PreDestroy
+  public void shutdown() {
+    pollPool.shutdown();
+  }
+
   @GetMapping("/ping")
   public ResponseEntity<Void> ping() {
     return ResponseEntity.ok().build();
@@ -65,7 +97,7 @@ public class GameController {
   @PostMapping("/create")
   public ResponseEntity<GameStateDTO> createGame(@RequestBody CreateGameRequest request) {
     Game game = gameService.createGame(request.getMaxPlayers(), request.getGameMode());
-    return ResponseEntity.ok(mapToGameStateDTO(game, null));
+    return ResponseEntity.ok(GameStateMapper.toDto(game.getSnapshot(), null));
   }
 
   /**
@@ -80,13 +112,13 @@ public class GameController {
   public ResponseEntity<?> joinGame(@PathVariable String gameId, @RequestBody JoinGameRequest request) {
     String cleanName = request.getPlayerName() != null ? request.getPlayerName().trim() : "Anonyme";
     Player newPlayer = new Player(UUID.randomUUID().toString(), cleanName);
-    try {
-      Game game = gameService.joinGame(gameId, newPlayer);
-      broadcastGameState(game);
-      return ResponseEntity.ok(mapToGameStateDTO(game, newPlayer.getId()));
-    } catch (IllegalArgumentException e) {
-      return ResponseEntity.badRequest().body(e.getMessage());
-    }
+    CommandResult result = gameService.tryJoinGame(gameId, newPlayer);
+    Game game = gameService.findGame(gameId);
+    if (!result.isOk() || game == null)
+      return ResponseEntity.status(toStatus(result)).body(result.getMessage());
+
+    broadcastGameState(game);
+    return ResponseEntity.ok(GameStateMapper.toDto(game.getSnapshot(), newPlayer.getId()));
   }
 
   /**
@@ -98,10 +130,10 @@ public class GameController {
   @PostMapping("/{gameId}/start")
   public ResponseEntity<Void> startGame(@PathVariable String gameId) {
     try {
-      gameService.startGame(gameId);
-
-      Game game = gameService.getGame(gameId);
-      broadcastGameState(game);
+      gameService.execute(gameId, game -> {
+        gameService.startGame(gameId);
+        broadcastGameState(game);
+      });
 
       return ResponseEntity.ok().build();
     } catch (IllegalArgumentException e) {
@@ -118,10 +150,10 @@ public class GameController {
   @PostMapping("/{gameId}/restart")
   public ResponseEntity<Void> restartGame(@PathVariable String gameId) {
     try {
-      gameService.restartGame(gameId);
-
-      Game game = gameService.getGame(gameId);
-      broadcastGameState(game);
+      gameService.execute(gameId, game -> {
+        gameService.restartGame(gameId);
+        broadcastGameState(game);
+      });
 
       return ResponseEntity.ok().build();
     } catch (IllegalArgumentException e) {
@@ -139,14 +171,12 @@ public class GameController {
   @PostMapping("/{gameId}/leave")
   public ResponseEntity<Void> leaveGame(@PathVariable String gameId, @RequestBody LeaveGameRequest request) {
     try {
-      gameService.leaveGame(gameId, request.getPlayerId());
-
-      try {
-        Game game = gameService.getGame(gameId);
-        broadcastGameState(game);
-      } catch (IllegalArgumentException e) {
-        // La partie a été delete car le dernier joueur est parti.
-      }
+      gameService.execute(gameId, game -> {
+        gameService.leaveGame(gameId, request.getPlayerId());
+        // La partie a pu être supprimée car le dernier joueur est parti.
+        if (game.getPlayersNumber() > 0)
+          broadcastGameState(game);
+      });
 
       return ResponseEntity.ok().build();
     } catch (IllegalArgumentException e) {
@@ -160,20 +190,13 @@ public class GameController {
    *
    * @param gameId  id de la partie.
    * @param request action du joueur.
-   * @return OK si action valide, BadRequest sinon.
+   * @return OK si action valide, NotFound si la partie ou le joueur est introuvable,
+   * Conflict si l'état est périmé, BadRequest sinon.
    */
   @PostMapping("/{gameId}/play")
   public ResponseEntity<Void> playCard(@PathVariable String gameId, @RequestBody PlayCardRequest request) {
-
-    try {
-      gameService.playCard(gameId, request.getPlayerId(), request.getCardId(), request.getChosenColor());
-      Game game = gameService.getGame(gameId);
-      broadcastGameState(game);
-      return ResponseEntity.ok().build();
-
-    } catch (IllegalArgumentException e) {
-      return ResponseEntity.badRequest().build();
-    }
+    return respond(gameId, gameService.tryPlayCard(gameId, request.getExpectedVersion(),
+            request.getPlayerId(), request.getCardId(), request.getChosenColor()));
   }
 
   /**
@@ -181,20 +204,12 @@ public class GameController {
    *
    * @param gameId  Identifiant de la partie.
    * @param request On réutilise DrawCardRequest car elle contient juste un playerId.
-   * @return OK si action valide, BadRequest sinon.
+   * @return OK si action valide, NotFound si la partie ou le joueur est introuvable,
+   * Conflict si l'état est périmé, BadRequest sinon.
    */
   @PostMapping("/{gameId}/uno")
   public ResponseEntity<Void> callUno(@PathVariable String gameId, @RequestBody DrawCardRequest request) {
-    try {
-      gameService.callUno(gameId, request.getPlayerId());
-
-      Game game = gameService.getGame(gameId);
-      broadcastGameState(game);
-
-      return ResponseEntity.ok().build();
-    } catch (Exception e) {
-      return ResponseEntity.badRequest().build();
-    }
+    return respond(gameId, gameService.tryCallUno(gameId, request.getExpectedVersion(), request.getPlayerId()));
   }
 
 
@@ -203,36 +218,100 @@ public class GameController {
    *
    * @param gameId  Identifiant de la partie.
    * @param request Requête contenant l'identifiant du joueur.
-   * @return OK si l'action est valide, BadRequest sinon.
+   * @return OK si l'action est valide, NotFound si la partie ou le joueur est introuvable,
+   * Conflict si l'état est périmé, BadRequest sinon.
    */
   @PostMapping("/{gameId}/draw")
   public ResponseEntity<Void> chooseToDraw(@PathVariable String gameId, @RequestBody DrawCardRequest request) {
-    try {
-      gameService.chooseToDraw(gameId, request.getPlayerId());
+    return respond(gameId, gameService.tryChooseToDraw(gameId, request.getExpectedVersion(), request.getPlayerId()));
+  }
 
-      Game game = gameService.getGame(gameId);
-      broadcastGameState(game);
+  /**
+   * Retourne l'état courant de la partie pour un joueur donné (utilisé par le polling frontend).
+   * <p>
+   * La réponse porte un ETag tiré de la version de la partie : si le client le renvoie dans
+   * {@code If-None-Match} et que rien n'a changé, la réponse est un 304, sans recalculer l'état.
+   * </p>
+   *
+   * @param gameId      Identifiant de la partie.
+   * @param playerId    Identifiant du joueur.
+   * @param ifNoneMatch ETag de l'état déjà connu du client, s'il y en a un.
+   * @return GameStateDTO filtré pour ce joueur, ou 304 s'il n'a pas changé.
+   */
+  @GetMapping("/{gameId}/state/{playerId}")
+  public ResponseEntity<GameStateDTO> getGameState(
+          @PathVariable String gameId,
+          @PathVariable String playerId,
+          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+    try {
+      return stateResponse(gameService.getSnapshot(gameId), playerId, ifNoneMatch);
+    } catch (IllegalArgumentException e) {
+      return ResponseEntity.notFound().build();
+    }
+  }
 
-      return ResponseEntity.ok().build();
+  /**
+   * Variante « long polling » de {@link #getGameState} : si l'état connu du client ({@code If-None-Match})
+   * est toujours l'état courant, la requête est mise en attente, sans bloquer de thread, jusqu'au prochain
+   * changement de la partie ou au bout de {@code waitMs} millisecondes (304).
+   *
+   * @param gameId      Identifiant de la partie.
+   * @param playerId    Identifiant du joueur.
+   * @param waitMs      Attente maximale, en millisecondes (plafonnée à {@value #MAX_WAIT_MILLIS}).
+   * @param ifNoneMatch ETag de l'état déjà connu du client, s'il y en a un.
+   * @return GameStateDTO filtré pour ce joueur, ou 304 si rien n'a changé pendant l'attente.
+   */
+  @GetMapping(value = "/{gameId}/state/{playerId}", params = "waitMs")
+  public DeferredResult<ResponseEntity<GameStateDTO>> waitForGameState(
+          @PathVariable String gameId,
+          @PathVariable String playerId,
+          @RequestParam long waitMs,
+          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+    long timeout = Math.max(0, Math.min(waitMs, MAX_WAIT_MILLIS));
+    DeferredResult<ResponseEntity<GameStateDTO>> result =
+            new DeferredResult<>(timeout, ResponseEntity.status(HttpStatus.NOT_MODIFIED).build());
+    try {
+      // lu avant la photographie : un changement entre les deux lectures réveille quand même la requête
+      CompletableFuture<GameSnapshot> next = gameService.nextSnapshot(gameId);
+      GameSnapshot snapshot = gameService.getSnapshot(gameId);
+      if (timeout == 0 || !matches(ifNoneMatch, etag(snapshot, false))) {
+        next.cancel(false);
+        result.setResult(stateResponse(snapshot, playerId, ifNoneMatch));
+        return result;
+      }
+      // délai écoulé, client parti ou réponse envoyée : la partie oublie l'attente
+      result.onCompletion(() -> next.cancel(false));
+      // la photographie est publiée depuis la file de la partie : l'état est calculé sur le pool dédié
+      next.thenAcceptAsync(changed -> result.setResult(stateResponse(changed, playerId, null)), pollPool);
     } catch (IllegalArgumentException e) {
-      return ResponseEntity.badRequest().build();
+      result.setResult(ResponseEntity.notFound().build());
     }
+    return result;
   }
 
   /**
-   * Retourne l'état courant de la partie pour un joueur donné (utilisé par le polling frontend).
+   * Variante binaire de {@link #getGameState}, choisie quand le client envoie
+   * {@code Accept: application/x-uno-state}.
    *
-   * @param gameId   Identifiant de la partie.
-   * @param playerId Identifiant du joueur.
-   * @return GameStateDTO filtré pour ce joueur.
+   * @param gameId      Identifiant de la partie.
+   * @param playerId    Identifiant du joueur.
+   * @param ifNoneMatch ETag de l'état déjà connu du client, s'il y en a un.
+   * @return l'état filtré pour ce joueur, au format {@link GameStateBinaryEncoder}, ou 304 s'il n'a pas changé.
    */
-  @GetMapping("/{gameId}/state/{playerId}")
-  public ResponseEntity<GameStateDTO> getGameState(
+  @GetMapping(value = "/{gameId}/state/{playerId}", produces = GameStateBinaryEncoder.MEDIA_TYPE)
+  public ResponseEntity<byte[]> getGameStateBinary(
           @PathVariable String gameId,
-          @PathVariable String playerId) {
+          @PathVariable String playerId,
+          @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
     try {
-      Game game = gameService.getGame(gameId);
-      return ResponseEntity.ok(mapToGameStateDTO(game, playerId));
+      GameSnapshot snapshot = gameService.getSnapshot(gameId);
+      String etag = etag(snapshot, true);
+      if (matches(ifNoneMatch, etag))
+        return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+      return ResponseEntity.ok()
+              .eTag(etag)
+              .contentType(MediaType.parseMediaType(GameStateBinaryEncoder.MEDIA_TYPE))
+              .body(GameStateBinaryEncoder.encodeFull(GameStateMapper.toDto(snapshot, playerId)));
     } catch (IllegalArgumentException e) {
       return ResponseEntity.notFound().build();
     }
@@ -262,72 +341,60 @@ public class GameController {
    *
    * @param gameId  Identifiant de la partie.
    * @param request Requête contenant l'identifiant du joueur.
-   * @return OK si le vote est pris en compte, BadRequest sinon.
+   * @return OK si le vote est pris en compte, NotFound si la partie est introuvable,
+   * Conflict si l'état est périmé, BadRequest sinon.
    */
   @PostMapping("/{gameId}/rematch")
   public ResponseEntity<Void> voteRematch(@PathVariable String gameId, @RequestBody DrawCardRequest request) {
-    try {
-      gameService.voteRematch(gameId, request.getPlayerId());
+    // On diffuse immédiatement la progression du vote
+    return respond(gameId, gameService.tryVoteRematch(gameId, request.getExpectedVersion(), request.getPlayerId()));
+  }
 
-      Game game = gameService.getGame(gameId);
-      broadcastGameState(game); // On diffuse immédiatement la progression du vote
+  /**
+   * Diffuse l'état si l'action a été acceptée, puis traduit son résultat en réponse HTTP.
+   */
+  private ResponseEntity<Void> respond(String gameId, CommandResult result) {
+    if (!result.isOk())
+      return ResponseEntity.status(toStatus(result)).build();
 
-      return ResponseEntity.ok().build();
-    } catch (IllegalArgumentException | IllegalStateException e) {
-      return ResponseEntity.badRequest().build();
-    }
+    Game game = gameService.findGame(gameId);
+    if (game != null) // la partie a pu être supprimée par l'action
+      broadcastGameState(game);
+    return ResponseEntity.ok().build();
   }
 
-  private void broadcastGameState(Game game) {
-    for (Player player : game.getPlayers()) {
-      messagingTemplate.convertAndSend(
-              "/topic/game/" + game.getId() + "/" + player.getId(),
-              mapToGameStateDTO(game, player.getId())
-      );
-    }
+  private static ResponseEntity<GameStateDTO> stateResponse(GameSnapshot snapshot, String playerId, String ifNoneMatch) {
+    String etag = etag(snapshot, false);
+    if (matches(ifNoneMatch, etag))
+      return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+    return ResponseEntity.ok().eTag(etag).body(GameStateMapper.toDto(snapshot, playerId));
   }
 
-  private GameStateDTO mapToGameStateDTO(Game game, String targetPlayerId) {
-    List<PlayerDTO> playerDTOs = game.getPlayers().stream()
-            .map(p -> PlayerDTO.builder()
-                    .id(p.getId())
-                    .name(p.getName())
-                    .isConnected(p.isConnected())
-                    .handSize(p.getHandSize())
-                    .isUnoCalled(p.isUnoCalled())
-                    .score(p.getScore())
-                    .build())
-            .collect(Collectors.toList());
-
-    List<CardDTO> myHand = null;
-    if (targetPlayerId != null) {
-      Player targetPlayer = game.findPlayerById(targetPlayerId);
-      if (targetPlayer != null) {
-        myHand = targetPlayer.getCards().stream()
-                .map(c -> new CardDTO(c.getId(), c.getColor(), c.getValue()))
-                .collect(Collectors.toList());
-      }
-    }
+  /**
+   * @return l'ETag d'une photographie : la version de la partie, incrémentée par chaque commande
+   * qui publie une photographie (coups des bots compris).
+   */
+  private static String etag(GameSnapshot snapshot, boolean binary) {
+    return "\"" + snapshot.getStateVersion() + (binary ? "b" : "") + "\"";
+  }
 
-    CardDTO topCardDTO = null;
-    Card topCard = game.getTopCard();
-    if (topCard != null) {
-      topCardDTO = new CardDTO(topCard.getId(), topCard.getColor(), topCard.getValue());
-    }
+  private static boolean matches(String ifNoneMatch, String etag) {
+    return ifNoneMatch != null && (ifNoneMatch.contains(etag) || ifNoneMatch.trim().equals("*"));
+  }
 
-    return GameStateDTO.builder()
-            .gameId(game.getId())
-            .status(game.getStatus())
-            .direction(game.getDirection())
-            .activeColor(game.getActiveColor())
-            .topCard(topCardDTO)
-            .deckSize(game.getDeck().getSize())
-            .currentPlayerIndex(game.getCurrentPlayerIndex())
-            .players(playerDTOs)
-            .myHand(myHand)
-            .rematchVotes(game.getRematchVoteCount())
-            .rematchNeeded(game.getHumanPlayerCount())
-            .rematchExpired(game.isRematchExpired())
-            .build();
+  /**
+   * @return le statut HTTP correspondant au résultat d'une action.
+   */
+  private static HttpStatus toStatus(CommandResult result) {
+    return switch (result.getCode()) {
+      case OK -> HttpStatus.OK;
+      case GAME_NOT_FOUND, PLAYER_NOT_FOUND -> HttpStatus.NOT_FOUND;
+      case STALE_STATE -> HttpStatus.CONFLICT;
+      default -> HttpStatus.BAD_REQUEST;
+    };
+  }
+
+  private void broadcastGameState(Game game) {
+    broadcaster.markDirty(game);
   }
 }
@@ -0,0 +1,279 @@
+package fr.upjv.uno.dto;
+
+import fr.upjv.uno.dto.response.CardDTO;
+import fr.upjv.uno.dto.response.GameStateDTO;
+import fr.upjv.uno.dto.response.GameStateDeltaDTO;
+import fr.upjv.uno.dto.response.HandDTO;
+import fr.upjv.uno.dto.response.PlayerDTO;
+import fr.upjv.uno.dto.response.PlayerDeltaDTO;
+import fr.upjv.uno.model.GameSnapshot;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Encodage binaire compact des messages d'état, proposé en option à la place du JSON.
+ * <p>
+ * Les entiers positifs sont des varints (7 bits par octet, bit de poids fort = suite), les chaînes
+ * sont préfixées par leur longueur en varint (UTF-8). Une carte tient en deux octets : son identifiant
+ * (varint, inférieur à 128 dans un paquet standard) puis {@code couleur * 15 + valeur}.
+ * Un identifiant de joueur au format UUID tient en 17 octets au lieu de 38.
+ * </p>
+ * <p>
+ * L'état public (partie privée vide) est diffusé à tous les joueurs, et la main de chaque joueur
+ * lui est envoyée à part ; l'état d'un joueur renvoyé par l'API REST ajoute sa main à la fin.
+ * </p>
+ * <pre>
+ * État complet : u8 1, varint stateVersion, string gameId, u8 status, s8 direction, u8 activeColor,
+ *                u8 topCard présente puis card, varint deckSize, u8 currentPlayerIndex,
+ *                u8 rematchVotes, u8 rematchNeeded, u8 drapeaux (1 = rematchExpired),
+ *                u8 nombre de joueurs puis pour chacun : id, string name,
+ *                u8 drapeaux (1 = connected, 2 = unoCalled), varint handSize, varint score
+ *   main       : u8 présente puis varint nombre de cartes et les cartes
+ * Patch        : u8 2, varint baseVersion, varint stateVersion, varint masque des champs présents
+ *                (1 status, 2 direction, 4 activeColor, 8 topCard, 16 currentPlayerIndex, 32 deckSize,
+ *                64 rematchVotes, 128 rematchNeeded, 256 rematchExpired, 512 players), les champs
+ *                dans cet ordre ; players : u8 nombre puis u8 position du joueur, u8 masque
+ *                (1 connected, 2 handSize, 4 unoCalled, 8 score) et les valeurs présentes
+ *   main       : u8 masque (1 handAdded, 2 handRemoved), varint nombre et cartes ajoutées,
+ *                varint nombre et identifiants retirés
+ * Main         : u8 3, varint stateVersion, varint nombre de cartes et les cartes
+ * id           : u8 1 puis 16 octets si UUID, u8 0 puis string sinon
+ * Énumérations : rang dans l'énumération, 255 pour {@code null}.
+ * </pre>
+ */
+public final class GameStateBinaryEncoder {
+  /** Type MIME du format binaire. */
+  public static final String MEDIA_TYPE = "application/x-uno-state";
+
+  private static final int KIND_FULL = 1;
+  private static final int KIND_DELTA = 2;
+  private static final int KIND_HAND = 3;
+  /** Partie privée vide : pas de main, ou main inchangée dans un patch. */
+  private static final byte[] NO_HAND = {0};
+  private static final int NULL_ORDINAL = 0xFF;
+  private static final int VALUES = 15;
+
+  private GameStateBinaryEncoder() {
+  }
+
+  /**
+   * @param snapshot photographie à diffuser.
+   * @return l'état public complet, sans aucune main.
+   */
+  public static byte[] encodeFull(GameSnapshot snapshot) {
+    return concat(encodeFullPublic(GameStateMapper.toDto(snapshot, null)), NO_HAND);
+  }
+
+  /**
+   * @param base     photographie déjà diffusée, vérifiant {@link GameStateMapper#canDelta}.
+   * @param snapshot photographie à diffuser.
+   * @return le patch public, sans changement de main.
+   */
+  public static byte[] encodeDelta(GameSnapshot base, GameSnapshot snapshot) {
+    List<String> playerIds = snapshot.getPlayers().stream().map(GameSnapshot.PlayerSnapshot::getId).toList();
+    return concat(encodeDeltaPublic(GameStateMapper.toDelta(base, snapshot, null), playerIds), NO_HAND);
+  }
+
+  /**
+   * @param hand main complète d'un joueur, avec sa version.
+   * @return le message privé du joueur.
+   */
+  public static byte[] encodeHand(HandDTO hand) {
+    Output out = new Output(4 + hand.getMyHand().size() * 2);
+    out.write(KIND_HAND);
+    out.varint(hand.getStateVersion());
+    out.cards(hand.getMyHand());
+    return out.toByteArray();
+  }
+
+  /**
+   * @param state état complet, main comprise.
+   * @return le message complet.
+   */
+  public static byte[] encodeFull(GameStateDTO state) {
+    return concat(encodeFullPublic(state), encodeFullHand(state.getMyHand()));
+  }
+
+  private static byte[] encodeFullPublic(GameStateDTO state) {
+    Output out = new Output(64 + state.getPlayers().size() * 40);
+    out.write(KIND_FULL);
+    out.varint(state.getStateVersion());
+    out.string(state.getGameId());
+    out.ordinal(state.getStatus());
+    out.write(state.getDirection());
+    out.ordinal(state.getActiveColor());
+    out.write(state.getTopCard() != null ? 1 : 0);
+    if (state.getTopCard() != null)
+      out.card(state.getTopCard());
+    out.varint(state.getDeckSize());
+    out.write(state.getCurrentPlayerIndex());
+    out.write(state.getRematchVotes());
+    out.write(state.getRematchNeeded());
+    out.write(state.isRematchExpired() ? 1 : 0);
+    out.write(state.getPlayers().size());
+    for (PlayerDTO player : state.getPlayers()) {
+      out.id(player.getId());
+      out.string(player.getName());
+      out.write((player.isConnected() ? 1 : 0) | (player.isUnoCalled() ? 2 : 0));
+      out.varint(player.getHandSize());
+      out.varint(player.getScore());
+    }
+    return out.toByteArray();
+  }
+
+  private static byte[] encodeFullHand(List<CardDTO> myHand) {
+    if (myHand == null)
+      return NO_HAND;
+    Output out = new Output(2 + myHand.size() * 2);
+    out.write(1);
+    out.cards(myHand);
+    return out.toByteArray();
+  }
+
+  private static byte[] encodeDeltaPublic(GameStateDeltaDTO delta, List<String> playerIds) {
+    int mask = (delta.getStatus() != null ? 1 : 0)
+            | (delta.getDirection() != null ? 2 : 0)
+            | (delta.getActiveColor() != null ? 4 : 0)
+            | (delta.getTopCard() != null ? 8 : 0)
+            | (delta.getCurrentPlayerIndex() != null ? 16 : 0)
+            | (delta.getDeckSize() != null ? 32 : 0)
+            | (delta.getRematchVotes() != null ? 64 : 0)
+            | (delta.getRematchNeeded() != null ? 128 : 0)
+            | (delta.getRematchExpired() != null ? 256 : 0)
+            | (delta.getPlayers() != null ? 512 : 0);
+
+    Output out = new Output(32);
+    out.write(KIND_DELTA);
+    out.varint(delta.getBaseVersion());
+    out.varint(delta.getStateVersion());
+    out.varint(mask);
+    if (delta.getStatus() != null)
+      out.ordinal(delta.getStatus());
+    if (delta.getDirection() != null)
+      out.write(delta.getDirection());
+    if (delta.getActiveColor() != null)
+      out.ordinal(delta.getActiveColor());
+    if (delta.getTopCard() != null)
+      out.card(delta.getTopCard());
+    if (delta.getCurrentPlayerIndex() != null)
+      out.write(delta.getCurrentPlayerIndex());
+    if (delta.getDeckSize() != null)
+      out.varint(delta.getDeckSize());
+    if (delta.getRematchVotes() != null)
+      out.write(delta.getRematchVotes());
+    if (delta.getRematchNeeded() != null)
+      out.write(delta.getRematchNeeded());
+    if (delta.getRematchExpired() != null)
+      out.write(delta.getRematchExpired() ? 1 : 0);
+    if (delta.getPlayers() != null) {
+      out.write(delta.getPlayers().size());
+      for (PlayerDeltaDTO player : delta.getPlayers()) {
+        out.write(playerIds.indexOf(player.getId()));
+        out.write((player.getConnected() != null ? 1 : 0)
+                | (player.getHandSize() != null ? 2 : 0)
+                | (player.getUnoCalled() != null ? 4 : 0)
+                | (player.getScore() != null ? 8 : 0));
+        if (player.getConnected() != null)
+          out.write(player.getConnected() ? 1 : 0);
+        if (player.getHandSize() != null)
+          out.varint(player.getHandSize());
+        if (player.getUnoCalled() != null)
+          out.write(player.getUnoCalled() ? 1 : 0);
+        if (player.getScore() != null)
+          out.varint(player.getScore());
+      }
+    }
+    return out.toByteArray();
+  }
+
+  private static byte[] encodeDeltaHand(HandDTO hand) {
+    List<CardDTO> added = hand.getHandAdded();
+    List<Integer> removed = hand.getHandRemoved();
+    Output out = new Output(8);
+    out.write((added != null ? 1 : 0) | (removed != null ? 2 : 0));
+    if (added != null)
+      out.cards(added);
+    if (removed != null) {
+      out.varint(removed.size());
+      for (int id : removed)
+        out.varint(id);
+    }
+    return out.toByteArray();
+  }
+
+  private static byte[] concat(byte[] head, byte[] tail) {
+    byte[] out = new byte[head.length + tail.length];
+    System.arraycopy(head, 0, out, 0, head.length);
+    System.arraycopy(tail, 0, out, head.length, tail.length);
+    return out;
+  }
+
+  /**
+   * Tampon d'écriture, sans les exceptions vérifiées de {@link java.io.DataOutputStream}.
+   */
+  private static final class Output extends ByteArrayOutputStream {
+
+    private Output(int size) {
+      super(size);
+    }
+
+    private void varint(long value) {
+      while ((value & ~0x7FL) != 0) {
+        write((int) ((value & 0x7F) | 0x80));
+        value >>>= 7;
+      }
+      write((int) value);
+    }
+
+    private void string(String value) {
+      byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+      varint(bytes.length);
+      write(bytes, 0, bytes.length);
+    }
+
+    private void ordinal(Enum<?> value) {
+      write(value != null ? value.ordinal() : NULL_ORDINAL);
+    }
+
+    private void card(CardDTO card) {
+      varint(card.getId());
+      write(card.getColor().ordinal() * VALUES + card.getValue().ordinal());
+    }
+
+    private void cards(List<CardDTO> cards) {
+      varint(cards.size());
+      for (CardDTO card : cards)
+        card(card);
+    }
+
+    private void id(String id) {
+      UUID uuid = parseUuid(id);
+      if (uuid == null) {
+        write(0);
+        string(id);
+        return;
+      }
+      write(1);
+      long most = uuid.getMostSignificantBits();
+      long least = uuid.getLeastSignificantBits();
+      for (int shift = 56; shift >= 0; shift -= 8)
+        write((int) (most >>> shift));
+      for (int shift = 56; shift >= 0; shift -= 8)
+        write((int) (least >>> shift));
+    }
+
+    private static UUID parseUuid(String id) {
+      if (id.length() != 36 || id.charAt(8) != '-' || id.charAt(13) != '-')
+        return null;
+      try {
+        UUID uuid = UUID.fromString(id);
+        return uuid.toString().equals(id) ? uuid : null; // refuse les écritures non canoniques
+      } catch (IllegalArgumentException e) {
+        return null;
+      }
+    }
+  }
+}
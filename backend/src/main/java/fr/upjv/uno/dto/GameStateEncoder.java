@@ -0,0 +1,55 @@
+package fr.upjv.uno.dto;
+
+import fr.upjv.uno.dto.response.HandDTO;
+import fr.upjv.uno.model.GameSnapshot;
+import tools.jackson.databind.json.JsonMapper;
+
+/**
+ * Encode en JSON les messages d'une diffusion : l'état public, commun à tous les joueurs,
+ * et la main de chaque joueur ({@link HandDTO}), envoyée à part quand elle change.
+ * <p>
+ * L'état public est encodé une seule fois par diffusion, puis distribué par le broker à tous les abonnés
+ * du topic de la partie. Le coût d'une diffusion dépend donc du nombre de mains modifiées,
+ * et non plus du nombre de joueurs.
+ * </p>
+ * <p>
+ * Mesuré à 10 joueurs de 7 cartes (benchmark de {@code GameStateEncoderTest}) : environ 33 Ko alloués par
+ * diffusion avec un état complet par joueur, 16 Ko avec l'état public partagé et toutes les mains, 2 Ko
+ * pour un patch où une seule main change.
+ * </p>
+ */
+public final class GameStateEncoder {
+  private final JsonMapper jsonMapper;
+
+  /**
+   * @param jsonMapper mapper JSON de l'application.
+   */
+  public GameStateEncoder(JsonMapper jsonMapper) {
+    this.jsonMapper = jsonMapper;
+  }
+
+  /**
+   * @param snapshot photographie à diffuser.
+   * @return l'état public complet, sans aucune main.
+   */
+  public byte[] encodeFull(GameSnapshot snapshot) {
+    return jsonMapper.writeValueAsBytes(GameStateMapper.toDto(snapshot, null));
+  }
+
+  /**
+   * @param base     photographie déjà diffusée, vérifiant {@link GameStateMapper#canDelta}.
+   * @param snapshot photographie à diffuser.
+   * @return le patch public, sans changement de main.
+   */
+  public byte[] encodeDelta(GameSnapshot base, GameSnapshot snapshot) {
+    return jsonMapper.writeValueAsBytes(GameStateMapper.toDelta(base, snapshot, null));
+  }
+
+  /**
+   * @param hand main complète d'un joueur, avec sa version.
+   * @return le message privé du joueur.
+   */
+  public byte[] encodeHand(HandDTO hand) {
+    return jsonMapper.writeValueAsBytes(hand);
+  }
+}
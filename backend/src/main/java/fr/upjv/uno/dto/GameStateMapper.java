@@ -0,0 +1,215 @@
+package fr.upjv.uno.dto;
+
+import fr.upjv.uno.dto.response.CardDTO;
+import fr.upjv.uno.dto.response.GameStateDTO;
+import fr.upjv.uno.dto.response.GameStateDeltaDTO;
+import fr.upjv.uno.dto.response.HandDTO;
+import fr.upjv.uno.dto.response.PlayerDTO;
+import fr.upjv.uno.dto.response.PlayerDeltaDTO;
+import fr.upjv.uno.model.Card;
+import fr.upjv.uno.model.GameSnapshot;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Convertit la photographie d'une partie en DTO, filtré pour un joueur (mains adverses masquées) :
+ * état complet ou différence entre deux photographies.
+ */
+public final class GameStateMapper {
+
+  private GameStateMapper() {
+  }
+
+  /**
+   * @param snapshot       photographie de la partie.
+   * @param targetPlayerId joueur destinataire, {@code null} pour n'inclure aucune main.
+   * @return l'état de la partie vu par ce joueur.
+   */
+  public static GameStateDTO toDto(GameSnapshot snapshot, String targetPlayerId) {
+    List<PlayerDTO> playerDTOs = snapshot.getPlayers().stream()
+            .map(GameStateMapper::toDto)
+            .collect(Collectors.toList());
+
+    List<CardDTO> myHand = null;
+    if (targetPlayerId != null) {
+      GameSnapshot.PlayerSnapshot targetPlayer = snapshot.findPlayerById(targetPlayerId);
+      if (targetPlayer != null)
+        myHand = toHand(targetPlayer).getMyHand();
+    }
+
+    Card topCard = snapshot.getTopCard();
+    CardDTO topCardDTO = topCard != null ? toDto(topCard) : null;
+
+    return GameStateDTO.builder()
+            .gameId(snapshot.getGameId())
+            .stateVersion(snapshot.getStateVersion())
+            .status(snapshot.getStatus())
+            .direction(snapshot.getDirection())
+            .activeColor(snapshot.getActiveColor())
+            .topCard(topCardDTO)
+            .deckSize(snapshot.getDeckSize())
+            .currentPlayerIndex(snapshot.getCurrentPlayerIndex())
+            .players(playerDTOs)
+            .myHand(myHand)
+            .rematchVotes(snapshot.getRematchVotes())
+            .rematchNeeded(snapshot.getRematchNeeded())
+            .rematchExpired(snapshot.isRematchExpired())
+            .build();
+  }
+
+  /**
+   * Indique si {@link #toDelta} peut décrire le passage de {@code base} à {@code snapshot} :
+   * même partie et mêmes joueurs, dans le même ordre.
+   *
+   * @param base     photographie déjà connue des clients, peut être {@code null}.
+   * @param snapshot photographie à diffuser.
+   * @return {@code true} si un patch suffit, {@code false} s'il faut envoyer l'état complet.
+   */
+  public static boolean canDelta(GameSnapshot base, GameSnapshot snapshot) {
+    if (base == null || !base.getGameId().equals(snapshot.getGameId()))
+      return false;
+    List<GameSnapshot.PlayerSnapshot> before = base.getPlayers();
+    List<GameSnapshot.PlayerSnapshot> after = snapshot.getPlayers();
+    if (before.size() != after.size())
+      return false;
+    for (int i = 0; i < before.size(); i++) {
+      if (!before.get(i).getId().equals(after.get(i).getId()))
+        return false;
+    }
+    return true;
+  }
+
+  /**
+   * Calcule les changements de {@code base} à {@code snapshot} vus par un joueur.
+   * Les deux photographies doivent vérifier {@link #canDelta}.
+   *
+   * @param base           photographie déjà connue du joueur.
+   * @param snapshot       photographie à diffuser.
+   * @param targetPlayerId joueur destinataire.
+   * @return le patch à appliquer à l'état de version {@code base.getStateVersion()}.
+   */
+  public static GameStateDeltaDTO toDelta(GameSnapshot base, GameSnapshot snapshot, String targetPlayerId) {
+    GameStateDeltaDTO.GameStateDeltaDTOBuilder delta = GameStateDeltaDTO.builder()
+            .baseVersion(base.getStateVersion())
+            .stateVersion(snapshot.getStateVersion());
+
+    if (base.getStatus() != snapshot.getStatus())
+      delta.status(snapshot.getStatus());
+    if (base.getDirection() != snapshot.getDirection())
+      delta.direction(snapshot.getDirection());
+    if (base.getActiveColor() != snapshot.getActiveColor())
+      delta.activeColor(snapshot.getActiveColor());
+    if (!Objects.equals(base.getTopCard(), snapshot.getTopCard()) && snapshot.getTopCard() != null)
+      delta.topCard(toDto(snapshot.getTopCard()));
+    if (base.getCurrentPlayerIndex() != snapshot.getCurrentPlayerIndex())
+      delta.currentPlayerIndex(snapshot.getCurrentPlayerIndex());
+    if (base.getDeckSize() != snapshot.getDeckSize())
+      delta.deckSize(snapshot.getDeckSize());
+    if (base.getRematchVotes() != snapshot.getRematchVotes())
+      delta.rematchVotes(snapshot.getRematchVotes());
+    if (base.getRematchNeeded() != snapshot.getRematchNeeded())
+      delta.rematchNeeded(snapshot.getRematchNeeded());
+    if (base.isRematchExpired() != snapshot.isRematchExpired())
+      delta.rematchExpired(snapshot.isRematchExpired());
+
+    List<PlayerDeltaDTO> changedPlayers = new ArrayList<>();
+    GameSnapshot.PlayerSnapshot myBefore = null;
+    GameSnapshot.PlayerSnapshot myAfter = null;
+    for (int i = 0; i < snapshot.getPlayers().size(); i++) {
+      GameSnapshot.PlayerSnapshot before = base.getPlayers().get(i);
+      GameSnapshot.PlayerSnapshot after = snapshot.getPlayers().get(i);
+      PlayerDeltaDTO playerDelta = toDelta(before, after);
+      if (playerDelta != null)
+        changedPlayers.add(playerDelta);
+      if (after.getId().equals(targetPlayerId)) {
+        myBefore = before;
+        myAfter = after;
+      }
+    }
+    if (!changedPlayers.isEmpty())
+      delta.players(changedPlayers);
+
+    if (myAfter != null) {
+      HandDTO hand = toHandDelta(myBefore, myAfter);
+      delta.handAdded(hand.getHandAdded()).handRemoved(hand.getHandRemoved());
+    }
+    return delta.build();
+  }
+
+  /**
+   * @param player joueur destinataire.
+   * @return la main complète du joueur.
+   */
+  public static HandDTO toHand(GameSnapshot.PlayerSnapshot player) {
+    return HandDTO.builder()
+            .myHand(player.getCards().stream().map(GameStateMapper::toDto).collect(Collectors.toList()))
+            .build();
+  }
+
+  /**
+   * @param before joueur dans la photographie de base.
+   * @param after  même joueur dans la photographie à diffuser.
+   * @return les cartes arrivées et sorties de la main (champs {@code null} si aucune).
+   */
+  public static HandDTO toHandDelta(GameSnapshot.PlayerSnapshot before, GameSnapshot.PlayerSnapshot after) {
+    Set<Integer> beforeIds = new HashSet<>();
+    for (Card card : before.getCards())
+      beforeIds.add(card.getId());
+
+    List<CardDTO> added = new ArrayList<>();
+    for (Card card : after.getCards()) {
+      if (!beforeIds.remove(card.getId()))
+        added.add(toDto(card));
+    }
+    return HandDTO.builder()
+            .handAdded(added.isEmpty() ? null : added)
+            .handRemoved(beforeIds.isEmpty() ? null : new ArrayList<>(beforeIds))
+            .build();
+  }
+
+  /**
+   * @return les changements publics du joueur, {@code null} s'il n'y en a aucun.
+   * Le nom n'est pas comparé : il ne change pas tant que le joueur reste dans la partie.
+   */
+  private static PlayerDeltaDTO toDelta(GameSnapshot.PlayerSnapshot before, GameSnapshot.PlayerSnapshot after) {
+    PlayerDeltaDTO.PlayerDeltaDTOBuilder delta = PlayerDeltaDTO.builder().id(after.getId());
+    boolean changed = false;
+    if (before.isConnected() != after.isConnected()) {
+      delta.connected(after.isConnected());
+      changed = true;
+    }
+    if (before.getHandSize() != after.getHandSize()) {
+      delta.handSize(after.getHandSize());
+      changed = true;
+    }
+    if (before.isUnoCalled() != after.isUnoCalled()) {
+      delta.unoCalled(after.isUnoCalled());
+      changed = true;
+    }
+    if (before.getScore() != after.getScore()) {
+      delta.score(after.getScore());
+      changed = true;
+    }
+    return changed ? delta.build() : null;
+  }
+
+  private static PlayerDTO toDto(GameSnapshot.PlayerSnapshot player) {
+    return PlayerDTO.builder()
+            .id(player.getId())
+            .name(player.getName())
+            .isConnected(player.isConnected())
+            .handSize(player.getHandSize())
+            .isUnoCalled(player.isUnoCalled())
+            .score(player.getScore())
+            .build();
+  }
+
+  private static CardDTO toDto(Card card) {
+    return new CardDTO(card.getId(), card.getColor(), card.getValue());
+  }
+}
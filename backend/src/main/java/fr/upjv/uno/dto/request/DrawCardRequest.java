@@ -8,4 +8,5 @@ import lombok.Data;
 @Data
 public class DrawCardRequest {
   private String playerId;
+  private Long expectedVersion; // optionnel : refus si la partie a changé depuis
 }
\ No newline at end of file
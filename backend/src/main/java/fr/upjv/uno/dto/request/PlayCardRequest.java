@@ -11,5 +11,6 @@ public class PlayCardRequest {
   private String playerId;
   private int cardId;
   private Color chosenColor; // pour les Jokers
+  private Long expectedVersion; // optionnel : refus si la partie a changé depuis
 
 }
@@ -0,0 +1,21 @@
+package fr.upjv.uno.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Refus d'une action envoyée par WebSocket, adressé à la seule session qui l'a envoyée.
+ * {@code receiptId} reprend l'en-tête {@code receipt} de la trame refusée, pour que le client retrouve son action.
+ */
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class CommandErrorDTO {
+  private String receiptId;
+  /** Nom d'un {@link fr.upjv.uno.service.CommandResult.Code}, ou {@code INVALID_REQUEST} si la trame est illisible. */
+  private String code;
+  private String message;
+  /** Version actuelle de la partie, pour un refus {@code STALE_STATE}. */
+  private Long currentVersion;
+}
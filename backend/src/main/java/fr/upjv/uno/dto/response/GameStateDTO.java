@@ -1,5 +1,6 @@
 package fr.upjv.uno.dto.response;
 
+import com.fasterxml.jackson.annotation.JsonInclude;
 import fr.upjv.uno.model.enums.Color;
 import fr.upjv.uno.model.enums.GameStatus;
 import lombok.Builder;
@@ -15,6 +16,8 @@ import java.util.List;
 @Builder
 public class GameStateDTO {
   private String gameId;
+  /** Version de l'état, à renvoyer dans {@code expectedVersion} des actions. */
+  private long stateVersion;
   private GameStatus status;
   private int direction;
   private Color activeColor;
@@ -27,6 +30,7 @@ public class GameStateDTO {
   private int rematchNeeded;
   private boolean rematchExpired;
 
-  /** Cartes possédées par le joueur qui reçoit ce DTO. */
+  /** Cartes possédées par le joueur qui reçoit ce DTO, omises si aucun destinataire. */
+  @JsonInclude(JsonInclude.Include.NON_NULL)
   private List<CardDTO> myHand;
 }
\ No newline at end of file
@@ -0,0 +1,46 @@
+package fr.upjv.uno.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import fr.upjv.uno.model.enums.Color;
+import fr.upjv.uno.model.enums.GameStatus;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Représente les changements de l'état d'une partie depuis la version {@code baseVersion}.
+ * <p>
+ * Seuls les champs modifiés sont renseignés (les autres sont omis du JSON) ; la partie est donnée
+ * par le topic. Le client applique le
+ * patch à son état s'il est à la version {@code baseVersion}, sinon il redemande l'état complet.
+ * </p>
+ */
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class GameStateDeltaDTO {
+  /** Version à laquelle le patch s'applique. */
+  private long baseVersion;
+  /** Version obtenue après application du patch. */
+  private long stateVersion;
+
+  private GameStatus status;
+  private Integer direction;
+  private Color activeColor;
+  private CardDTO topCard;
+  private Integer currentPlayerIndex;
+  private Integer deckSize;
+
+  /** Joueurs dont les informations publiques ont changé. */
+  private List<PlayerDeltaDTO> players;
+
+  private Integer rematchVotes;
+  private Integer rematchNeeded;
+  private Boolean rematchExpired;
+
+  /** Cartes arrivées dans la main du destinataire. */
+  private List<CardDTO> handAdded;
+  /** Identifiants des cartes sorties de la main du destinataire. */
+  private List<Integer> handRemoved;
+}
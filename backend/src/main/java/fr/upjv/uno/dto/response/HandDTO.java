@@ -0,0 +1,22 @@
+package fr.upjv.uno.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Main d'un joueur, complète ({@code myHand}) ou sous forme de différence ({@code handAdded}, {@code handRemoved}).
+ * La main complète est aussi le message privé envoyé à un joueur quand elle change, à part de l'état public.
+ */
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class HandDTO {
+  /** Version de l'état de la partie à laquelle correspond cette main (message privé uniquement). */
+  private Long stateVersion;
+  private List<CardDTO> myHand;
+  private List<CardDTO> handAdded;
+  private List<Integer> handRemoved;
+}
@@ -0,0 +1,20 @@
+package fr.upjv.uno.dto.response;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * Représente les changements des informations publiques d'un joueur dans un {@link GameStateDeltaDTO}.
+ * Seuls l'identifiant et les champs modifiés sont renseignés, sous les mêmes noms JSON que {@link PlayerDTO}.
+ */
+@Data
+@Builder
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class PlayerDeltaDTO {
+  private String id;
+  private Boolean connected;
+  private Integer handSize;
+  private Boolean unoCalled;
+  private Integer score;
+}
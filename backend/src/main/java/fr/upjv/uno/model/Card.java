@@ -3,20 +3,79 @@ package fr.upjv.uno.model;
 import fr.upjv.uno.model.enums.Color;
 import fr.upjv.uno.model.enums.Value;
 import lombok.AllArgsConstructor;
-import lombok.Data;
-import lombok.NoArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.ToString;
+
+import java.util.ArrayList;
+import java.util.List;
 
 /**
  * Représente une carte du jeu UNO.
- *
+ * <p>
+ * Une carte est immuable. Les 108 cartes du jeu standard sont créées une seule fois et partagées par toutes
+ * les parties ({@link #standardDeck()}) : leur identifiant vaut leur position dans la table (couleur, puis
+ * valeur, puis exemplaire) + 1. Deux cartes sont égales si elles ont le même identifiant.
+ * </p>
+ * <p>
+ * Le constructeur reste public : une carte peut porter n'importe quel identifiant, y compris hors du jeu
+ * standard. Les cartes sont donc toujours retrouvées et encodées par leur identifiant complet
+ * ({@link Hand#find(int)}, varint du format binaire), jamais par un code d'un octet, qui ne les distinguerait plus.
+ * </p>
  */
-@Data
-@NoArgsConstructor
+@Getter
+@ToString
+@EqualsAndHashCode(onlyExplicitlyIncluded = true)
 @AllArgsConstructor
 public class Card {
-  private int id;
-  private Color color;
-  private Value value;
+  /** Nombre de cartes du jeu standard. */
+  public static final int STANDARD_DECK_SIZE = 108;
+
+  /** Cartes du jeu standard, indexées par leur code. */
+  private static final Card[] STANDARD = createStandardCards();
+  private static final List<Card> STANDARD_DECK = List.of(STANDARD);
+
+  @EqualsAndHashCode.Include
+  private final int id;
+  private final Color color;
+  private final Value value;
+
+  /**
+   * Construit la table du jeu standard, dans l'ordre des codes.
+   * <p>Pour chaque couleur principale : 1 carte 0, puis 2 exemplaires de chaque chiffre de 1 à 9,
+   * de +2, SKIP et REVERSE. Suivent les 4 Joker et les 4 +4.</p>
+   */
+  private static Card[] createStandardCards() {
+    List<Card> cards = new ArrayList<>(STANDARD_DECK_SIZE);
+    Color[] mainColors = {Color.RED, Color.GREEN, Color.BLUE, Color.YELLOW};
+
+    for (Color mainColor : mainColors) {
+      cards.add(new Card(cards.size() + 1, mainColor, Value.ZERO));
+
+      for (Value value : Value.values()) {
+        if (value == Value.ZERO || value == Value.WILD || value == Value.WILD_DRAW_FOUR)
+          continue;
+
+        for (int i = 0; i < 2; i++)
+          cards.add(new Card(cards.size() + 1, mainColor, value));
+      }
+    }
+
+    for (int i = 0; i < 4; i++) // joker
+      cards.add(new Card(cards.size() + 1, Color.BLACK, Value.WILD));
+
+    for (int i = 0; i < 4; i++) // +4
+      cards.add(new Card(cards.size() + 1, Color.BLACK, Value.WILD_DRAW_FOUR));
+
+    return cards.toArray(new Card[0]);
+  }
+
+  /**
+   * @return les 108 cartes du jeu standard, partagées et non modifiables, dans l'ordre des codes.
+   */
+  public static List<Card> standardDeck() {
+    return STANDARD_DECK;
+  }
 
   /**
    * Indique si cette carte peut être jouée sur la carte visible au sommet de la défausse.
@@ -41,4 +100,3 @@ public class Card {
     return value.getPoints();
   }
 }
-
@@ -2,6 +2,8 @@ package fr.upjv.uno.model;
 
 import fr.upjv.uno.model.enums.Color;
 import fr.upjv.uno.model.enums.GameStatus;
+import fr.upjv.uno.util.GameMailbox;
+import fr.upjv.uno.util.HashedWheelTimer;
 import lombok.AccessLevel;
 import lombok.EqualsAndHashCode;
 import lombok.Getter;
@@ -10,7 +12,10 @@ import lombok.Setter;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Représente l'état d'une partie de Uno.
@@ -22,7 +27,7 @@ public class Game {
   private final String id;
 
   @Setter
-  private GameStatus status;
+  private volatile GameStatus status; // lu sans passer par la file lors des réservations de place
 
   private int direction; // = 1 si sens horaire, -1 si anti-horaire
 
@@ -37,6 +42,10 @@ public class Game {
 
   private final int maxPlayers;
 
+  /** Places de la salle d'attente, réservées sans verrou avant d'entrer dans la file. */
+  @Getter(AccessLevel.NONE)
+  private final LobbySeats seats;
+
   @Setter
   private Color activeColor;
 
@@ -45,6 +54,38 @@ public class Game {
   @Setter
   private boolean rematchExpired = false;
 
+  /** Version de l'état, incrémentée à chaque commande validée. */
+  @Getter(AccessLevel.NONE)
+  private final AtomicLong stateVersion = new AtomicLong();
+
+  /** Dernière activité d'un joueur ({@link System#nanoTime()}), pour le registre des parties. */
+  private volatile long lastActivity = System.nanoTime();
+
+  /** La partie a quitté le registre : plus rien ne doit lui être diffusé. */
+  private volatile boolean removed;
+
+  /** Une diffusion de l'état est déjà prévue (voir GameBroadcaster). */
+  @Getter(AccessLevel.NONE)
+  private final AtomicBoolean broadcastPending = new AtomicBoolean(false);
+
+  /** Dernier état diffusé aux joueurs, base des patchs suivants. Lu et écrit dans la file de commandes. */
+  @Getter(AccessLevel.NONE)
+  private GameSnapshot lastBroadcast;
+
+  /** Dernier état publié, seule source des lectures hors file de commandes. */
+  private volatile GameSnapshot snapshot;
+
+  /** Clients qui attendent la prochaine publication ; chacun est oublié dès qu'il est complété ou annulé. */
+  @Getter(AccessLevel.NONE)
+  private final Set<CompletableFuture<GameSnapshot>> snapshotWaiters = ConcurrentHashMap.newKeySet();
+
+  /** File de commandes : toute mutation de la partie passe par elle (voir GameService#execute). */
+  private final GameMailbox mailbox = new GameMailbox();
+
+  /** Tâches planifiées non échues (tour de bot, délais de revanche), annulées à la suppression. */
+  @Getter(AccessLevel.NONE)
+  private final Set<HashedWheelTimer.Timeout> pendingTimers = ConcurrentHashMap.newKeySet();
+
   /**
    * @param id          Identifiant unique de la partie.
    * @param deck        Pioche à associer à la partie.
@@ -60,6 +101,112 @@ public class Game {
     this.deck = deck;
     this.discardPile = discardPile;
     this.maxPlayers = maxPlayers;
+    this.seats = new LobbySeats(maxPlayers);
+    publishSnapshot();
+  }
+
+  /**
+   * Note une activité d'un joueur sur la partie.
+   */
+  public void touch() {
+    lastActivity = System.nanoTime();
+  }
+
+  /**
+   * Indique que la partie a quitté le registre (suppression ou éviction).
+   */
+  public void markRemoved() {
+    removed = true;
+  }
+
+  /**
+   * Marque la partie comme « à diffuser ».
+   *
+   * @return {@code true} si aucune diffusion n'était encore prévue, {@code false} sinon.
+   */
+  public boolean markBroadcastPending() {
+    return broadcastPending.compareAndSet(false, true);
+  }
+
+  /**
+   * Indique que la diffusion prévue commence : les prochains changements en demanderont une nouvelle.
+   */
+  public void clearBroadcastPending() {
+    broadcastPending.set(false);
+  }
+
+  /**
+   * Publie une photographie immuable de l'état courant.
+   * Appelée depuis la file de commandes, après une mutation.
+   *
+   * @return la photographie publiée.
+   */
+  public GameSnapshot publishSnapshot() {
+    GameSnapshot published = GameSnapshot.of(this);
+    snapshot = published;
+    for (CompletableFuture<GameSnapshot> waiter : snapshotWaiters)
+      waiter.complete(published);
+    return published;
+  }
+
+  /**
+   * À lire avant {@link #getSnapshot()} : une publication entre les deux lectures complète alors
+   * le résultat, elle ne peut pas passer inaperçue.
+   *
+   * @return un futur complété par la prochaine photographie publiée. L'annuler quand on n'attend plus,
+   *         pour que la partie l'oublie sans attendre la publication suivante.
+   */
+  public CompletableFuture<GameSnapshot> nextSnapshot() {
+    CompletableFuture<GameSnapshot> waiter = new CompletableFuture<>();
+    snapshotWaiters.add(waiter);
+    waiter.whenComplete((published, e) -> snapshotWaiters.remove(waiter));
+    return waiter;
+  }
+
+  /**
+   * @return le nombre de clients qui attendent la prochaine publication.
+   */
+  int getSnapshotWaiterCount() {
+    return snapshotWaiters.size();
+  }
+
+  /**
+   * Retient la photographie diffusée aux joueurs. Appelée depuis la file de commandes.
+   *
+   * @param broadcast photographie en cours de diffusion.
+   * @return la photographie diffusée précédemment, {@code null} si aucune.
+   */
+  public GameSnapshot swapLastBroadcast(GameSnapshot broadcast) {
+    GameSnapshot previous = lastBroadcast;
+    lastBroadcast = broadcast;
+    return previous;
+  }
+
+  /**
+   * @return la version courante de l'état de la partie.
+   */
+  public long getStateVersion() {
+    return stateVersion.get();
+  }
+
+  /**
+   * Passe de la version {@code base} à {@code base + 1} avant d'appliquer une commande,
+   * afin que l'état diffusé pendant la commande porte déjà sa nouvelle version.
+   *
+   * @param base version attendue.
+   * @return {@code true} si la partie était bien à la version {@code base}, {@code false} sinon.
+   */
+  public boolean commitVersion(long base) {
+    return stateVersion.compareAndSet(base, base + 1);
+  }
+
+  /**
+   * Annule {@link #commitVersion(long)} quand la commande a été refusée.
+   *
+   * @param committed version obtenue par {@link #commitVersion(long)}.
+   */
+  public void rollbackVersion(long committed) {
+    stateVersion.compareAndSet(committed, committed - 1);
   }
 
   /**
@@ -77,15 +224,87 @@ public class Game {
     currentPlayerIndex = (currentPlayerIndex + direction + playersNumber) % playersNumber;
   }
 
+  /**
+   * Réserve une place dans la salle d'attente, sans verrou.
+   * <p>
+   * Peut être appelée hors de la file de commandes : la salle ne peut jamais déborder
+   * et deux joueurs ne peuvent pas prendre le même nom.
+   * </p>
+   *
+   * @param player joueur qui souhaite rejoindre, ne doit pas être {@code null}.
+   * @throws IllegalArgumentException si {@code player} est {@code null} ou si son nom est déjà pris.
+   * @throws IllegalStateException    si la partie n'est plus en phase d'attente
+   *                                  ou si le nombre maximal de joueurs est atteint.
+   */
+  public void reserveSeat(Player player) {
+    if (player == null)
+      throw new IllegalArgumentException("Erreur: aucun joueur à ajouter");
+    if (status != GameStatus.WAITING_FOR_PLAYERS)
+      throw new IllegalStateException("Impossible de rejoindre : partie en cours");
+    seats.reserve(player);
+  }
+
+  /**
+   * Comme {@link #reserveSeat(Player)}, mais renvoie la raison d'un refus au lieu de lever une exception.
+   *
+   * @param player joueur qui souhaite rejoindre, ne doit pas être {@code null}.
+   * @return {@link LobbySeats.Reservation#RESERVED}, ou la raison du refus.
+   */
+  public LobbySeats.Reservation tryReserveSeat(Player player) {
+    if (status != GameStatus.WAITING_FOR_PLAYERS)
+      return LobbySeats.Reservation.GAME_STARTED;
+    return seats.tryReserve(player);
+  }
+
+  /**
+   * Libère la place réservée par un joueur (join refusé ou joueur parti du lobby).
+   *
+   * @param player joueur concerné.
+   */
+  public void releaseSeat(Player player) {
+    seats.release(player);
+  }
+
+  /**
+   * Compte les joueurs inscrits, pas les places réservées : une inscription encore dans la file
+   * ne compte pas, puisqu'elle sera refusée si la partie démarre avant elle.
+   *
+   * @return {@code true} si la table n'est pas complète.
+   */
+  public boolean hasFreeSeat() {
+    return players.size() < maxPlayers;
+  }
+
+  /**
+   * Inscrit un bot qui complète la table au démarrage de la partie.
+   * <p>
+   * Le bot prend une place de la salle s'il en reste une. Sinon, les places restantes sont tenues par des
+   * inscriptions encore dans la file, qui seront refusées puisque la partie démarre : le bot est inscrit
+   * sans place.
+   * </p>
+   *
+   * @param bot bot à ajouter.
+   * @throws IllegalStateException si la partie n'est plus en phase d'attente ou si la table est complète.
+   */
+  public void addFillerBot(AIPlayer bot) {
+    if (status != GameStatus.WAITING_FOR_PLAYERS)
+      throw new IllegalStateException("Impossible de rejoindre : partie en cours");
+    if (!hasFreeSeat())
+      throw new IllegalStateException("Impossible de rejoindre : la table est complète");
+
+    seats.tryReserve(bot);
+    players.add(bot);
+  }
+
   /**
    * Inscrit un nouveau joueur dans la partie.
    * <p>
    * Cette méthode vérifie que la partie est dans un état permettant de recevoir des joueurs
-   * et que la capacité maximale n'est pas encore atteinte.
+   * et réserve sa place si ce n'est pas déjà fait ({@link #reserveSeat(Player)}).
    * </p>
    *
    * @param player le joueur à ajouter à la liste des participants, ne doit pas être {@code null}.
-   * @throws IllegalArgumentException si le paramètre {@code player} est {@code null}.
+   * @throws IllegalArgumentException si le paramètre {@code player} est {@code null} ou si son nom est déjà pris.
    * @throws IllegalStateException    si la partie n'est plus en phase d'attente
    *                                  ou si le nombre maximal de joueurs est atteint.
    */
@@ -94,8 +313,8 @@ public class Game {
       throw new IllegalArgumentException("Erreur: aucun joueur à ajouter");
     if (status != GameStatus.WAITING_FOR_PLAYERS)
       throw new IllegalStateException("Impossible de rejoindre : partie en cours");
-    if (getPlayersNumber() >= maxPlayers)
-      throw new IllegalStateException("Impossible de rejoindre : la salle d'attente est pleine");
+    if (!seats.holds(player))
+      seats.reserve(player);
 
     players.add(player);
   }
@@ -108,9 +327,13 @@ public class Game {
    * @return {@code true} s'il est supprimé, {@code false} sinon.
    */
   public boolean removePlayer(Player player) {
-    if (status == GameStatus.WAITING_FOR_PLAYERS)
-      return players.remove(player);
-    return false;
+    if (status != GameStatus.WAITING_FOR_PLAYERS)
+      return false;
+    int idx = players.indexOf(player);
+    if (idx < 0)
+      return false;
+    seats.release(players.remove(idx));
+    return true;
   }
 
   /**
@@ -264,4 +487,31 @@ public class Game {
     return count;
   }
 
+  /**
+   * Rattache une tâche planifiée à la partie.
+   * @param timeout handle de la tâche.
+   */
+  public void addTimer(HashedWheelTimer.Timeout timeout) {
+    pendingTimers.add(timeout);
+  }
+
+  /**
+   * Détache une tâche planifiée (déclenchée ou annulée).
+   * @param timeout handle de la tâche, ignoré si {@code null}.
+   */
+  public void removeTimer(HashedWheelTimer.Timeout timeout) {
+    if (timeout != null)
+      pendingTimers.remove(timeout);
+  }
+
+  /**
+   * Détache et retourne toutes les tâches planifiées de la partie.
+   * @return les handles des tâches en attente.
+   */
+  public List<HashedWheelTimer.Timeout> drainTimers() {
+    List<HashedWheelTimer.Timeout> drained = new ArrayList<>(pendingTimers);
+    pendingTimers.removeAll(drained);
+    return drained;
+  }
+
 }
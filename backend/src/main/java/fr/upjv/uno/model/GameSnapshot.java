@@ -0,0 +1,101 @@
+package fr.upjv.uno.model;
+
+import fr.upjv.uno.model.enums.Color;
+import fr.upjv.uno.model.enums.GameStatus;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Photographie immuable de l'état d'une partie, publiée après chaque commande validée.
+ * <p>
+ * Les lectures (diffusion, polling, reconnexion) se font uniquement sur cette copie :
+ * elles ne bloquent jamais les commandes et ne voient jamais une action à moitié appliquée.
+ * Les cartes sont partagées avec la partie : elles ne sont jamais modifiées après leur création.
+ * </p>
+ */
+@Getter
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public final class GameSnapshot {
+  private final String gameId;
+  private final long stateVersion;
+  private final GameStatus status;
+  private final int direction;
+  private final Color activeColor;
+  private final Card topCard;
+  private final int deckSize;
+  private final int currentPlayerIndex;
+  private final List<PlayerSnapshot> players;
+  private final int rematchVotes;
+  private final int rematchNeeded;
+  private final boolean rematchExpired;
+
+  /**
+   * Copie l'état courant de la partie. Doit être appelée depuis la file de commandes de la partie.
+   *
+   * @param game partie à copier.
+   * @return la photographie de la partie.
+   */
+  static GameSnapshot of(Game game) {
+    List<PlayerSnapshot> players = new ArrayList<>(game.getPlayersNumber());
+    for (Player p : game.getPlayers()) {
+      players.add(new PlayerSnapshot(p.getId(), p.getName(), p.isConnected(), p instanceof AIPlayer,
+              p.isUnoCalled(), p.getScore(), List.copyOf(p.getCards())));
+    }
+
+    return new GameSnapshot(game.getId(), game.getStateVersion(), game.getStatus(), game.getDirection(),
+            game.getActiveColor(), game.getTopCard(), game.getDeck().getSize(), game.getCurrentPlayerIndex(),
+            List.copyOf(players), game.getRematchVoteCount(), game.getHumanPlayerCount(), game.isRematchExpired());
+  }
+
+  /**
+   * Cherche un joueur grâce à son identifiant.
+   *
+   * @param playerId Identifiant du joueur à chercher.
+   * @return le joueur s'il est trouvé, {@code null} sinon.
+   */
+  public PlayerSnapshot findPlayerById(String playerId) {
+    for (PlayerSnapshot player : players) {
+      if (player.getId().equals(playerId))
+        return player;
+    }
+    return null;
+  }
+
+  /**
+   * @return le nombre de joueurs humains (hors bots).
+   */
+  public int getHumanPlayerCount() {
+    int count = 0;
+    for (PlayerSnapshot player : players) {
+      if (!player.isBot())
+        count++;
+    }
+    return count;
+  }
+
+  /**
+   * Photographie immuable d'un joueur.
+   */
+  @Getter
+  @AllArgsConstructor(access = AccessLevel.PRIVATE)
+  public static final class PlayerSnapshot {
+    private final String id;
+    private final String name;
+    private final boolean connected;
+    private final boolean bot;
+    private final boolean unoCalled;
+    private final int score;
+    private final List<Card> cards;
+
+    /**
+     * @return nombre de cartes en main.
+     */
+    public int getHandSize() {
+      return cards.size();
+    }
+  }
+}
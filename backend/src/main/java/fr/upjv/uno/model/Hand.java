@@ -120,6 +120,43 @@ public class Hand {
     return cards.contains(card);
   }
 
+  /**
+   * Cherche une carte par son identifiant, sans copier la main.
+   * <p>Compare l'identifiant entier : une carte hors du jeu standard est trouvée comme les autres.</p>
+   *
+   * @param id identifiant de la carte.
+   * @return la carte, {@code null} si la main ne la contient pas.
+   */
+  public Card find(int id) {
+    for (Card card : cards) {
+      if (card.getId() == id)
+        return card;
+    }
+
+    return null;
+  }
+
+  /**
+   * @param id identifiant de la carte à chercher.
+   * @return {@code true} si la main contient la carte, {@code false} sinon.
+   */
+  public boolean contains(int id) {
+    return find(id) != null;
+  }
+
+  /**
+   * Supprime une carte de la main par son identifiant.
+   *
+   * @param id identifiant de la carte à supprimer.
+   * @return la carte supprimée, {@code null} si la main ne la contient pas.
+   */
+  public Card remove(int id) {
+    Card card = find(id);
+    if (card != null)
+      cards.remove(card);
+    return card;
+  }
+
   /**
    * Vide la main de ses cartes.
    */
@@ -0,0 +1,125 @@
+package fr.upjv.uno.model;
+
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * Places de la salle d'attente d'une partie, réservées sans verrou.
+ * <p>
+ * Un tableau fixe de {@code capacity} places, occupées par compare-and-set, et l'ensemble des noms
+ * déjà pris. Un compteur refuse en O(1) toute réservation au-delà de la capacité : même quand des
+ * dizaines de joueurs rejoignent en même temps, la salle ne peut jamais déborder et deux joueurs
+ * ne peuvent pas obtenir le même nom.
+ * </p>
+ * <p>
+ * Les noms des bots sont générés : ils occupent une place mais ne réservent pas leur nom.
+ * </p>
+ */
+public class LobbySeats {
+
+  /**
+   * Issue d'une demande de place.
+   */
+  public enum Reservation {
+    RESERVED,
+    NAME_TAKEN,
+    FULL,
+    /** La partie a commencé : renvoyé par {@link Game#tryReserveSeat}, jamais par la salle elle-même. */
+    GAME_STARTED
+  }
+
+  private final AtomicReferenceArray<Player> seats;
+  private final Set<String> names = ConcurrentHashMap.newKeySet();
+  private final AtomicInteger reserved = new AtomicInteger();
+
+  /**
+   * @param capacity nombre de places.
+   */
+  public LobbySeats(int capacity) {
+    this.seats = new AtomicReferenceArray<>(Math.max(0, capacity));
+  }
+
+  /**
+   * Réserve une place pour le joueur.
+   *
+   * @param player joueur à installer.
+   * @throws IllegalArgumentException si son nom est déjà pris (joueur humain).
+   * @throws IllegalStateException    si toutes les places sont prises.
+   */
+  public void reserve(Player player) {
+    switch (tryReserve(player)) {
+      case NAME_TAKEN -> throw new IllegalArgumentException("Le nom " + player.getName() + " n'est pas disponible");
+      case FULL -> throw new IllegalStateException("Impossible de rejoindre : la salle d'attente est pleine");
+      default -> {
+      }
+    }
+  }
+
+  /**
+   * Réserve une place pour le joueur, sans lever d'exception en cas de refus.
+   *
+   * @param player joueur à installer.
+   * @return {@link Reservation#RESERVED}, ou la raison du refus.
+   */
+  public Reservation tryReserve(Player player) {
+    boolean named = !(player instanceof AIPlayer);
+    String name = player.getName();
+    if (named && !names.add(name))
+      return Reservation.NAME_TAKEN;
+
+    int count = reserved.incrementAndGet();
+    if (count > seats.length()) {
+      reserved.decrementAndGet();
+      if (named)
+        names.remove(name);
+      return Reservation.FULL;
+    }
+
+    // le compteur garantit qu'une place est libre (ou en cours de libération) : on la cherche
+    // à partir de la place la plus probable
+    int length = seats.length();
+    for (int i = count - 1; ; i = (i + 1) % length) {
+      if (seats.get(i) == null && seats.compareAndSet(i, null, player))
+        return Reservation.RESERVED;
+    }
+  }
+
+  /**
+   * Libère la place occupée par le joueur et son nom.
+   *
+   * @param player joueur qui quitte la salle.
+   * @return {@code true} si le joueur occupait une place, {@code false} sinon.
+   */
+  public boolean release(Player player) {
+    for (int i = 0; i < seats.length(); i++) {
+      if (seats.get(i) == player && seats.compareAndSet(i, player, null)) {
+        if (!(player instanceof AIPlayer))
+          names.remove(player.getName());
+        reserved.decrementAndGet();
+        return true;
+      }
+    }
+    return false;
+  }
+
+  /**
+   * @param player joueur à chercher.
+   * @return {@code true} si ce joueur occupe une place.
+   */
+  public boolean holds(Player player) {
+    for (int i = 0; i < seats.length(); i++) {
+      if (seats.get(i) == player)
+        return true;
+    }
+    return false;
+  }
+
+  /**
+   * @return le nombre de places réservées.
+   */
+  public int getReservedCount() {
+    return Math.min(reserved.get(), seats.length());
+  }
+}
@@ -97,6 +97,16 @@ public class Player {
     return hand.contains(card);
   }
 
+  /**
+   * Cherche une carte de la main par son identifiant, sans copier la main.
+   *
+   * @param id identifiant de la carte.
+   * @return la carte, {@code null} si le joueur ne l'a pas.
+   */
+  public Card findCard(int id) {
+    return hand.find(id);
+  }
+
   /**
    * Getter sécurisé.
    *
@@ -0,0 +1,129 @@
+package fr.upjv.uno.service;
+
+/**
+ * Résultat d'une action de joueur : acceptée, ou refusée avec un code et un message.
+ * <p>
+ * Un clic invalide (pas son tour, carte injouable, double clic...) est fréquent : le refuser par un
+ * résultat plutôt que par une exception évite de capturer une pile d'appels à chaque fois.
+ * Les refus courants sont des constantes, sans allocation.
+ * </p>
+ */
+public final class CommandResult {
+
+  /**
+   * Raison d'un refus.
+   */
+  public enum Code {
+    OK(false),
+    GAME_NOT_FOUND(false),
+    PLAYER_NOT_FOUND(false),
+    NOT_YOUR_TURN(false),
+    CARD_NOT_FOUND(false),
+    COLOR_REQUIRED(false),
+    CARD_NOT_PLAYABLE(false),
+    NAME_TAKEN(false),
+    GAME_NOT_IN_PROGRESS(true),
+    GAME_NOT_FINISHED(true),
+    GAME_ALREADY_STARTED(true),
+    LOBBY_FULL(true),
+    STALE_STATE(true);
+
+    /** {@code true} si le refus tient à l'état de la partie plutôt qu'aux arguments. */
+    private final boolean stateError;
+
+    Code(boolean stateError) {
+      this.stateError = stateError;
+    }
+  }
+
+  private static final CommandResult OK = new CommandResult(Code.OK, null, -1, -1);
+
+  private final Code code;
+  private final String message;
+  private final long expectedVersion;
+  private final long currentVersion;
+
+  private CommandResult(Code code, String message, long expectedVersion, long currentVersion) {
+    this.code = code;
+    this.message = message;
+    this.expectedVersion = expectedVersion;
+    this.currentVersion = currentVersion;
+  }
+
+  /**
+   * @return le résultat d'une action acceptée.
+   */
+  public static CommandResult ok() {
+    return OK;
+  }
+
+  /**
+   * @param code    raison du refus.
+   * @param message message destiné au joueur.
+   * @return le résultat d'une action refusée.
+   */
+  public static CommandResult rejected(Code code, String message) {
+    return new CommandResult(code, message, -1, -1);
+  }
+
+  /**
+   * @param expectedVersion version sur laquelle le client s'est basé.
+   * @param currentVersion  version actuelle de la partie.
+   * @return le refus d'une action basée sur un état périmé.
+   */
+  public static CommandResult stale(long expectedVersion, long currentVersion) {
+    return new CommandResult(Code.STALE_STATE,
+            "État périmé : version " + expectedVersion + " attendue, version actuelle " + currentVersion,
+            expectedVersion, currentVersion);
+  }
+
+  /**
+   * @return {@code true} si l'action a été acceptée.
+   */
+  public boolean isOk() {
+    return code == Code.OK;
+  }
+
+  /**
+   * @return le code du résultat.
+   */
+  public Code getCode() {
+    return code;
+  }
+
+  /**
+   * @return le message du refus, {@code null} si l'action a été acceptée.
+   */
+  public String getMessage() {
+    return message;
+  }
+
+  /**
+   * @return la version actuelle de la partie lors d'un refus {@link Code#STALE_STATE}, -1 sinon.
+   */
+  public long getCurrentVersion() {
+    return currentVersion;
+  }
+
+  /**
+   * Convertit un refus en exception, pour les appelants qui préfèrent ce style.
+   *
+   * @throws StaleStateException      si l'état était périmé.
+   * @throws IllegalStateException    si l'état de la partie ne permet pas l'action.
+   * @throws IllegalArgumentException si les arguments de l'action sont invalides.
+   */
+  public void orThrow() {
+    if (code == Code.OK)
+      return;
+    if (code == Code.STALE_STATE)
+      throw new StaleStateException(expectedVersion, currentVersion);
+    if (code.stateError)
+      throw new IllegalStateException(message);
+    throw new IllegalArgumentException(message);
+  }
+
+  @Override
+  public String toString() {
+    return isOk() ? "OK" : code + " : " + message;
+  }
+}
@@ -0,0 +1,586 @@
+package fr.upjv.uno.service;
+
+import fr.upjv.uno.dto.GameStateBinaryEncoder;
+import fr.upjv.uno.dto.GameStateEncoder;
+import fr.upjv.uno.dto.GameStateMapper;
+import fr.upjv.uno.dto.response.GameStateDeltaDTO;
+import fr.upjv.uno.dto.response.HandDTO;
+import fr.upjv.uno.model.Game;
+import fr.upjv.uno.model.GameSnapshot;
+import fr.upjv.uno.util.KeyedSerialExecutor;
+import fr.upjv.uno.util.NamedThreadFactory;
+import fr.upjv.uno.util.ReplayBuffer;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.stereotype.Component;
+import org.springframework.util.MimeType;
+import org.springframework.util.MimeTypeUtils;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.util.Base64;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Diffuse l'état des parties aux joueurs, en regroupant les changements rapprochés.
+ * <p>
+ * Une demande de diffusion ne fait que marquer la partie comme « à diffuser ». La première demande
+ * planifie un envoi à la fin d'une courte fenêtre ({@code uno.broadcast.flush-window-ms}) ; les demandes
+ * suivantes dans cette fenêtre (coup du joueur, coup du bot, reconnexion...) sont absorbées.
+ * Au moment de l'envoi, la dernière photographie publiée est lue dans la file de commandes, donc après
+ * toutes les commandes déjà déposées : chaque joueur reçoit un seul état, le plus récent.
+ * </p>
+ * <p>
+ * Les envois d'une même partie partent dans l'ordre des photographies, quel que soit le thread qui a demandé
+ * la diffusion (requête, bot, déconnexion) : ils sont déposés, depuis la file de commandes de la partie, dans
+ * une file d'envoi propre à la partie ({@link KeyedSerialExecutor}). Les parties différentes sont envoyées
+ * en parallèle. Un client ne reçoit donc jamais l'état N+1 avant l'état N.
+ * </p>
+ * <p>
+ * L'état public est encodé une seule fois ({@link GameStateEncoder}) et envoyé au topic de la partie
+ * ({@link #publicTopic}), que le broker distribue à tous les abonnés. Chaque joueur reçoit en plus
+ * sa main, seulement quand elle a changé, sur une destination propre à sa session ({@link #HAND_DESTINATION},
+ * à laquelle le client s'abonne via {@link #HAND_SUBSCRIPTION}) : la main n'est envoyée qu'aux sessions
+ * enregistrées pour ce joueur ({@link #registerSession}), aucun autre abonné ne peut la recevoir.
+ * </p>
+ * <p>
+ * Chaque envoi ne contient que les changements depuis l'envoi précédent ({@link GameStateDeltaDTO}) ;
+ * l'état complet n'est envoyé qu'à la première diffusion ou quand la liste des joueurs change.
+ * Un client qui n'est pas à la version de base d'un patch redemande l'état complet.
+ * Les mains, petites, sont toujours envoyées complètes : un message privé perdu est rattrapé au suivant.
+ * </p>
+ * <p>
+ * Un client peut demander le format binaire compact ({@link GameStateBinaryEncoder}) à la connexion ;
+ * le JSON reste le format par défaut. L'état public binaire a son propre topic ({@link #binaryTopic}).
+ * SockJS ne transportant que du texte, les octets binaires sont envoyés en base64
+ * ({@link #BINARY_CONTENT_TYPE}).
+ * </p>
+ * <p>
+ * Chaque diffusion reçoit un numéro, propre à la partie et sans trou, porté par tous ses messages (en-tête
+ * STOMP {@link #SEQUENCE_HEADER}). Les dernières diffusions sont gardées dans un tampon circulaire
+ * ({@code uno.broadcast.replay-buffer-size}). Un client qui se réabonne après une coupure donne le dernier
+ * numéro reçu sur ce topic ({@link #resume}) : il reçoit seulement les changements manqués, en un patch,
+ * ou l'état complet si le tampon a été écrasé depuis.
+ * </p>
+ * <p>
+ * Le nombre de demandes absorbées est exposé via Micrometer ({@code uno.broadcast.coalesced}),
+ * ainsi que le nombre d'états complets, de patchs et de mains envoyés ({@code uno.broadcast.messages}),
+ * l'attente dans les files d'envoi ({@code uno.broadcast.queue.*}) et les reprises ({@code uno.broadcast.resumed}).
+ * </p>
+ */
+@Component
+public class GameBroadcaster implements MeterBinder {
+  /** Type de contenu des messages STOMP au format binaire. */
+  public static final MimeType BINARY_CONTENT_TYPE =
+          MimeType.valueOf(GameStateBinaryEncoder.MEDIA_TYPE + ";encoding=base64");
+  /** En-tête STOMP du numéro de diffusion d'un message. */
+  public static final String SEQUENCE_HEADER = "uno-seq";
+  /** Destination des mains, propre à chaque session. */
+  public static final String HAND_DESTINATION = "/queue/hand";
+  /** Destination à laquelle le client s'abonne pour recevoir sa main. */
+  public static final String HAND_SUBSCRIPTION = "/user" + HAND_DESTINATION;
+
+  /**
+   * Format des messages d'état reçus par un client.
+   */
+  public enum WireFormat {
+    JSON,
+    BINARY
+  }
+
+  private final SimpMessagingTemplate messagingTemplate;
+  private final MessageChannel clientOutboundChannel;
+  private final GameService gameService;
+  private final GameStateEncoder encoder;
+  private final long flushWindowMillis;
+  private final ScheduledExecutorService flushTimer;
+  private final ExecutorService sendPool;
+  /** Files d'envoi, une par partie. */
+  private final KeyedSerialExecutor outbound;
+  /**
+   * Dernières diffusions de chaque partie, modifiées et lues depuis sa file d'envoi.
+   * Créées à l'enregistrement de la partie, jamais par un envoi : un envoi tardif vers une partie
+   * supprimée ne peut pas les recréer.
+   */
+  private final Map<String, ReplayBuffer<Broadcast>> replays = new ConcurrentHashMap<>();
+  private final int replayBufferSize;
+  /** Format choisi par chaque joueur connecté en binaire (absent : JSON). */
+  private final Map<String, WireFormat> formatByPlayer = new ConcurrentHashMap<>();
+  /** Joueur et format de chaque session STOMP abonnée à sa main. */
+  private final Map<String, HandSession> handSessions = new ConcurrentHashMap<>();
+  /** Sessions abonnées à la main de chaque joueur. */
+  private final Map<String, Set<String>> sessionsByPlayer = new ConcurrentHashMap<>();
+
+  private final LongAdder requested = new LongAdder();
+  private final LongAdder coalesced = new LongAdder();
+  private final LongAdder flushed = new LongAdder();
+  private final LongAdder fullStates = new LongAdder();
+  private final LongAdder deltas = new LongAdder();
+  private final LongAdder hands = new LongAdder();
+  private final LongAdder replayed = new LongAdder();
+  private final LongAdder resynced = new LongAdder();
+
+  /**
+   * @param messagingTemplate     template d'envoi STOMP.
+   * @param clientOutboundChannel canal vers les sessions, pour rejouer les messages manqués à une seule session.
+   * @param gameService           service des parties : la photographie est lue depuis la file de la partie,
+   *                              sur son pool de commandes.
+   * @param jsonMapper            mapper JSON de l'application, pour encoder les messages.
+   * @param flushWindowMillis     fenêtre de regroupement, en millisecondes (0 : envoi dès que possible).
+   * @param threads               nombre de threads d'envoi.
+   * @param replayBufferSize      nombre de diffusions gardées par partie pour les reprises après coupure.
+   */
+  @Autowired
+  public GameBroadcaster(SimpMessagingTemplate messagingTemplate,
+                         @Qualifier("clientOutboundChannel") MessageChannel clientOutboundChannel,
+                         GameService gameService,
+                         JsonMapper jsonMapper,
+                         @Value("${uno.broadcast.flush-window-ms:15}") long flushWindowMillis,
+                         @Value("${uno.broadcast.threads:2}") int threads,
+                         @Value("${uno.broadcast.replay-buffer-size:64}") int replayBufferSize) {
+    this.messagingTemplate = messagingTemplate;
+    this.clientOutboundChannel = clientOutboundChannel;
+    this.gameService = gameService;
+    this.replayBufferSize = replayBufferSize;
+    this.encoder = new GameStateEncoder(jsonMapper);
+    this.flushWindowMillis = Math.max(0, flushWindowMillis);
+    this.flushTimer = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("game-broadcast-timer-"));
+    this.sendPool = Executors.newFixedThreadPool(threads, new NamedThreadFactory("game-broadcast-"));
+    this.outbound = new KeyedSerialExecutor(sendPool);
+  }
+
+  /**
+   * Demande la diffusion de l'état de la partie à ses joueurs.
+   * Sans effet si une diffusion est déjà prévue pour cette partie.
+   *
+   * @param game partie modifiée.
+   */
+  public void markDirty(Game game) {
+    requested.increment();
+    if (game.isRemoved())
+      return;
+    if (!game.markBroadcastPending()) {
+      coalesced.increment();
+      return;
+    }
+    flushTimer.schedule(() -> flush(game), flushWindowMillis, TimeUnit.MILLISECONDS);
+  }
+
+  /**
+   * Enregistre la session STOMP d'un joueur abonnée à sa main, et le format qu'elle a choisi.
+   * Les mains du joueur sont ensuite envoyées à cette session.
+   *
+   * @param sessionId identifiant de la session.
+   * @param playerId  joueur abonné par cette session.
+   * @param format    format demandé à la connexion.
+   */
+  public void registerSession(String sessionId, String playerId, WireFormat format) {
+    HandSession previous = handSessions.put(sessionId, new HandSession(playerId, format));
+    if (previous != null && !previous.playerId().equals(playerId))
+      forget(sessionId, previous);
+    sessionsByPlayer.computeIfAbsent(playerId, id -> ConcurrentHashMap.newKeySet()).add(sessionId);
+    if (format == WireFormat.JSON)
+      formatByPlayer.remove(playerId);
+    else
+      formatByPlayer.put(playerId, format);
+  }
+
+  /**
+   * Oublie une session fermée : elle ne reçoit plus de main.
+   *
+   * @param sessionId identifiant de la session.
+   */
+  public void unregisterSession(String sessionId) {
+    HandSession session = handSessions.remove(sessionId);
+    if (session != null)
+      forget(sessionId, session);
+  }
+
+  /**
+   * @param playerId identifiant du joueur.
+   * @return le format des messages envoyés à ce joueur.
+   */
+  public WireFormat getFormat(String playerId) {
+    return formatByPlayer.getOrDefault(playerId, WireFormat.JSON);
+  }
+
+  private void forget(String sessionId, HandSession session) {
+    sessionsByPlayer.computeIfPresent(session.playerId(), (id, sessions) -> {
+      sessions.remove(sessionId);
+      return sessions.isEmpty() ? null : sessions;
+    });
+    if (session.format() != WireFormat.JSON)
+      formatByPlayer.remove(session.playerId());
+  }
+
+  /**
+   * Rattrape un abonnement repris après une coupure : envoie à la seule session abonnée les changements
+   * de l'état public diffusés après {@code lastSequence}, réunis en un patch, ou l'état complet si certains
+   * ne sont plus dans le tampon ; pour un abonnement à la main, la main la plus récente. Passe par la file
+   * d'envoi de la partie : le rattrapage part avant les diffusions suivantes.
+   *
+   * @param gameId         identifiant de la partie.
+   * @param playerId       joueur dont la session suit la main, {@code null} pour l'état public.
+   * @param format         format des messages attendus par l'abonnement.
+   * @param lastSequence   dernier numéro de diffusion reçu par le client sur ce topic.
+   * @param sessionId      session abonnée.
+   * @param subscriptionId identifiant de l'abonnement dans cette session.
+   */
+  public void resume(String gameId, String playerId, WireFormat format, long lastSequence,
+                     String sessionId, String subscriptionId) {
+    outbound.execute(gameId, () -> replay(gameId, playerId, format, lastSequence, sessionId, subscriptionId));
+  }
+
+  /**
+   * Prépare les dernières diffusions d'une nouvelle partie.
+   *
+   * @param game partie enregistrée.
+   */
+  public void registerGame(Game game) {
+    replays.put(game.getId(), new ReplayBuffer<>(replayBufferSize));
+  }
+
+  /**
+   * Oublie les dernières diffusions d'une partie supprimée.
+   *
+   * @param gameId identifiant de la partie.
+   */
+  public void removeGame(String gameId) {
+    ReplayBuffer<Broadcast> buffer = replays.get(gameId);
+    if (buffer == null)
+      return;
+    // après les envois en attente ; le tampon d'une nouvelle partie de même code est conservé
+    outbound.execute(gameId, () -> replays.remove(gameId, buffer));
+  }
+
+  /**
+   * @param gameId identifiant de la partie.
+   * @return le numéro de la dernière diffusion de la partie, 0 si aucune.
+   */
+  public long getLastSequence(String gameId) {
+    ReplayBuffer<Broadcast> buffer = replays.get(gameId);
+    return buffer != null ? buffer.getLastSequence() : 0;
+  }
+
+  /**
+   * @param gameId identifiant de la partie.
+   * @return le nombre d'envois de la partie en attente dans sa file.
+   */
+  public int getQueueDepth(String gameId) {
+    return outbound.getQueueDepth(gameId);
+  }
+
+  /**
+   * @return le nombre de demandes de diffusion reçues.
+   */
+  public long getRequestedCount() {
+    return requested.sum();
+  }
+
+  /**
+   * @return le nombre de demandes absorbées par une diffusion déjà prévue.
+   */
+  public long getCoalescedCount() {
+    return coalesced.sum();
+  }
+
+  /**
+   * @return le nombre de diffusions effectuées.
+   */
+  public long getFlushedCount() {
+    return flushed.sum();
+  }
+
+  /**
+   * @return le nombre d'états publics complets envoyés.
+   */
+  public long getFullStateCount() {
+    return fullStates.sum();
+  }
+
+  /**
+   * @return le nombre de patchs publics envoyés.
+   */
+  public long getDeltaCount() {
+    return deltas.sum();
+  }
+
+  /**
+   * @return le nombre de messages privés (mains) envoyés.
+   */
+  public long getHandCount() {
+    return hands.sum();
+  }
+
+  /**
+   * @return le nombre de rattrapages envoyés en patch (ou en main, pour un abonnement à la main) à des abonnements repris.
+   */
+  public long getReplayedCount() {
+    return replayed.sum();
+  }
+
+  /**
+   * @return le nombre de reprises rattrapées par l'état complet, faute de messages encore dans le tampon.
+   */
+  public long getResyncedCount() {
+    return resynced.sum();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    FunctionCounter.builder("uno.broadcast.requested", requested, LongAdder::sum)
+            .description("Demandes de diffusion de l'état d'une partie")
+            .register(registry);
+    FunctionCounter.builder("uno.broadcast.coalesced", coalesced, LongAdder::sum)
+            .description("Demandes absorbées par une diffusion déjà prévue")
+            .register(registry);
+    FunctionCounter.builder("uno.broadcast.flushed", flushed, LongAdder::sum)
+            .description("Diffusions effectuées")
+            .register(registry);
+    FunctionCounter.builder("uno.broadcast.messages", fullStates, LongAdder::sum)
+            .description("Messages d'état envoyés aux joueurs")
+            .tag("kind", "full")
+            .register(registry);
+    FunctionCounter.builder("uno.broadcast.messages", deltas, LongAdder::sum)
+            .description("Messages d'état envoyés aux joueurs")
+            .tag("kind", "delta")
+            .register(registry);
+    FunctionCounter.builder("uno.broadcast.messages", hands, LongAdder::sum)
+            .description("Messages d'état envoyés aux joueurs")
+            .tag("kind", "hand")
+            .register(registry);
+    FunctionCounter.builder("uno.broadcast.resumed", replayed, LongAdder::sum)
+            .description("Messages envoyés aux abonnements repris après une coupure")
+            .tag("kind", "delta")
+            .register(registry);
+    FunctionCounter.builder("uno.broadcast.resumed", resynced, LongAdder::sum)
+            .description("Messages envoyés aux abonnements repris après une coupure")
+            .tag("kind", "full")
+            .register(registry);
+    Gauge.builder("uno.broadcast.queue.depth", outbound, KeyedSerialExecutor::getTotalDepth)
+            .description("Envois en attente, toutes parties confondues")
+            .register(registry);
+    Gauge.builder("uno.broadcast.queue.max-depth", outbound, KeyedSerialExecutor::getMaxDepth)
+            .description("Envois en attente dans la file de partie la plus chargée")
+            .register(registry);
+    Gauge.builder("uno.broadcast.queue.games", outbound, KeyedSerialExecutor::getActiveKeyCount)
+            .description("Parties ayant des envois en attente ou en cours")
+            .register(registry);
+  }
+
+  /**
+   * Arrête les threads de diffusion à l'extinction du serveur.
+   */
+  @PreDestroy
+  public void shutdown() {
+    flushTimer.shutdownNow();
+    sendPool.shutdown();
+  }
+
+  private void flush(Game game) {
+    // les demandes arrivant à partir d'ici planifieront une nouvelle diffusion
+    game.clearBroadcastPending();
+    if (game.isRemoved())
+      return; // supprimée depuis la demande
+    // la file de la partie avance sur le pool de commandes : le pool d'envoi ne sert qu'aux files d'envoi
+    gameService.submitAsync(game, () -> {
+              if (game.isRemoved())
+                return null;
+              // chaque commande publie sa photographie : la republier créerait une publication sans changement
+              GameSnapshot snapshot = game.getSnapshot();
+              Broadcast broadcast = new Broadcast(game.swapLastBroadcast(snapshot), snapshot);
+              // déposé depuis la file de la partie : l'ordre des envois suit celui des photographies
+              outbound.execute(game.getId(), () -> send(broadcast));
+              return null;
+            })
+            .exceptionally(e -> {
+              System.err.println("Erreur lors de la diffusion de la partie " + game.getId() + " : " + e.getMessage());
+              return null;
+            });
+  }
+
+  private void send(Broadcast broadcast) {
+    flushed.increment();
+    GameSnapshot snapshot = broadcast.snapshot;
+    String gameId = snapshot.getGameId();
+    ReplayBuffer<Broadcast> buffer = replays.get(gameId);
+    if (buffer == null)
+      return; // partie supprimée entre la photographie et l'envoi
+    long sequence = buffer.append(broadcast);
+    boolean delta = broadcast.isDelta();
+    List<GameSnapshot.PlayerSnapshot> players = snapshot.getPlayers();
+
+    // état public : un message par format utilisé, distribué par le broker à tous les abonnés
+    boolean json = formatByPlayer.isEmpty();
+    boolean binary = false;
+    for (GameSnapshot.PlayerSnapshot player : players) {
+      if (!player.isBot()) {
+        WireFormat format = getFormat(player.getId());
+        json |= format == WireFormat.JSON;
+        binary |= format == WireFormat.BINARY;
+      }
+    }
+    if (json) {
+      (delta ? deltas : fullStates).increment();
+      send(publicTopic(gameId), encodePublic(broadcast, delta, WireFormat.JSON), WireFormat.JSON, sequence);
+    }
+    if (binary) {
+      (delta ? deltas : fullStates).increment();
+      send(binaryTopic(gameId), encodePublic(broadcast, delta, WireFormat.BINARY), WireFormat.BINARY, sequence);
+    }
+
+    // mains : un message par session du joueur dont la main a changé, jamais via un topic partagé
+    for (int i = 0; i < players.size(); i++) {
+      GameSnapshot.PlayerSnapshot player = players.get(i);
+      if (player.isBot() || delta && broadcast.base.getPlayers().get(i).getCards().equals(player.getCards()))
+        continue;
+      for (String sessionId : sessionsByPlayer.getOrDefault(player.getId(), Set.of())) {
+        HandSession session = handSessions.get(sessionId);
+        if (session == null)
+          continue; // fermée pendant l'envoi
+        hands.increment();
+        sendToUser(sessionId, encodeHand(snapshot, player, session.format()), session.format(), sequence);
+      }
+    }
+  }
+
+  private void replay(String gameId, String playerId, WireFormat format, long lastSequence,
+                      String sessionId, String subscriptionId) {
+    ReplayBuffer<Broadcast> buffer = replays.get(gameId);
+    if (buffer == null || buffer.getLastSequence() == lastSequence)
+      return; // rien de diffusé depuis
+    long last = buffer.getLastSequence();
+    Broadcast latest = buffer.latest();
+    String destination = playerId != null ? HAND_SUBSCRIPTION
+            : format == WireFormat.BINARY ? binaryTopic(gameId) : publicTopic(gameId);
+
+    if (playerId != null) {
+      // la main est toujours complète : seule la plus récente compte
+      for (GameSnapshot.PlayerSnapshot player : latest.snapshot.getPlayers())
+        if (player.getId().equals(playerId)) {
+          sendTo(sessionId, subscriptionId, destination, encodeHand(latest.snapshot, player, format), format, last);
+          replayed.increment();
+        }
+      return;
+    }
+    List<Broadcast> missed = buffer.since(lastSequence);
+    if (missed == null) {
+      sendTo(sessionId, subscriptionId, destination, encodePublic(latest, false, format), format, last);
+      resynced.increment();
+      return;
+    }
+    // un seul patch de l'état connu du client au dernier : la file de la session ne garde que le dernier
+    // message d'un topic, une suite de patchs y serait réduite au dernier
+    Broadcast merged = new Broadcast(missed.get(0).base, latest.snapshot);
+    boolean delta = merged.isDelta();
+    sendTo(sessionId, subscriptionId, destination, encodePublic(merged, delta, format), format, last);
+    (delta ? replayed : resynced).increment();
+  }
+
+  private byte[] encodePublic(Broadcast broadcast, boolean delta, WireFormat format) {
+    if (format == WireFormat.BINARY)
+      return Base64.getEncoder().encode(delta
+              ? GameStateBinaryEncoder.encodeDelta(broadcast.base, broadcast.snapshot)
+              : GameStateBinaryEncoder.encodeFull(broadcast.snapshot));
+    return delta ? encoder.encodeDelta(broadcast.base, broadcast.snapshot) : encoder.encodeFull(broadcast.snapshot);
+  }
+
+  private byte[] encodeHand(GameSnapshot snapshot, GameSnapshot.PlayerSnapshot player, WireFormat format) {
+    HandDTO hand = GameStateMapper.toHand(player);
+    hand.setStateVersion(snapshot.getStateVersion());
+    return format == WireFormat.BINARY
+            ? Base64.getEncoder().encode(GameStateBinaryEncoder.encodeHand(hand))
+            : encoder.encodeHand(hand);
+  }
+
+  private void send(String destination, byte[] payload, WireFormat format, long sequence) {
+    // déjà encodé : envoyé tel quel, sans passer par le convertisseur du template
+    SimpMessageHeaderAccessor accessor = headers(format, sequence);
+    accessor.setLeaveMutable(true); // le template y ajoute la destination
+    messagingTemplate.send(destination, MessageBuilder.createMessage(payload, accessor.getMessageHeaders()));
+  }
+
+  private void sendToUser(String sessionId, byte[] payload, WireFormat format, long sequence) {
+    // résolue vers la seule session par le broker, comme les refus de GameCommandController
+    SimpMessageHeaderAccessor accessor = headers(format, sequence);
+    accessor.setSessionId(sessionId);
+    accessor.setLeaveMutable(true);
+    messagingTemplate.send("/user/" + sessionId + HAND_DESTINATION,
+            MessageBuilder.createMessage(payload, accessor.getMessageHeaders()));
+  }
+
+  private void sendTo(String sessionId, String subscriptionId, String destination, byte[] payload,
+                      WireFormat format, long sequence) {
+    // directement vers la session, comme le ferait le broker pour cet abonnement
+    SimpMessageHeaderAccessor accessor = headers(format, sequence);
+    accessor.setSessionId(sessionId);
+    accessor.setSubscriptionId(subscriptionId);
+    accessor.setDestination(destination);
+    clientOutboundChannel.send(MessageBuilder.createMessage(payload, accessor.getMessageHeaders()));
+  }
+
+  private static SimpMessageHeaderAccessor headers(WireFormat format, long sequence) {
+    SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+    accessor.setContentType(format == WireFormat.BINARY ? BINARY_CONTENT_TYPE : MimeTypeUtils.APPLICATION_JSON);
+    accessor.setNativeHeader(SEQUENCE_HEADER, Long.toString(sequence));
+    return accessor;
+  }
+
+  /**
+   * @param gameId identifiant de la partie.
+   * @return le topic de l'état public de la partie, en JSON.
+   */
+  public static String publicTopic(String gameId) {
+    return "/topic/game/" + gameId;
+  }
+
+  /**
+   * @param gameId identifiant de la partie.
+   * @return le topic de l'état public de la partie, au format binaire.
+   */
+  public static String binaryTopic(String gameId) {
+    return "/topic/game-binary/" + gameId;
+  }
+
+  /**
+   * Joueur suivi par une session et format de ses messages.
+   */
+  private record HandSession(String playerId, WireFormat format) {
+  }
+
+  /**
+   * Photographie à diffuser et photographie diffusée juste avant (base du patch).
+   */
+  private static final class Broadcast {
+    private final GameSnapshot base;
+    private final GameSnapshot snapshot;
+
+    private Broadcast(GameSnapshot base, GameSnapshot snapshot) {
+      this.base = base;
+      this.snapshot = snapshot;
+    }
+
+    /** @return {@code true} si l'état public part en patch, {@code false} s'il part complet. */
+    private boolean isDelta() {
+      return GameStateMapper.canDelta(base, snapshot);
+    }
+  }
+}
@@ -0,0 +1,289 @@
+package fr.upjv.uno.service;
+
+import fr.upjv.uno.model.Game;
+import fr.upjv.uno.model.GameSnapshot;
+import fr.upjv.uno.model.enums.GameStatus;
+import fr.upjv.uno.util.GameCodeAllocator;
+import fr.upjv.uno.util.NamedThreadFactory;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import jakarta.annotation.PreDestroy;
+import lombok.Setter;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+
+/**
+ * Registre borné des parties actives.
+ * <p>
+ * Chaque partie note sa dernière activité ({@link #touch(Game)}). Un balayage périodique supprime
+ * les parties inactives depuis plus longtemps que la durée de vie associée à leur statut, ainsi que
+ * les parties en cours ou terminées dont tous les humains sont partis. Si le nombre maximal de parties
+ * est atteint, la partie la moins récemment active est supprimée pour faire de la place.
+ * </p>
+ * <p>
+ * Les lectures, les activités et les retraits passent par une table concurrente, sans verrou : une action
+ * de joueur ne fait que noter l'heure de sa partie. Seuls les enregistrements sont sérialisés, pour vérifier
+ * et appliquer la borne de façon atomique ; quand le registre est plein, la partie à supprimer est cherchée
+ * d'après la dernière activité de chaque partie, en un parcours de la table. Le balayage lit la photographie
+ * publiée de chaque partie, jamais son état vivant.
+ * </p>
+ * <p>
+ * Les suppressions sont comptées et exposées via Micrometer ({@code uno.games.evicted}).
+ * </p>
+ * <p>
+ * Le registre attribue aussi les codes des parties ({@link GameCodeAllocator}) et rend le code
+ * d'une partie lorsqu'elle est retirée.
+ * </p>
+ */
+@Component
+public class GameRegistry implements MeterBinder {
+  private final Map<String, Game> games = new ConcurrentHashMap<>();
+  private final int maxGames;
+  private final Map<GameStatus, Long> idleTtlNanos = new EnumMap<>(GameStatus.class);
+  private final Map<GameStatus, LongAdder> idleEvictions = new EnumMap<>(GameStatus.class);
+  private final LongAdder capacityEvictions = new LongAdder();
+  private final ScheduledExecutorService sweeper;
+  private final GameCodeAllocator codes;
+
+  /** Appelé pour chaque partie supprimée par le registre (annulation de ses tâches, etc.). */
+  @Setter
+  private Consumer<Game> evictionListener = game -> {
+  };
+
+  /**
+   * Constructeur par défaut : 10 000 parties, salle d'attente et partie en cours 30 min,
+   * partie terminée 5 min, balayage chaque minute, codes de 4 caractères.
+   */
+  public GameRegistry() {
+    this(10_000, Duration.ofMinutes(30), Duration.ofMinutes(30), Duration.ofMinutes(5), Duration.ofMinutes(1), 4);
+  }
+
+  /**
+   * @param maxGames        nombre maximal de parties simultanées.
+   * @param waitingTtl      durée d'inactivité tolérée pour une salle d'attente.
+   * @param inProgressTtl   durée d'inactivité tolérée pour une partie en cours.
+   * @param finishedTtl     durée d'inactivité tolérée pour une partie terminée.
+   * @param sweepInterval   intervalle entre deux balayages, désactivé si nul.
+   * @param codeLength      nombre de caractères des codes de partie.
+   */
+  @Autowired
+  public GameRegistry(@Value("${uno.registry.max-games:10000}") int maxGames,
+                      @Value("${uno.registry.idle-ttl.waiting-for-players:30m}") Duration waitingTtl,
+                      @Value("${uno.registry.idle-ttl.in-progress:30m}") Duration inProgressTtl,
+                      @Value("${uno.registry.idle-ttl.finished:5m}") Duration finishedTtl,
+                      @Value("${uno.registry.sweep-interval:1m}") Duration sweepInterval,
+                      @Value("${uno.game-code.length:4}") int codeLength) {
+    if (maxGames <= 0)
+      throw new IllegalArgumentException("Le registre doit accepter au moins une partie");
+    this.maxGames = maxGames;
+    this.codes = new GameCodeAllocator(codeLength);
+    idleTtlNanos.put(GameStatus.WAITING_FOR_PLAYERS, waitingTtl.toNanos());
+    idleTtlNanos.put(GameStatus.IN_PROGRESS, inProgressTtl.toNanos());
+    idleTtlNanos.put(GameStatus.FINISHED, finishedTtl.toNanos());
+    for (GameStatus status : GameStatus.values())
+      idleEvictions.put(status, new LongAdder());
+
+    if (sweepInterval.isZero() || sweepInterval.isNegative()) {
+      this.sweeper = null;
+    } else {
+      this.sweeper = Executors.newSingleThreadScheduledExecutor(new NamedThreadFactory("game-registry-sweeper-"));
+      long period = sweepInterval.toMillis();
+      sweeper.scheduleWithFixedDelay(this::sweepSafely, period, period, TimeUnit.MILLISECONDS);
+    }
+  }
+
+  /**
+   * Attribue un code de partie libre, en temps constant.
+   *
+   * @return un code qu'aucune partie enregistrée n'utilise.
+   * @throws IllegalStateException si tous les codes sont utilisés.
+   */
+  public String allocateCode() {
+    return codes.allocate();
+  }
+
+  /**
+   * Enregistre une partie, en supprimant la moins récemment active si le registre est plein.
+   *
+   * @param game partie à enregistrer.
+   */
+  public void put(Game game) {
+    game.touch();
+    List<Game> evicted = new ArrayList<>(1);
+    // seuls les ajouts font grandir la table : les sérialiser suffit à garantir la borne
+    synchronized (this) {
+      while (!games.containsKey(game.getId()) && games.size() >= maxGames) {
+        Game eldest = leastRecentlyActive();
+        if (eldest != null && games.remove(eldest.getId(), eldest))
+          evicted.add(eldest);
+      }
+      games.put(game.getId(), game);
+    }
+    for (Game eldest : evicted) {
+      capacityEvictions.increment();
+      released(eldest);
+    }
+  }
+
+  /**
+   * Note une activité sur la partie : elle devient la plus récemment active. Sans verrou.
+   *
+   * @param game partie concernée.
+   */
+  public void touch(Game game) {
+    game.touch();
+  }
+
+  /**
+   * @param gameId identifiant de la partie.
+   * @return la partie, {@code null} si elle n'existe pas.
+   */
+  public Game get(String gameId) {
+    return games.get(gameId);
+  }
+
+  /**
+   * @param gameId identifiant de la partie.
+   * @return {@code true} si la partie est enregistrée.
+   */
+  public boolean contains(String gameId) {
+    return games.containsKey(gameId);
+  }
+
+  /**
+   * Retire une partie du registre (fin normale, pas une éviction).
+   *
+   * @param gameId identifiant de la partie.
+   * @return la partie retirée, {@code null} si elle n'existait pas.
+   */
+  public Game remove(String gameId) {
+    Game removed = games.remove(gameId);
+    if (removed != null)
+      released(removed);
+    return removed;
+  }
+
+  /**
+   * @return le nombre de parties enregistrées.
+   */
+  public int size() {
+    return games.size();
+  }
+
+  /**
+   * Supprime les parties inactives depuis trop longtemps ou abandonnées par tous les humains.
+   *
+   * @return le nombre de parties supprimées.
+   */
+  public int sweep() {
+    long now = System.nanoTime();
+    int evicted = 0;
+    for (Game game : games.values()) {
+      // l'état vivant n'appartient qu'à la file de la partie : on lit la dernière photographie
+      GameSnapshot snapshot = game.getSnapshot();
+      GameStatus status = snapshot.getStatus();
+      boolean abandoned = status != GameStatus.WAITING_FOR_PLAYERS && snapshot.getHumanPlayerCount() == 0;
+      boolean idle = now - game.getLastActivity() > idleTtlNanos.get(status);
+      if ((abandoned || idle) && evict(game)) {
+        idleEvictions.get(status).increment();
+        evicted++;
+      }
+    }
+    return evicted;
+  }
+
+  /**
+   * @param status statut des parties.
+   * @return le nombre de parties de ce statut supprimées pour inactivité.
+   */
+  public long getIdleEvictionCount(GameStatus status) {
+    return idleEvictions.get(status).sum();
+  }
+
+  /**
+   * @return le nombre de parties supprimées parce que le registre était plein.
+   */
+  public long getCapacityEvictionCount() {
+    return capacityEvictions.sum();
+  }
+
+  @Override
+  public void bindTo(MeterRegistry registry) {
+    Gauge.builder("uno.games.active", games, Map::size)
+            .description("Parties enregistrées")
+            .register(registry);
+    for (GameStatus status : GameStatus.values()) {
+      FunctionCounter.builder("uno.games.evicted", idleEvictions.get(status), LongAdder::sum)
+              .description("Parties supprimées par le registre")
+              .tag("reason", "idle")
+              .tag("status", status.name())
+              .register(registry);
+    }
+    FunctionCounter.builder("uno.games.evicted", capacityEvictions, LongAdder::sum)
+            .description("Parties supprimées par le registre")
+            .tag("reason", "capacity")
+            .tag("status", "ANY")
+            .register(registry);
+  }
+
+  /**
+   * Arrête le balayage à l'extinction du serveur.
+   */
+  @PreDestroy
+  public void shutdown() {
+    if (sweeper != null)
+      sweeper.shutdownNow();
+  }
+
+  private void sweepSafely() {
+    try {
+      sweep();
+    } catch (RuntimeException e) {
+      // ne jamais tuer le balayage périodique
+      System.err.println("Erreur lors du balayage des parties : " + e.getMessage());
+    }
+  }
+
+  private boolean evict(Game game) {
+    if (!games.remove(game.getId(), game))
+      return false;
+    released(game);
+    return true;
+  }
+
+  /**
+   * Parcourt la table : appelée seulement quand le registre est plein.
+   *
+   * @return la partie dont la dernière activité est la plus ancienne, {@code null} si le registre est vide.
+   */
+  private Game leastRecentlyActive() {
+    Game eldest = null;
+    for (Game game : games.values()) {
+      // comparaison par différence : System.nanoTime() peut déborder
+      if (eldest == null || game.getLastActivity() - eldest.getLastActivity() < 0)
+        eldest = game;
+    }
+    return eldest;
+  }
+
+  /** L'écouteur passe avant la libération du code : une nouvelle partie ne peut pas encore le reprendre. */
+  private void released(Game game) {
+    evictionListener.accept(game);
+    codes.release(game.getId());
+  }
+}
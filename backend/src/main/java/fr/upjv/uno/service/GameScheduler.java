@@ -0,0 +1,121 @@
+package fr.upjv.uno.service;
+
+import fr.upjv.uno.model.Game;
+import fr.upjv.uno.util.HashedWheelTimer;
+import fr.upjv.uno.util.NamedThreadFactory;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.VirtualThreadTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Planifie les tâches différées des parties (tour des bots, pioche automatique, délais de revanche).
+ * <p>
+ * Repose sur une {@link HashedWheelTimer} : planifier et annuler coûtent O(1), quel que soit
+ * le nombre de tables. Les tâches échues sont exécutées par un pool borné ; si sa file est pleine,
+ * la tâche s'exécute sur le thread de la roue (contre-pression plutôt que perte d'un tour de bot).
+ * Avec {@code spring.threads.virtual.enabled=true}, chaque tâche échue s'exécute sur un thread virtuel.
+ * </p>
+ * <p>
+ * Chaque handle est rattaché à sa partie, ce qui permet d'annuler toutes ses tâches d'un coup
+ * lorsqu'elle est supprimée.
+ * </p>
+ */
+@Component
+public class GameScheduler {
+  private final Executor firingPool;
+  private final HashedWheelTimer timer;
+
+  /**
+   * Constructeur par défaut : tick de 20 ms, 512 cases, 4 threads, file de 10 000 tâches.
+   */
+  public GameScheduler() {
+    this(20, 512, 4, 10_000, false);
+  }
+
+  /**
+   * @param tickMillis    durée d'un tick de la roue, en millisecondes.
+   * @param wheelSize     nombre de cases de la roue.
+   * @param threads       nombre de threads exécutant les tâches échues.
+   * @param queueCapacity taille maximale de la file des tâches échues.
+   * @param virtualThreads {@code true} pour exécuter les tâches échues sur des threads virtuels (Java 21).
+   */
+  @Autowired
+  public GameScheduler(@Value("${uno.scheduler.tick-ms:20}") long tickMillis,
+                       @Value("${uno.scheduler.wheel-size:512}") int wheelSize,
+                       @Value("${uno.scheduler.threads:4}") int threads,
+                       @Value("${uno.scheduler.queue-capacity:10000}") int queueCapacity,
+                       @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+    if (virtualThreads) {
+      this.firingPool = new VirtualThreadTaskExecutor("game-timer-");
+    } else {
+      this.firingPool = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+              new ArrayBlockingQueue<>(queueCapacity), new NamedThreadFactory("game-timer-"),
+              new ThreadPoolExecutor.CallerRunsPolicy());
+    }
+    this.timer = new HashedWheelTimer(tickMillis, TimeUnit.MILLISECONDS, wheelSize, firingPool, "game-timer-wheel");
+  }
+
+  /**
+   * Planifie une tâche rattachée à une partie.
+   *
+   * @param game  partie propriétaire de la tâche.
+   * @param delay délai avant exécution.
+   * @param unit  unité du délai.
+   * @param task  tâche à exécuter.
+   * @return handle de la tâche, aussi conservé par la partie jusqu'à son déclenchement.
+   */
+  public HashedWheelTimer.Timeout schedule(Game game, long delay, TimeUnit unit, Runnable task) {
+    AtomicReference<HashedWheelTimer.Timeout> handle = new AtomicReference<>();
+    HashedWheelTimer.Timeout timeout = timer.newTimeout(() -> {
+      game.removeTimer(handle.get());
+      try {
+        task.run();
+      } catch (RuntimeException e) {
+        System.err.println("Erreur dans une tâche planifiée de la partie " + game.getId() + " : " + e.getMessage());
+      }
+    }, delay, unit);
+    handle.set(timeout);
+    game.addTimer(timeout);
+    // déjà échue (tick entre-temps) : la tâche a pu chercher son handle avant qu'il ne soit rattaché
+    if (timeout.isExpired())
+      game.removeTimer(timeout);
+    return timeout;
+  }
+
+  /**
+   * Annule toutes les tâches en attente d'une partie.
+   *
+   * @param game partie dont on annule les tâches.
+   */
+  public void cancelAll(Game game) {
+    for (HashedWheelTimer.Timeout timeout : game.drainTimers()) {
+      timeout.cancel();
+    }
+  }
+
+  /**
+   * @return le nombre de tâches planifiées en attente, toutes parties confondues.
+   */
+  public int getPendingCount() {
+    return timer.getPendingCount();
+  }
+
+  /**
+   * Arrête la roue et le pool à l'extinction du serveur.
+   */
+  @PreDestroy
+  public void shutdown() {
+    timer.stop();
+    if (firingPool instanceof ExecutorService executorService)
+      executorService.shutdown();
+  }
+}
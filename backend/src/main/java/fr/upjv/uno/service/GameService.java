@@ -5,35 +5,274 @@ import fr.upjv.uno.model.*;
 import fr.upjv.uno.model.enums.Color;
 import fr.upjv.uno.model.enums.Difficulty;
 import fr.upjv.uno.model.enums.GameStatus;
-import fr.upjv.uno.util.GameCodeGenerator;
+import fr.upjv.uno.util.GameMailbox;
+import fr.upjv.uno.util.NamedThreadFactory;
+import jakarta.annotation.PreDestroy;
 import lombok.Setter;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Component;
 
 import java.util.Map;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 import java.util.concurrent.TimeUnit;
 import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 /**
  * Gère la logique des parties.
+ * <p>
+ * Chaque partie possède sa propre file de commandes ({@link GameMailbox}) : toutes les mutations
+ * d'une même partie sont appliquées dans l'ordre par un seul thread, les parties différentes
+ * avancent en parallèle sur le pool partagé {@code commandPool}.
+ * </p>
+ * <p>
+ * Chaque commande de mutation aboutie incrémente la version de la partie. Un client peut fournir
+ * la version sur laquelle il s'est basé : si la partie a changé entre temps, l'action est refusée
+ * ({@link StaleStateException}) sans rien modifier.
+ * Une fois la commande appliquée, la partie publie une photographie immuable de son état
+ * ({@link GameSnapshot}) que les lectures utilisent sans passer par la file.
+ * </p>
+ * <p>
+ * Les actions des joueurs ({@code tryPlayCard}, {@code tryJoinGame}...) renvoient un {@link CommandResult} :
+ * un refus (pas son tour, carte injouable, état périmé...) ne lève pas d'exception. Les variantes
+ * sans préfixe lèvent l'exception correspondante.
+ * </p>
  */
 @Component
 public class GameService {
-  private final Map<String, Game> activeGames;
+  private static final CommandResult INVALID_GAME_ID =
+          CommandResult.rejected(CommandResult.Code.GAME_NOT_FOUND, "L'identifiant de la partie est invalide");
+  private static final CommandResult GAME_NOT_FOUND =
+          CommandResult.rejected(CommandResult.Code.GAME_NOT_FOUND, "Partie introuvable");
+  private static final CommandResult PLAYER_NOT_FOUND =
+          CommandResult.rejected(CommandResult.Code.PLAYER_NOT_FOUND, "Joueur introuvable");
+  private static final CommandResult NOT_IN_PROGRESS =
+          CommandResult.rejected(CommandResult.Code.GAME_NOT_IN_PROGRESS, "La partie n'est pas en cours");
+  private static final CommandResult NOT_FINISHED =
+          CommandResult.rejected(CommandResult.Code.GAME_NOT_FINISHED, "Impossible de voter, la partie n'est pas terminée.");
+  private static final CommandResult NOT_YOUR_TURN =
+          CommandResult.rejected(CommandResult.Code.NOT_YOUR_TURN, "Ce n'est pas le tour de ce joueur");
+  private static final CommandResult CARD_NOT_FOUND =
+          CommandResult.rejected(CommandResult.Code.CARD_NOT_FOUND, "Carte introuvable");
+  private static final CommandResult COLOR_REQUIRED =
+          CommandResult.rejected(CommandResult.Code.COLOR_REQUIRED, "Aucune couleur choisie avec le joker");
+  private static final CommandResult CARD_NOT_PLAYABLE =
+          CommandResult.rejected(CommandResult.Code.CARD_NOT_PLAYABLE, "Cette carte ne peut pas être jouée");
+  private static final CommandResult ALREADY_STARTED =
+          CommandResult.rejected(CommandResult.Code.GAME_ALREADY_STARTED, "Impossible de rejoindre : partie en cours");
+  private static final CommandResult LOBBY_FULL =
+          CommandResult.rejected(CommandResult.Code.LOBBY_FULL, "Impossible de rejoindre : la salle d'attente est pleine");
+
+  private final GameRegistry registry;
   // sessionId -> [gameId, playerId]
   private final Map<String, String[]> sessionPlayerMap = new ConcurrentHashMap<>();
 
   @Setter
   private Consumer<Game> broadcastCallback;
+  /** Appelé pour chaque partie créée, une fois enregistrée. */
+  @Setter
+  private Consumer<Game> creationCallback = game -> {
+  };
+  /** Appelé pour chaque partie supprimée, retirée ou évincée du registre. */
+  @Setter
+  private Consumer<Game> removalCallback = game -> {
+  };
   private final DeckFactory deckFactory;
+  private final ExecutorService commandPool;
+  private final GameScheduler scheduler;
 
   /**
    * Constructeur par défaut.
    */
   public GameService() {
+    this(new GameScheduler(), new GameRegistry());
+  }
+
+  /**
+   * @param scheduler planificateur des tâches différées (bots, revanche).
+   * @param registry  registre des parties actives.
+   */
+  @Autowired
+  public GameService(GameScheduler scheduler, GameRegistry registry) {
     deckFactory = new DeckFactory();
-    activeGames = new ConcurrentHashMap<>();
+    commandPool = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(),
+            new NamedThreadFactory("game-command-"));
+    this.scheduler = scheduler;
+    this.registry = registry;
+    registry.setEvictionListener(this::onRemoved);
+  }
+
+  /**
+   * Arrête le pool de commandes à l'extinction du serveur.
+   */
+  @PreDestroy
+  public void shutdown() {
+    commandPool.shutdown();
+  }
+
+  /**
+   * Dépose une commande de lecture dans la file de la partie et attend son résultat.
+   * Si l'appel provient déjà d'une commande de cette partie, elle est exécutée directement.
+   *
+   * @param gameId  Identifiant de la partie.
+   * @param command Commande à appliquer sur la partie.
+   * @param <T>     Type du résultat.
+   * @return le résultat de la commande.
+   */
+  public <T> T compute(String gameId, Function<Game, T> command) {
+    return submit(gameId, null, false, true, command);
+  }
+
+  /**
+   * Comme {@link #compute(String, Function)}, mais la commande modifie la partie :
+   * sa version est incrémentée si elle aboutit.
+   *
+   * @param gameId  Identifiant de la partie.
+   * @param command Commande à appliquer sur la partie.
+   * @param <T>     Type du résultat.
+   * @return le résultat de la commande.
+   */
+  public <T> T update(String gameId, Function<Game, T> command) {
+    return submit(gameId, null, true, true, command);
+  }
+
+  /**
+   * Applique une commande qui modifie la partie, sans résultat.
+   *
+   * @param gameId  Identifiant de la partie.
+   * @param command Commande à appliquer sur la partie.
+   */
+  public void execute(String gameId, Consumer<Game> command) {
+    execute(gameId, null, command);
+  }
+
+  /**
+   * Applique une commande qui modifie la partie, seulement si celle-ci est toujours
+   * à la version sur laquelle le client s'est basé.
+   *
+   * @param gameId          Identifiant de la partie.
+   * @param expectedVersion Version attendue, {@code null} pour ne pas vérifier.
+   * @param command         Commande à appliquer sur la partie.
+   * @throws StaleStateException si la partie a changé de version.
+   */
+  public void execute(String gameId, Long expectedVersion, Consumer<Game> command) {
+    submit(gameId, expectedVersion, true, true, game -> {
+      command.accept(game);
+      return null;
+    });
+  }
+
+  /**
+   * Dépose une tâche interne dans la file de la partie, sans attendre son résultat ni changer sa version
+   * (diffusion de l'état). Elle s'exécute sur le pool de commandes, comme les actions des joueurs.
+   *
+   * @param game partie concernée.
+   * @param task tâche à exécuter dans la file.
+   * @param <T>  Type du résultat.
+   * @return un futur complété par le résultat de la tâche.
+   */
+  public <T> CompletableFuture<T> submitAsync(Game game, Supplier<T> task) {
+    return game.getMailbox().submit(task, commandPool);
+  }
+
+  /**
+   * Applique une tâche planifiée (tour de bot, délais) : elle ne compte pas comme une activité
+   * des joueurs, une partie laissée aux bots finit donc par être supprimée par le registre.
+   */
+  private void executeScheduled(String gameId, Consumer<Game> command) {
+    submit(gameId, null, true, false, game -> {
+      command.accept(game);
+      return null;
+    });
+  }
+
+  private <T> T submit(String gameId, Long expectedVersion, boolean mutation, boolean playerAction,
+                       Function<Game, T> command) {
+    Game game = getGame(gameId);
+    GameMailbox mailbox = game.getMailbox();
+    if (mailbox.isConsumerThread())
+      return command.apply(game); // commande imbriquée : validée par la commande englobante
+
+    if (playerAction)
+      registry.touch(game);
+
+    checkVersion(game, expectedVersion); // refus immédiat, sans passer par la file
+    return await(mailbox.submit(() -> {
+      if (!mutation)
+        return command.apply(game);
+
+      long base = expectedVersion != null ? expectedVersion : game.getStateVersion();
+      if (!game.commitVersion(base))
+        throw new StaleStateException(base, game.getStateVersion());
+      try {
+        T result = command.apply(game);
+        game.publishSnapshot();
+        return result;
+      } catch (RuntimeException e) {
+        game.rollbackVersion(base + 1); // commande refusée : l'état n'a pas changé
+        throw e;
+      }
+    }, commandPool));
+  }
+
+  /**
+   * Comme {@link #submit}, pour une action de joueur qui renvoie un {@link CommandResult} :
+   * partie introuvable, état périmé et refus de la commande sont des résultats, pas des exceptions.
+   * Une commande refusée ne doit rien avoir modifié ; la version de la partie est rétablie.
+   */
+  private CommandResult attempt(String gameId, Long expectedVersion, Function<Game, CommandResult> command) {
+    if (gameId == null || gameId.isBlank())
+      return INVALID_GAME_ID;
+    Game game = registry.get(gameId);
+    if (game == null)
+      return GAME_NOT_FOUND;
+
+    GameMailbox mailbox = game.getMailbox();
+    if (mailbox.isConsumerThread())
+      return command.apply(game); // commande imbriquée : validée par la commande englobante
+
+    registry.touch(game);
+    if (expectedVersion != null && expectedVersion != game.getStateVersion())
+      return CommandResult.stale(expectedVersion, game.getStateVersion());
+
+    return await(mailbox.submit(() -> {
+      long base = expectedVersion != null ? expectedVersion : game.getStateVersion();
+      if (!game.commitVersion(base))
+        return CommandResult.stale(base, game.getStateVersion());
+      try {
+        CommandResult result = command.apply(game);
+        if (result.isOk())
+          game.publishSnapshot();
+        else
+          game.rollbackVersion(base + 1);
+        return result;
+      } catch (RuntimeException e) {
+        game.rollbackVersion(base + 1);
+        throw e;
+      }
+    }, commandPool));
+  }
+
+  private static <T> T await(CompletableFuture<T> future) {
+    try {
+      return future.join();
+    } catch (CompletionException e) {
+      if (e.getCause() instanceof RuntimeException cause)
+        throw cause;
+      if (e.getCause() instanceof Error error)
+        throw error;
+      throw e;
+    }
+  }
+
+  private static void checkVersion(Game game, Long expectedVersion) {
+    if (expectedVersion != null && expectedVersion != game.getStateVersion())
+      throw new StaleStateException(expectedVersion, game.getStateVersion());
   }
 
   /**
@@ -46,7 +285,8 @@ public class GameService {
     String gameId = generateUniqueGameCode();
     Deck deck = deckFactory.createStandardDeck();
     Game newGame = new Game(gameId, deck, new DiscardPile(), maxPlayers);
-    activeGames.put(gameId, newGame);
+    registry.put(newGame);
+    creationCallback.accept(newGame);
     return newGame;
   }
 
@@ -59,7 +299,7 @@ public class GameService {
   public Game getGame(String gameId) {
     if (gameId == null || gameId.isBlank())
       throw new IllegalArgumentException("L'identifiant de la partie est invalide");
-    Game game = activeGames.get(gameId);
+    Game game = registry.get(gameId);
     if (game == null) {
       throw new IllegalArgumentException("Partie introuvable");
     }
@@ -67,7 +307,42 @@ public class GameService {
   }
 
   /**
-   * Supprime une partie.
+   * Cherche une partie sans lever d'exception.
+   *
+   * @param gameId identifiant de la partie.
+   * @return la partie, {@code null} si elle n'existe pas.
+   */
+  public Game findGame(String gameId) {
+    return gameId == null ? null : registry.get(gameId);
+  }
+
+  /**
+   * Dernier état publié d'une partie, lu sans passer par sa file de commandes.
+   * Compte comme une activité du joueur (polling, reconnexion).
+   *
+   * @param gameId identifiant de la partie.
+   * @return la photographie de la partie.
+   */
+  public GameSnapshot getSnapshot(String gameId) {
+    Game game = getGame(gameId);
+    registry.touch(game);
+    return game.getSnapshot();
+  }
+
+  /**
+   * À appeler avant {@link #getSnapshot(String)} pour attendre le changement suivant
+   * sans risquer de manquer une publication.
+   *
+   * @param gameId identifiant de la partie.
+   * @return un futur complété par la prochaine photographie publiée de la partie, à annuler si on n'attend plus.
+   * @throws IllegalArgumentException si la partie n'existe pas.
+   */
+  public CompletableFuture<GameSnapshot> nextSnapshot(String gameId) {
+    return getGame(gameId).nextSnapshot();
+  }
+
+  /**
+   * Supprime une partie et annule toutes ses tâches planifiées.
    *
    * @param gameId Identifiant de la partie à supprimer.
    */
@@ -75,38 +350,70 @@ public class GameService {
     if (gameId == null || gameId.isBlank())
       throw new IllegalArgumentException("L'identifiant de la partie est invalide");
 
-    activeGames.remove(gameId);
+    registry.remove(gameId); // prévient onRemoved avant de libérer le code
+  }
+
+  private void onRemoved(Game game) {
+    game.markRemoved();
+    scheduler.cancelAll(game);
+    removalCallback.accept(game);
   }
 
   /**
+   * Fait rejoindre un joueur. La place est réservée sans verrou avant d'entrer dans la file
+   * de la partie : une salle pleine ou un nom déjà pris sont refusés immédiatement.
    *
    * @param gameId id de la partie à rejoindre
    * @param player Player qui veut rejoindre.
    * @return la partie
    */
   public Game joinGame(String gameId, Player player) {
-    Game game = getGame(gameId);
-
-    if (!isNameAvailable(game, player.getName()))
-      throw new IllegalArgumentException("Le nom " + player.getName() + " n'est pas disponible");
-
-    game.addPlayer(player);
-    return game;
-
+    if (player == null)
+      throw new IllegalArgumentException("Erreur: aucun joueur à ajouter");
+    tryJoinGame(gameId, player).orThrow();
+    return getGame(gameId);
   }
 
   /**
-   * Vérifie si le nom saisi par le joueur est disponible.
+   * Comme {@link #joinGame(String, Player)}, sans lever d'exception en cas de refus.
    *
-   * @param name Nom à verifier
-   * @return {@code true} si le nom est disponible, {@code false} sinon.
+   * @param gameId id de la partie à rejoindre
+   * @param player Player qui veut rejoindre, ne doit pas être {@code null}.
+   * @return le résultat de l'inscription.
    */
-  private boolean isNameAvailable(Game game, String name) {
-    for (Player p : game.getPlayers()) {
-      if (p.getName().equals(name))
-        return false;
+  public CommandResult tryJoinGame(String gameId, Player player) {
+    Game game = findGame(gameId);
+    if (game != null && !game.getMailbox().isConsumerThread()) {
+      CommandResult reservation = toResult(game.tryReserveSeat(player), player);
+      if (!reservation.isOk())
+        return reservation;
+    }
+
+    try {
+      CommandResult result = attempt(gameId, null, g -> {
+        if (g.getStatus() != GameStatus.WAITING_FOR_PLAYERS)
+          return ALREADY_STARTED; // la partie a démarré entre la réservation et la file
+        g.addPlayer(player);
+        return CommandResult.ok();
+      });
+      if (!result.isOk() && game != null)
+        game.releaseSeat(player);
+      return result;
+    } catch (RuntimeException e) {
+      if (game != null)
+        game.releaseSeat(player);
+      throw e;
     }
-    return true;
+  }
+
+  private static CommandResult toResult(LobbySeats.Reservation reservation, Player player) {
+    return switch (reservation) {
+      case RESERVED -> CommandResult.ok();
+      case NAME_TAKEN -> CommandResult.rejected(CommandResult.Code.NAME_TAKEN,
+              "Le nom " + player.getName() + " n'est pas disponible");
+      case FULL -> LOBBY_FULL;
+      case GAME_STARTED -> ALREADY_STARTED;
+    };
   }
 
   /**
@@ -116,26 +423,27 @@ public class GameService {
    * @param playerId Identifiant du joueur qui quitte.
    */
   public void leaveGame(String gameId, String playerId) {
-    Game game = getGame(gameId);
-    Player player = game.findPlayerById(playerId);
-
-    if (player == null) return;
-
-    if (game.getStatus() == GameStatus.IN_PROGRESS) {
-      // Remplace le joueur par un bot qui hérite de sa main et de sa position
-      String botId = java.util.UUID.randomUUID().toString();
-      AIPlayer bot = new AIPlayer(botId, player.getName() + " (bot)", Difficulty.RANDOM);
-      game.replacePlayerWithBot(player, bot);
-      // Si c'était son tour, le bot joue immédiatement
-      if (game.getCurrentPlayer().getId().equals(botId)) {
-        playBotTurn(gameId);
-      }
-    } else {
-      game.removePlayer(player);
-      if (game.getPlayers().isEmpty()) {
-        removeGame(gameId);
+    execute(gameId, game -> {
+      Player player = game.findPlayerById(playerId);
+
+      if (player == null) return;
+
+      if (game.getStatus() == GameStatus.IN_PROGRESS) {
+        // Remplace le joueur par un bot qui hérite de sa main et de sa position
+        String botId = java.util.UUID.randomUUID().toString();
+        AIPlayer bot = new AIPlayer(botId, player.getName() + " (bot)", Difficulty.RANDOM);
+        game.replacePlayerWithBot(player, bot);
+        // Si c'était son tour, le bot joue immédiatement
+        if (game.getCurrentPlayer().getId().equals(botId)) {
+          playBotTurn(gameId);
+        }
+      } else {
+        game.removePlayer(player);
+        if (game.getPlayers().isEmpty()) {
+          removeGame(gameId);
+        }
       }
-    }
+    });
   }
 
   /**
@@ -145,30 +453,30 @@ public class GameService {
    * @param gameId Identifiant de la partie.
    */
   public void startGame(String gameId) {
-    Game game = getGame(gameId);
-
-    // comble avec des bots
-    while (game.getPlayersNumber() < game.getMaxPlayers()) {
-      addBot(gameId, Difficulty.RANDOM);
-    }
-    game.getDeck().shuffle();
+    execute(gameId, game -> {
+      // comble avec des bots
+      while (game.hasFreeSeat()) {
+        game.addFillerBot(newBot(Difficulty.RANDOM));
+      }
+      game.getDeck().shuffle();
 
-    for (Player player : game.getPlayers()) {
-      drawCards(gameId, player.getId(), 7);
-    }
+      for (Player player : game.getPlayers()) {
+        drawCards(gameId, player.getId(), 7);
+      }
 
-    Card firstCard = game.getDeck().draw();
-    game.addToDiscardPile(firstCard);
-    Color firstColor = firstCard.getColor();
+      Card firstCard = game.getDeck().draw();
+      game.addToDiscardPile(firstCard);
+      Color firstColor = firstCard.getColor();
 
-    // je décide que ce sera rouge si la première carte est noire
-    if (firstColor == Color.BLACK) {
-      firstColor = Color.RED;
-    }
-    game.setActiveColor(firstColor);
+      // je décide que ce sera rouge si la première carte est noire
+      if (firstColor == Color.BLACK) {
+        firstColor = Color.RED;
+      }
+      game.setActiveColor(firstColor);
 
-    game.setStatus(GameStatus.IN_PROGRESS);
-    playBotTurn(gameId);
+      game.setStatus(GameStatus.IN_PROGRESS);
+      playBotTurn(gameId);
+    });
   }
 
   /**
@@ -177,29 +485,25 @@ public class GameService {
    * @param gameId Identifiant de la partie.
    */
   public void restartGame(String gameId) {
-    Game game = getGame(gameId);
-
-    for (Player player : game.getPlayers()) {
-      player.clearHand();
-    }
-    game.resetForNewRound(deckFactory.createStandardDeck());
+    execute(gameId, game -> {
+      for (Player player : game.getPlayers()) {
+        player.clearHand();
+      }
+      game.resetForNewRound(deckFactory.createStandardDeck());
 
-    startGame(gameId);
+      startGame(gameId);
+    });
   }
 
   /**
-   * Génère un nouveau GameCode tant qu'il existe déjà une partie avec cet id.
-   * <p>Un code est composé de HUIT caractères. Chaque char peut prendre 36 valeurs (A-Z0-9).
-   * Il existe donc 36^8 soit 2821 milliards de codes uniques.</p>
+   * Attribue un code de partie libre en temps constant (voir {@link GameRegistry#allocateCode()}).
+   * <p>Un code est composé de {@code uno.game-code.length} caractères (4 par défaut), chacun pouvant
+   * prendre 36 valeurs (A-Z0-9) : 36^4 soit environ 1,68 million de codes.</p>
    *
-   * @return code AN de 8 caractères.
+   * @return code alphanumérique unique parmi les parties actives.
    */
   public String generateUniqueGameCode() {
-    String code;
-    do {
-      code = GameCodeGenerator.generateCode();
-    } while (activeGames.containsKey(code));
-    return code;
+    return registry.allocateCode();
   }
 
 
@@ -212,15 +516,16 @@ public class GameService {
    * @param count    nombre de cartes à piocher
    */
   public void drawCards(String gameId, String playerId, int count) {
-    Game game = activeGames.get(gameId);
-    Player player = game.findPlayerById(playerId);
-
-    for (int i = 0; i < count; i++) {
-      if (game.isDeckEmpty())
-        game.recycleDiscardPileIntoDeck();
-      Card drawnCard = game.getDeck().draw();
-      player.drawCard(drawnCard);
-    }
+    execute(gameId, game -> {
+      Player player = game.findPlayerById(playerId);
+
+      for (int i = 0; i < count; i++) {
+        if (game.isDeckEmpty())
+          game.recycleDiscardPileIntoDeck();
+        Card drawnCard = game.getDeck().draw();
+        player.drawCard(drawnCard);
+      }
+    });
   }
 
   /**
@@ -231,63 +536,82 @@ public class GameService {
    * @param chosenColor Couleur choisie en cas de joker.
    */
   public void playCard(String gameId, String playerId, int cardId, Color chosenColor) {
-    Game game = getGame(gameId);
-    if (game.getStatus() != GameStatus.IN_PROGRESS)
-      throw new IllegalArgumentException("La partie n'est pas en cours");
+    tryPlayCard(gameId, null, playerId, cardId, chosenColor).orThrow();
+  }
 
-    checkPlayerTurn(game, playerId);
+  /**
+   * Comme {@link #playCard(String, String, int, Color)}, sans lever d'exception si le coup est refusé.
+   *
+   * @param gameId          id de la partie.
+   * @param expectedVersion version sur laquelle le joueur s'est basé, {@code null} pour ne pas vérifier.
+   * @param playerId        id du joueur.
+   * @param cardId          id de la carte jouée.
+   * @param chosenColor     Couleur choisie en cas de joker.
+   * @return le résultat du coup.
+   */
+  public CommandResult tryPlayCard(String gameId, Long expectedVersion, String playerId, int cardId,
+                                   Color chosenColor) {
+    return attempt(gameId, expectedVersion, game -> {
+      if (game.getStatus() != GameStatus.IN_PROGRESS)
+        return NOT_IN_PROGRESS;
 
-    Player player = game.findPlayerById(playerId);
-    if (player == null)
-      throw new IllegalArgumentException("Joueur introuvable");
+      if (!isPlayerTurn(game, playerId))
+        return NOT_YOUR_TURN;
 
-    Card card = player.getCards().stream().filter(c -> c.getId() == cardId).
-            findFirst().orElseThrow(() -> new IllegalArgumentException("Carte introuvable"));
+      Player player = game.findPlayerById(playerId);
+      if (player == null)
+        return PLAYER_NOT_FOUND;
 
-    if (card.getColor() == Color.BLACK && chosenColor == null)
-      throw new IllegalArgumentException("Aucune couleur choisie avec le joker");
+      Card card = player.findCard(cardId);
+      if (card == null)
+        return CARD_NOT_FOUND;
 
-    Card topCard = game.getTopCard();
-    Color currentActiveColor = game.getActiveColor() != null ? game.getActiveColor() : topCard.getColor();
+      if (card.getColor() == Color.BLACK && chosenColor == null)
+        return COLOR_REQUIRED;
 
-    if (!card.isPlayable(currentActiveColor, topCard.getValue()))
-      throw new IllegalArgumentException("Cette carte ne peut pas être jouée");
+      Card topCard = game.getTopCard();
+      Color currentActiveColor = game.getActiveColor() != null ? game.getActiveColor() : topCard.getColor();
 
-    player.playCard(card);
-    game.setActiveColor(card.getColor());
-    game.addToDiscardPile(card);
+      if (!card.isPlayable(currentActiveColor, topCard.getValue()))
+        return CARD_NOT_PLAYABLE;
 
-    if (card.getColor() == Color.BLACK) {
-      game.setActiveColor(chosenColor);
-    } else {
+      player.playCard(card);
       game.setActiveColor(card.getColor());
-    }
+      game.addToDiscardPile(card);
 
-    switch (card.getValue()) {
-      case REVERSE -> {
-        if (game.getMaxPlayers() == 2) // rustine pour les games à 2 joueurs
-          game.updateCurrentPlayerIndex();
-        game.reverseDirection();
+      if (card.getColor() == Color.BLACK) {
+        game.setActiveColor(chosenColor);
+      } else {
+        game.setActiveColor(card.getColor());
       }
-      case SKIP -> game.updateCurrentPlayerIndex();
-      case DRAW_TWO -> {
-        game.updateCurrentPlayerIndex();
-        drawCards(gameId, game.getCurrentPlayer().getId(), 2);
-      }
-      case WILD_DRAW_FOUR -> {
-        game.updateCurrentPlayerIndex();
-        drawCards(gameId, game.getCurrentPlayer().getId(), 4);
+
+      switch (card.getValue()) {
+        case REVERSE -> {
+          if (game.getMaxPlayers() == 2) // rustine pour les games à 2 joueurs
+            game.updateCurrentPlayerIndex();
+          game.reverseDirection();
+        }
+        case SKIP -> game.updateCurrentPlayerIndex();
+        case DRAW_TWO -> {
+          game.updateCurrentPlayerIndex();
+          drawCards(gameId, game.getCurrentPlayer().getId(), 2);
+        }
+        case WILD_DRAW_FOUR -> {
+          game.updateCurrentPlayerIndex();
+          drawCards(gameId, game.getCurrentPlayer().getId(), 4);
+        }
+        default -> {
+        }
       }
-      default -> {
+      if (player.hasEmptyHand()) {
+        handleWin(game, player);
+        return CommandResult.ok();
       }
-    }
-    if (player.hasEmptyHand()) {
-      handleWin(game, player);
-      return;
-    }
-    game.updateCurrentPlayerIndex();
+      game.updateCurrentPlayerIndex();
 
-    playBotTurn(gameId);
+      playBotTurn(gameId);
+      return CommandResult.ok();
+    });
   }
 
   /**
@@ -330,44 +654,54 @@ public class GameService {
    * @param playerId Identifiant du joueur qui vote.
    */
   public void voteRematch(String gameId, String playerId) {
-    Game game = getGame(gameId);
-
-    if (game.getStatus() != GameStatus.FINISHED) {
-      throw new IllegalStateException("Impossible de voter, la partie n'est pas terminée.");
-    }
+    tryVoteRematch(gameId, null, playerId).orThrow();
+  }
 
-    boolean isFirstVote = game.getRematchVoteCount() == 0;
-    game.addRematchVoter(playerId);
+  /**
+   * Comme {@link #voteRematch(String, String)}, sans lever d'exception si le vote est refusé.
+   *
+   * @param gameId          Identifiant de la partie.
+   * @param expectedVersion version sur laquelle le joueur s'est basé, {@code null} pour ne pas vérifier.
+   * @param playerId        Identifiant du joueur qui vote.
+   * @return le résultat du vote.
+   */
+  public CommandResult tryVoteRematch(String gameId, Long expectedVersion, String playerId) {
+    return attempt(gameId, expectedVersion, game -> {
+      if (game.getStatus() != GameStatus.FINISHED)
+        return NOT_FINISHED;
 
-    int humanCount = game.getHumanPlayerCount();
+      boolean isFirstVote = game.getRematchVoteCount() == 0;
+      game.addRematchVoter(playerId);
 
-    if (game.getRematchVoteCount() >= humanCount) {
-      game.clearRematchVoters();
-      restartGame(gameId);
-      return;
-    }
+      int humanCount = game.getHumanPlayerCount();
 
-    if (isFirstVote) {
-      CompletableFuture.delayedExecutor(30, TimeUnit.SECONDS).execute(() -> {
-        try {
-          Game g = getGame(gameId);
+      if (game.getRematchVoteCount() >= humanCount) {
+        game.clearRematchVoters();
+        restartGame(gameId);
+        return CommandResult.ok();
+      }
 
-          if (g.getStatus() == GameStatus.FINISHED && g.getRematchVoteCount() > 0) {
-            g.setRematchExpired(true);
+      if (isFirstVote) {
+        scheduler.schedule(game, 30, TimeUnit.SECONDS, () -> {
+          try {
+            executeScheduled(gameId, g -> {
+              if (g.getStatus() == GameStatus.FINISHED && g.getRematchVoteCount() > 0) {
+                g.setRematchExpired(true);
 
-            if (broadcastCallback != null) {
-              broadcastCallback.accept(g);
-            }
+                if (broadcastCallback != null) {
+                  broadcastCallback.accept(g);
+                }
 
-            CompletableFuture.delayedExecutor(10, TimeUnit.SECONDS).execute(() -> {
-              removeGame(gameId);
+                scheduler.schedule(g, 10, TimeUnit.SECONDS, () -> removeGame(gameId));
+              }
             });
+          } catch (IllegalArgumentException ignored) {
+            // La partie n'existe déjà plus
           }
-        } catch (IllegalArgumentException ignored) {
-          // La partie n'existe déjà plus
-        }
-      });
-    }
+        });
+      }
+      return CommandResult.ok();
+    });
   }
 
   /**
@@ -377,14 +711,28 @@ public class GameService {
    * @param playerId Identifiant du joueur qui choisit de piocher.
    */
   public void chooseToDraw(String gameId, String playerId) {
-    Game game = getGame(gameId);
+    tryChooseToDraw(gameId, null, playerId).orThrow();
+  }
 
-    checkPlayerTurn(game, playerId);
+  /**
+   * Comme {@link #chooseToDraw(String, String)}, sans lever d'exception si ce n'est pas le tour du joueur.
+   *
+   * @param gameId          Identifiant de la partie.
+   * @param expectedVersion version sur laquelle le joueur s'est basé, {@code null} pour ne pas vérifier.
+   * @param playerId        Identifiant du joueur qui choisit de piocher.
+   * @return le résultat de l'action.
+   */
+  public CommandResult tryChooseToDraw(String gameId, Long expectedVersion, String playerId) {
+    return attempt(gameId, expectedVersion, game -> {
+      if (!isPlayerTurn(game, playerId))
+        return NOT_YOUR_TURN;
 
-    drawCards(gameId, playerId, 1);
-    game.updateCurrentPlayerIndex();
+      drawCards(gameId, playerId, 1);
+      game.updateCurrentPlayerIndex();
 
-    playBotTurn(gameId);
+      playBotTurn(gameId);
+      return CommandResult.ok();
+    });
   }
 
   /**
@@ -394,26 +742,39 @@ public class GameService {
    * @param callerId Identifiant du joueur qui clique sur le bouton "Uno".
    */
   public void callUno(String gameId, String callerId) {
-    Game game = getGame(gameId);
-
-    if (game.getStatus() != GameStatus.IN_PROGRESS)
-      throw new IllegalStateException("La partie n'est pas en cours");
-
-    Player caller = game.findPlayerById(callerId);
-    if (caller == null)
-      throw new IllegalArgumentException("Joueur introuvable");
+    tryCallUno(gameId, null, callerId).orThrow();
+  }
 
-    // uno
-    if (caller.getHandSize() <= 1) {
-      caller.setUnoCalled(true);
-    }
+  /**
+   * Comme {@link #callUno(String, String)}, sans lever d'exception si l'annonce est refusée.
+   *
+   * @param gameId          Identifiant de la partie.
+   * @param expectedVersion version sur laquelle le joueur s'est basé, {@code null} pour ne pas vérifier.
+   * @param callerId        Identifiant du joueur qui clique sur le bouton "Uno".
+   * @return le résultat de l'annonce.
+   */
+  public CommandResult tryCallUno(String gameId, Long expectedVersion, String callerId) {
+    return attempt(gameId, expectedVersion, game -> {
+      if (game.getStatus() != GameStatus.IN_PROGRESS)
+        return NOT_IN_PROGRESS;
+
+      Player caller = game.findPlayerById(callerId);
+      if (caller == null)
+        return PLAYER_NOT_FOUND;
+
+      // uno
+      if (caller.getHandSize() <= 1) {
+        caller.setUnoCalled(true);
+      }
 
-    // contre-uno
-    for (Player p : game.getPlayers()) {
-      if (!p.getId().equals(callerId) && p.getHandSize() == 1 && !p.isUnoCalled()) {
-        drawCards(gameId, p.getId(), 2); // Pénalité de 2 cartes
+      // contre-uno
+      for (Player p : game.getPlayers()) {
+        if (!p.getId().equals(callerId) && p.getHandSize() == 1 && !p.isUnoCalled()) {
+          drawCards(gameId, p.getId(), 2); // Pénalité de 2 cartes
+        }
       }
-    }
+      return CommandResult.ok();
+    });
   }
 
 
@@ -422,12 +783,10 @@ public class GameService {
    *
    * @param game     La partie en cours.
    * @param playerId L'identifiant du joueur à vérifier.
-   * @throws IllegalArgumentException Si ce n'est pas le tour du joueur.
+   * @return {@code true} si c'est le tour du joueur.
    */
-  private void checkPlayerTurn(Game game, String playerId) {
-    if (game.getCurrentPlayer() == null || !game.getCurrentPlayer().getId().equals(playerId)) {
-      throw new IllegalArgumentException("Ce n'est pas le tour de ce joueur");
-    }
+  private boolean isPlayerTurn(Game game, String playerId) {
+    return game.getCurrentPlayer() != null && game.getCurrentPlayer().getId().equals(playerId);
   }
 
 
@@ -438,10 +797,12 @@ public class GameService {
    * @param difficulty Difficulté du bot.
    */
   public void addBot(String gameId, Difficulty difficulty) {
-    Game game = getGame(gameId);
+    execute(gameId, game -> game.addPlayer(newBot(difficulty)));
+  }
+
+  private static AIPlayer newBot(Difficulty difficulty) {
     String botId = java.util.UUID.randomUUID().toString();
-    AIPlayer bot = new AIPlayer(botId, botId.substring(0, 4), difficulty);
-    game.addPlayer(bot);
+    return new AIPlayer(botId, botId.substring(0, 4), difficulty);
   }
 
   /**
@@ -450,50 +811,55 @@ public class GameService {
    * @param gameId Identifiant de la partie.
    */
   public void playBotTurn(String gameId) {
-    Game game = getGame(gameId);
-    Player currentPlayer = game.getCurrentPlayer();
+    execute(gameId, game -> {
+      Player currentPlayer = game.getCurrentPlayer();
 
-    if (currentPlayer == null) return;
+      if (currentPlayer == null) return;
 
-    if (!currentPlayer.isConnected() && !(currentPlayer instanceof AIPlayer)) {
-      CompletableFuture.delayedExecutor(1000, TimeUnit.MILLISECONDS).execute(() -> {
+      if (!currentPlayer.isConnected() && !(currentPlayer instanceof AIPlayer)) {
+        scheduler.schedule(game, 1000, TimeUnit.MILLISECONDS, () -> {
+          try {
+            executeScheduled(gameId, g -> {
+              chooseToDraw(gameId, currentPlayer.getId());
+              if (broadcastCallback != null) broadcastCallback.accept(g);
+            });
+          } catch (Exception e) {
+            System.err.println("Tour auto joueur déconnecté : " + e.getMessage());
+          }
+        });
+        return;
+      }
+
+      if (!(currentPlayer instanceof AIPlayer bot)) {
+        return;
+      }
+
+      // simule temps de reflexion
+      scheduler.schedule(game, 1500, TimeUnit.MILLISECONDS, () -> {
         try {
-          chooseToDraw(gameId, currentPlayer.getId());
-          if (broadcastCallback != null) broadcastCallback.accept(getGame(gameId));
+          executeScheduled(gameId, g -> {
+            Card topCard = g.getTopCard();
+            Color activeColor = g.getActiveColor() != null ? g.getActiveColor() : topCard.getColor();
+
+            Card cardToPlay = bot.chooseCardToPlay(activeColor, topCard.getValue());
+
+            if (cardToPlay != null) {
+              Color chosenColor = null;
+              if (cardToPlay.getColor() == Color.BLACK) {
+                chosenColor = bot.chooseColor();
+              }
+              playCard(gameId, bot.getId(), cardToPlay.getId(), chosenColor);
+            } else { // aucune carte jouable
+              chooseToDraw(gameId, bot.getId());
+            }
+            if (broadcastCallback != null) {
+              broadcastCallback.accept(g);
+            }
+          });
         } catch (Exception e) {
-          System.err.println("Tour auto joueur déconnecté : " + e.getMessage());
+          System.err.println("Erreur lors du tour du bot : " + e.getMessage());
         }
       });
-      return;
-    }
-
-    if (!(currentPlayer instanceof AIPlayer bot)) {
-      return;
-    }
-
-    // simule temps de reflexion
-    CompletableFuture.delayedExecutor(1500, TimeUnit.MILLISECONDS).execute(() -> {
-      try {
-        Card topCard = game.getTopCard();
-        Color activeColor = game.getActiveColor() != null ? game.getActiveColor() : topCard.getColor();
-
-        Card cardToPlay = bot.chooseCardToPlay(activeColor, topCard.getValue());
-
-        if (cardToPlay != null) {
-          Color chosenColor = null;
-          if (cardToPlay.getColor() == Color.BLACK) {
-            chosenColor = bot.chooseColor();
-          }
-          playCard(gameId, bot.getId(), cardToPlay.getId(), chosenColor);
-        } else { // aucune carte jouable
-          chooseToDraw(gameId, bot.getId());
-        }
-        if (broadcastCallback != null) {
-          broadcastCallback.accept(getGame(gameId));
-        }
-      } catch (Exception e) {
-        System.err.println("Erreur lors du tour du bot : " + e.getMessage());
-      }
     });
   }
 
@@ -506,11 +872,12 @@ public class GameService {
    */
   public void connectPlayer(String sessionId, String gameId, String playerId) {
     sessionPlayerMap.put(sessionId, new String[]{gameId, playerId});
-    Game game = getGame(gameId);
-    Player p = game.findPlayerById(playerId);
-    if (p != null) {
-      p.setConnected(true);
-    }
+    execute(gameId, game -> {
+      Player p = game.findPlayerById(playerId);
+      if (p != null) {
+        p.setConnected(true);
+      }
+    });
   }
 
   /**
@@ -524,16 +891,17 @@ public class GameService {
       String gameId = info[0];
       String playerId = info[1];
       try {
-        Game game = getGame(gameId);
-        Player p = game.findPlayerById(playerId);
-        if (p != null) {
-          p.setConnected(false);
-          broadcastCallback.accept(game);
-          // on déclenche le bot, si c'est son tour
-          if (game.getCurrentPlayer().getId().equals(playerId)) {
-            playBotTurn(gameId);
+        execute(gameId, game -> {
+          Player p = game.findPlayerById(playerId);
+          if (p != null) {
+            p.setConnected(false);
+            broadcastCallback.accept(game);
+            // on déclenche le bot, si c'est son tour
+            if (game.getCurrentPlayer().getId().equals(playerId)) {
+              playBotTurn(gameId);
+            }
           }
-        }
+        });
       } catch (IllegalArgumentException ignored) {
       }
     }
@@ -546,19 +914,20 @@ public class GameService {
    * @param playerId Identifiant du joueur qui se reconnecte.
    */
   public void reconnectPlayer(String gameId, String playerId) {
-    Game game = getGame(gameId);
-    Player player = game.getPlayers().stream()
-            .filter(p -> p.getId().equals(playerId))
-            .findFirst()
-            .orElseThrow(() -> new IllegalArgumentException("Joueur introuvable"));
+    execute(gameId, game -> {
+      Player player = game.getPlayers().stream()
+              .filter(p -> p.getId().equals(playerId))
+              .findFirst()
+              .orElseThrow(() -> new IllegalArgumentException("Joueur introuvable"));
 
-    if (!player.isConnected()) {
-      player.setConnected(true);
+      if (!player.isConnected()) {
+        player.setConnected(true);
 
-      if (broadcastCallback != null) {
-        broadcastCallback.accept(game);
+        if (broadcastCallback != null) {
+          broadcastCallback.accept(game);
+        }
       }
-    }
+    });
   }
 
 }
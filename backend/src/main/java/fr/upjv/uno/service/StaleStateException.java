@@ -0,0 +1,29 @@
+package fr.upjv.uno.service;
+
+/**
+ * Levée quand une action est basée sur une version de la partie déjà dépassée
+ * (double clic, état affiché périmé, action concurrente).
+ * <p>
+ * Attendue et fréquente : elle ne capture pas de pile d'appels pour rester peu coûteuse.
+ * </p>
+ */
+public class StaleStateException extends RuntimeException {
+  private final long currentVersion;
+
+  /**
+   * @param expectedVersion version sur laquelle le client s'est basé.
+   * @param currentVersion  version actuelle de la partie.
+   */
+  public StaleStateException(long expectedVersion, long currentVersion) {
+    super("État périmé : version " + expectedVersion + " attendue, version actuelle " + currentVersion,
+            null, false, false);
+    this.currentVersion = currentVersion;
+  }
+
+  /**
+   * @return la version actuelle de la partie au moment du refus.
+   */
+  public long getCurrentVersion() {
+    return currentVersion;
+  }
+}
@@ -0,0 +1,162 @@
+package fr.upjv.uno.util;
+
+import java.security.SecureRandom;
+import java.util.Queue;
+import java.util.Random;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Attribue des codes de partie uniques en temps constant.
+ * <p>
+ * L'espace des codes [0, 36^n) est parcouru dans l'ordre d'une permutation à clé secrète
+ * (réseau de Feistel sur le plus petit nombre pair de bits couvrant l'espace, ramené dans
+ * l'espace par « cycle walking ») : le i-ème code attribué est l'image de i. Deux appels ne
+ * peuvent donc jamais renvoyer le même code, sans table à consulter ni tirage à recommencer,
+ * et les codes successifs paraissent aléatoires.
+ * </p>
+ * <p>
+ * Les codes libérés ne sont réutilisés qu'une fois la permutation épuisée, du plus ancien au plus récent :
+ * un code ne désigne pas une nouvelle partie aussitôt après la fin de la précédente, quand d'anciens liens
+ * ou des clients en reconnexion le visent encore.
+ * </p>
+ */
+public class GameCodeAllocator {
+  private static final String CHARACTERS = "ABCDEFGHIJKLMNOPQRSTUVWXYZ0123456789";
+  private static final int ROUNDS = 4;
+  /** 36^12 tient encore dans un long. */
+  public static final int MAX_LENGTH = 12;
+
+  private final int length;
+  private final long space;
+  private final int halfBits;
+  private final long halfMask;
+  private final long[] roundKeys = new long[ROUNDS];
+
+  private final AtomicLong next = new AtomicLong();
+  private final Queue<Long> released = new ConcurrentLinkedQueue<>();
+
+  /**
+   * @param length nombre de caractères des codes, entre 1 et {@link #MAX_LENGTH}.
+   */
+  public GameCodeAllocator(int length) {
+    this(length, new SecureRandom());
+  }
+
+  /**
+   * @param length nombre de caractères des codes, entre 1 et {@link #MAX_LENGTH}.
+   * @param random source des clés de la permutation.
+   */
+  public GameCodeAllocator(int length, Random random) {
+    if (length < 1 || length > MAX_LENGTH)
+      throw new IllegalArgumentException("La longueur des codes doit être comprise entre 1 et " + MAX_LENGTH);
+
+    long size = 1;
+    for (int i = 0; i < length; i++)
+      size *= CHARACTERS.length();
+
+    int bits = Math.max(2, 64 - Long.numberOfLeadingZeros(size - 1));
+    this.length = length;
+    this.space = size;
+    this.halfBits = (bits + 1) / 2;
+    this.halfMask = (1L << halfBits) - 1;
+    for (int i = 0; i < ROUNDS; i++)
+      roundKeys[i] = random.nextLong();
+  }
+
+  /**
+   * Attribue un code libre.
+   *
+   * @return un code de {@code length} caractères, différent de tous les codes en cours d'utilisation.
+   * @throws IllegalStateException si tous les codes sont utilisés.
+   */
+  public String allocate() {
+    long index = next.getAndIncrement();
+    if (index < space)
+      return encode(permute(index));
+    next.set(space); // évite le débordement en cas d'appels répétés
+
+    Long recycled = released.poll();
+    if (recycled == null)
+      throw new IllegalStateException("Plus aucun code de partie disponible");
+    return encode(recycled);
+  }
+
+  /**
+   * Rend un code, qui pourra être attribué à nouveau. Chaque code attribué doit être rendu au plus une fois ;
+   * les chaînes qui ne sont pas au format des codes sont ignorées.
+   *
+   * @param code code à libérer.
+   */
+  public void release(String code) {
+    long value = decode(code);
+    if (value >= 0)
+      released.add(value);
+  }
+
+  /**
+   * @return le nombre de caractères des codes.
+   */
+  public int getLength() {
+    return length;
+  }
+
+  /**
+   * @return le nombre total de codes possibles.
+   */
+  public long getCapacity() {
+    return space;
+  }
+
+  private long permute(long value) {
+    long x = value;
+    do {
+      x = feistel(x);
+      // la permutation des 2^bits valeurs est ramenée dans [0, space) ; comparaison non signée :
+      // à 12 caractères, le réseau porte sur 64 bits et peut lever le bit de signe
+    } while (Long.compareUnsigned(x, space) >= 0);
+    return x;
+  }
+
+  private long feistel(long x) {
+    long left = x >>> halfBits;
+    long right = x & halfMask;
+    for (long key : roundKeys) {
+      long mixed = left ^ (mix(right ^ key) & halfMask);
+      left = right;
+      right = mixed;
+    }
+    return (left << halfBits) | right;
+  }
+
+  /**
+   * Fonction de mélange de SplitMix64.
+   */
+  private static long mix(long z) {
+    z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+    z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+    return z ^ (z >>> 31);
+  }
+
+  private String encode(long value) {
+    char[] code = new char[length];
+    for (int i = length - 1; i >= 0; i--) {
+      code[i] = CHARACTERS.charAt((int) (value % CHARACTERS.length()));
+      value /= CHARACTERS.length();
+    }
+    return new String(code);
+  }
+
+  private long decode(String code) {
+    if (code == null || code.length() != length)
+      return -1;
+    long value = 0;
+    for (int i = 0; i < length; i++) {
+      int digit = CHARACTERS.indexOf(code.charAt(i));
+      if (digit < 0)
+        return -1;
+      value = value * CHARACTERS.length() + digit;
+    }
+    return value;
+  }
+}
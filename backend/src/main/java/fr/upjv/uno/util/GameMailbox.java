@@ -0,0 +1,92 @@
+package fr.upjv.uno.util;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Supplier;
+
+/**
+ * File de commandes d'une partie, consommée par un seul thread à la fois.
+ * <p>
+ * Les commandes d'une même partie sont appliquées strictement dans l'ordre d'arrivée,
+ * tandis que les boîtes de parties différentes sont vidées en parallèle par un pool partagé.
+ * Aucun verrou n'est pris : un drapeau atomique garantit qu'au plus une tâche de vidage est planifiée.
+ * </p>
+ */
+public class GameMailbox {
+  /** Nombre maximal de commandes traitées avant de rendre la main au pool (équité entre parties). */
+  private static final int BATCH_SIZE = 32;
+
+  private final Queue<Runnable> commands = new ConcurrentLinkedQueue<>();
+  private final AtomicBoolean scheduled = new AtomicBoolean(false);
+  private volatile Thread consumer;
+
+  /**
+   * Dépose une commande dans la boîte.
+   *
+   * @param command commande à appliquer.
+   * @param pool    pool partagé chargé de vider les boîtes.
+   * @param <T>     type du résultat.
+   * @return future complétée avec le résultat (ou l'exception) de la commande.
+   */
+  public <T> CompletableFuture<T> submit(Supplier<T> command, Executor pool) {
+    CompletableFuture<T> result = new CompletableFuture<>();
+    commands.add(() -> {
+      try {
+        result.complete(command.get());
+      } catch (Throwable t) {
+        result.completeExceptionally(t);
+      }
+    });
+    schedule(pool);
+    return result;
+  }
+
+  /**
+   * Indique si le thread courant est celui qui vide actuellement la boîte.
+   * Permet d'exécuter directement les commandes imbriquées sans se bloquer soi-même.
+   *
+   * @return {@code true} si on est déjà dans une commande de cette partie, {@code false} sinon.
+   */
+  public boolean isConsumerThread() {
+    return consumer == Thread.currentThread();
+  }
+
+  /**
+   * @return le nombre de commandes en attente.
+   */
+  public int getPendingCount() {
+    return commands.size();
+  }
+
+  private void schedule(Executor pool) {
+    if (!scheduled.compareAndSet(false, true))
+      return;
+    try {
+      pool.execute(() -> drain(pool));
+    } catch (RejectedExecutionException e) {
+      scheduled.set(false);
+      throw e;
+    }
+  }
+
+  private void drain(Executor pool) {
+    consumer = Thread.currentThread();
+    try {
+      Runnable command;
+      int budget = BATCH_SIZE;
+      while (budget-- > 0 && (command = commands.poll()) != null) {
+        command.run();
+      }
+    } finally {
+      consumer = null;
+      scheduled.set(false);
+      // une commande a pu arriver entre le dernier poll et la remise à false
+      if (!commands.isEmpty())
+        schedule(pool);
+    }
+  }
+}
@@ -0,0 +1,263 @@
+package fr.upjv.uno.util;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Minuterie à roue hachée (hashed timing wheel).
+ * <p>
+ * La roue est un tableau de {@code wheelSize} cases, chacune couvrant {@code tickDuration}.
+ * Un thread unique avance d'une case à chaque tick et déclenche les tâches échues de la case courante.
+ * Planifier et annuler coûtent O(1) : les demandes sont déposées dans des files sans verrou,
+ * puis appliquées par le thread de la roue au tick suivant.
+ * La précision est donc d'un tick, ce qui suffit largement pour des délais de jeu (bots, revanche).
+ * </p>
+ * <p>
+ * Les tâches ne s'exécutent pas sur le thread de la roue mais sur l'{@link Executor} fourni.
+ * </p>
+ */
+public class HashedWheelTimer {
+  private static final int MAX_TRANSFERS_PER_TICK = 100_000;
+
+  private final long tickNanos;
+  private final Bucket[] wheel;
+  private final int mask;
+  private final Executor taskExecutor;
+
+  private final Queue<Timeout> pendingAdds = new ConcurrentLinkedQueue<>();
+  private final Queue<Timeout> pendingCancels = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger pendingCount = new AtomicInteger();
+
+  private final Thread worker;
+  private final long startTime;
+  private volatile boolean running = true;
+  private long tick;
+
+  /**
+   * @param tickDuration  durée d'un tick.
+   * @param unit          unité de {@code tickDuration}.
+   * @param wheelSize     nombre de cases, arrondi à la puissance de 2 supérieure.
+   * @param taskExecutor  exécuteur des tâches échues.
+   * @param threadName    nom du thread de la roue.
+   */
+  public HashedWheelTimer(long tickDuration, TimeUnit unit, int wheelSize, Executor taskExecutor, String threadName) {
+    if (tickDuration <= 0)
+      throw new IllegalArgumentException("La durée d'un tick doit être positive");
+    if (wheelSize <= 0)
+      throw new IllegalArgumentException("La roue doit contenir au moins une case");
+
+    int size = Integer.highestOneBit(wheelSize);
+    if (size < wheelSize)
+      size <<= 1;
+
+    this.tickNanos = unit.toNanos(tickDuration);
+    this.wheel = new Bucket[size];
+    for (int i = 0; i < size; i++)
+      wheel[i] = new Bucket();
+    this.mask = size - 1;
+    this.taskExecutor = taskExecutor;
+
+    this.startTime = System.nanoTime();
+    this.worker = new Thread(this::run, threadName);
+    this.worker.setDaemon(true);
+    this.worker.start();
+  }
+
+  /**
+   * Planifie une tâche.
+   *
+   * @param task  tâche à exécuter.
+   * @param delay délai avant exécution.
+   * @param unit  unité du délai.
+   * @return un handle permettant d'annuler la tâche.
+   */
+  public Timeout newTimeout(Runnable task, long delay, TimeUnit unit) {
+    if (task == null)
+      throw new IllegalArgumentException("Aucune tâche à planifier");
+    if (!running)
+      throw new IllegalStateException("La minuterie est arrêtée");
+
+    long deadline = System.nanoTime() - startTime + unit.toNanos(Math.max(0, delay));
+    Timeout timeout = new Timeout(this, task, deadline);
+    pendingCount.incrementAndGet();
+    pendingAdds.add(timeout);
+    return timeout;
+  }
+
+  /**
+   * @return le nombre de tâches planifiées et ni échues ni annulées.
+   */
+  public int getPendingCount() {
+    return pendingCount.get();
+  }
+
+  /**
+   * Arrête le thread de la roue. Les tâches non échues ne seront jamais exécutées.
+   */
+  public void stop() {
+    running = false;
+    worker.interrupt();
+  }
+
+  private void run() {
+    while (running) {
+      if (!waitForNextTick())
+        return;
+      processCancellations();
+      transferPendingAdds();
+      wheel[(int) (tick & mask)].expire();
+      tick++;
+    }
+  }
+
+  private boolean waitForNextTick() {
+    long deadline = tickNanos * (tick + 1);
+    while (true) {
+      long sleepNanos = deadline - (System.nanoTime() - startTime);
+      if (sleepNanos <= 0)
+        return true;
+      try {
+        TimeUnit.NANOSECONDS.sleep(sleepNanos);
+      } catch (InterruptedException e) {
+        if (!running)
+          return false;
+      }
+    }
+  }
+
+  private void processCancellations() {
+    Timeout timeout;
+    while ((timeout = pendingCancels.poll()) != null) {
+      if (timeout.bucket != null)
+        timeout.bucket.remove(timeout);
+    }
+  }
+
+  private void transferPendingAdds() {
+    for (int i = 0; i < MAX_TRANSFERS_PER_TICK; i++) {
+      Timeout timeout = pendingAdds.poll();
+      if (timeout == null)
+        return;
+      if (timeout.state.get() != Timeout.INIT)
+        continue; // annulée avant même d'entrer dans la roue
+
+      long calculated = timeout.deadline / tickNanos;
+      timeout.remainingRounds = (calculated - tick) / wheel.length;
+      long ticks = Math.max(calculated, tick); // échéance passée : case courante
+      wheel[(int) (ticks & mask)].add(timeout);
+    }
+  }
+
+  /**
+   * Handle d'une tâche planifiée.
+   */
+  public static final class Timeout {
+    private static final int INIT = 0;
+    private static final int CANCELLED = 1;
+    private static final int EXPIRED = 2;
+
+    private final HashedWheelTimer timer;
+    private final Runnable task;
+    private final long deadline;
+    private final AtomicInteger state = new AtomicInteger(INIT);
+
+    // accédés uniquement par le thread de la roue
+    private long remainingRounds;
+    private Bucket bucket;
+    private Timeout prev;
+    private Timeout next;
+
+    private Timeout(HashedWheelTimer timer, Runnable task, long deadline) {
+      this.timer = timer;
+      this.task = task;
+      this.deadline = deadline;
+    }
+
+    /**
+     * Annule la tâche si elle n'a pas encore été déclenchée.
+     *
+     * @return {@code true} si la tâche est annulée, {@code false} si elle était déjà échue ou annulée.
+     */
+    public boolean cancel() {
+      if (!state.compareAndSet(INIT, CANCELLED))
+        return false;
+      timer.pendingCount.decrementAndGet();
+      timer.pendingCancels.add(this);
+      return true;
+    }
+
+    /**
+     * @return {@code true} si la tâche a été annulée.
+     */
+    public boolean isCancelled() {
+      return state.get() == CANCELLED;
+    }
+
+    /**
+     * @return {@code true} si la tâche a été déclenchée.
+     */
+    public boolean isExpired() {
+      return state.get() == EXPIRED;
+    }
+
+    private void expire() {
+      if (!state.compareAndSet(INIT, EXPIRED))
+        return;
+      timer.pendingCount.decrementAndGet();
+      timer.taskExecutor.execute(task);
+    }
+  }
+
+  /**
+   * Case de la roue : liste doublement chaînée pour un retrait en O(1).
+   */
+  private static final class Bucket {
+    private Timeout head;
+    private Timeout tail;
+
+    private void add(Timeout timeout) {
+      timeout.bucket = this;
+      if (head == null) {
+        head = tail = timeout;
+      } else {
+        tail.next = timeout;
+        timeout.prev = tail;
+        tail = timeout;
+      }
+    }
+
+    private void remove(Timeout timeout) {
+      Timeout next = timeout.next;
+      if (timeout.prev != null)
+        timeout.prev.next = next;
+      if (next != null)
+        next.prev = timeout.prev;
+      if (timeout == head)
+        head = next;
+      if (timeout == tail)
+        tail = timeout.prev;
+      timeout.prev = null;
+      timeout.next = null;
+      timeout.bucket = null;
+    }
+
+    private void expire() {
+      Timeout timeout = head;
+      while (timeout != null) {
+        Timeout next = timeout.next;
+        if (timeout.isCancelled()) {
+          remove(timeout);
+        } else if (timeout.remainingRounds <= 0) {
+          remove(timeout);
+          timeout.expire();
+        } else {
+          timeout.remainingRounds--;
+        }
+        timeout = next;
+      }
+    }
+  }
+}
@@ -0,0 +1,127 @@
+package fr.upjv.uno.util;
+
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Exécuteur où les tâches d'une même clé passent strictement dans l'ordre de dépôt, une à la fois,
+ * tandis que les clés différentes avancent en parallèle sur un pool partagé.
+ * <p>
+ * Chaque clé active a sa file. Une file n'existe que tant qu'elle a des tâches : elle est créée au premier
+ * dépôt et retirée quand elle est vide. Dépôt et fin de vidage passent par la même entrée de la table,
+ * donc aucune tâche ne peut être déposée dans une file en cours de retrait.
+ * </p>
+ * <p>
+ * La profondeur de chaque file (tâches en attente, hors tâche en cours) est consultable à tout moment.
+ * </p>
+ */
+public class KeyedSerialExecutor {
+  /** Nombre maximal de tâches d'une clé traitées avant de rendre la main au pool (équité entre clés). */
+  private static final int BATCH_SIZE = 32;
+
+  private final Executor pool;
+  private final Map<String, Lane> lanes = new ConcurrentHashMap<>();
+
+  /**
+   * File d'une clé, présente dans la table tant qu'un vidage est planifié ou en cours.
+   */
+  private static final class Lane {
+    private final String key;
+    private final Queue<Runnable> tasks = new ConcurrentLinkedQueue<>();
+    private final AtomicInteger depth = new AtomicInteger();
+
+    private Lane(String key) {
+      this.key = key;
+    }
+  }
+
+  /**
+   * @param pool pool partagé chargé de vider les files.
+   */
+  public KeyedSerialExecutor(Executor pool) {
+    this.pool = pool;
+  }
+
+  /**
+   * Dépose une tâche dans la file de sa clé.
+   *
+   * @param key  clé d'ordonnancement : les tâches d'une même clé ne se doublent jamais.
+   * @param task tâche à exécuter ; une exception ne bloque pas les tâches suivantes.
+   * @throws RejectedExecutionException si le pool n'accepte plus de tâches.
+   */
+  public void execute(String key, Runnable task) {
+    lanes.compute(key, (k, lane) -> {
+      Lane target = lane != null ? lane : new Lane(k);
+      target.tasks.add(task);
+      target.depth.incrementAndGet();
+      if (lane == null)
+        pool.execute(() -> drain(target));
+      return target;
+    });
+  }
+
+  /**
+   * @param key clé d'ordonnancement.
+   * @return le nombre de tâches de cette clé en attente.
+   */
+  public int getQueueDepth(String key) {
+    Lane lane = lanes.get(key);
+    return lane != null ? lane.depth.get() : 0;
+  }
+
+  /**
+   * @return le nombre total de tâches en attente, toutes clés confondues.
+   */
+  public int getTotalDepth() {
+    int total = 0;
+    for (Lane lane : lanes.values())
+      total += lane.depth.get();
+    return total;
+  }
+
+  /**
+   * @return la profondeur de la file la plus chargée.
+   */
+  public int getMaxDepth() {
+    int max = 0;
+    for (Lane lane : lanes.values())
+      max = Math.max(max, lane.depth.get());
+    return max;
+  }
+
+  /**
+   * @return le nombre de clés ayant des tâches en attente ou en cours.
+   */
+  public int getActiveKeyCount() {
+    return lanes.size();
+  }
+
+  private void drain(Lane lane) {
+    Runnable task;
+    int budget = BATCH_SIZE;
+    while (budget-- > 0 && (task = lane.tasks.poll()) != null) {
+      lane.depth.decrementAndGet();
+      try {
+        task.run();
+      } catch (RuntimeException e) {
+        System.err.println("Erreur dans une tâche de la file " + lane.key + " : " + e.getMessage());
+      }
+    }
+    // retrait si vide, sinon nouveau passage : atomique vis-à-vis des dépôts sur la même clé
+    lanes.compute(lane.key, (k, current) -> {
+      if (lane.tasks.isEmpty())
+        return null;
+      try {
+        pool.execute(() -> drain(lane));
+        return lane;
+      } catch (RejectedExecutionException e) {
+        return null; // arrêt en cours : les tâches restantes sont abandonnées
+      }
+    });
+  }
+}
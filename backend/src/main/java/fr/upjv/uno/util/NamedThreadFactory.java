@@ -0,0 +1,27 @@
+package fr.upjv.uno.util;
+
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fabrique de threads démons numérotés (ex : game-command-1, game-command-2...).
+ * Les threads démons n'empêchent pas l'arrêt de la JVM.
+ */
+public class NamedThreadFactory implements ThreadFactory {
+  private final String prefix;
+  private final AtomicInteger threadCount = new AtomicInteger();
+
+  /**
+   * @param prefix préfixe du nom des threads créés.
+   */
+  public NamedThreadFactory(String prefix) {
+    this.prefix = prefix;
+  }
+
+  @Override
+  public Thread newThread(Runnable r) {
+    Thread thread = new Thread(r, prefix + threadCount.incrementAndGet());
+    thread.setDaemon(true);
+    return thread;
+  }
+}
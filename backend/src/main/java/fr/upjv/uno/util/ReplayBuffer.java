@@ -0,0 +1,73 @@
+package fr.upjv.uno.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tampon circulaire des derniers éléments d'une suite numérotée.
+ * <p>
+ * Chaque ajout reçoit le numéro suivant, à partir de 1. Seuls les {@code capacity} derniers éléments
+ * sont gardés : au-delà, le plus ancien est écrasé. Un lecteur qui connaît le dernier numéro reçu
+ * retrouve tous les éléments suivants, ou apprend qu'une partie d'entre eux a été écrasée.
+ * </p>
+ *
+ * @param <T> type des éléments.
+ */
+public class ReplayBuffer<T> {
+  private final Object[] entries;
+  /** Numéro du dernier élément ajouté, 0 si aucun. */
+  private long lastSequence;
+
+  /**
+   * @param capacity nombre d'éléments gardés (au moins 1).
+   */
+  public ReplayBuffer(int capacity) {
+    this.entries = new Object[Math.max(1, capacity)];
+  }
+
+  /**
+   * Ajoute un élément, en écrasant le plus ancien si le tampon est plein.
+   *
+   * @param entry élément à ajouter.
+   * @return le numéro attribué à l'élément.
+   */
+  public synchronized long append(T entry) {
+    lastSequence++;
+    entries[index(lastSequence)] = entry;
+    return lastSequence;
+  }
+
+  /**
+   * @return le numéro du dernier élément ajouté, 0 si aucun.
+   */
+  public synchronized long getLastSequence() {
+    return lastSequence;
+  }
+
+  /**
+   * @return le dernier élément ajouté, {@code null} si aucun.
+   */
+  @SuppressWarnings("unchecked")
+  public synchronized T latest() {
+    return lastSequence == 0 ? null : (T) entries[index(lastSequence)];
+  }
+
+  /**
+   * @param sequence numéro du dernier élément connu du lecteur (0 : aucun).
+   * @return les éléments de numéro supérieur, du plus ancien au plus récent, ou {@code null} si certains ont
+   * été écrasés ou si le numéro est inconnu (supérieur au dernier, négatif).
+   */
+  @SuppressWarnings("unchecked")
+  public synchronized List<T> since(long sequence) {
+    if (sequence < 0 || sequence > lastSequence || lastSequence - sequence > entries.length)
+      return null;
+    List<T> result = new ArrayList<>((int) (lastSequence - sequence));
+    for (long s = sequence + 1; s <= lastSequence; s++)
+      result.add((T) entries[index(s)]);
+    return result;
+  }
+
+  private int index(long sequence) {
+    return (int) (sequence % entries.length);
+  }
+}
@@ -0,0 +1,244 @@
+package fr.upjv.uno;
+
+import fr.upjv.uno.config.ResumeInterceptor;
+import fr.upjv.uno.config.WebSocketConfig;
+import fr.upjv.uno.config.WebSocketEventListener;
+import fr.upjv.uno.service.GameBroadcaster;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.lang.reflect.Type;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Scénarios de diffusion communs aux deux modes du broker STOMP : en mémoire et relais vers un broker externe.
+ * <p>
+ * Un client STOMP réel s'abonne aux topics d'une partie pilotée par l'API REST : les états publiés par
+ * {@code GameController} et les refus d'actions doivent lui parvenir de la même façon dans les deux modes.
+ * </p>
+ */
+abstract class AbstractBrokerIntegrationTest {
+  private static final long TIMEOUT_SECONDS = 10;
+
+  private final JsonMapper mapper = JsonMapper.builder().build();
+  private final HttpClient http = HttpClient.newHttpClient();
+
+  @LocalServerPort
+  private int port;
+
+  /** Le broker en mémoire ou le relais, selon le mode. */
+  @Autowired
+  private List<AbstractBrokerMessageHandler> brokerHandlers;
+
+  private WebSocketStompClient stompClient;
+  private StompSession session;
+
+  @BeforeEach
+  void connect() throws Exception {
+    // le relais se connecte au broker externe après le démarrage du contexte
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+    while (!brokerAvailable() && System.nanoTime() < deadline)
+      Thread.sleep(50);
+    assertThat(brokerAvailable()).as("broker disponible").isTrue();
+
+    stompClient = new WebSocketStompClient(new StandardWebSocketClient());
+    session = stompClient.connectAsync("ws://localhost:" + port + WebSocketConfig.NATIVE_ENDPOINT,
+            new StompSessionHandlerAdapter() {
+            }).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+  }
+
+  @AfterEach
+  void disconnect() {
+    session.disconnect();
+    stompClient.stop();
+  }
+
+  @Test
+  @DisplayName("broadcastGameState : Les états de la partie et la main du joueur doivent parvenir aux abonnés")
+  void shouldDeliverGameStateAndHand() throws Exception {
+    String gameId = post("/api/games/create", "{\"maxPlayers\":4}").get("gameId").asString();
+    String playerId = join(gameId, "Alice").get("players").get(0).get("id").asString();
+    BlockingQueue<JsonNode> states = subscribe(GameBroadcaster.publicTopic(gameId));
+    StompHeaders hand = new StompHeaders();
+    hand.setDestination(GameBroadcaster.HAND_SUBSCRIPTION);
+    hand.add(WebSocketEventListener.GAME_HEADER, gameId);
+    hand.add(WebSocketEventListener.PLAYER_HEADER, playerId);
+    BlockingQueue<JsonNode> hands = subscribe(hand);
+    // l'ancien topic privé, ouvert à tous, ne doit plus rien recevoir
+    BlockingQueue<JsonNode> spied = subscribe("/topic/game/" + gameId + "/" + playerId);
+    awaitSubscriptions();
+
+    long version = join(gameId, "Bob").get("stateVersion").asLong();
+    assertThat(awaitMessage(states, state -> state.get("stateVersion").asLong() >= version))
+            .as("état après l'arrivée de Bob").isTrue();
+
+    post("/api/games/" + gameId + "/start", "");
+    assertThat(awaitMessage(hands, cards -> cards.get("myHand").size() == 7)).as("main distribuée").isTrue();
+    assertThat(spied).as("main reçue hors de la session du joueur").isEmpty();
+  }
+
+  @Test
+  @DisplayName("resume : Un client qui se réabonne doit recevoir les changements manqués depuis son dernier numéro")
+  void shouldReplayMissedChangesOnResume() throws Exception {
+    String gameId = post("/api/games/create", "{\"maxPlayers\":2}").get("gameId").asString();
+    join(gameId, "Alice");
+    BlockingQueue<Frame> live = new LinkedBlockingQueue<>();
+    subscribe(session, GameBroadcaster.publicTopic(gameId), null, live);
+    awaitSubscriptions();
+
+    join(gameId, "Bob"); // partie complète : pas de bot ajouté au lancement, les patchs restent possibles
+    Frame seen = lastFrame(live);
+    assertThat(seen).as("état connu des deux clients").isNotNull();
+    post("/api/games/" + gameId + "/start", "");
+    Frame last = lastFrame(live);
+    assertThat(last).as("états manqués par le second client").isNotNull();
+
+    // second client : ne connaît que le premier état, et reprend à partir de là
+    StompSession resumed = stompClient.connectAsync("ws://localhost:" + port + WebSocketConfig.NATIVE_ENDPOINT,
+            new StompSessionHandlerAdapter() {
+            }).get(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    try {
+      BlockingQueue<Frame> replayed = new LinkedBlockingQueue<>();
+      subscribe(resumed, GameBroadcaster.publicTopic(gameId), seen.sequence(), replayed);
+
+      Frame replay = replayed.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+      assertThat(replay).as("rattrapage reçu").isNotNull();
+      assertThat(replay.sequence()).isEqualTo(last.sequence());
+      assertThat(replay.body().get("baseVersion").asLong()).isEqualTo(seen.body().get("stateVersion").asLong());
+      assertThat(replay.body().get("stateVersion").asLong()).isEqualTo(last.body().get("stateVersion").asLong());
+    } finally {
+      resumed.disconnect();
+    }
+  }
+
+  @Test
+  @DisplayName("play : Une action refusée doit être signalée sur la file d'erreurs de la session")
+  void shouldReportRejectedActionToSession() throws Exception {
+    BlockingQueue<JsonNode> errors = subscribe("/user/queue/errors");
+    awaitSubscriptions();
+
+    StompHeaders headers = new StompHeaders();
+    headers.setDestination("/app/game/INCONNUE/play");
+    headers.setContentType(MimeTypeUtils.APPLICATION_JSON);
+    session.send(headers, "{\"playerId\":\"p\",\"cardId\":1}".getBytes(StandardCharsets.UTF_8));
+
+    JsonNode error = errors.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    assertThat(error).as("refus reçu").isNotNull();
+    assertThat(error.get("code").asString()).isEqualTo("GAME_NOT_FOUND");
+  }
+
+  private boolean brokerAvailable() {
+    return brokerHandlers.stream().allMatch(AbstractBrokerMessageHandler::isBrokerAvailable);
+  }
+
+  private BlockingQueue<JsonNode> subscribe(String destination) {
+    StompHeaders headers = new StompHeaders();
+    headers.setDestination(destination);
+    return subscribe(headers);
+  }
+
+  private BlockingQueue<JsonNode> subscribe(StompHeaders headers) {
+    BlockingQueue<JsonNode> received = new LinkedBlockingQueue<>();
+    session.subscribe(headers, new StompFrameHandler() {
+      @Override
+      public Type getPayloadType(StompHeaders headers) {
+        return byte[].class;
+      }
+
+      @Override
+      public void handleFrame(StompHeaders headers, Object payload) {
+        received.add(mapper.readTree((byte[]) payload));
+      }
+    });
+    return received;
+  }
+
+  private void subscribe(StompSession session, String destination, Long resumeFrom, BlockingQueue<Frame> received) {
+    StompHeaders headers = new StompHeaders();
+    headers.setDestination(destination);
+    if (resumeFrom != null)
+      headers.add(ResumeInterceptor.RESUME_HEADER, resumeFrom.toString());
+    session.subscribe(headers, new StompFrameHandler() {
+      @Override
+      public Type getPayloadType(StompHeaders headers) {
+        return byte[].class;
+      }
+
+      @Override
+      public void handleFrame(StompHeaders headers, Object payload) {
+        received.add(new Frame(Long.parseLong(headers.getFirst(GameBroadcaster.SEQUENCE_HEADER)),
+                mapper.readTree((byte[]) payload)));
+      }
+    });
+  }
+
+  /**
+   * Laisse aux SUBSCRIBE le temps d'être traités : le broker en mémoire ne confirme pas les abonnements.
+   */
+  private static void awaitSubscriptions() throws InterruptedException {
+    Thread.sleep(300);
+  }
+
+  /**
+   * @return le dernier message reçu avant que les diffusions ne s'arrêtent, {@code null} si aucun.
+   */
+  private static Frame lastFrame(BlockingQueue<Frame> frames) throws InterruptedException {
+    Frame last = frames.poll(TIMEOUT_SECONDS, TimeUnit.SECONDS);
+    for (Frame frame; last != null && (frame = frames.poll(500, TimeUnit.MILLISECONDS)) != null; )
+      last = frame;
+    return last;
+  }
+
+  /** Message d'état reçu, avec son numéro de diffusion. */
+  private record Frame(long sequence, JsonNode body) {
+  }
+
+  private static <T> boolean awaitMessage(BlockingQueue<T> messages, Predicate<T> expected)
+          throws InterruptedException {
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(TIMEOUT_SECONDS);
+    while (System.nanoTime() < deadline) {
+      T message = messages.poll(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+      if (message != null && expected.test(message))
+        return true;
+    }
+    return false;
+  }
+
+  private JsonNode join(String gameId, String name) throws Exception {
+    return post("/api/games/" + gameId + "/join", "{\"playerName\":\"" + name + "\"}");
+  }
+
+  private JsonNode post(String path, String body) throws Exception {
+    HttpResponse<String> response = http.send(HttpRequest.newBuilder(URI.create("http://localhost:" + port + path))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build(), HttpResponse.BodyHandlers.ofString());
+    assertThat(response.statusCode()).as("POST %s", path).isEqualTo(200);
+    return response.body().isEmpty() ? null : mapper.readTree(response.body());
+  }
+}
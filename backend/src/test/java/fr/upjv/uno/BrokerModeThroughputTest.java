@@ -0,0 +1,143 @@
+package fr.upjv.uno;
+
+import fr.upjv.uno.config.WebSocketConfig;
+import fr.upjv.uno.dto.GameStateMapper;
+import fr.upjv.uno.model.Deck;
+import fr.upjv.uno.model.DiscardPile;
+import fr.upjv.uno.model.Game;
+import fr.upjv.uno.model.Player;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.broker.AbstractBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.lang.reflect.Type;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comparaison du débit des deux modes du broker STOMP : en mémoire et relais vers un broker externe.
+ * <p>
+ * Désactivée par défaut :
+ * {@code ./mvnw test -Dtest=BrokerModeThroughputTest -Duno.bench=true}.
+ * </p>
+ * <p>
+ * Chaque mode démarre son propre serveur ; le relais passe par le broker Artemis embarqué du profil
+ * {@code embedded-broker}, sur la même machine. Mesure le nombre de messages d'état remis par seconde
+ * à des abonnés d'un même topic, de l'envoi par le serveur à la réception par les clients.
+ * </p>
+ */
+@EnabledIfSystemProperty(named = "uno.bench", matches = "true")
+class BrokerModeThroughputTest {
+  /** Hors de {@code /topic/game} : chaque message est remis, sans fusion des états en attente. */
+  private static final String TOPIC = "/topic/bench";
+  private static final int SUBSCRIBERS = 20;
+  private static final int MESSAGES = 2000;
+
+  @Test
+  @DisplayName("Benchmark : broker en mémoire contre relais STOMP")
+  void compareBrokerModes() throws Exception {
+    Game game = new Game("BENCH", new Deck(), new DiscardPile(), 4);
+    for (int i = 0; i < 4; i++)
+      game.addPlayer(new Player(UUID.randomUUID().toString(), "Joueur " + i));
+    byte[] payload = JsonMapper.builder().build()
+            .writeValueAsBytes(GameStateMapper.toDto(game.publishSnapshot(), null));
+
+    double simple = deliveriesPerSecond(payload);
+    double relay = deliveriesPerSecond(payload, "embedded-broker");
+    System.out.printf("Messages remis par seconde (%d abonnés, état de %d octets) : "
+            + "%.0f en mémoire, %.0f en relais%n", SUBSCRIBERS, payload.length, simple, relay);
+  }
+
+  private double deliveriesPerSecond(byte[] payload, String... profiles) throws Exception {
+    try (ConfigurableApplicationContext context = new SpringApplicationBuilder(UnoUpjvApplication.class)
+            .profiles(profiles)
+            .properties("server.port=0")
+            .run()) {
+      awaitBroker(context);
+      String url = "ws://localhost:" + context.getEnvironment().getProperty("local.server.port")
+              + WebSocketConfig.NATIVE_ENDPOINT;
+      SimpMessagingTemplate template = context.getBean("brokerMessagingTemplate", SimpMessagingTemplate.class);
+      WebSocketStompClient client = new WebSocketStompClient(new StandardWebSocketClient());
+      try {
+        // premier passage pour chauffer la JVM, seul le second est retenu
+        run(client, url, template, payload);
+        return run(client, url, template, payload);
+      } finally {
+        client.stop();
+      }
+    }
+  }
+
+  private double run(WebSocketStompClient client, String url, SimpMessagingTemplate template, byte[] payload)
+          throws Exception {
+    CountDownLatch received = new CountDownLatch(SUBSCRIBERS * MESSAGES);
+    List<StompSession> sessions = new ArrayList<>();
+    for (int i = 0; i < SUBSCRIBERS; i++) {
+      StompSession session = client.connectAsync(url, new StompSessionHandlerAdapter() {
+      }).get(5, TimeUnit.SECONDS);
+      session.subscribe(TOPIC, new StompFrameHandler() {
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+          return byte[].class;
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object body) {
+          received.countDown();
+        }
+      });
+      sessions.add(session);
+    }
+    Thread.sleep(500); // les SUBSCRIBE sont traités de façon asynchrone
+
+    long start = System.nanoTime();
+    for (int i = 0; i < MESSAGES; i++) {
+      template.send(TOPIC, stateMessage(payload));
+      if (i % 20 == 19) // laisse le client suivre, sans dépasser le tampon d'envoi des sessions
+        Thread.sleep(5);
+    }
+    assertThat(received.await(60, TimeUnit.SECONDS)).as("messages non reçus : %d", received.getCount()).isTrue();
+    long elapsed = System.nanoTime() - start;
+
+    sessions.forEach(StompSession::disconnect);
+    return SUBSCRIBERS * MESSAGES / (elapsed / 1e9);
+  }
+
+  private static void awaitBroker(ConfigurableApplicationContext context) throws InterruptedException {
+    // le relais se connecte au broker externe après le démarrage du contexte
+    for (int i = 0; i < 200; i++) {
+      if (context.getBeansOfType(AbstractBrokerMessageHandler.class).values().stream()
+              .allMatch(AbstractBrokerMessageHandler::isBrokerAvailable))
+        return;
+      Thread.sleep(50);
+    }
+    throw new IllegalStateException("broker indisponible");
+  }
+
+  private static Message<byte[]> stateMessage(byte[] payload) {
+    SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+    accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+    return MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+  }
+}
@@ -0,0 +1,12 @@
+package fr.upjv.uno;
+
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+
+/**
+ * Permet de tester la diffusion en mode relais, vers le broker STOMP embarqué du profil {@code embedded-broker}.
+ */
+@ActiveProfiles("embedded-broker")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class BrokerRelayIntegrationTest extends AbstractBrokerIntegrationTest {
+}
@@ -0,0 +1,214 @@
+package fr.upjv.uno;
+
+import fr.upjv.uno.util.NamedThreadFactory;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Campagne de charge : N parties simultanées (2 humains + 1 bot) jouées via l'API REST.
+ * <p>
+ * Désactivée par défaut. Comparaison threads plateforme / threads virtuels (Java 21) :
+ * </p>
+ * <pre>
+ * ./mvnw -Pjava21 test -Dtest=LoadComparisonTest -Duno.load=true
+ * ./mvnw -Pjava21 test -Dtest=LoadComparisonTest -Duno.load=true -Dspring.threads.virtual.enabled=true
+ * </pre>
+ * <p>
+ * Paramètres : {@code uno.load.games} (5000), {@code uno.load.seconds} (30).
+ * Le nombre de threads mesuré est celui de toute la JVM (serveur + 4 threads du client de charge).
+ * </p>
+ */
+@EnabledIfSystemProperty(named = "uno.load", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class LoadComparisonTest {
+  private static final int GAMES = Integer.getInteger("uno.load.games", 5000);
+  private static final long SECONDS = Long.getLong("uno.load.seconds", 30);
+
+  private final JsonMapper mapper = JsonMapper.builder().build();
+  private final ConcurrentLinkedQueue<Long> latencies = new ConcurrentLinkedQueue<>();
+  private final AtomicInteger errors = new AtomicInteger();
+
+  @LocalServerPort
+  private int port;
+
+  private HttpClient client;
+
+  private record Table(String gameId, String p1, String p2) {
+  }
+
+  @Test
+  @DisplayName("Charge : threads et latence p99 sur des milliers de parties simultanées")
+  void shouldReportThreadsAndLatencyUnderLoad() throws Exception {
+    client = HttpClient.newBuilder()
+            .executor(Executors.newFixedThreadPool(4, new NamedThreadFactory("load-client-")))
+            .connectTimeout(Duration.ofSeconds(30))
+            .build();
+
+    List<Table> tables = createTables();
+    latencies.clear();
+
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    AtomicLong maxThreads = new AtomicLong();
+    Thread sampler = new Thread(() -> {
+      while (!Thread.currentThread().isInterrupted()) {
+        maxThreads.accumulateAndGet(threads.getThreadCount(), Math::max);
+        try {
+          Thread.sleep(200);
+        } catch (InterruptedException e) {
+          return;
+        }
+      }
+    });
+    sampler.setDaemon(true);
+    sampler.start();
+
+    long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(SECONDS);
+    CompletableFuture<?>[] loops = tables.stream().map(t -> loop(t, end)).toArray(CompletableFuture[]::new);
+    CompletableFuture.allOf(loops).join();
+    sampler.interrupt();
+
+    long[] sorted = latencies.stream().mapToLong(Long::longValue).sorted().toArray();
+    System.out.printf("%n=== Charge : %d parties, %d s, threads virtuels = %s ===%n",
+            GAMES, SECONDS, System.getProperty("spring.threads.virtual.enabled", "false"));
+    System.out.printf("requêtes : %d (%.0f req/s), erreurs : %d%n",
+            sorted.length, sorted.length / (double) SECONDS, errors.get());
+    System.out.printf("latence ms : p50 = %.1f, p99 = %.1f, max = %.1f%n",
+            percentile(sorted, 50), percentile(sorted, 99), sorted[sorted.length - 1] / 1e6);
+    System.out.printf("threads JVM : max = %d, pic = %d%n", maxThreads.get(), threads.getPeakThreadCount());
+
+    assertThat(sorted).isNotEmpty();
+  }
+
+  private List<Table> createTables() {
+    Semaphore inFlight = new Semaphore(200);
+    List<CompletableFuture<Table>> created = new ArrayList<>();
+    for (int i = 0; i < GAMES; i++) {
+      inFlight.acquireUninterruptibly();
+      CompletableFuture<Table> table = post("/create", "{\"maxPlayers\":3,\"gameMode\":\"Standard\"}")
+              .thenCompose(game -> {
+                if (game.isEmpty())
+                  return CompletableFuture.<Table>completedFuture(null);
+                String gameId = game.get("gameId").asText();
+                return post("/" + gameId + "/join", "{\"playerName\":\"a\"}")
+                        .thenCompose(a -> post("/" + gameId + "/join", "{\"playerName\":\"b\"}"))
+                        .thenCompose(b -> {
+                          if (b.isEmpty())
+                            return CompletableFuture.<Table>completedFuture(null);
+                          JsonNode players = b.get("players");
+                          Table t = new Table(gameId, players.get(0).get("id").asText(), players.get(1).get("id").asText());
+                          return post("/" + gameId + "/start", "{}").thenApply(ignored -> t);
+                        });
+              })
+              .whenComplete((t, e) -> inFlight.release());
+      created.add(table);
+    }
+    return created.stream().map(CompletableFuture::join).filter(Objects::nonNull).toList();
+  }
+
+  /**
+   * Un tour de boucle : lit l'état, le joueur humain courant joue une carte jouable ou pioche,
+   * sinon (tour du bot) on repasse 100 ms plus tard.
+   */
+  private CompletableFuture<Void> loop(Table t, long end) {
+    if (System.nanoTime() > end)
+      return CompletableFuture.completedFuture(null);
+
+    return get("/" + t.gameId() + "/state/" + t.p1()).thenCompose(state -> {
+      if (state.isEmpty())
+        return pause().thenCompose(v -> loop(t, end));
+      String status = state.get("status").asText();
+      if (!"IN_PROGRESS".equals(status))
+        return post("/" + t.gameId() + "/restart", "{}").thenCompose(r -> loop(t, end));
+
+      String current = state.get("players").get(state.get("currentPlayerIndex").asInt()).get("id").asText();
+      if (!current.equals(t.p1()) && !current.equals(t.p2()))
+        return pause().thenCompose(v -> loop(t, end));
+
+      CompletableFuture<JsonNode> turnState = current.equals(t.p1())
+              ? CompletableFuture.completedFuture(state)
+              : get("/" + t.gameId() + "/state/" + current);
+      return turnState.thenCompose(s -> s.isEmpty() ? pause() : play(t, current, s).thenApply(r -> null))
+              .thenCompose(v -> loop(t, end));
+    });
+  }
+
+  private static CompletableFuture<Void> pause() {
+    return CompletableFuture.runAsync(() -> {
+    }, CompletableFuture.delayedExecutor(100, TimeUnit.MILLISECONDS));
+  }
+
+  private CompletableFuture<JsonNode> play(Table t, String playerId, JsonNode state) {
+    String activeColor = state.get("activeColor").asText();
+    String topValue = state.get("topCard").get("value").asText();
+    for (JsonNode card : state.get("myHand")) {
+      String color = card.get("color").asText();
+      if (color.equals("BLACK") || color.equals(activeColor) || card.get("value").asText().equals(topValue)) {
+        String chosen = color.equals("BLACK") ? "\"RED\"" : "null";
+        return post("/" + t.gameId() + "/play",
+                "{\"playerId\":\"" + playerId + "\",\"cardId\":" + card.get("id").asInt() + ",\"chosenColor\":" + chosen + "}");
+      }
+    }
+    return post("/" + t.gameId() + "/draw", "{\"playerId\":\"" + playerId + "\"}");
+  }
+
+  private CompletableFuture<JsonNode> get(String path) {
+    return send(HttpRequest.newBuilder(uri(path)).GET().build());
+  }
+
+  private CompletableFuture<JsonNode> post(String path, String body) {
+    return send(HttpRequest.newBuilder(uri(path))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(body))
+            .build());
+  }
+
+  private CompletableFuture<JsonNode> send(HttpRequest request) {
+    long start = System.nanoTime();
+    return client.sendAsync(request, HttpResponse.BodyHandlers.ofString()).thenApply(response -> {
+      latencies.add(System.nanoTime() - start);
+      if (response.statusCode() >= 400) {
+        errors.incrementAndGet();
+        return mapper.createObjectNode();
+      }
+      return response.body().isEmpty() ? mapper.createObjectNode() : mapper.readTree(response.body());
+    }).exceptionally(e -> {
+      // connexion keep-alive fermée par le serveur, etc. : comptée comme erreur, la boucle continue
+      errors.incrementAndGet();
+      return mapper.createObjectNode();
+    });
+  }
+
+  private URI uri(String path) {
+    return URI.create("http://localhost:" + port + "/api/games" + path);
+  }
+
+  private static double percentile(long[] sorted, int p) {
+    int index = (int) Math.ceil(p / 100.0 * sorted.length) - 1;
+    return sorted[Math.max(0, Math.min(index, sorted.length - 1))] / 1e6;
+  }
+}
@@ -0,0 +1,81 @@
+package fr.upjv.uno;
+
+import fr.upjv.uno.config.WebSocketConfig;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.support.ExecutorSubscribableChannel;
+import org.springframework.scheduling.TaskScheduler;
+import org.springframework.web.socket.WebSocketExtension;
+import org.springframework.web.socket.WebSocketHttpHeaders;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.handler.AbstractWebSocketHandler;
+
+import java.net.URI;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Permet de tester la diffusion avec le broker STOMP en mémoire (mode par défaut).
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class SimpleBrokerIntegrationTest extends AbstractBrokerIntegrationTest {
+  private static final String PERMESSAGE_DEFLATE = "permessage-deflate";
+
+  @LocalServerPort
+  private int port;
+
+  @Autowired
+  private SimpleBrokerMessageHandler broker;
+
+  @Autowired
+  @Qualifier("clientInboundChannel")
+  private ExecutorSubscribableChannel clientInboundChannel;
+
+  @Autowired
+  @Qualifier("clientOutboundChannel")
+  private ExecutorSubscribableChannel clientOutboundChannel;
+
+  @Test
+  @DisplayName("configureMessageBroker : Les canaux des clients ne doivent pas tourner sur le planificateur des heartbeats")
+  void shouldKeepHeartbeatSchedulerOffClientChannels() {
+    TaskScheduler heartbeat = broker.getTaskScheduler();
+
+    assertThat(heartbeat).isNotNull();
+    assertThat(clientInboundChannel.getExecutor()).isNotNull().isNotSameAs(heartbeat)
+            .isNotInstanceOf(TaskScheduler.class);
+    assertThat(clientOutboundChannel.getExecutor()).isNotNull().isNotSameAs(heartbeat)
+            .isNotInstanceOf(TaskScheduler.class);
+  }
+
+  @Test
+  @DisplayName("registerStompEndpoints : permessage-deflate doit rester négocié, sauf pour qui demande la compression uno")
+  void shouldKeepPermessageDeflateUnlessCustomCompressionRequested() throws Exception {
+    assertThat(negotiatedExtensions(WebSocketConfig.NATIVE_ENDPOINT)).containsExactly(PERMESSAGE_DEFLATE);
+    assertThat(negotiatedExtensions(WebSocketConfig.NATIVE_ENDPOINT + "?uno-compression=deflate")).isEmpty();
+    // SockJS ne connaît pas la compression uno : il garde l'extension
+    assertThat(negotiatedExtensions(WebSocketConfig.SOCKJS_ENDPOINT + "/websocket?uno-compression=deflate"))
+            .containsExactly(PERMESSAGE_DEFLATE);
+  }
+
+  private List<String> negotiatedExtensions(String path) throws Exception {
+    WebSocketHttpHeaders headers = new WebSocketHttpHeaders();
+    headers.setSecWebSocketExtensions(List.of(new WebSocketExtension(PERMESSAGE_DEFLATE)));
+    WebSocketSession session = new StandardWebSocketClient()
+            .execute(new AbstractWebSocketHandler() {
+            }, headers, URI.create("ws://localhost:" + port + path))
+            .get(10, TimeUnit.SECONDS);
+    try {
+      return session.getExtensions().stream().map(WebSocketExtension::getName).toList();
+    } finally {
+      session.close();
+    }
+  }
+}
@@ -0,0 +1,205 @@
+package fr.upjv.uno;
+
+import fr.upjv.uno.config.WebSocketConfig;
+import fr.upjv.uno.dto.GameStateMapper;
+import fr.upjv.uno.model.Deck;
+import fr.upjv.uno.model.DiscardPile;
+import fr.upjv.uno.model.Game;
+import fr.upjv.uno.model.Player;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompEncoder;
+import org.springframework.messaging.simp.stomp.StompFrameHandler;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.simp.stomp.StompHeaders;
+import org.springframework.messaging.simp.stomp.StompSession;
+import org.springframework.messaging.simp.stomp.StompSessionHandlerAdapter;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MimeTypeUtils;
+import org.springframework.web.socket.client.standard.StandardWebSocketClient;
+import org.springframework.web.socket.messaging.WebSocketStompClient;
+import org.springframework.web.socket.sockjs.client.SockJsClient;
+import org.springframework.web.socket.sockjs.client.WebSocketTransport;
+import org.springframework.web.socket.sockjs.frame.JacksonJsonSockJsMessageCodec;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadInfo;
+import java.lang.management.ThreadMXBean;
+import java.lang.reflect.Type;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Comparaison des deux endpoints STOMP : WebSocket natif et SockJS.
+ * <p>
+ * Désactivée par défaut :
+ * {@code ./mvnw test -Dtest=WebSocketTransportComparisonTest -Duno.bench=true}.
+ * </p>
+ * <p>
+ * Mesure pour chaque endpoint le temps jusqu'à la trame CONNECTED, la taille sur le réseau d'un message d'état
+ * et le temps CPU des threads du serveur par message remis à un abonné. Le client tourne dans la même JVM :
+ * seuls les threads du serveur (Tomcat, canaux STOMP, broker, écriture) sont comptés.
+ * </p>
+ */
+@EnabledIfSystemProperty(named = "uno.bench", matches = "true")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT)
+class WebSocketTransportComparisonTest {
+  /** Hors de {@code /topic/game} : chaque message est remis, sans fusion des états en attente. */
+  private static final String TOPIC = "/topic/bench";
+  private static final int HANDSHAKES = 200;
+  private static final int SUBSCRIBERS = 20;
+  private static final int MESSAGES = 2000;
+  private static final List<String> SERVER_THREADS =
+          List.of("http-nio-", "clientInboundChannel", "clientOutboundChannel", "brokerChannel", "ws-send-");
+
+  @LocalServerPort
+  private int port;
+
+  @Autowired
+  private SimpMessagingTemplate messagingTemplate;
+
+  private WebSocketStompClient nativeClient;
+  private WebSocketStompClient sockJsClient;
+  private byte[] payload;
+
+  @BeforeEach
+  void setUp() {
+    nativeClient = new WebSocketStompClient(new StandardWebSocketClient());
+    sockJsClient = new WebSocketStompClient(
+            new SockJsClient(List.of(new WebSocketTransport(new StandardWebSocketClient()))));
+
+    Game game = new Game("BENCH", new Deck(), new DiscardPile(), 4);
+    for (int i = 0; i < 4; i++)
+      game.addPlayer(new Player(UUID.randomUUID().toString(), "Joueur " + i));
+    payload = JsonMapper.builder().build().writeValueAsBytes(GameStateMapper.toDto(game.publishSnapshot(), null));
+  }
+
+  @AfterEach
+  void tearDown() {
+    nativeClient.stop();
+    sockJsClient.stop();
+  }
+
+  @Test
+  @DisplayName("Benchmark : WebSocket natif contre SockJS")
+  void compareTransports() throws Exception {
+    String nativeUrl = "ws://localhost:" + port + WebSocketConfig.NATIVE_ENDPOINT;
+    String sockJsUrl = "http://localhost:" + port + WebSocketConfig.SOCKJS_ENDPOINT;
+
+    // premier passage pour chauffer la JVM, seul le second est affiché
+    for (int round = 0; round < 2; round++) {
+      double nativeHandshake = handshakeMillis(nativeClient, nativeUrl);
+      double sockJsHandshake = handshakeMillis(sockJsClient, sockJsUrl);
+      double nativeCpu = serverCpuMicrosPerDelivery(nativeClient, nativeUrl);
+      double sockJsCpu = serverCpuMicrosPerDelivery(sockJsClient, sockJsUrl);
+      if (round == 0)
+        continue;
+
+      int[] sizes = frameSizes();
+      System.out.printf("Connexion jusqu'à CONNECTED : %.2f ms en natif, %.2f ms en SockJS%n",
+              nativeHandshake, sockJsHandshake);
+      System.out.printf("Message d'état de %d octets : trame de %d octets en natif, %d en SockJS%n",
+              payload.length, sizes[0], sizes[1]);
+      System.out.printf("CPU serveur par message remis : %.2f µs en natif, %.2f µs en SockJS%n",
+              nativeCpu, sockJsCpu);
+      assertThat(sizes[0]).isLessThan(sizes[1]);
+    }
+  }
+
+  private double handshakeMillis(WebSocketStompClient client, String url) throws Exception {
+    long total = 0;
+    for (int i = 0; i < HANDSHAKES; i++) {
+      long start = System.nanoTime();
+      StompSession session = client.connectAsync(url, new StompSessionHandlerAdapter() {
+      }).get(5, TimeUnit.SECONDS);
+      total += System.nanoTime() - start;
+      session.disconnect();
+    }
+    return total / 1e6 / HANDSHAKES;
+  }
+
+  private double serverCpuMicrosPerDelivery(WebSocketStompClient client, String url) throws Exception {
+    CountDownLatch received = new CountDownLatch(SUBSCRIBERS * MESSAGES);
+    List<StompSession> sessions = new ArrayList<>();
+    for (int i = 0; i < SUBSCRIBERS; i++) {
+      StompSession session = client.connectAsync(url, new StompSessionHandlerAdapter() {
+      }).get(5, TimeUnit.SECONDS);
+      session.subscribe(TOPIC, new StompFrameHandler() {
+        @Override
+        public Type getPayloadType(StompHeaders headers) {
+          return byte[].class;
+        }
+
+        @Override
+        public void handleFrame(StompHeaders headers, Object body) {
+          received.countDown();
+        }
+      });
+      sessions.add(session);
+    }
+    Thread.sleep(500); // les SUBSCRIBE sont traités de façon asynchrone
+
+    long cpuBefore = serverCpuNanos();
+    for (int i = 0; i < MESSAGES; i++) {
+      messagingTemplate.send(TOPIC, stateMessage());
+      if (i % 20 == 19) // laisse le client suivre, sans dépasser le tampon d'envoi des sessions
+        Thread.sleep(5);
+    }
+    assertThat(received.await(60, TimeUnit.SECONDS)).as("messages non reçus : %d", received.getCount()).isTrue();
+    long cpu = serverCpuNanos() - cpuBefore;
+
+    sessions.forEach(StompSession::disconnect);
+    return cpu / 1e3 / (SUBSCRIBERS * MESSAGES);
+  }
+
+  private Message<byte[]> stateMessage() {
+    SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+    accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+    return MessageBuilder.createMessage(payload, accessor.getMessageHeaders());
+  }
+
+  /**
+   * @return la taille d'une trame MESSAGE portant l'état : brute en natif, dans l'enveloppe SockJS sinon.
+   */
+  private int[] frameSizes() {
+    StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.MESSAGE);
+    accessor.setDestination(TOPIC);
+    accessor.setSubscriptionId("0");
+    accessor.setMessageId(UUID.randomUUID().toString());
+    accessor.setContentType(MimeTypeUtils.APPLICATION_JSON);
+    byte[] frame = new StompEncoder().encode(MessageBuilder.createMessage(payload, accessor.getMessageHeaders()));
+    String sockJs = new JacksonJsonSockJsMessageCodec().encode(new String(frame, StandardCharsets.UTF_8));
+    return new int[]{frame.length, sockJs.getBytes(StandardCharsets.UTF_8).length};
+  }
+
+  private static long serverCpuNanos() {
+    ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+    long total = 0;
+    for (ThreadInfo info : threads.getThreadInfo(threads.getAllThreadIds())) {
+      if (info == null || SERVER_THREADS.stream().noneMatch(info.getThreadName()::startsWith))
+        continue;
+      long cpu = threads.getThreadCpuTime(info.getThreadId());
+      if (cpu > 0)
+        total += cpu;
+    }
+    return total;
+  }
+}
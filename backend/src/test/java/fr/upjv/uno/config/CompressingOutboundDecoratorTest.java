@@ -0,0 +1,128 @@
+package fr.upjv.uno.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.socket.BinaryMessage;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+import org.springframework.web.socket.sockjs.transport.SockJsSession;
+
+import java.nio.charset.StandardCharsets;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.zip.Inflater;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Permet de tester unitairement la classe CompressingOutboundDecorator.
+ */
+class CompressingOutboundDecoratorTest {
+  private static final String STATE = "MESSAGE\ndestination:/topic/game/G\ncontent-type:application/json\n\n"
+          + "{\"players\":[" + "{\"name\":\"Joueur\",\"connected\":true,\"handSize\":7,\"score\":0},".repeat(10)
+          + "{}]}\0";
+
+  private CompressingOutboundDecorator decorator;
+  private WebSocketSession session;
+  private final Map<String, Object> attributes = new HashMap<>();
+
+  @BeforeEach
+  void setUp() {
+    decorator = new CompressingOutboundDecorator(256, 2);
+    session = mock(WebSocketSession.class);
+    when(session.getId()).thenReturn("s1");
+    when(session.getAttributes()).thenReturn(attributes);
+  }
+
+  @AfterEach
+  void tearDown() {
+    decorator.shutdown();
+  }
+
+  @Test
+  @DisplayName("sendMessage : Une grande trame doit partir compressée en DEFLATE brut si le client l'a demandé")
+  void shouldCompressLargeFrame() throws Exception {
+    attributes.put(CompressingOutboundDecorator.COMPRESSION_ATTRIBUTE, Boolean.TRUE);
+
+    connect(session).sendMessage(new TextMessage(STATE));
+
+    ArgumentCaptor<WebSocketMessage<?>> sent = ArgumentCaptor.captor();
+    verify(session).sendMessage(sent.capture());
+    assertThat(sent.getValue()).isInstanceOf(BinaryMessage.class);
+    byte[] payload = ((BinaryMessage) sent.getValue()).getPayload().array();
+    assertThat(payload.length).isLessThan(STATE.length() / 3);
+    assertThat(inflate(payload)).isEqualTo(STATE);
+    assertThat(decorator.getCompressedCount()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("sendMessage : Une trame sous le seuil doit partir en texte")
+  void shouldNotCompressSmallFrame() throws Exception {
+    attributes.put(CompressingOutboundDecorator.COMPRESSION_ATTRIBUTE, Boolean.TRUE);
+    TextMessage receipt = new TextMessage("RECEIPT\nreceipt-id:1\n\n\0");
+
+    connect(session).sendMessage(receipt);
+
+    verify(session).sendMessage(receipt);
+    assertThat(decorator.getSkippedCount()).isEqualTo(1);
+    assertThat(decorator.getCreatedCount()).isZero();
+  }
+
+  @Test
+  @DisplayName("sendMessage : Sans demande du client, la trame doit partir en texte")
+  void shouldNotCompressWithoutRequest() throws Exception {
+    TextMessage state = new TextMessage(STATE);
+
+    connect(session).sendMessage(state);
+
+    verify(session).sendMessage(state);
+    assertThat(decorator.getCompressedCount()).isZero();
+  }
+
+  @Test
+  @DisplayName("decorate : Une session SockJS ne doit pas être compressée")
+  void shouldLeaveSockJsSessionUntouched() throws Exception {
+    SockJsSession sockJs = mock(SockJsSession.class);
+    when(sockJs.getAttributes()).thenReturn(attributes);
+    attributes.put(CompressingOutboundDecorator.COMPRESSION_ATTRIBUTE, Boolean.TRUE);
+
+    assertThat(connect(sockJs)).isSameAs(sockJs);
+  }
+
+  @Test
+  @DisplayName("compress : Le nombre de compresseurs ne doit pas dépasser la taille du pool")
+  void shouldReuseBoundedPool() {
+    for (int i = 0; i < 100; i++)
+      assertThat(decorator.compress(new TextMessage(STATE))).isNotNull();
+
+    assertThat(decorator.getCreatedCount()).isEqualTo(1);
+    assertThat(decorator.getCompressedCount()).isEqualTo(100);
+  }
+
+  private WebSocketSession connect(WebSocketSession raw) throws Exception {
+    WebSocketHandler inner = mock(WebSocketHandler.class);
+    WebSocketSession[] decorated = new WebSocketSession[1];
+    doAnswer(invocation -> decorated[0] = invocation.getArgument(0)).when(inner).afterConnectionEstablished(any());
+    decorator.decorate(inner).afterConnectionEstablished(raw);
+    return decorated[0];
+  }
+
+  private static String inflate(byte[] payload) throws Exception {
+    Inflater inflater = new Inflater(true);
+    inflater.setInput(payload);
+    byte[] out = new byte[STATE.length() * 2];
+    int length = inflater.inflate(out);
+    inflater.end();
+    return new String(out, 0, length, StandardCharsets.UTF_8);
+  }
+}
@@ -0,0 +1,152 @@
+package fr.upjv.uno.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.web.socket.TextMessage;
+import org.springframework.web.socket.WebSocketHandler;
+import org.springframework.web.socket.WebSocketMessage;
+import org.springframework.web.socket.WebSocketSession;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.awaitility.Awaitility.await;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Permet de tester unitairement la classe ConflatingOutboundDecorator.
+ */
+class ConflatingOutboundDecoratorTest {
+  private ConflatingOutboundDecorator decorator;
+  private WebSocketSession session;
+  private final List<String> written = new CopyOnWriteArrayList<>();
+  private final CountDownLatch firstWriteStarted = new CountDownLatch(1);
+  private final CountDownLatch unblock = new CountDownLatch(1);
+
+  @BeforeEach
+  void setUp() throws Exception {
+    session = mock(WebSocketSession.class);
+    when(session.getId()).thenReturn("s1");
+    // la première écriture reste bloquée, comme sur une connexion lente
+    doAnswer(invocation -> {
+      firstWriteStarted.countDown();
+      unblock.await(2, TimeUnit.SECONDS);
+      written.add(((TextMessage) invocation.getArgument(0)).getPayload());
+      return null;
+    }).when(session).sendMessage(any());
+  }
+
+  @AfterEach
+  void tearDown() {
+    unblock.countDown();
+    if (decorator != null)
+      decorator.shutdown();
+  }
+
+  @Test
+  @DisplayName("sendMessage : Un état plus récent doit remplacer celui qui attend encore")
+  void shouldConflatePendingStates() throws Exception {
+    decorator = new ConflatingOutboundDecorator(10_000, 512 * 1024, 2, false);
+    WebSocketSession decorated = connect();
+
+    decorated.sendMessage(frame("/topic/game/G", "v1"));
+    assertThat(firstWriteStarted.await(2, TimeUnit.SECONDS)).isTrue();
+    decorated.sendMessage(frame("/topic/game/G", "v2"));
+    decorated.sendMessage(frame("/user/queue/hand", "main"));
+    decorated.sendMessage(frame("/topic/game/G", "v3"));
+    decorated.sendMessage(new TextMessage("RECEIPT\nreceipt-id:1\n\n\0"));
+    unblock.countDown();
+
+    await().atMost(2, TimeUnit.SECONDS).until(() -> written.size() == 4);
+    assertThat(written).extracting(ConflatingOutboundDecoratorTest::body)
+            .containsExactly("v1", "main", "v3", "");
+    assertThat(decorator.getConflatedCount()).isEqualTo(1);
+    assertThat(decorator.getDroppedCount()).isZero();
+  }
+
+  @Test
+  @DisplayName("sendMessage : Doit abandonner les plus anciens états quand le tampon est plein")
+  void shouldDropOldestStatesWhenBufferIsFull() throws Exception {
+    decorator = new ConflatingOutboundDecorator(10_000, 150, 2, false);
+    WebSocketSession decorated = connect();
+
+    decorated.sendMessage(frame("/topic/game/G", "v1"));
+    assertThat(firstWriteStarted.await(2, TimeUnit.SECONDS)).isTrue();
+    decorated.sendMessage(frame("/user/queue/hand", "m".repeat(60)));
+    decorated.sendMessage(frame("/topic/game/G", "x".repeat(60)));
+    unblock.countDown();
+
+    await().atMost(2, TimeUnit.SECONDS).until(() -> written.size() == 2);
+    assertThat(written.get(1)).contains("x".repeat(60));
+    assertThat(decorator.getDroppedCount()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("sendMessage : Doit écrire pour toutes les sessions sans dépasser le pool de threads")
+  void shouldWriteAllSessionsOnBoundedPool() throws Exception {
+    decorator = new ConflatingOutboundDecorator(10_000, 512 * 1024, 1, false);
+    Set<String> threads = ConcurrentHashMap.newKeySet();
+    List<WebSocketSession> sessions = new ArrayList<>();
+    for (int i = 0; i < 3; i++) {
+      WebSocketSession raw = mock(WebSocketSession.class);
+      when(raw.getId()).thenReturn("s" + i);
+      doAnswer(invocation -> {
+        threads.add(Thread.currentThread().getName());
+        written.add(((TextMessage) invocation.getArgument(0)).getPayload());
+        return null;
+      }).when(raw).sendMessage(any());
+      sessions.add(connect(raw));
+    }
+
+    for (int n = 0; n < 40; n++)
+      for (WebSocketSession decorated : sessions)
+        decorated.sendMessage(new TextMessage("RECEIPT\nreceipt-id:" + n + "\n\n\0"));
+
+    await().atMost(2, TimeUnit.SECONDS).until(() -> written.size() == 120);
+    assertThat(threads).hasSize(1);
+  }
+
+  @Test
+  @DisplayName("conflationKey : Seules les trames MESSAGE d'état et de main sont remplaçables")
+  void shouldOnlyConflateGameMessages() {
+    assertThat(ConflatingOutboundDecorator.conflationKey(frame("/topic/game/G", "{}"))).isEqualTo("/topic/game/G");
+    assertThat(ConflatingOutboundDecorator.conflationKey(frame("/user/queue/hand", "{}")))
+            .isEqualTo("/user/queue/hand");
+    assertThat(ConflatingOutboundDecorator.conflationKey(frame("/user/queue/errors", "{}"))).isNull();
+    assertThat(ConflatingOutboundDecorator.conflationKey(frame("/topic/other", "{}"))).isNull();
+    assertThat(ConflatingOutboundDecorator.conflationKey(new TextMessage("CONNECTED\nversion:1.2\n\n\0"))).isNull();
+  }
+
+  private WebSocketSession connect() throws Exception {
+    return connect(session);
+  }
+
+  private WebSocketSession connect(WebSocketSession session) throws Exception {
+    WebSocketHandler handler = mock(WebSocketHandler.class);
+    decorator.decorate(handler).afterConnectionEstablished(session);
+    ArgumentCaptor<WebSocketSession> captor = ArgumentCaptor.forClass(WebSocketSession.class);
+    verify(handler).afterConnectionEstablished(captor.capture());
+    return captor.getValue();
+  }
+
+  private static WebSocketMessage<String> frame(String destination, String body) {
+    return new TextMessage("MESSAGE\ndestination:" + destination + "\nsubscription:sub-0\n\n" + body + "\0");
+  }
+
+  private static String body(String frame) {
+    return frame.substring(frame.indexOf("\n\n") + 2, frame.length() - 1);
+  }
+}
@@ -0,0 +1,43 @@
+package fr.upjv.uno.config;
+
+import org.apache.activemq.artemis.core.config.impl.ConfigurationImpl;
+import org.apache.activemq.artemis.core.server.embedded.EmbeddedActiveMQ;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Profile;
+
+/**
+ * Broker STOMP ActiveMQ Artemis embarqué, pour tester le mode relais sans broker externe.
+ * <p>
+ * Actif avec le profil {@code embedded-broker}, qui active aussi le relais
+ * ({@code application-embedded-broker.properties}). Le broker démarre à la création du contexte,
+ * donc avant que le relais ne s'y connecte. Les préfixes {@code /topic/} et {@code /queue/} donnent
+ * aux destinations la sémantique attendue par les clients : diffusion à tous les abonnés pour un topic,
+ * à un seul pour une file.
+ * </p>
+ */
+@Configuration
+@Profile("embedded-broker")
+public class EmbeddedStompBrokerConfig {
+
+  /**
+   * @param port port STOMP sur lequel le relais se connecte.
+   * @return le broker, arrêté à la fermeture du contexte.
+   */
+  @Bean(initMethod = "start", destroyMethod = "stop")
+  public EmbeddedActiveMQ embeddedStompBroker(@Value("${uno.websocket.broker.relay.port}") int port)
+          throws Exception {
+    ConfigurationImpl configuration = new ConfigurationImpl();
+    // tout en mémoire : rien n'est écrit sur le disque
+    configuration.setPersistenceEnabled(false);
+    configuration.setSecurityEnabled(false);
+    configuration.setJMXManagementEnabled(false);
+    configuration.addAcceptorConfiguration("stomp", "tcp://localhost:" + port
+            + "?protocols=STOMP;anycastPrefix=/queue/;multicastPrefix=/topic/");
+
+    EmbeddedActiveMQ broker = new EmbeddedActiveMQ();
+    broker.setConfiguration(configuration);
+    return broker;
+  }
+}
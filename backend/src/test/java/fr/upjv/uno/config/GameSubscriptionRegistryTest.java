@@ -0,0 +1,140 @@
+package fr.upjv.uno.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+import org.springframework.util.MultiValueMap;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Permet de tester unitairement la classe GameSubscriptionRegistry.
+ */
+class GameSubscriptionRegistryTest {
+  private GameSubscriptionRegistry registry;
+
+  @BeforeEach
+  void setUp() {
+    registry = new GameSubscriptionRegistry();
+  }
+
+  @Test
+  @DisplayName("parse : Doit découper les topics de partie et ignorer les autres destinations")
+  void shouldParseGameTopics() {
+    assertThat(GameSubscriptionRegistry.Topic.parse("/topic/game/G1"))
+            .isEqualTo(new GameSubscriptionRegistry.Topic("G1", false));
+    assertThat(GameSubscriptionRegistry.Topic.parse("/topic/game-binary/G1"))
+            .isEqualTo(new GameSubscriptionRegistry.Topic("G1", true));
+    assertThat(GameSubscriptionRegistry.Topic.parse("/topic/game/")).isNull();
+    assertThat(GameSubscriptionRegistry.Topic.parse("/topic/game/G1/p1")).isNull();
+    assertThat(GameSubscriptionRegistry.Topic.parse("/topic/game/*")).isNull();
+    assertThat(GameSubscriptionRegistry.Topic.parse("/queue/errors-users1")).isNull();
+  }
+
+  @Test
+  @DisplayName("findSubscriptions : Doit ne renvoyer que les abonnés du topic visé")
+  void shouldFindSubscribersOfTopic() {
+    registry.registerSubscription(subscribe("s1", "0", "/topic/game/G1"));
+    registry.registerSubscription(subscribe("s1", "1", "/queue/hand-users1"));
+    registry.registerSubscription(subscribe("s2", "0", "/topic/game/G1"));
+    registry.registerSubscription(subscribe("s2", "1", "/queue/hand-users2"));
+    registry.registerSubscription(subscribe("s3", "0", "/topic/game-binary/G1"));
+    registry.registerSubscription(subscribe("s4", "0", "/topic/game/G2"));
+
+    MultiValueMap<String, String> state = registry.findSubscriptions(message("/topic/game/G1"));
+    assertThat(state).containsOnlyKeys("s1", "s2");
+    assertThat(state.get("s1")).containsExactly("0");
+    assertThat(registry.findSubscriptions(message("/queue/hand-users2"))).containsOnlyKeys("s2");
+    assertThat(registry.findSubscriptions(message("/topic/game-binary/G1"))).containsOnlyKeys("s3");
+    assertThat(registry.findSubscriptions(message("/topic/game/G3"))).isEmpty();
+    assertThat(registry.getSubscriptionCount()).isEqualTo(6);
+  }
+
+  @Test
+  @DisplayName("unregisterSubscription : Une partie sans abonné doit sortir de l'index")
+  void shouldDropGameWithoutSubscribers() {
+    registry.registerSubscription(subscribe("s1", "0", "/topic/game/G1"));
+    registry.registerSubscription(subscribe("s1", "1", "/topic/game-binary/G1"));
+    registry.registerSubscription(subscribe("s1", "2", "/queue/hand-users1"));
+
+    registry.unregisterSubscription(unsubscribe("s1", "1"));
+    assertThat(registry.findSubscriptions(message("/topic/game-binary/G1"))).isEmpty();
+    assertThat(registry.getGameCount()).isEqualTo(1);
+
+    registry.unregisterSubscription(unsubscribe("s1", "2"));
+    assertThat(registry.findSubscriptions(message("/queue/hand-users1"))).isEmpty();
+    registry.unregisterSubscription(unsubscribe("s1", "0"));
+    assertThat(registry.getGameCount()).isZero();
+    assertThat(registry.getSubscriptionCount()).isZero();
+  }
+
+  @Test
+  @DisplayName("unregisterAllSubscriptions : Doit retirer tous les abonnements de la session")
+  void shouldUnregisterSession() {
+    registry.registerSubscription(subscribe("s1", "0", "/topic/game/G1"));
+    registry.registerSubscription(subscribe("s1", "1", "/queue/hand-users1"));
+    registry.registerSubscription(subscribe("s1", "2", "/queue/errors-users1"));
+    registry.registerSubscription(subscribe("s2", "0", "/topic/game/G1"));
+
+    registry.unregisterAllSubscriptions("s1");
+
+    assertThat(registry.findSubscriptions(message("/topic/game/G1"))).containsOnlyKeys("s2");
+    assertThat(registry.findSubscriptions(message("/queue/hand-users1"))).isEmpty();
+    assertThat(registry.findSubscriptions(message("/queue/errors-users1"))).isEmpty();
+    assertThat(registry.getSubscriptionCount()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("removeGame : Doit supprimer tous les abonnements de la partie")
+  void shouldRemoveGame() {
+    registry.registerSubscription(subscribe("s1", "0", "/topic/game/G1"));
+    registry.registerSubscription(subscribe("s1", "1", "/topic/game-binary/G1"));
+    registry.registerSubscription(subscribe("s2", "0", "/topic/game/G2"));
+
+    registry.removeGame("G1");
+
+    assertThat(registry.findSubscriptions(message("/topic/game/G1"))).isEmpty();
+    assertThat(registry.findSubscriptions(message("/topic/game/G2"))).containsOnlyKeys("s2");
+    assertThat(registry.getGameCount()).isEqualTo(1);
+    assertThat(registry.getSubscriptionCount()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("findSubscriptions : Les autres destinations doivent passer par le registre par défaut")
+  void shouldDelegateOtherDestinations() {
+    registry.registerSubscription(subscribe("s1", "0", "/topic/lobby"));
+    registry.registerSubscription(subscribe("s2", "0", "/topic/bench"));
+
+    assertThat(registry.findSubscriptions(message("/topic/lobby"))).containsOnlyKeys("s1");
+    assertThat(registry.findSubscriptions(message("/topic/bench"))).containsOnlyKeys("s2");
+
+    registry.unregisterSubscription(unsubscribe("s2", "0"));
+    assertThat(registry.findSubscriptions(message("/topic/bench"))).isEmpty();
+    assertThat(registry.getSubscriptionCount()).isZero();
+  }
+
+  private static Message<byte[]> subscribe(String sessionId, String subscriptionId, String destination) {
+    SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+    accessor.setSessionId(sessionId);
+    accessor.setSubscriptionId(subscriptionId);
+    accessor.setDestination(destination);
+    return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+  }
+
+  private static Message<byte[]> unsubscribe(String sessionId, String subscriptionId) {
+    SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.UNSUBSCRIBE);
+    accessor.setSessionId(sessionId);
+    accessor.setSubscriptionId(subscriptionId);
+    return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+  }
+
+  private static Message<byte[]> message(String destination) {
+    SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+    accessor.setDestination(destination);
+    return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+  }
+}
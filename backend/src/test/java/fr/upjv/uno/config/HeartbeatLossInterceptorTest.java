@@ -0,0 +1,107 @@
+package fr.upjv.uno.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Permet de tester unitairement la classe HeartbeatLossInterceptor.
+ */
+class HeartbeatLossInterceptorTest {
+  private final List<String> lostSessions = new ArrayList<>();
+  private final MessageChannel channel = mock(MessageChannel.class);
+  private HeartbeatLossInterceptor interceptor;
+
+  @BeforeEach
+  void setUp() {
+    interceptor = new HeartbeatLossInterceptor(lostSessions::add, Runnable::run);
+  }
+
+  @Test
+  @DisplayName("preSend : Une déconnexion du broker faute de heartbeat doit signaler la session perdue")
+  void shouldReportHeartbeatLoss() {
+    Message<?> ack = disconnectAck("s1", null);
+
+    assertThat(interceptor.preSend(ack, channel)).isSameAs(ack);
+
+    assertThat(lostSessions).containsExactly("s1");
+    assertThat(interceptor.getLostCount()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("preSend : Ne doit pas attendre le signalement de la session perdue")
+  void shouldReportOffTheHeartbeatThread() throws InterruptedException {
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch reported = new CountDownLatch(1);
+    HeartbeatLossInterceptor slow = new HeartbeatLossInterceptor(sessionId -> {
+      awaitQuietly(release); // la file de la partie est occupée
+      reported.countDown();
+    });
+    try {
+      Message<?> ack = disconnectAck("s1", null);
+
+      assertThat(slow.preSend(ack, channel)).isSameAs(ack);
+
+      assertThat(slow.getLostCount()).isEqualTo(1);
+      assertThat(reported.getCount()).isEqualTo(1);
+      release.countDown();
+      assertThat(reported.await(1, TimeUnit.SECONDS)).isTrue();
+    } finally {
+      release.countDown();
+      slow.shutdown();
+    }
+  }
+
+  @Test
+  @DisplayName("preSend : Une déconnexion demandée par le client ne doit pas être signalée")
+  void shouldIgnoreClientDisconnect() {
+    SimpMessageHeaderAccessor disconnect = SimpMessageHeaderAccessor.create(SimpMessageType.DISCONNECT);
+    disconnect.setSessionId("s1");
+    Message<byte[]> origin = MessageBuilder.createMessage(new byte[0], disconnect.getMessageHeaders());
+
+    interceptor.preSend(disconnectAck("s1", origin), channel);
+
+    assertThat(lostSessions).isEmpty();
+    assertThat(interceptor.getLostCount()).isZero();
+  }
+
+  @Test
+  @DisplayName("preSend : Les autres messages vers le client doivent passer sans effet")
+  void shouldIgnoreOtherMessages() {
+    SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+    accessor.setSessionId("s1");
+
+    interceptor.preSend(MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders()), channel);
+
+    assertThat(lostSessions).isEmpty();
+  }
+
+  private static void awaitQuietly(CountDownLatch latch) {
+    try {
+      latch.await(5, TimeUnit.SECONDS);
+    } catch (InterruptedException e) {
+      Thread.currentThread().interrupt();
+    }
+  }
+
+  private static Message<byte[]> disconnectAck(String sessionId, Message<?> origin) {
+    SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.DISCONNECT_ACK);
+    accessor.setSessionId(sessionId);
+    if (origin != null)
+      accessor.setHeader(SimpMessageHeaderAccessor.DISCONNECT_MESSAGE_HEADER, origin);
+    return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+  }
+}
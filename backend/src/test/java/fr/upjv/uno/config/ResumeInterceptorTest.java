@@ -0,0 +1,89 @@
+package fr.upjv.uno.config;
+
+import fr.upjv.uno.service.GameBroadcaster;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHandler;
+import org.springframework.messaging.simp.broker.SimpleBrokerMessageHandler;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+import org.springframework.messaging.simp.user.UserDestinationMessageHandler;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Permet de tester unitairement la classe ResumeInterceptor.
+ */
+class ResumeInterceptorTest {
+  private final MessageChannel channel = mock(MessageChannel.class);
+  private final MessageHandler broker = mock(SimpleBrokerMessageHandler.class);
+  private final MessageHandler userDestinations = mock(UserDestinationMessageHandler.class);
+  private GameBroadcaster broadcaster;
+  private ResumeInterceptor interceptor;
+
+  @BeforeEach
+  void setUp() {
+    broadcaster = mock(GameBroadcaster.class);
+    interceptor = new ResumeInterceptor(() -> broadcaster);
+  }
+
+  @Test
+  @DisplayName("afterMessageHandled : Un réabonnement avec numéro doit demander le rattrapage au diffuseur")
+  void shouldResumeSubscription() {
+    interceptor.afterMessageHandled(subscribe("/topic/game/G1", "12", null), channel, broker, null);
+    interceptor.afterMessageHandled(subscribe("/topic/game-binary/G1", "12", null), channel, broker, null);
+
+    verify(broadcaster).resume("G1", null, GameBroadcaster.WireFormat.JSON, 12, "s1", "sub-0");
+    verify(broadcaster).resume("G1", null, GameBroadcaster.WireFormat.BINARY, 12, "s1", "sub-0");
+  }
+
+  @Test
+  @DisplayName("afterMessageHandled : La main doit être rattrapée dans le format choisi à la connexion")
+  void shouldResumeHandInSessionFormat() {
+    Message<byte[]> hand = subscribe(GameBroadcaster.HAND_SUBSCRIPTION, "abc", GameBroadcaster.WireFormat.BINARY);
+    // le broker ne voit pas cet abonnement : seul le résolveur des destinations utilisateur compte
+    interceptor.afterMessageHandled(hand, channel, broker, null);
+    interceptor.afterMessageHandled(hand, channel, userDestinations, null);
+
+    verify(broadcaster).resume("G1", "p1", GameBroadcaster.WireFormat.BINARY, -1, "s1", "sub-0");
+  }
+
+  @Test
+  @DisplayName("afterMessageHandled : Doit ignorer les abonnements sans numéro et les autres handlers")
+  void shouldIgnoreOtherMessages() {
+    interceptor.afterMessageHandled(subscribe("/topic/game/G1", null, null), channel, broker, null);
+    interceptor.afterMessageHandled(subscribe("/topic/game/G1", "3", null), channel, mock(MessageHandler.class), null);
+    interceptor.afterMessageHandled(subscribe("/queue/errors", "3", null), channel, broker, null);
+    interceptor.afterMessageHandled(subscribe("/topic/game/G1", "3", null), channel, userDestinations, null);
+
+    verify(broadcaster, never()).resume(anyString(), any(), any(), anyLong(), anyString(), anyString());
+  }
+
+  private static Message<byte[]> subscribe(String destination, String resume, GameBroadcaster.WireFormat format) {
+    StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SUBSCRIBE);
+    accessor.setSessionId("s1");
+    accessor.setSubscriptionId("sub-0");
+    accessor.setDestination(destination);
+    accessor.setNativeHeader(WebSocketEventListener.GAME_HEADER, "G1");
+    accessor.setNativeHeader(WebSocketEventListener.PLAYER_HEADER, "p1");
+    if (resume != null)
+      accessor.setNativeHeader(ResumeInterceptor.RESUME_HEADER, resume);
+    Map<String, Object> attributes = new HashMap<>();
+    if (format != null)
+      attributes.put(WebSocketEventListener.FORMAT_HEADER, format);
+    accessor.setSessionAttributes(attributes);
+    return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+  }
+}
@@ -0,0 +1,86 @@
+package fr.upjv.uno.config;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessageType;
+import org.springframework.messaging.simp.broker.DefaultSubscriptionRegistry;
+import org.springframework.messaging.simp.broker.SubscriptionRegistry;
+import org.springframework.messaging.support.MessageBuilder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Coût de la recherche des abonnés d'un message, registre par défaut de Spring contre registre indexé par partie.
+ * <p>
+ * Désactivé par défaut :
+ * </p>
+ * <pre>
+ * ./mvnw test -Dtest=SubscriptionRegistryBenchmarkTest -Duno.bench=true
+ * </pre>
+ * <p>
+ * Paramètre : {@code uno.bench.games} (5000). Chaque partie a 4 joueurs abonnés à l'état public et à la file
+ * de leur main ({@code /queue/hand-user{sessionId}}) ; chaque tour envoie l'état public et une main, pour toutes
+ * les parties.
+ * </p>
+ */
+@EnabledIfSystemProperty(named = "uno.bench", matches = "true")
+class SubscriptionRegistryBenchmarkTest {
+  private static final int GAMES = Integer.getInteger("uno.bench.games", 5000);
+  private static final int PLAYERS = 4;
+
+  @Test
+  @DisplayName("Benchmark : recherche des abonnés, registre par défaut contre registre indexé")
+  void compareRegistries() {
+    List<Message<byte[]>> sends = new ArrayList<>();
+    for (int g = 0; g < GAMES; g++) {
+      sends.add(message("/topic/game/G" + g));
+      sends.add(message("/queue/hand-users" + g + "-" + g % PLAYERS));
+    }
+
+    for (int round = 0; round < 3; round++) {
+      double defaultNanos = nanosPerLookup(new DefaultSubscriptionRegistry(), sends);
+      double indexedNanos = nanosPerLookup(new GameSubscriptionRegistry(), sends);
+      if (round == 2)
+        System.out.printf("%d parties, %d abonnements : %.0f ns par recherche (défaut), %.0f ns (indexé)%n",
+                GAMES, GAMES * PLAYERS * 2, defaultNanos, indexedNanos);
+    }
+  }
+
+  private static double nanosPerLookup(SubscriptionRegistry registry, List<Message<byte[]>> sends) {
+    for (int g = 0; g < GAMES; g++) {
+      for (int p = 0; p < PLAYERS; p++) {
+        String session = "s" + g + "-" + p;
+        registry.registerSubscription(subscribe(session, "0", "/topic/game/G" + g));
+        registry.registerSubscription(subscribe(session, "1", "/queue/hand-user" + session));
+      }
+    }
+    long start = System.nanoTime();
+    int found = 0;
+    for (int turn = 0; turn < 5; turn++)
+      for (Message<byte[]> send : sends)
+        found += registry.findSubscriptions(send).size();
+    long elapsed = System.nanoTime() - start;
+    assertThat(found).isEqualTo(5 * GAMES * (PLAYERS + 1));
+    return (double) elapsed / (5L * sends.size());
+  }
+
+  private static Message<byte[]> subscribe(String sessionId, String subscriptionId, String destination) {
+    SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.SUBSCRIBE);
+    accessor.setSessionId(sessionId);
+    accessor.setSubscriptionId(subscriptionId);
+    accessor.setDestination(destination);
+    return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+  }
+
+  private static Message<byte[]> message(String destination) {
+    SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.create(SimpMessageType.MESSAGE);
+    accessor.setDestination(destination);
+    return MessageBuilder.createMessage(new byte[0], accessor.getMessageHeaders());
+  }
+}
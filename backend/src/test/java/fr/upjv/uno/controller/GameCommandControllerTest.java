@@ -0,0 +1,151 @@
+package fr.upjv.uno.controller;
+
+import fr.upjv.uno.dto.request.DrawCardRequest;
+import fr.upjv.uno.dto.request.PlayCardRequest;
+import fr.upjv.uno.dto.response.CommandErrorDTO;
+import fr.upjv.uno.model.Deck;
+import fr.upjv.uno.model.DiscardPile;
+import fr.upjv.uno.model.Game;
+import fr.upjv.uno.service.CommandResult;
+import fr.upjv.uno.service.GameBroadcaster;
+import fr.upjv.uno.service.GameService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.simp.SimpMessageSendingOperations;
+import org.springframework.messaging.simp.stomp.StompCommand;
+import org.springframework.messaging.simp.stomp.StompHeaderAccessor;
+
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+/**
+ * Permet de tester unitairement la classe GameCommandController.
+ */
+class GameCommandControllerTest {
+  private GameService gameService;
+  private GameBroadcaster broadcaster;
+  private SimpMessageSendingOperations messagingTemplate;
+  private MessageChannel clientOutboundChannel;
+  private GameCommandController controller;
+  private Game game;
+
+  @BeforeEach
+  void setUp() {
+    gameService = mock(GameService.class);
+    broadcaster = mock(GameBroadcaster.class);
+    messagingTemplate = mock(SimpMessageSendingOperations.class);
+    clientOutboundChannel = mock(MessageChannel.class);
+    controller = new GameCommandController(gameService, broadcaster, messagingTemplate, clientOutboundChannel);
+    game = new Game("GAME", new Deck(), new DiscardPile(), 2);
+    when(gameService.findGame("GAME")).thenReturn(game);
+  }
+
+  @Test
+  @DisplayName("playCard : Doit diffuser l'état et confirmer par un RECEIPT une action acceptée")
+  void shouldBroadcastAndSendReceiptWhenAccepted() {
+    when(gameService.tryPlayCard("GAME", 4L, "p1", 12, null)).thenReturn(CommandResult.ok());
+    PlayCardRequest request = new PlayCardRequest();
+    request.setPlayerId("p1");
+    request.setCardId(12);
+    request.setExpectedVersion(4L);
+
+    controller.playCard("GAME", request, frame("r-1"));
+
+    verify(broadcaster).markDirty(game);
+    ArgumentCaptor<Message<?>> captor = ArgumentCaptor.captor();
+    verify(clientOutboundChannel).send(captor.capture());
+    StompHeaderAccessor receipt = StompHeaderAccessor.wrap(captor.getValue());
+    assertThat(receipt.getCommand()).isEqualTo(StompCommand.RECEIPT);
+    assertThat(receipt.getReceiptId()).isEqualTo("r-1");
+    assertThat(receipt.getSessionId()).isEqualTo("session-1");
+    verify(messagingTemplate, never()).convertAndSendToUser(anyString(), anyString(), any(), anyMap());
+  }
+
+  @Test
+  @DisplayName("chooseToDraw : Sans en-tête receipt, une action acceptée ne doit pas envoyer de RECEIPT")
+  void shouldNotSendReceiptWithoutReceiptHeader() {
+    when(gameService.tryChooseToDraw("GAME", null, "p1")).thenReturn(CommandResult.ok());
+
+    controller.chooseToDraw("GAME", drawRequest(null), frame(null));
+
+    verify(broadcaster).markDirty(game);
+    verify(clientOutboundChannel, never()).send(any());
+  }
+
+  @Test
+  @DisplayName("callUno : Doit envoyer le refus à la seule session émettrice, sans diffuser")
+  @SuppressWarnings("unchecked")
+  void shouldSendErrorToSessionWhenRejected() {
+    when(gameService.tryCallUno("GAME", null, "p1"))
+            .thenReturn(CommandResult.rejected(CommandResult.Code.NOT_YOUR_TURN, "Ce n'est pas votre tour"));
+
+    controller.callUno("GAME", drawRequest(null), frame("r-2"));
+
+    ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+    ArgumentCaptor<Map<String, Object>> headers = ArgumentCaptor.forClass(Map.class);
+    verify(messagingTemplate).convertAndSendToUser(eq("session-1"), eq(GameCommandController.ERRORS_DESTINATION),
+            payload.capture(), headers.capture());
+    CommandErrorDTO error = (CommandErrorDTO) payload.getValue();
+    assertThat(error.getReceiptId()).isEqualTo("r-2");
+    assertThat(error.getCode()).isEqualTo("NOT_YOUR_TURN");
+    assertThat(error.getCurrentVersion()).isNull();
+    assertThat(headers.getValue()).containsEntry("simpSessionId", "session-1");
+    verify(broadcaster, never()).markDirty(any());
+    verify(clientOutboundChannel, never()).send(any());
+  }
+
+  @Test
+  @DisplayName("voteRematch : Un refus pour état périmé doit donner la version actuelle")
+  void shouldReportCurrentVersionWhenStale() {
+    when(gameService.tryVoteRematch("GAME", 3L, "p1")).thenReturn(CommandResult.stale(3, 5));
+
+    controller.voteRematch("GAME", drawRequest(3L), frame("r-3"));
+
+    ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+    verify(messagingTemplate).convertAndSendToUser(eq("session-1"), eq(GameCommandController.ERRORS_DESTINATION),
+            payload.capture(), anyMap());
+    CommandErrorDTO error = (CommandErrorDTO) payload.getValue();
+    assertThat(error.getCode()).isEqualTo("STALE_STATE");
+    assertThat(error.getCurrentVersion()).isEqualTo(5L);
+  }
+
+  @Test
+  @DisplayName("handleInvalidRequest : Une trame illisible doit être refusée sans fermer la connexion")
+  void shouldRejectUnreadableFrame() {
+    controller.handleInvalidRequest(new IllegalArgumentException("JSON invalide"), frame("r-4"));
+
+    ArgumentCaptor<Object> payload = ArgumentCaptor.forClass(Object.class);
+    verify(messagingTemplate).convertAndSendToUser(eq("session-1"), eq(GameCommandController.ERRORS_DESTINATION),
+            payload.capture(), anyMap());
+    assertThat(((CommandErrorDTO) payload.getValue()).getCode()).isEqualTo("INVALID_REQUEST");
+    verify(clientOutboundChannel, never()).send(any());
+  }
+
+  private static StompHeaderAccessor frame(String receipt) {
+    StompHeaderAccessor accessor = StompHeaderAccessor.create(StompCommand.SEND);
+    accessor.setSessionId("session-1");
+    if (receipt != null)
+      accessor.setReceipt(receipt);
+    return accessor;
+  }
+
+  private static DrawCardRequest drawRequest(Long expectedVersion) {
+    DrawCardRequest request = new DrawCardRequest();
+    request.setPlayerId("p1");
+    request.setExpectedVersion(expectedVersion);
+    return request;
+  }
+}
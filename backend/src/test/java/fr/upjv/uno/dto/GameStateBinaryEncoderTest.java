@@ -0,0 +1,155 @@
+package fr.upjv.uno.dto;
+
+import fr.upjv.uno.dto.response.HandDTO;
+import fr.upjv.uno.model.Card;
+import fr.upjv.uno.model.Deck;
+import fr.upjv.uno.model.DiscardPile;
+import fr.upjv.uno.model.Game;
+import fr.upjv.uno.model.GameSnapshot;
+import fr.upjv.uno.model.Player;
+import fr.upjv.uno.model.enums.Color;
+import fr.upjv.uno.model.enums.Value;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Permet de tester unitairement la classe GameStateBinaryEncoder.
+ */
+class GameStateBinaryEncoderTest {
+  private static final int PLAYERS = 6;
+
+  private final JsonMapper json = JsonMapper.builder().build();
+  private Game game;
+
+  @BeforeEach
+  void setUp() {
+    game = new Game("AB12CD", new Deck(), new DiscardPile(), PLAYERS);
+    int cardId = 0;
+    for (int i = 0; i < PLAYERS; i++) {
+      Player player = new Player(UUID.randomUUID().toString(), "Joueur " + i);
+      game.addPlayer(player);
+      for (int c = 0; c < 7; c++)
+        player.drawCard(new Card(cardId++, Color.values()[c % 4], Value.values()[c]));
+    }
+    game.addToDiscardPile(new Card(cardId, Color.RED, Value.NINE));
+  }
+
+  @Test
+  @DisplayName("encodeFull : Doit commencer par le type, la version et l'identifiant de la partie")
+  void shouldWriteHeader() {
+    GameSnapshot snapshot = game.publishSnapshot();
+
+    byte[] payload = GameStateBinaryEncoder.encodeFull(GameStateMapper.toDto(snapshot, null));
+
+    assertThat(payload[0]).isEqualTo((byte) 1);
+    assertThat(payload[1]).isEqualTo((byte) snapshot.getStateVersion());
+    assertThat(payload[2]).isEqualTo((byte) 6);
+    assertThat(new String(payload, 3, 6, StandardCharsets.US_ASCII)).isEqualTo("AB12CD");
+    // sans destinataire : marqueur « pas de main » en dernier octet
+    assertThat(payload[payload.length - 1]).isEqualTo((byte) 0);
+  }
+
+  @Test
+  @DisplayName("encodeFull : L'état public doit être l'état filtré sans destinataire")
+  void shouldEncodePublicStateLikeUnfilteredState() {
+    GameSnapshot snapshot = game.publishSnapshot();
+
+    assertThat(GameStateBinaryEncoder.encodeFull(snapshot))
+            .isEqualTo(GameStateBinaryEncoder.encodeFull(GameStateMapper.toDto(snapshot, null)));
+  }
+
+  @Test
+  @DisplayName("encodeHand : Doit écrire le type, la version puis les cartes sur deux octets")
+  void shouldEncodeHand() {
+    GameSnapshot snapshot = game.publishSnapshot();
+    HandDTO hand = GameStateMapper.toHand(snapshot.getPlayers().get(0));
+    hand.setStateVersion(snapshot.getStateVersion());
+
+    byte[] payload = GameStateBinaryEncoder.encodeHand(hand);
+
+    assertThat(payload.length).isEqualTo(3 + 7 * 2);
+    assertThat(payload[0]).isEqualTo((byte) 3);
+    assertThat(payload[2]).isEqualTo((byte) 7);
+    // carte 0 : ROUGE ZÉRO
+    assertThat(payload[3]).isEqualTo((byte) 0);
+    assertThat(payload[4]).isEqualTo((byte) (Color.RED.ordinal() * 15 + Value.ZERO.ordinal()));
+  }
+
+  @Test
+  @DisplayName("encodeDelta : Le patch public doit se terminer par une partie privée vide")
+  void shouldEndDeltaWithEmptyHand() {
+    GameSnapshot base = game.publishSnapshot();
+    game.updateCurrentPlayerIndex();
+    GameSnapshot snapshot = game.publishSnapshot();
+
+    byte[] payload = GameStateBinaryEncoder.encodeDelta(base, snapshot);
+
+    assertThat(payload[0]).isEqualTo((byte) 2);
+    assertThat(payload[payload.length - 1]).isEqualTo((byte) 0);
+  }
+
+  @Test
+  @DisplayName("encodeFull : Doit être nettement plus compact que le JSON")
+  void shouldBeSmallerThanJson() {
+    GameSnapshot base = game.publishSnapshot();
+    Player first = game.getPlayers().get(0);
+    Card played = first.getCards().get(0);
+    first.playCard(played);
+    game.addToDiscardPile(played);
+    game.updateCurrentPlayerIndex();
+    GameSnapshot snapshot = game.publishSnapshot();
+    String playerId = first.getId();
+
+    int jsonFull = json.writeValueAsBytes(GameStateMapper.toDto(snapshot, playerId)).length;
+    int binaryFull = GameStateBinaryEncoder.encodeFull(GameStateMapper.toDto(snapshot, playerId)).length;
+    int jsonDelta = json.writeValueAsBytes(GameStateMapper.toDelta(base, snapshot, null)).length;
+    int binaryDelta = GameStateBinaryEncoder.encodeDelta(base, snapshot).length;
+    System.out.printf("État complet : %d octets en JSON, %d en binaire ; patch : %d en JSON, %d en binaire%n",
+            jsonFull, binaryFull, jsonDelta, binaryDelta);
+
+    assertThat(binaryFull).isLessThan(jsonFull / 4);
+    assertThat(binaryDelta).isLessThan(jsonDelta / 4);
+  }
+
+  /**
+   * Temps d'encodage d'une diffusion complète, JSON contre binaire. Désactivé par défaut :
+   * {@code ./mvnw test -Dtest=GameStateBinaryEncoderTest -Duno.bench=true}.
+   */
+  @Test
+  @EnabledIfSystemProperty(named = "uno.bench", matches = "true")
+  @DisplayName("Benchmark : encodage d'une diffusion, JSON contre binaire")
+  void compareEncodingTime() {
+    GameStateEncoder jsonEncoder = new GameStateEncoder(json);
+    GameSnapshot snapshot = game.publishSnapshot();
+    int iterations = 100_000;
+    for (int round = 0; round < 3; round++) {
+      long start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        jsonEncoder.encodeFull(snapshot);
+        for (GameSnapshot.PlayerSnapshot player : snapshot.getPlayers())
+          jsonEncoder.encodeHand(GameStateMapper.toHand(player));
+      }
+      long jsonNanos = System.nanoTime() - start;
+      start = System.nanoTime();
+      for (int i = 0; i < iterations; i++) {
+        GameStateBinaryEncoder.encodeFull(snapshot);
+        for (GameSnapshot.PlayerSnapshot player : snapshot.getPlayers()) {
+          HandDTO hand = GameStateMapper.toHand(player);
+          hand.setStateVersion(snapshot.getStateVersion());
+          GameStateBinaryEncoder.encodeHand(hand);
+        }
+      }
+      long binaryNanos = System.nanoTime() - start;
+      System.out.printf("Diffusion à %d joueurs : %.2f µs en JSON, %.2f µs en binaire%n",
+              PLAYERS, jsonNanos / 1000.0 / iterations, binaryNanos / 1000.0 / iterations);
+    }
+  }
+}
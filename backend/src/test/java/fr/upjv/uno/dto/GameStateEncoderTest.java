@@ -0,0 +1,149 @@
+package fr.upjv.uno.dto;
+
+import fr.upjv.uno.dto.response.HandDTO;
+import fr.upjv.uno.model.Card;
+import fr.upjv.uno.model.Deck;
+import fr.upjv.uno.model.DiscardPile;
+import fr.upjv.uno.model.Game;
+import fr.upjv.uno.model.GameSnapshot;
+import fr.upjv.uno.model.Player;
+import fr.upjv.uno.model.enums.Color;
+import fr.upjv.uno.model.enums.Value;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Permet de tester unitairement la classe GameStateEncoder.
+ */
+class GameStateEncoderTest {
+  private final JsonMapper json = JsonMapper.builder().build();
+  private final GameStateEncoder encoder = new GameStateEncoder(json);
+  private Game game;
+
+  @BeforeEach
+  void setUp() {
+    game = new Game("1234", new Deck(), new DiscardPile(), 4);
+    int cardId = 0;
+    for (int i = 0; i < 4; i++) {
+      Player player = new Player("p" + i, "Joueur " + i);
+      game.addPlayer(player);
+      for (int c = 0; c < 5; c++)
+        player.drawCard(new Card(cardId++, Color.values()[c % 4], Value.values()[c]));
+    }
+    game.addToDiscardPile(new Card(cardId, Color.RED, Value.NINE));
+  }
+
+  @Test
+  @DisplayName("encodeFull : Doit produire l'état public, sans aucune main")
+  void shouldEncodePublicFullState() {
+    GameSnapshot snapshot = game.publishSnapshot();
+
+    byte[] payload = encoder.encodeFull(snapshot);
+
+    assertThat(json.readTree(payload))
+            .isEqualTo(json.readTree(json.writeValueAsBytes(GameStateMapper.toDto(snapshot, null))));
+    assertThat(json.readTree(payload).has("myHand")).isFalse();
+  }
+
+  @Test
+  @DisplayName("encodeDelta : Doit produire le patch public, sans changement de main")
+  void shouldEncodePublicDelta() {
+    GameSnapshot base = game.publishSnapshot();
+    Player alice = game.findPlayerById("p0");
+    Card played = alice.getCards().get(0);
+    alice.playCard(played);
+    game.addToDiscardPile(played);
+    game.updateCurrentPlayerIndex();
+    GameSnapshot snapshot = game.publishSnapshot();
+
+    byte[] payload = encoder.encodeDelta(base, snapshot);
+
+    assertThat(json.readTree(payload))
+            .isEqualTo(json.readTree(json.writeValueAsBytes(GameStateMapper.toDelta(base, snapshot, null))));
+    assertThat(new String(payload, StandardCharsets.UTF_8)).doesNotContain("handAdded").doesNotContain("handRemoved");
+  }
+
+  @Test
+  @DisplayName("encodeHand : Doit produire la main complète et sa version")
+  void shouldEncodeHand() {
+    GameSnapshot snapshot = game.publishSnapshot();
+    HandDTO hand = GameStateMapper.toHand(snapshot.getPlayers().get(0));
+    hand.setStateVersion(snapshot.getStateVersion());
+
+    String body = new String(encoder.encodeHand(hand), StandardCharsets.UTF_8);
+
+    assertThat(json.readTree(body).get("myHand").size()).isEqualTo(5);
+    assertThat(json.readTree(body).get("stateVersion").asLong()).isEqualTo(snapshot.getStateVersion());
+    assertThat(body).doesNotContain("handAdded");
+  }
+
+  /**
+   * Octets alloués par diffusion à une table de 10 joueurs de 7 cartes : un état complet encodé par joueur
+   * (ancienne diffusion), contre l'état public encodé une fois plus une main par joueur, et contre un patch
+   * où une seule main a changé. Désactivé par défaut :
+   * {@code ./mvnw test -Dtest=GameStateEncoderTest -Duno.bench=true}.
+   */
+  @Test
+  @EnabledIfSystemProperty(named = "uno.bench", matches = "true")
+  @DisplayName("Benchmark : octets alloués par diffusion, état par joueur contre état public partagé")
+  void compareAllocationPerBroadcast() {
+    Game table = new Game("ABCD", new Deck(), new DiscardPile(), 10);
+    int cardId = 0;
+    for (int i = 0; i < 10; i++) {
+      Player player = new Player("p" + i, "Joueur " + i);
+      table.addPlayer(player);
+      for (int c = 0; c < 7; c++)
+        player.drawCard(new Card(cardId++, Color.values()[c % 4], Value.values()[c]));
+    }
+    table.addToDiscardPile(new Card(cardId, Color.RED, Value.NINE));
+    GameSnapshot base = table.publishSnapshot();
+    Player first = table.findPlayerById("p0");
+    Card played = first.getCards().get(0);
+    first.playCard(played);
+    table.addToDiscardPile(played);
+    table.updateCurrentPlayerIndex();
+    GameSnapshot snapshot = table.publishSnapshot();
+
+    long perPlayer = 0;
+    long shared = 0;
+    long delta = 0;
+    for (int round = 0; round < 5; round++) {
+      perPlayer = allocatedPerCall(() -> {
+        for (GameSnapshot.PlayerSnapshot player : snapshot.getPlayers())
+          json.writeValueAsBytes(GameStateMapper.toDto(snapshot, player.getId()));
+      });
+      shared = allocatedPerCall(() -> {
+        encoder.encodeFull(snapshot);
+        for (GameSnapshot.PlayerSnapshot player : snapshot.getPlayers())
+          encoder.encodeHand(GameStateMapper.toHand(player));
+      });
+      delta = allocatedPerCall(() -> {
+        encoder.encodeDelta(base, snapshot);
+        encoder.encodeHand(GameStateMapper.toHand(snapshot.getPlayers().get(0)));
+      });
+    }
+    System.out.printf("Diffusion à 10 joueurs : %d o par joueur, %d o partagé, %d o en patch%n",
+            perPlayer, shared, delta);
+
+    assertThat(shared).isLessThan(perPlayer);
+    assertThat(delta).isLessThan(shared);
+  }
+
+  private static long allocatedPerCall(Runnable broadcast) {
+    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long thread = Thread.currentThread().getId();
+    int iterations = 20_000;
+    long before = threads.getThreadAllocatedBytes(thread);
+    for (int i = 0; i < iterations; i++)
+      broadcast.run();
+    return (threads.getThreadAllocatedBytes(thread) - before) / iterations;
+  }
+}
@@ -0,0 +1,109 @@
+package fr.upjv.uno.dto;
+
+import fr.upjv.uno.dto.response.CardDTO;
+import fr.upjv.uno.dto.response.GameStateDeltaDTO;
+import fr.upjv.uno.dto.response.PlayerDeltaDTO;
+import fr.upjv.uno.model.Card;
+import fr.upjv.uno.model.Deck;
+import fr.upjv.uno.model.DiscardPile;
+import fr.upjv.uno.model.Game;
+import fr.upjv.uno.model.GameSnapshot;
+import fr.upjv.uno.model.Player;
+import fr.upjv.uno.model.enums.Color;
+import fr.upjv.uno.model.enums.Value;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import tools.jackson.databind.json.JsonMapper;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Permet de tester unitairement la classe GameStateMapper.
+ */
+class GameStateMapperTest {
+  private Game game;
+  private Player alice;
+  private Player bob;
+
+  @BeforeEach
+  void setUp() {
+    game = new Game("1234", new Deck(), new DiscardPile(), 6);
+    int cardId = 0;
+    for (int i = 0; i < 6; i++) {
+      Player player = new Player("p" + i, "Joueur " + i);
+      game.addPlayer(player);
+      for (int c = 0; c < 7; c++)
+        player.drawCard(new Card(cardId++, Color.values()[c % 4], Value.values()[c]));
+    }
+    alice = game.findPlayerById("p0");
+    bob = game.findPlayerById("p1");
+    game.addToDiscardPile(new Card(cardId, Color.RED, Value.NINE));
+  }
+
+  private GameSnapshot playFirstCardOfAlice() {
+    Card played = alice.getCards().get(0);
+    alice.playCard(played);
+    game.addToDiscardPile(played);
+    game.setActiveColor(played.getColor());
+    game.updateCurrentPlayerIndex();
+    return game.publishSnapshot();
+  }
+
+  @Test
+  @DisplayName("toDelta : Doit ne contenir que les champs modifiés")
+  void shouldContainOnlyChangedFields() {
+    GameSnapshot base = game.publishSnapshot();
+    Card played = alice.getCards().get(0);
+
+    GameStateDeltaDTO delta = GameStateMapper.toDelta(base, playFirstCardOfAlice(), "p0");
+
+    assertThat(delta.getTopCard().getId()).isEqualTo(played.getId());
+    assertThat(delta.getCurrentPlayerIndex()).isEqualTo(1);
+    assertThat(delta.getPlayers()).extracting(PlayerDeltaDTO::getId).containsExactly("p0");
+    assertThat(delta.getHandRemoved()).containsExactly(played.getId());
+    assertThat(delta.getHandAdded()).isNull();
+    assertThat(delta.getDirection()).isNull();
+    assertThat(delta.getDeckSize()).isNull();
+  }
+
+  @Test
+  @DisplayName("toDelta : Doit n'inclure que la main du destinataire")
+  void shouldOnlyIncludeTargetHand() {
+    GameSnapshot base = game.publishSnapshot();
+    bob.drawCard(new Card(100, Color.BLUE, Value.SKIP));
+    GameSnapshot snapshot = game.publishSnapshot();
+
+    GameStateDeltaDTO forBob = GameStateMapper.toDelta(base, snapshot, "p1");
+    GameStateDeltaDTO forAlice = GameStateMapper.toDelta(base, snapshot, "p0");
+
+    assertThat(forBob.getHandAdded()).extracting(CardDTO::getId).containsExactly(100);
+    assertThat(forAlice.getHandAdded()).isNull();
+    assertThat(forAlice.getPlayers()).extracting(PlayerDeltaDTO::getHandSize).containsExactly(8);
+  }
+
+  @Test
+  @DisplayName("canDelta : Doit exiger l'état complet quand la liste des joueurs change")
+  void shouldRequireFullStateWhenPlayersChange() {
+    GameSnapshot base = game.publishSnapshot();
+    assertThat(GameStateMapper.canDelta(null, base)).isFalse();
+    assertThat(GameStateMapper.canDelta(base, base)).isTrue();
+
+    game.removePlayer(bob);
+
+    assertThat(GameStateMapper.canDelta(base, game.publishSnapshot())).isFalse();
+  }
+
+  @Test
+  @DisplayName("toDelta : Un coup doit être bien plus petit que l'état complet")
+  void shouldBeMuchSmallerThanFullState() {
+    JsonMapper json = JsonMapper.builder().build();
+    GameSnapshot base = game.publishSnapshot();
+    GameSnapshot snapshot = playFirstCardOfAlice();
+
+    int full = json.writeValueAsBytes(GameStateMapper.toDto(snapshot, "p1")).length;
+    int delta = json.writeValueAsBytes(GameStateMapper.toDelta(base, snapshot, "p1")).length;
+
+    assertThat(delta * 5).isLessThan(full);
+  }
+}
@@ -72,4 +72,15 @@ public class DeckFactoryTest {
     }
   }
 
+  @Test
+  @DisplayName("createStandardDeck : Deux decks doivent partager les mêmes instances de cartes")
+  void shouldShareCardInstancesBetweenDecks() {
+    List<Card> other = new DeckFactory().createStandardDeck().getCards();
+    List<Card> cards = deck.getCards();
+
+    for (int i = 0; i < cards.size(); i++) {
+      assertThat(other.get(i)).isSameAs(cards.get(i));
+      assertThat(cards.get(i).getId()).isEqualTo(i + 1);
+    }
+  }
 }
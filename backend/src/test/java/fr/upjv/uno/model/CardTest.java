@@ -5,6 +5,8 @@ import fr.upjv.uno.model.enums.Value;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.List;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.junit.jupiter.api.Assertions.assertEquals;
 
@@ -115,4 +117,17 @@ public class CardTest {
     assertEquals(50, wildPoints);
     assertEquals(50, drawFourPoints);
   }
+
+  @Test
+  @DisplayName("standardDeck : Doit partager les 108 cartes du jeu standard, identifiées de 1 à 108")
+  void shouldShareStandardDeck() {
+    List<Card> deck = Card.standardDeck();
+
+    assertThat(deck).hasSize(Card.STANDARD_DECK_SIZE).doesNotHaveDuplicates();
+    for (int i = 0; i < deck.size(); i++)
+      assertThat(deck.get(i).getId()).isEqualTo(i + 1);
+    assertThat(deck.get(0)).isEqualTo(new Card(1, Color.RED, Value.ZERO));
+    assertThat(deck.get(107).getValue()).isEqualTo(Value.WILD_DRAW_FOUR);
+    assertThat(Card.standardDeck()).isSameAs(deck);
+  }
 }
@@ -0,0 +1,100 @@
+package fr.upjv.uno.model;
+
+import fr.upjv.uno.model.enums.Color;
+import fr.upjv.uno.model.enums.Difficulty;
+import fr.upjv.uno.model.enums.GameStatus;
+import fr.upjv.uno.model.enums.Value;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Permet de tester unitairement la classe GameSnapshot.
+ */
+class GameSnapshotTest {
+  private Game game;
+  private Player alice;
+
+  @BeforeEach
+  void setUp() {
+    game = new Game("1234", new Deck(), new DiscardPile(), 4);
+    alice = new Player("p1", "Alice");
+    game.addPlayer(alice);
+    game.addPlayer(new AIPlayer("bot", "Bot", Difficulty.EASY));
+    alice.drawCard(new Card(1, Color.RED, Value.FIVE));
+    game.addToDiscardPile(new Card(2, Color.RED, Value.ONE));
+  }
+
+  @Test
+  @DisplayName("publishSnapshot : Doit copier l'état courant de la partie")
+  void shouldCopyCurrentState() {
+    GameSnapshot snapshot = game.publishSnapshot();
+
+    assertThat(game.getSnapshot()).isSameAs(snapshot);
+    assertThat(snapshot.getGameId()).isEqualTo("1234");
+    assertThat(snapshot.getStatus()).isEqualTo(GameStatus.WAITING_FOR_PLAYERS);
+    assertThat(snapshot.getTopCard().getId()).isEqualTo(2);
+    assertThat(snapshot.getPlayers()).hasSize(2);
+    assertThat(snapshot.findPlayerById("p1").getCards()).extracting(Card::getId).containsExactly(1);
+    assertThat(snapshot.findPlayerById("bot").isBot()).isTrue();
+    assertThat(snapshot.getRematchNeeded()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("publishSnapshot : Une photographie ne doit pas voir les mutations suivantes")
+  void shouldNotSeeLaterMutations() {
+    GameSnapshot snapshot = game.publishSnapshot();
+
+    alice.drawCard(new Card(3, Color.BLUE, Value.TWO));
+    game.setStatus(GameStatus.IN_PROGRESS);
+    game.reverseDirection();
+
+    assertThat(snapshot.findPlayerById("p1").getHandSize()).isEqualTo(1);
+    assertThat(snapshot.getStatus()).isEqualTo(GameStatus.WAITING_FOR_PLAYERS);
+    assertThat(snapshot.getDirection()).isEqualTo(1);
+    assertThat(game.publishSnapshot().findPlayerById("p1").getHandSize()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("getPlayers : Doit être non modifiable")
+  void shouldBeUnmodifiable() {
+    GameSnapshot snapshot = game.publishSnapshot();
+
+    assertThatThrownBy(() -> snapshot.getPlayers().clear())
+            .isInstanceOf(UnsupportedOperationException.class);
+    assertThatThrownBy(() -> snapshot.findPlayerById("p1").getCards().clear())
+            .isInstanceOf(UnsupportedOperationException.class);
+  }
+
+  @Test
+  @DisplayName("nextSnapshot : Doit être complété par la publication suivante")
+  void shouldCompleteNextSnapshotOnPublish() {
+    CompletableFuture<GameSnapshot> next = game.nextSnapshot();
+    assertThat(next).isNotDone();
+
+    GameSnapshot published = game.publishSnapshot();
+
+    assertThat(next).isCompletedWithValue(published);
+    assertThat(game.nextSnapshot()).isNotDone();
+  }
+
+  @Test
+  @DisplayName("nextSnapshot : Doit oublier une attente annulée ou complétée")
+  void shouldForgetFinishedWaiters() {
+    CompletableFuture<GameSnapshot> abandoned = game.nextSnapshot();
+    CompletableFuture<GameSnapshot> notified = game.nextSnapshot();
+    assertThat(game.getSnapshotWaiterCount()).isEqualTo(2);
+
+    abandoned.cancel(false);
+    assertThat(game.getSnapshotWaiterCount()).isEqualTo(1);
+
+    game.publishSnapshot();
+    assertThat(notified).isDone();
+    assertThat(game.getSnapshotWaiterCount()).isZero();
+  }
+}
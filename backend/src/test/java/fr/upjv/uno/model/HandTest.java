@@ -261,4 +261,33 @@ public class HandTest {
 
     assertThat(playableCards).isEmpty();
   }
+
+  @Test
+  @DisplayName("find : Doit trouver et supprimer une carte par son identifiant")
+  void shouldFindAndRemoveCardById() {
+    Card card = Card.standardDeck().get(42);
+    hand.add(Card.standardDeck().get(7));
+    hand.add(card);
+
+    assertThat(hand.find(card.getId())).isSameAs(card);
+    assertThat(hand.contains(card.getId())).isTrue();
+    assertThat(hand.remove(card.getId())).isSameAs(card);
+
+    assertThat(hand.contains(card.getId())).isFalse();
+    assertThat(hand.remove(card.getId())).isNull();
+    assertThat(hand.getSize()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("find : Ne doit pas confondre une carte hors du jeu standard avec une carte standard")
+  void shouldFindNonStandardCardById() {
+    Card standard = Card.standardDeck().get(0); // identifiant 1
+    Card custom = new Card(257, Color.RED, Value.FIVE); // même octet de poids faible que l'identifiant 1
+    hand.add(standard);
+    hand.add(custom);
+
+    assertThat(hand.find(257)).isSameAs(custom);
+    assertThat(hand.find(1)).isSameAs(standard);
+    assertThat(hand.find(109)).isNull();
+  }
 }
@@ -0,0 +1,142 @@
+package fr.upjv.uno.model;
+
+import fr.upjv.uno.model.enums.Difficulty;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Permet de tester unitairement la classe LobbySeats.
+ */
+class LobbySeatsTest {
+  private LobbySeats seats;
+
+  @BeforeEach
+  void setUp() {
+    seats = new LobbySeats(2);
+  }
+
+  @Test
+  @DisplayName("reserve : Doit attribuer une place au joueur")
+  void shouldReserveSeat() {
+    Player alice = new Player("1", "Alice");
+
+    seats.reserve(alice);
+
+    assertThat(seats.holds(alice)).isTrue();
+    assertThat(seats.getReservedCount()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("reserve : Doit refuser un nom déjà pris")
+  void shouldRejectDuplicateName() {
+    seats.reserve(new Player("1", "Alice"));
+
+    assertThatThrownBy(() -> seats.reserve(new Player("2", "Alice")))
+            .isInstanceOf(IllegalArgumentException.class)
+            .hasMessageContaining("n'est pas disponible");
+    assertThat(seats.getReservedCount()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("tryReserve : Doit renvoyer la raison du refus sans lever d'exception")
+  void shouldReturnReservationOutcome() {
+    assertThat(seats.tryReserve(new Player("1", "Alice"))).isEqualTo(LobbySeats.Reservation.RESERVED);
+    assertThat(seats.tryReserve(new Player("2", "Alice"))).isEqualTo(LobbySeats.Reservation.NAME_TAKEN);
+    assertThat(seats.tryReserve(new Player("3", "Bob"))).isEqualTo(LobbySeats.Reservation.RESERVED);
+    assertThat(seats.tryReserve(new Player("4", "Carol"))).isEqualTo(LobbySeats.Reservation.FULL);
+    assertThat(seats.getReservedCount()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("reserve : Doit refuser quand toutes les places sont prises, sans bloquer le nom")
+  void shouldRejectWhenFull() {
+    Player alice = new Player("1", "Alice");
+    seats.reserve(alice);
+    seats.reserve(new Player("2", "Bob"));
+
+    assertThatThrownBy(() -> seats.reserve(new Player("3", "Carol")))
+            .isInstanceOf(IllegalStateException.class)
+            .hasMessage("Impossible de rejoindre : la salle d'attente est pleine");
+    assertThat(seats.getReservedCount()).isEqualTo(2);
+
+    seats.release(alice);
+    Player carol = new Player("4", "Carol");
+    seats.reserve(carol);
+    assertThat(seats.holds(carol)).isTrue();
+  }
+
+  @Test
+  @DisplayName("release : Doit libérer la place et le nom")
+  void shouldReleaseSeatAndName() {
+    Player alice = new Player("1", "Alice");
+    seats.reserve(alice);
+    seats.reserve(new Player("2", "Bob"));
+
+    assertThat(seats.release(alice)).isTrue();
+    assertThat(seats.release(alice)).isFalse();
+
+    Player otherAlice = new Player("3", "Alice");
+    seats.reserve(otherAlice);
+    assertThat(seats.holds(otherAlice)).isTrue();
+  }
+
+  @Test
+  @DisplayName("reserve : Un bot ne doit ni réserver ni libérer de nom")
+  void shouldNotReserveBotNames() {
+    Player alice = new Player("1", "Alice");
+    AIPlayer bot = new AIPlayer("2", "Alice", Difficulty.RANDOM);
+    seats.reserve(alice);
+    seats.reserve(bot);
+
+    assertThat(seats.holds(bot)).isTrue();
+    assertThat(seats.release(bot)).isTrue();
+    assertThat(seats.tryReserve(new Player("3", "Alice"))).isEqualTo(LobbySeats.Reservation.NAME_TAKEN);
+  }
+
+  @Test
+  @DisplayName("reserve : Des arrivées simultanées ne doivent jamais dépasser la capacité")
+  void shouldNeverOverfillUnderBurst() throws Exception {
+    LobbySeats lobby = new LobbySeats(4);
+    int joiners = 64;
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<Boolean>> results = new ArrayList<>();
+    try {
+      for (int i = 0; i < joiners; i++) {
+        // deux joueurs par nom : les collisions de noms sont aussi testées
+        Player player = new Player("" + i, "Joueur " + (i / 2));
+        results.add(pool.submit(() -> {
+          start.await();
+          try {
+            lobby.reserve(player);
+            return true;
+          } catch (IllegalArgumentException | IllegalStateException e) {
+            return false;
+          }
+        }));
+      }
+      start.countDown();
+
+      int seated = 0;
+      for (Future<Boolean> result : results) {
+        if (result.get())
+          seated++;
+      }
+      assertThat(seated).isEqualTo(4);
+      assertThat(lobby.getReservedCount()).isEqualTo(4);
+    } finally {
+      pool.shutdownNow();
+    }
+  }
+}
@@ -0,0 +1,339 @@
+package fr.upjv.uno.service;
+
+import fr.upjv.uno.model.Card;
+import fr.upjv.uno.model.Deck;
+import fr.upjv.uno.model.DiscardPile;
+import fr.upjv.uno.model.Game;
+import fr.upjv.uno.model.Player;
+import fr.upjv.uno.model.enums.Color;
+import fr.upjv.uno.model.enums.Value;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.Message;
+import org.springframework.messaging.MessageChannel;
+import org.springframework.messaging.MessageHeaders;
+import org.springframework.messaging.simp.SimpMessageHeaderAccessor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import tools.jackson.databind.JsonNode;
+import tools.jackson.databind.json.JsonMapper;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+/**
+ * Permet de tester unitairement la classe GameBroadcaster.
+ */
+class GameBroadcasterTest {
+  private SimpMessagingTemplate messagingTemplate;
+  private MessageChannel clientOutboundChannel;
+  private final GameService gameService = new GameService();
+  private GameBroadcaster broadcaster;
+  private Game game;
+
+  @BeforeEach
+  void setUp() {
+    messagingTemplate = mock(SimpMessagingTemplate.class);
+    clientOutboundChannel = mock(MessageChannel.class);
+    broadcaster = new GameBroadcaster(messagingTemplate, clientOutboundChannel, gameService, JsonMapper.builder().build(),
+            50, 1, 4);
+    game = new Game("GAME", new Deck(), new DiscardPile(), 2);
+    game.addPlayer(new Player("p1", "Alice"));
+    game.addPlayer(new Player("p2", "Bob"));
+    game.publishSnapshot();
+    broadcaster.registerGame(game);
+    broadcaster.registerSession("s1", "p1", GameBroadcaster.WireFormat.JSON);
+    broadcaster.registerSession("s2", "p2", GameBroadcaster.WireFormat.JSON);
+  }
+
+  @AfterEach
+  void tearDown() {
+    broadcaster.shutdown();
+    gameService.shutdown();
+  }
+
+  @Test
+  @DisplayName("markDirty : Doit envoyer un seul état pour des changements rapprochés")
+  void shouldCoalesceBurstIntoOneSendPerPlayer() {
+    for (int i = 0; i < 5; i++)
+      broadcaster.markDirty(game);
+
+    verify(messagingTemplate, timeout(2000).times(1)).send(eq("/user/s2/queue/hand"), any(Message.class));
+    verify(messagingTemplate, times(1)).send(eq("/topic/game/GAME"), any(Message.class));
+    verify(messagingTemplate, times(1)).send(eq("/user/s1/queue/hand"), any(Message.class));
+    assertThat(broadcaster.getRequestedCount()).isEqualTo(5);
+    assertThat(broadcaster.getCoalescedCount()).isEqualTo(4);
+    assertThat(broadcaster.getFlushedCount()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("markDirty : Un changement après l'envoi doit déclencher une nouvelle diffusion")
+  void shouldBroadcastAgainAfterFlush() {
+    broadcaster.markDirty(game);
+    verify(messagingTemplate, timeout(1000).times(1)).send(eq("/topic/game/GAME"), any(Message.class));
+
+    broadcaster.markDirty(game);
+
+    verify(messagingTemplate, timeout(1000).times(2)).send(eq("/topic/game/GAME"), any(Message.class));
+    assertThat(broadcaster.getCoalescedCount()).isZero();
+  }
+
+  @Test
+  @DisplayName("markDirty : Doit envoyer l'état public complet puis des patchs")
+  @SuppressWarnings("unchecked")
+  void shouldSendFullStateThenDeltas() {
+    broadcaster.markDirty(game);
+    verify(messagingTemplate, timeout(1000).times(1)).send(eq("/topic/game/GAME"), any(Message.class));
+    broadcaster.markDirty(game);
+
+    ArgumentCaptor<Message<byte[]>> captor = ArgumentCaptor.forClass(Message.class);
+    verify(messagingTemplate, timeout(1000).times(2)).send(eq("/topic/game/GAME"), captor.capture());
+    List<String> bodies = captor.getAllValues().stream()
+            .map(m -> new String(m.getPayload(), StandardCharsets.UTF_8))
+            .toList();
+
+    // la main de p2 part en dernier dans la première diffusion
+    verify(messagingTemplate, timeout(1000).times(1)).send(eq("/user/s2/queue/hand"), any(Message.class));
+    assertThat(bodies.get(0)).doesNotContain("myHand").doesNotContain("baseVersion");
+    assertThat(bodies.get(1)).contains("\"baseVersion\"");
+    assertThat(broadcaster.getFullStateCount()).isEqualTo(1);
+    assertThat(broadcaster.getDeltaCount()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("markDirty : Doit envoyer sa main à un joueur seulement quand elle change")
+  @SuppressWarnings("unchecked")
+  void shouldSendHandOnlyWhenItChanges() {
+    broadcaster.markDirty(game);
+    verify(messagingTemplate, timeout(1000).times(1)).send(eq("/user/s2/queue/hand"), any(Message.class));
+    game.findPlayerById("p1").drawCard(new Card(7, Color.RED, Value.SEVEN));
+    commit(game);
+
+    broadcaster.markDirty(game);
+
+    ArgumentCaptor<Message<byte[]>> captor = ArgumentCaptor.forClass(Message.class);
+    verify(messagingTemplate, timeout(1000).times(2)).send(eq("/topic/game/GAME"), any(Message.class));
+    verify(messagingTemplate, timeout(1000).times(2)).send(eq("/user/s1/queue/hand"), captor.capture());
+    verify(messagingTemplate, times(1)).send(eq("/user/s2/queue/hand"), any(Message.class));
+    assertThat(new String(captor.getValue().getPayload(), StandardCharsets.UTF_8))
+            .contains("\"myHand\":[{").contains("\"stateVersion\"");
+    assertThat(broadcaster.getHandCount()).isEqualTo(3);
+  }
+
+  @Test
+  @DisplayName("registerSession : Doit envoyer le format binaire aux seuls joueurs qui l'ont demandé")
+  @SuppressWarnings("unchecked")
+  void shouldSendBinaryToPlayersWhoAskedForIt() {
+    broadcaster.registerSession("s1", "p1", GameBroadcaster.WireFormat.BINARY);
+
+    broadcaster.markDirty(game);
+
+    ArgumentCaptor<Message<byte[]>> binary = ArgumentCaptor.forClass(Message.class);
+    ArgumentCaptor<Message<byte[]>> hand = ArgumentCaptor.forClass(Message.class);
+    ArgumentCaptor<Message<byte[]>> text = ArgumentCaptor.forClass(Message.class);
+    verify(messagingTemplate, timeout(2000).times(1)).send(eq("/topic/game-binary/GAME"), binary.capture());
+    verify(messagingTemplate, timeout(2000).times(1)).send(eq("/user/s1/queue/hand"), hand.capture());
+    verify(messagingTemplate, timeout(2000).times(1)).send(eq("/topic/game/GAME"), text.capture());
+    assertThat(binary.getValue().getHeaders().get(MessageHeaders.CONTENT_TYPE))
+            .isEqualTo(GameBroadcaster.BINARY_CONTENT_TYPE);
+    assertThat(Base64.getDecoder().decode(binary.getValue().getPayload())[0]).isEqualTo((byte) 1);
+    assertThat(Base64.getDecoder().decode(hand.getValue().getPayload())[0]).isEqualTo((byte) 3);
+    assertThat(new String(text.getValue().getPayload(), StandardCharsets.UTF_8)).startsWith("{");
+  }
+
+  @Test
+  @DisplayName("markDirty : Les états d'une partie doivent partir dans l'ordre, même si un envoi traîne")
+  void shouldSendStatesInOrder() throws InterruptedException {
+    broadcaster.shutdown();
+    broadcaster = new GameBroadcaster(messagingTemplate, clientOutboundChannel, gameService, JsonMapper.builder().build(),
+            0, 4, 4);
+    broadcaster.registerGame(game);
+    JsonMapper mapper = JsonMapper.builder().build();
+    List<Long> versions = new CopyOnWriteArrayList<>();
+    AtomicBoolean first = new AtomicBoolean(true);
+    doAnswer(invocation -> {
+      if (first.getAndSet(false))
+        Thread.sleep(100); // le premier envoi traîne : les suivants ne doivent pas le doubler
+      Message<byte[]> message = invocation.getArgument(1);
+      versions.add(mapper.readTree(message.getPayload()).get("stateVersion").asLong());
+      return null;
+    }).when(messagingTemplate).send(eq("/topic/game/GAME"), any(Message.class));
+
+    for (int i = 0; i < 10; i++) {
+      commit(game);
+      broadcaster.markDirty(game);
+      Thread.sleep(5);
+    }
+
+    verify(messagingTemplate, timeout(2000).atLeast(2)).send(eq("/topic/game/GAME"), any(Message.class));
+    Thread.sleep(200);
+    assertThat(versions).isSorted().contains(10L);
+    assertThat(broadcaster.getQueueDepth("GAME")).isZero();
+  }
+
+  @Test
+  @DisplayName("markDirty : Chaque diffusion doit porter le numéro suivant de la partie")
+  @SuppressWarnings("unchecked")
+  void shouldTagBroadcastsWithSequence() {
+    broadcaster.markDirty(game);
+    verify(messagingTemplate, timeout(1000).times(1)).send(eq("/topic/game/GAME"), any(Message.class));
+    broadcaster.markDirty(game);
+
+    ArgumentCaptor<Message<byte[]>> state = ArgumentCaptor.forClass(Message.class);
+    ArgumentCaptor<Message<byte[]>> hand = ArgumentCaptor.forClass(Message.class);
+    verify(messagingTemplate, timeout(1000).times(2)).send(eq("/topic/game/GAME"), state.capture());
+    verify(messagingTemplate, times(1)).send(eq("/user/s1/queue/hand"), hand.capture());
+    assertThat(state.getAllValues()).extracting(GameBroadcasterTest::sequence).containsExactly("1", "2");
+    assertThat(sequence(hand.getValue())).isEqualTo("1");
+    assertThat(broadcaster.getLastSequence("GAME")).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("resume : Doit envoyer à la session les seuls changements manqués, en un patch")
+  @SuppressWarnings("unchecked")
+  void shouldReplayMissedChanges() {
+    broadcastTimes(3);
+
+    broadcaster.resume("GAME", null, GameBroadcaster.WireFormat.JSON, 1, "s1", "sub-0");
+
+    ArgumentCaptor<Message<byte[]>> captor = ArgumentCaptor.forClass(Message.class);
+    verify(clientOutboundChannel, timeout(1000).times(1)).send(captor.capture());
+    Message<byte[]> replay = captor.getValue();
+    SimpMessageHeaderAccessor accessor = SimpMessageHeaderAccessor.wrap(replay);
+    assertThat(accessor.getSessionId()).isEqualTo("s1");
+    assertThat(accessor.getSubscriptionId()).isEqualTo("sub-0");
+    assertThat(accessor.getDestination()).isEqualTo("/topic/game/GAME");
+    assertThat(sequence(replay)).isEqualTo("3");
+    JsonNode delta = JsonMapper.builder().build().readTree(replay.getPayload());
+    assertThat(delta.get("baseVersion").asLong()).isEqualTo(1);
+    assertThat(delta.get("stateVersion").asLong()).isEqualTo(3);
+    assertThat(broadcaster.getReplayedCount()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("resume : Doit envoyer l'état complet si les messages manqués ne sont plus dans le tampon")
+  @SuppressWarnings("unchecked")
+  void shouldSendFullStateWhenBufferWrapped() {
+    broadcastTimes(6);
+
+    broadcaster.resume("GAME", null, GameBroadcaster.WireFormat.JSON, 1, "s1", "sub-0");
+
+    ArgumentCaptor<Message<byte[]>> captor = ArgumentCaptor.forClass(Message.class);
+    verify(clientOutboundChannel, timeout(1000).times(1)).send(captor.capture());
+    assertThat(sequence(captor.getValue())).isEqualTo("6");
+    assertThat(new String(captor.getValue().getPayload(), StandardCharsets.UTF_8))
+            .doesNotContain("baseVersion").contains("\"players\"");
+    assertThat(broadcaster.getResyncedCount()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("resume : Un abonnement à la main doit recevoir la plus récente, rien s'il est à jour")
+  @SuppressWarnings("unchecked")
+  void shouldResendLatestHand() {
+    broadcastTimes(2);
+
+    broadcaster.resume("GAME", "p2", GameBroadcaster.WireFormat.JSON, 2, "s2", "sub-1");
+    broadcaster.resume("GAME", "p2", GameBroadcaster.WireFormat.JSON, 0, "s2", "sub-1");
+
+    ArgumentCaptor<Message<byte[]>> captor = ArgumentCaptor.forClass(Message.class);
+    verify(clientOutboundChannel, timeout(1000).times(1)).send(captor.capture());
+    assertThat(SimpMessageHeaderAccessor.wrap(captor.getValue()).getDestination())
+            .isEqualTo(GameBroadcaster.HAND_SUBSCRIPTION);
+    assertThat(sequence(captor.getValue())).isEqualTo("2");
+    assertThat(new String(captor.getValue().getPayload(), StandardCharsets.UTF_8)).contains("\"myHand\"");
+  }
+
+  @Test
+  @DisplayName("removeGame : Une diffusion prévue avant la suppression ne doit rien envoyer ni recréer le tampon")
+  void shouldDropFlushOfRemovedGame() throws InterruptedException {
+    broadcastTimes(1);
+    broadcaster.markDirty(game); // envoi prévu à la fin de la fenêtre
+
+    game.markRemoved();
+    broadcaster.removeGame("GAME");
+    Thread.sleep(200);
+
+    verify(messagingTemplate, times(1)).send(eq("/topic/game/GAME"), any(Message.class));
+    assertThat(broadcaster.getLastSequence("GAME")).isZero();
+  }
+
+  @Test
+  @DisplayName("registerGame : Une nouvelle partie de même code ne doit pas hériter des diffusions de l'ancienne")
+  @SuppressWarnings("unchecked")
+  void shouldStartNewGameWithFreshBuffer() {
+    broadcastTimes(2);
+
+    game.markRemoved();
+    broadcaster.removeGame("GAME");
+    Game next = new Game("GAME", new Deck(), new DiscardPile(), 2);
+    broadcaster.registerGame(next);
+    broadcaster.markDirty(next);
+
+    ArgumentCaptor<Message<byte[]>> captor = ArgumentCaptor.forClass(Message.class);
+    verify(messagingTemplate, timeout(1000).times(3)).send(eq("/topic/game/GAME"), captor.capture());
+    assertThat(sequence(captor.getValue())).isEqualTo("1");
+    assertThat(broadcaster.getLastSequence("GAME")).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("markDirty : Doit envoyer la main aux seules sessions enregistrées du joueur")
+  @SuppressWarnings("unchecked")
+  void shouldSendHandToPlayerSessionsOnly() {
+    broadcaster.registerSession("s3", "p1", GameBroadcaster.WireFormat.JSON);
+    broadcaster.unregisterSession("s2");
+
+    broadcaster.markDirty(game);
+
+    ArgumentCaptor<Message<byte[]>> captor = ArgumentCaptor.forClass(Message.class);
+    verify(messagingTemplate, timeout(1000).times(1)).send(eq("/user/s3/queue/hand"), captor.capture());
+    verify(messagingTemplate, timeout(1000).times(1)).send(eq("/user/s1/queue/hand"), any(Message.class));
+    verify(messagingTemplate, never()).send(eq("/user/s2/queue/hand"), any(Message.class));
+    verify(messagingTemplate, never()).send(eq("/topic/game/GAME/p1"), any(Message.class));
+    assertThat(SimpMessageHeaderAccessor.wrap(captor.getValue()).getSessionId()).isEqualTo("s3");
+    assertThat(broadcaster.getHandCount()).isEqualTo(2);
+  }
+
+  @Test
+  @DisplayName("unregisterSession : Doit revenir au JSON après la déconnexion")
+  void shouldForgetFormatOnDisconnect() {
+    broadcaster.registerSession("s1", "p1", GameBroadcaster.WireFormat.BINARY);
+
+    broadcaster.unregisterSession("s1");
+
+    assertThat(broadcaster.getFormat("p1")).isEqualTo(GameBroadcaster.WireFormat.JSON);
+  }
+
+  /** Diffuse {@code count} états successifs de la partie (versions 1 à count), l'un après l'autre. */
+  private void broadcastTimes(int count) {
+    for (int i = 1; i <= count; i++) {
+      commit(game);
+      broadcaster.markDirty(game);
+      verify(messagingTemplate, timeout(1000).times(i)).send(eq("/topic/game/GAME"), any(Message.class));
+    }
+  }
+
+  /** Comme une commande de GameService : la version est incrémentée, puis la photographie publiée. */
+  private static void commit(Game game) {
+    game.commitVersion(game.getStateVersion());
+    game.publishSnapshot();
+  }
+
+  private static String sequence(Message<?> message) {
+    return SimpMessageHeaderAccessor.wrap(message).getFirstNativeHeader(GameBroadcaster.SEQUENCE_HEADER);
+  }
+}
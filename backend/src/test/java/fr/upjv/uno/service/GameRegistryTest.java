@@ -0,0 +1,206 @@
+package fr.upjv.uno.service;
+
+import fr.upjv.uno.model.AIPlayer;
+import fr.upjv.uno.model.Deck;
+import fr.upjv.uno.model.DiscardPile;
+import fr.upjv.uno.model.Game;
+import fr.upjv.uno.model.Player;
+import fr.upjv.uno.model.enums.Difficulty;
+import fr.upjv.uno.model.enums.GameStatus;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Permet de tester unitairement la classe GameRegistry.
+ */
+class GameRegistryTest {
+  private static final Duration LONG = Duration.ofHours(1);
+
+  private GameRegistry registry;
+
+  @AfterEach
+  void tearDown() {
+    registry.shutdown();
+  }
+
+  private static Game newGame(String id) {
+    Game game = new Game(id, new Deck(), new DiscardPile(), 2);
+    game.addPlayer(new Player(id + "-p1", "Alice"));
+    return game;
+  }
+
+  @Test
+  @DisplayName("put : Doit supprimer la partie la moins récemment active quand le registre est plein")
+  void shouldEvictLeastRecentlyUsedWhenFull() throws InterruptedException {
+    registry = new GameRegistry(2, LONG, LONG, LONG, Duration.ZERO, 4);
+    Game first = newGame("A");
+    Game second = newGame("B");
+    registry.put(first);
+    Thread.sleep(2);
+    registry.put(second);
+    Thread.sleep(2);
+    registry.touch(first); // A redevient la plus récente
+    List<Game> evicted = new ArrayList<>();
+    registry.setEvictionListener(evicted::add);
+
+    registry.put(newGame("C"));
+
+    assertThat(registry.contains("A")).isTrue();
+    assertThat(registry.contains("B")).isFalse();
+    assertThat(registry.contains("C")).isTrue();
+    assertThat(evicted).containsExactly(second);
+    assertThat(registry.getCapacityEvictionCount()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("sweep : Doit supprimer les parties inactives selon la durée de vie de leur statut")
+  void shouldEvictIdleGamesPerStatus() throws InterruptedException {
+    registry = new GameRegistry(10, LONG, LONG, Duration.ofMillis(1), Duration.ZERO, 4);
+    Game waiting = newGame("A");
+    Game finished = newGame("B");
+    finished.setStatus(GameStatus.FINISHED);
+    finished.publishSnapshot();
+    registry.put(waiting);
+    registry.put(finished);
+    Thread.sleep(5);
+
+    assertThat(registry.sweep()).isEqualTo(1);
+
+    assertThat(registry.contains("A")).isTrue();
+    assertThat(registry.contains("B")).isFalse();
+    assertThat(registry.getIdleEvictionCount(GameStatus.FINISHED)).isEqualTo(1);
+    assertThat(registry.getIdleEvictionCount(GameStatus.WAITING_FOR_PLAYERS)).isZero();
+  }
+
+  @Test
+  @DisplayName("sweep : Doit supprimer une partie en cours abandonnée aux bots")
+  void shouldEvictGameLeftToBots() {
+    registry = new GameRegistry(10, LONG, LONG, LONG, Duration.ZERO, 4);
+    Game game = new Game("A", new Deck(), new DiscardPile(), 2);
+    game.addPlayer(new AIPlayer("bot1", "Bot 1", Difficulty.EASY));
+    game.addPlayer(new AIPlayer("bot2", "Bot 2", Difficulty.EASY));
+    game.setStatus(GameStatus.IN_PROGRESS);
+    game.publishSnapshot();
+    registry.put(game);
+
+    assertThat(registry.sweep()).isEqualTo(1);
+    assertThat(registry.getIdleEvictionCount(GameStatus.IN_PROGRESS)).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("sweep : Doit juger une partie sur sa photographie publiée, pas sur son état vivant")
+  void shouldSweepFromPublishedSnapshot() {
+    registry = new GameRegistry(10, LONG, LONG, LONG, Duration.ZERO, 4);
+    Game game = new Game("A", new Deck(), new DiscardPile(), 2);
+    game.addPlayer(new AIPlayer("bot1", "Bot 1", Difficulty.EASY));
+    game.setStatus(GameStatus.IN_PROGRESS); // pas encore publié
+    registry.put(game);
+
+    assertThat(registry.sweep()).isZero();
+
+    game.publishSnapshot();
+    assertThat(registry.sweep()).isEqualTo(1);
+  }
+
+  @Test
+  @DisplayName("put : Des créations simultanées ne doivent jamais dépasser la borne")
+  void shouldNeverExceedBoundUnderConcurrentPuts() throws Exception {
+    registry = new GameRegistry(8, LONG, LONG, LONG, Duration.ZERO, 4);
+    ExecutorService pool = Executors.newFixedThreadPool(8);
+    CountDownLatch start = new CountDownLatch(1);
+    List<Future<?>> puts = new ArrayList<>();
+    for (int i = 0; i < 200; i++) {
+      String id = "G" + i;
+      puts.add(pool.submit(() -> {
+        start.await();
+        registry.put(newGame(id));
+        return null;
+      }));
+    }
+
+    start.countDown();
+    for (Future<?> put : puts)
+      put.get(5, TimeUnit.SECONDS);
+    pool.shutdown();
+
+    assertThat(registry.size()).isEqualTo(8);
+    assertThat(registry.getCapacityEvictionCount()).isEqualTo(192);
+  }
+
+  @Test
+  @DisplayName("touch : Une action de joueur ne doit pas attendre le verrou des enregistrements")
+  void shouldTouchWithoutWaitingForPuts() throws Exception {
+    registry = new GameRegistry(10, LONG, LONG, LONG, Duration.ZERO, 4);
+    Game game = newGame("A");
+    registry.put(game);
+    long before = game.getLastActivity();
+    CountDownLatch locked = new CountDownLatch(1);
+    CountDownLatch release = new CountDownLatch(1);
+    Thread holder = new Thread(() -> {
+      synchronized (registry) { // un enregistrement en cours
+        locked.countDown();
+        try {
+          release.await();
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+      }
+    });
+    holder.start();
+    assertThat(locked.await(1, TimeUnit.SECONDS)).isTrue();
+
+    ExecutorService pool = Executors.newSingleThreadExecutor();
+    try {
+      Future<Game> action = pool.submit(() -> {
+        Thread.sleep(1);
+        registry.touch(game);
+        return registry.get("A");
+      });
+
+      assertThat(action.get(1, TimeUnit.SECONDS)).isSameAs(game);
+      assertThat(game.getLastActivity()).isGreaterThan(before);
+    } finally {
+      release.countDown();
+      holder.join();
+      pool.shutdown();
+    }
+  }
+
+  @Test
+  @DisplayName("remove : Un retrait normal ne doit pas compter comme une éviction")
+  void shouldNotCountNormalRemoval() {
+    registry = new GameRegistry(10, LONG, LONG, LONG, Duration.ZERO, 4);
+    registry.put(newGame("A"));
+
+    assertThat(registry.remove("A")).isNotNull();
+    assertThat(registry.size()).isZero();
+    assertThat(registry.getCapacityEvictionCount()).isZero();
+  }
+
+  @Test
+  @DisplayName("bindTo : Doit exposer les évictions comme compteurs")
+  void shouldExposeEvictionCounters() {
+    registry = new GameRegistry(1, LONG, LONG, LONG, Duration.ZERO, 4);
+    SimpleMeterRegistry meters = new SimpleMeterRegistry();
+    registry.bindTo(meters);
+
+    registry.put(newGame("A"));
+    registry.put(newGame("B"));
+
+    assertThat(meters.get("uno.games.evicted").tag("reason", "capacity").functionCounter().count()).isEqualTo(1);
+    assertThat(meters.get("uno.games.active").gauge().value()).isEqualTo(1);
+  }
+}
@@ -0,0 +1,63 @@
+package fr.upjv.uno.service;
+
+import fr.upjv.uno.model.Deck;
+import fr.upjv.uno.model.DiscardPile;
+import fr.upjv.uno.model.Game;
+import fr.upjv.uno.util.HashedWheelTimer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Permet de tester unitairement la classe GameScheduler.
+ */
+class GameSchedulerTest {
+  private final GameScheduler scheduler = new GameScheduler(1, 8, 2, 100, false);
+
+  @AfterEach
+  void tearDown() {
+    scheduler.shutdown();
+  }
+
+  @Test
+  @DisplayName("schedule : Une tâche échue avant d'être rattachée à sa partie ne doit pas y rester")
+  void shouldNotKeepTimerExpiredBeforeRegistration() throws InterruptedException {
+    CountDownLatch ran = new CountDownLatch(1);
+    // la roue déclenche la tâche avant que le handle ne soit rattaché à la partie
+    Game game = new Game("GAME", new Deck(), new DiscardPile(), 2) {
+      @Override
+      public void addTimer(HashedWheelTimer.Timeout timeout) {
+        try {
+          ran.await(1, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+          Thread.currentThread().interrupt();
+        }
+        super.addTimer(timeout);
+      }
+    };
+
+    HashedWheelTimer.Timeout timeout = scheduler.schedule(game, 0, TimeUnit.MILLISECONDS, ran::countDown);
+
+    assertThat(ran.await(1, TimeUnit.SECONDS)).isTrue();
+    assertThat(timeout.isExpired()).isTrue();
+    assertThat(game.drainTimers()).isEmpty();
+  }
+
+  @Test
+  @DisplayName("cancelAll : Doit annuler les tâches en attente de la partie")
+  void shouldCancelPendingTimers() {
+    Game game = new Game("GAME", new Deck(), new DiscardPile(), 2);
+    HashedWheelTimer.Timeout timeout = scheduler.schedule(game, 1, TimeUnit.MINUTES, () -> {
+    });
+
+    scheduler.cancelAll(game);
+
+    assertThat(timeout.isCancelled()).isTrue();
+    assertThat(game.drainTimers()).isEmpty();
+  }
+}
@@ -11,6 +11,8 @@ import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -121,6 +123,22 @@ class GameServiceTest {
             .hasMessageContaining("partie en cours");
   }
 
+  @Test
+  @DisplayName("joinGame : Doit refuser un nom déjà pris et libérer la place d'un joueur parti")
+  void shouldRejectDuplicateNameAndReuseFreedSeat() {
+    Game lobby = gameService.createGame(2, "Standard");
+    gameService.joinGame(lobby.getId(), new Player("1", "toto"));
+    gameService.joinGame(lobby.getId(), new Player("2", "titi"));
+
+    assertThatThrownBy(() -> gameService.joinGame(lobby.getId(), new Player("3", "toto")))
+            .isInstanceOf(IllegalArgumentException.class);
+
+    gameService.leaveGame(lobby.getId(), "1");
+    gameService.joinGame(lobby.getId(), new Player("4", "toto"));
+
+    assertThat(lobby.getPlayers()).extracting(Player::getId).containsExactly("2", "4");
+  }
+
   @Test
   @DisplayName("Doit lever une exception quand l'identifiant de la partie est nul lors de la suppression")
   void shouldThrowExceptionWhenGameIdIsNullOnRemove() {
@@ -171,6 +189,18 @@ class GameServiceTest {
     assertEquals(p2, game.getCurrentPlayer());
   }
 
+  @Test
+  @DisplayName("Doit jouer une carte dont l'identifiant est hors du jeu standard")
+  void shouldPlayNonStandardCard() {
+    Card customCard = new Card(300, Color.RED, Value.FIVE);
+    p1.drawCard(customCard);
+
+    gameService.playCard(game.getId(), "p1", 300, null);
+
+    assertThat(p1.hasThisCard(customCard)).isFalse();
+    assertEquals(customCard, game.getTopCard());
+  }
+
   @Test
   @DisplayName("Doit recycler la défausse quand la pioche est vide pendant une pioche")
   void shouldRecycleDiscardPileWhenDeckIsEmptyDuringDraw() {
@@ -300,6 +330,114 @@ class GameServiceTest {
             () -> gameService.playCard(game.getId(), "p1", 1, null));
   }
 
+  @Test
+  @DisplayName("execute : Doit incrémenter la version quand la commande aboutit")
+  void shouldIncrementVersionWhenCommandSucceeds() {
+    Card validCard = new Card(1, Color.RED, Value.FIVE);
+    p1.drawCard(validCard);
+    long version = game.getStateVersion();
+
+    gameService.execute(game.getId(), version, g -> gameService.playCard(game.getId(), "p1", 1, null));
+
+    assertThat(game.getStateVersion()).isEqualTo(version + 1);
+  }
+
+  @Test
+  @DisplayName("execute : Doit refuser une action basée sur une version périmée sans modifier la partie")
+  void shouldRejectStaleAction() {
+    Card validCard = new Card(1, Color.RED, Value.FIVE);
+    p1.drawCard(validCard);
+    long staleVersion = game.getStateVersion() - 1;
+
+    assertThatThrownBy(() -> gameService.execute(game.getId(), staleVersion,
+            g -> gameService.playCard(game.getId(), "p1", 1, null)))
+            .isInstanceOf(StaleStateException.class);
+
+    assertThat(p1.hasThisCard(validCard)).isTrue();
+    assertEquals(p1, game.getCurrentPlayer());
+  }
+
+  @Test
+  @DisplayName("execute : Doit publier une photographie de l'état après la commande")
+  void shouldPublishSnapshotAfterCommand() {
+    Card validCard = new Card(1, Color.RED, Value.FIVE);
+    p1.drawCard(validCard);
+
+    gameService.playCard(game.getId(), "p1", 1, null);
+
+    assertThat(game.getSnapshot().getStateVersion()).isEqualTo(game.getStateVersion());
+    assertThat(game.getSnapshot().getTopCard()).isEqualTo(validCard);
+    assertThat(game.getSnapshot().findPlayerById("p1").getCards()).doesNotContain(validCard);
+  }
+
+  @Test
+  @DisplayName("execute : Ne doit pas incrémenter la version quand la commande est refusée")
+  void shouldKeepVersionWhenCommandFails() {
+    long version = game.getStateVersion();
+
+    assertThrows(IllegalArgumentException.class, () -> gameService.execute(game.getId(), version,
+            g -> gameService.playCard(game.getId(), "p1", 1, null)));
+
+    assertThat(game.getStateVersion()).isEqualTo(version);
+  }
+
+  @Test
+  @DisplayName("tryPlayCard : Doit refuser par un code, sans exception ni changement de version")
+  void shouldRejectInvalidPlayWithCode() {
+    Card unplayable = new Card(1, Color.BLUE, Value.FIVE);
+    p1.drawCard(unplayable);
+    long version = game.getStateVersion();
+
+    assertThat(gameService.tryPlayCard(game.getId(), null, "p2", 1, null).getCode())
+            .isEqualTo(CommandResult.Code.NOT_YOUR_TURN);
+    assertThat(gameService.tryPlayCard(game.getId(), null, "p1", 42, null).getCode())
+            .isEqualTo(CommandResult.Code.CARD_NOT_FOUND);
+    assertThat(gameService.tryPlayCard(game.getId(), null, "p1", 1, null).getCode())
+            .isEqualTo(CommandResult.Code.CARD_NOT_PLAYABLE);
+    assertThat(gameService.tryPlayCard("ZZZZ", null, "p1", 1, null).getCode())
+            .isEqualTo(CommandResult.Code.GAME_NOT_FOUND);
+
+    assertThat(game.getStateVersion()).isEqualTo(version);
+    assertThat(p1.hasThisCard(unplayable)).isTrue();
+  }
+
+  @Test
+  @DisplayName("tryPlayCard : Doit renvoyer la version courante quand l'état est périmé")
+  void shouldReturnStaleResult() {
+    p1.drawCard(new Card(1, Color.RED, Value.FIVE));
+    long version = game.getStateVersion();
+
+    CommandResult result = gameService.tryPlayCard(game.getId(), version - 1, "p1", 1, null);
+
+    assertThat(result.getCode()).isEqualTo(CommandResult.Code.STALE_STATE);
+    assertThat(result.getCurrentVersion()).isEqualTo(version);
+    assertThat(gameService.tryPlayCard(game.getId(), version, "p1", 1, null).isOk()).isTrue();
+  }
+
+  @Test
+  @DisplayName("tryJoinGame : Doit refuser une salle pleine ou un nom pris par un code")
+  void shouldRejectJoinWithCode() {
+    Game lobby = gameService.createGame(2, "Standard");
+    assertThat(gameService.tryJoinGame(lobby.getId(), new Player("1", "toto")).isOk()).isTrue();
+
+    assertThat(gameService.tryJoinGame(lobby.getId(), new Player("2", "toto")).getCode())
+            .isEqualTo(CommandResult.Code.NAME_TAKEN);
+    assertThat(gameService.tryJoinGame(lobby.getId(), new Player("3", "titi")).isOk()).isTrue();
+    assertThat(gameService.tryJoinGame(lobby.getId(), new Player("4", "tata")).getCode())
+            .isEqualTo(CommandResult.Code.LOBBY_FULL);
+    assertThat(gameService.tryJoinGame(game.getId(), new Player("5", "tutu")).getCode())
+            .isEqualTo(CommandResult.Code.GAME_ALREADY_STARTED);
+  }
+
+  @Test
+  @DisplayName("tryVoteRematch : Doit refuser un vote avant la fin de la partie")
+  void shouldRejectEarlyRematchVote() {
+    assertThat(gameService.tryVoteRematch(game.getId(), null, "p1").getCode())
+            .isEqualTo(CommandResult.Code.GAME_NOT_FINISHED);
+    assertThat(gameService.tryCallUno(game.getId(), null, "nobody").getCode())
+            .isEqualTo(CommandResult.Code.PLAYER_NOT_FOUND);
+  }
+
   @Test
   @DisplayName("connectPlayer : Doit lier la session, le joueur, et le marquer connecté")
   void shouldMapSessionAndSetPlayerConnected() {
@@ -457,6 +595,46 @@ class GameServiceTest {
     assertThat(broadcastCallCount.get()).isGreaterThanOrEqualTo(1);
   }
 
+  @Test
+  @DisplayName("removeGame : Doit annuler les tâches planifiées de la partie")
+  void shouldCancelPendingTimersWhenGameIsRemoved() throws InterruptedException {
+    GameScheduler scheduler = new GameScheduler();
+    GameService service = new GameService(scheduler, new GameRegistry());
+    Game timed = service.createGame(2, "Standard");
+    Player alice = new Player("p1", "Alice");
+    service.joinGame(timed.getId(), alice);
+    service.joinGame(timed.getId(), new Player("p2", "Bob"));
+    timed.setStatus(GameStatus.IN_PROGRESS);
+    timed.getDiscardPile().add(new Card(99, Color.RED, Value.ZERO));
+    alice.setConnected(false);
+    int initialHandSize = alice.getHandSize();
+
+    try {
+      service.playBotTurn(timed.getId());
+      assertThat(scheduler.getPendingCount()).isEqualTo(1);
+
+      service.removeGame(timed.getId());
+      assertThat(scheduler.getPendingCount()).isZero();
+
+      Thread.sleep(1200);
+      assertThat(alice.getHandSize()).isEqualTo(initialHandSize);
+    } finally {
+      scheduler.shutdown();
+    }
+  }
+
+  @Test
+  @DisplayName("removeGame : Doit prévenir de la suppression de la partie")
+  void shouldNotifyRemoval() {
+    List<Game> removed = new ArrayList<>();
+    gameService.setRemovalCallback(removed::add);
+
+    gameService.removeGame(game.getId());
+    gameService.removeGame(game.getId());
+
+    assertThat(removed).containsExactly(game);
+  }
+
   @Test
   @DisplayName("playBotTurn : Fait jouer le bot après un délai")
   void shouldMakeBotPlayAfterDelay() throws InterruptedException {
@@ -593,6 +771,21 @@ class GameServiceTest {
     assertThat(botCount).isEqualTo(3);
   }
 
+  @Test
+  @DisplayName("startGame : Doit compléter la table malgré une inscription encore dans la file")
+  void shouldFillTableDespitePendingReservation() {
+    Game lobby = gameService.createGame(3, "Standard");
+    gameService.joinGame(lobby.getId(), p1);
+    Player late = new Player("late", "Carol");
+    lobby.reserveSeat(late); // place réservée, inscription pas encore traitée
+
+    gameService.startGame(lobby.getId());
+
+    assertThat(lobby.getPlayersNumber()).isEqualTo(3);
+    assertThat(gameService.tryJoinGame(lobby.getId(), late).getCode())
+            .isEqualTo(CommandResult.Code.GAME_ALREADY_STARTED);
+  }
+
   @Test
   @DisplayName("restartGame : Doit vider les mains, réinitialiser la pioche et relancer une manche")
   void shouldRestartGame() {
@@ -0,0 +1,95 @@
+package fr.upjv.uno.service;
+
+import fr.upjv.uno.model.Card;
+import fr.upjv.uno.model.Game;
+import fr.upjv.uno.model.Player;
+import fr.upjv.uno.model.enums.Color;
+import fr.upjv.uno.model.enums.GameStatus;
+import fr.upjv.uno.model.enums.Value;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.lang.management.ManagementFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Coût d'un coup refusé (pas le tour du joueur), avec exception puis avec {@link CommandResult}.
+ * <p>
+ * Désactivé par défaut :
+ * </p>
+ * <pre>
+ * ./mvnw test -Dtest=RejectedPlayBenchmarkTest -Duno.bench=true
+ * </pre>
+ * <p>
+ * Paramètre : {@code uno.bench.iterations} (200000). Le temps inclut le passage par la file de la partie.
+ * </p>
+ */
+@EnabledIfSystemProperty(named = "uno.bench", matches = "true")
+class RejectedPlayBenchmarkTest {
+  private static final int ITERATIONS = Integer.getInteger("uno.bench.iterations", 200_000);
+
+  private GameService gameService;
+  private String gameId;
+
+  @BeforeEach
+  void setUp() {
+    gameService = new GameService();
+    Game game = gameService.createGame(2, "Standard");
+    gameId = game.getId();
+    gameService.joinGame(gameId, new Player("p1", "Alice"));
+    gameService.joinGame(gameId, new Player("p2", "Bob"));
+    game.setStatus(GameStatus.IN_PROGRESS);
+    game.getDiscardPile().add(new Card(99, Color.RED, Value.ZERO));
+  }
+
+  @AfterEach
+  void tearDown() {
+    gameService.shutdown();
+  }
+
+  @Test
+  @DisplayName("Benchmark : coup refusé, exception contre résultat")
+  void compareRejectedPlay() {
+    for (int round = 0; round < 3; round++) {
+      Measure thrown = measure(() -> {
+        try {
+          gameService.playCard(gameId, "p2", 1, null);
+        } catch (IllegalArgumentException expected) {
+          // refus attendu
+        }
+      });
+      Measure returned = measure(() -> gameService.tryPlayCard(gameId, null, "p2", 1, null));
+
+      System.out.printf("tour %d : exception %d ns, %d o / coup ; résultat %d ns, %d o / coup%n",
+              round, thrown.nanos, thrown.bytes, returned.nanos, returned.bytes);
+    }
+    assertThat(gameService.tryPlayCard(gameId, null, "p2", 1, null).getCode())
+            .isEqualTo(CommandResult.Code.NOT_YOUR_TURN);
+  }
+
+  private static Measure measure(Runnable action) {
+    com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    long bytes = threads.getCurrentThreadAllocatedBytes();
+    long start = System.nanoTime();
+    for (int i = 0; i < ITERATIONS; i++)
+      action.run();
+    long nanos = System.nanoTime() - start;
+    // n'inclut que les allocations du thread appelant, pas celles du thread de la file
+    bytes = threads.getCurrentThreadAllocatedBytes() - bytes;
+    return new Measure(nanos / ITERATIONS, bytes / ITERATIONS);
+  }
+
+  private static final class Measure {
+    private final long nanos;
+    private final long bytes;
+
+    private Measure(long nanos, long bytes) {
+      this.nanos = nanos;
+      this.bytes = bytes;
+    }
+  }
+}
@@ -0,0 +1,115 @@
+package fr.upjv.uno.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Permet de tester unitairement la classe GameCodeAllocator.
+ */
+class GameCodeAllocatorTest {
+
+  @Test
+  @DisplayName("allocate : Doit générer des codes de la longueur configurée")
+  void shouldGenerateCodesOfConfiguredLength() {
+    GameCodeAllocator allocator = new GameCodeAllocator(6);
+
+    assertThat(allocator.allocate()).matches("^[A-Z0-9]{6}$");
+    assertThat(allocator.getCapacity()).isEqualTo(2_176_782_336L);
+  }
+
+  @Test
+  @DisplayName("allocate : Doit parcourir tout l'espace des codes sans jamais se répéter")
+  void shouldCoverWholeSpaceWithoutDuplicates() {
+    GameCodeAllocator allocator = new GameCodeAllocator(2, new Random(42));
+    Set<String> codes = new HashSet<>();
+
+    for (int i = 0; i < 36 * 36; i++)
+      assertThat(codes.add(allocator.allocate())).isTrue();
+
+    assertThatThrownBy(allocator::allocate).isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  @DisplayName("allocate : Les codes successifs ne doivent pas être séquentiels")
+  void shouldNotLookSequential() {
+    GameCodeAllocator allocator = new GameCodeAllocator(4, new Random(42));
+    List<String> codes = new ArrayList<>();
+    for (int i = 0; i < 10; i++)
+      codes.add(allocator.allocate());
+
+    assertThat(codes).isNotEqualTo(codes.stream().sorted().toList());
+  }
+
+  @Test
+  @DisplayName("release : Un code libéré doit pouvoir être réattribué")
+  void shouldReuseReleasedCode() {
+    GameCodeAllocator allocator = new GameCodeAllocator(1);
+    List<String> codes = new ArrayList<>();
+    for (int i = 0; i < 36; i++)
+      codes.add(allocator.allocate());
+
+    allocator.release(codes.get(7));
+
+    assertThat(allocator.allocate()).isEqualTo(codes.get(7));
+  }
+
+  @Test
+  @DisplayName("release : Un code libéré ne doit être réattribué qu'une fois les codes neufs épuisés")
+  void shouldPreferFreshCodesOverReleasedOnes() {
+    GameCodeAllocator allocator = new GameCodeAllocator(1);
+    String first = allocator.allocate();
+    String second = allocator.allocate();
+
+    allocator.release(second);
+    allocator.release(first);
+    List<String> fresh = new ArrayList<>();
+    for (int i = 2; i < 36; i++)
+      fresh.add(allocator.allocate());
+
+    assertThat(fresh).doesNotContain(first, second);
+    assertThat(allocator.allocate()).isEqualTo(second);
+    assertThat(allocator.allocate()).isEqualTo(first);
+    assertThatThrownBy(allocator::allocate).isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  @DisplayName("release : Doit ignorer une chaîne qui n'est pas un code")
+  void shouldIgnoreForeignCodes() {
+    GameCodeAllocator allocator = new GameCodeAllocator(1);
+    for (int i = 0; i < 36; i++)
+      allocator.allocate();
+
+    allocator.release("abc");
+    allocator.release(null);
+
+    assertThatThrownBy(allocator::allocate).isInstanceOf(IllegalStateException.class);
+  }
+
+  @Test
+  @DisplayName("allocate : Doit rester dans l'espace des codes à la longueur maximale")
+  void shouldAllocateAtMaxLength() {
+    GameCodeAllocator allocator = new GameCodeAllocator(GameCodeAllocator.MAX_LENGTH, new Random(42));
+    Set<String> codes = new HashSet<>();
+
+    for (int i = 0; i < 1000; i++)
+      assertThat(codes.add(allocator.allocate())).isTrue();
+
+    assertThat(codes).allMatch(code -> code.matches("^[A-Z0-9]{12}$"));
+  }
+
+  @Test
+  @DisplayName("GameCodeAllocator : Doit refuser une longueur hors limites")
+  void shouldRejectInvalidLength() {
+    assertThatThrownBy(() -> new GameCodeAllocator(0)).isInstanceOf(IllegalArgumentException.class);
+    assertThatThrownBy(() -> new GameCodeAllocator(13)).isInstanceOf(IllegalArgumentException.class);
+  }
+}
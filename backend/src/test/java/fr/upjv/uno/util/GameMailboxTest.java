@@ -0,0 +1,105 @@
+package fr.upjv.uno.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Permet de tester unitairement la classe GameMailbox.
+ */
+class GameMailboxTest {
+  private ExecutorService pool;
+  private GameMailbox mailbox;
+
+  @BeforeEach
+  void setUp() {
+    pool = Executors.newFixedThreadPool(4);
+    mailbox = new GameMailbox();
+  }
+
+  @AfterEach
+  void tearDown() {
+    pool.shutdownNow();
+  }
+
+  @Test
+  @DisplayName("submit : Doit appliquer les commandes dans l'ordre de dépôt")
+  void shouldApplyCommandsInOrder() {
+    List<Integer> applied = new ArrayList<>(); // volontairement non synchronisée
+    List<CompletableFuture<Integer>> results = new ArrayList<>();
+
+    for (int i = 0; i < 1000; i++) {
+      int value = i;
+      results.add(mailbox.submit(() -> {
+        applied.add(value);
+        return value;
+      }, pool));
+    }
+    CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).join();
+
+    assertThat(applied).hasSize(1000);
+    for (int i = 0; i < 1000; i++)
+      assertThat(applied.get(i)).isEqualTo(i);
+  }
+
+  @Test
+  @DisplayName("submit : Ne doit jamais exécuter deux commandes en même temps")
+  void shouldNeverRunCommandsConcurrently() throws InterruptedException {
+    int[] counter = {0}; // aucune synchronisation : seule la boîte garantit l'exclusion
+    List<Thread> producers = new ArrayList<>();
+    List<CompletableFuture<Void>> results = new ArrayList<>();
+
+    for (int t = 0; t < 8; t++) {
+      Thread producer = new Thread(() -> {
+        for (int i = 0; i < 500; i++) {
+          CompletableFuture<Void> result = mailbox.submit(() -> {
+            counter[0]++;
+            return null;
+          }, pool);
+          synchronized (results) {
+            results.add(result);
+          }
+        }
+      });
+      producers.add(producer);
+      producer.start();
+    }
+    for (Thread producer : producers)
+      producer.join();
+    CompletableFuture.allOf(results.toArray(new CompletableFuture[0])).join();
+
+    assertThat(counter[0]).isEqualTo(8 * 500);
+  }
+
+  @Test
+  @DisplayName("submit : Doit transmettre l'exception de la commande via le résultat")
+  void shouldPropagateCommandException() {
+    CompletableFuture<Object> result = mailbox.submit(() -> {
+      throw new IllegalArgumentException("Carte introuvable");
+    }, pool);
+
+    assertThatThrownBy(result::join)
+            .isInstanceOf(CompletionException.class)
+            .hasCauseInstanceOf(IllegalArgumentException.class);
+  }
+
+  @Test
+  @DisplayName("isConsumerThread : Doit être vrai uniquement dans une commande")
+  void shouldDetectConsumerThread() {
+    boolean inside = mailbox.submit(mailbox::isConsumerThread, pool).join();
+
+    assertThat(inside).isTrue();
+    assertThat(mailbox.isConsumerThread()).isFalse();
+  }
+}
@@ -0,0 +1,83 @@
+package fr.upjv.uno.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * Permet de tester unitairement la classe HashedWheelTimer.
+ */
+class HashedWheelTimerTest {
+  private HashedWheelTimer timer;
+
+  @BeforeEach
+  void setUp() {
+    // petite roue pour tester aussi les délais de plusieurs tours
+    timer = new HashedWheelTimer(10, TimeUnit.MILLISECONDS, 8, Runnable::run, "test-wheel");
+  }
+
+  @AfterEach
+  void tearDown() {
+    timer.stop();
+  }
+
+  @Test
+  @DisplayName("newTimeout : Doit exécuter la tâche après le délai")
+  void shouldRunTaskAfterDelay() throws InterruptedException {
+    CountDownLatch latch = new CountDownLatch(1);
+    long start = System.nanoTime();
+
+    HashedWheelTimer.Timeout timeout = timer.newTimeout(latch::countDown, 50, TimeUnit.MILLISECONDS);
+
+    assertThat(latch.await(1, TimeUnit.SECONDS)).isTrue();
+    assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(50);
+    assertThat(timeout.isExpired()).isTrue();
+    assertThat(timer.getPendingCount()).isZero();
+  }
+
+  @Test
+  @DisplayName("newTimeout : Doit respecter un délai plus long qu'un tour de roue")
+  void shouldHandleDelayLongerThanOneRotation() throws InterruptedException {
+    CountDownLatch latch = new CountDownLatch(1);
+    long start = System.nanoTime();
+
+    // 8 cases x 10 ms = 80 ms par tour
+    timer.newTimeout(latch::countDown, 200, TimeUnit.MILLISECONDS);
+
+    assertThat(latch.await(1, TimeUnit.SECONDS)).isTrue();
+    assertThat(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)).isGreaterThanOrEqualTo(200);
+  }
+
+  @Test
+  @DisplayName("cancel : Une tâche annulée ne doit jamais s'exécuter")
+  void shouldNotRunCancelledTask() throws InterruptedException {
+    AtomicBoolean ran = new AtomicBoolean(false);
+
+    HashedWheelTimer.Timeout timeout = timer.newTimeout(() -> ran.set(true), 50, TimeUnit.MILLISECONDS);
+
+    assertThat(timeout.cancel()).isTrue();
+    assertThat(timeout.cancel()).isFalse();
+    Thread.sleep(150);
+
+    assertThat(ran).isFalse();
+    assertThat(timeout.isCancelled()).isTrue();
+    assertThat(timer.getPendingCount()).isZero();
+  }
+
+  @Test
+  @DisplayName("newTimeout : Doit refuser de planifier après l'arrêt")
+  void shouldRejectAfterStop() {
+    timer.stop();
+
+    assertThatThrownBy(() -> timer.newTimeout(() -> {}, 10, TimeUnit.MILLISECONDS))
+            .isInstanceOf(IllegalStateException.class);
+  }
+}
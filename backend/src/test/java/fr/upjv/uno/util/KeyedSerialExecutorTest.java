@@ -0,0 +1,104 @@
+package fr.upjv.uno.util;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Permet de tester unitairement la classe KeyedSerialExecutor.
+ */
+class KeyedSerialExecutorTest {
+  private ExecutorService pool;
+  private KeyedSerialExecutor executor;
+
+  @BeforeEach
+  void setUp() {
+    pool = Executors.newFixedThreadPool(4);
+    executor = new KeyedSerialExecutor(pool);
+  }
+
+  @AfterEach
+  void tearDown() {
+    pool.shutdownNow();
+  }
+
+  @Test
+  @DisplayName("execute : Les tâches d'une même clé doivent passer dans l'ordre, une à la fois")
+  void shouldRunTasksOfKeyInOrder() throws InterruptedException {
+    List<Integer> applied = new ArrayList<>(); // volontairement non synchronisée
+    CountDownLatch done = new CountDownLatch(1000);
+
+    for (int i = 0; i < 1000; i++) {
+      int value = i;
+      executor.execute("G1", () -> {
+        applied.add(value);
+        done.countDown();
+      });
+    }
+
+    assertThat(done.await(5, TimeUnit.SECONDS)).isTrue();
+    for (int i = 0; i < 1000; i++)
+      assertThat(applied.get(i)).isEqualTo(i);
+  }
+
+  @Test
+  @DisplayName("execute : Une clé bloquée ne doit pas retenir les autres clés")
+  void shouldRunOtherKeysInParallel() throws InterruptedException {
+    CountDownLatch release = new CountDownLatch(1);
+    CountDownLatch other = new CountDownLatch(1);
+    executor.execute("G1", () -> {
+      try {
+        release.await();
+      } catch (InterruptedException e) {
+        Thread.currentThread().interrupt();
+      }
+    });
+    executor.execute("G1", () -> {
+    });
+
+    executor.execute("G2", other::countDown);
+
+    assertThat(other.await(2, TimeUnit.SECONDS)).isTrue();
+    assertThat(executor.getQueueDepth("G1")).isEqualTo(1);
+    assertThat(executor.getQueueDepth("G2")).isZero();
+    release.countDown();
+  }
+
+  @Test
+  @DisplayName("execute : Une tâche en échec ne doit pas bloquer les suivantes")
+  void shouldContinueAfterFailure() throws InterruptedException {
+    CountDownLatch done = new CountDownLatch(1);
+
+    executor.execute("G1", () -> {
+      throw new IllegalStateException("échec");
+    });
+    executor.execute("G1", done::countDown);
+
+    assertThat(done.await(2, TimeUnit.SECONDS)).isTrue();
+  }
+
+  @Test
+  @DisplayName("getActiveKeyCount : Une file vidée doit disparaître")
+  void shouldForgetDrainedKeys() throws InterruptedException {
+    CountDownLatch done = new CountDownLatch(100);
+    for (int i = 0; i < 100; i++)
+      executor.execute("G" + i, done::countDown);
+
+    assertThat(done.await(2, TimeUnit.SECONDS)).isTrue();
+    long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(2);
+    while (executor.getActiveKeyCount() > 0 && System.nanoTime() < deadline)
+      Thread.sleep(10);
+    assertThat(executor.getActiveKeyCount()).isZero();
+    assertThat(executor.getTotalDepth()).isZero();
+  }
+}
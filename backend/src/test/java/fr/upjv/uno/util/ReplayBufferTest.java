@@ -0,0 +1,53 @@
+package fr.upjv.uno.util;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Permet de tester unitairement la classe ReplayBuffer.
+ */
+class ReplayBufferTest {
+
+  @Test
+  @DisplayName("append : Doit numéroter les éléments à partir de 1")
+  void shouldNumberEntries() {
+    ReplayBuffer<String> buffer = new ReplayBuffer<>(3);
+    assertThat(buffer.getLastSequence()).isZero();
+    assertThat(buffer.latest()).isNull();
+
+    assertThat(buffer.append("a")).isEqualTo(1);
+    assertThat(buffer.append("b")).isEqualTo(2);
+
+    assertThat(buffer.getLastSequence()).isEqualTo(2);
+    assertThat(buffer.latest()).isEqualTo("b");
+  }
+
+  @Test
+  @DisplayName("since : Doit renvoyer les éléments suivants, dans l'ordre")
+  void shouldReturnEntriesAfterSequence() {
+    ReplayBuffer<String> buffer = new ReplayBuffer<>(3);
+    buffer.append("a");
+    buffer.append("b");
+    buffer.append("c");
+    buffer.append("d");
+
+    assertThat(buffer.since(1)).containsExactly("b", "c", "d");
+    assertThat(buffer.since(3)).containsExactly("d");
+    assertThat(buffer.since(4)).isEmpty();
+  }
+
+  @Test
+  @DisplayName("since : Doit renvoyer null si des éléments ont été écrasés ou si le numéro est inconnu")
+  void shouldDetectOverwrittenEntries() {
+    ReplayBuffer<String> buffer = new ReplayBuffer<>(3);
+    for (String entry : new String[]{"a", "b", "c", "d", "e"})
+      buffer.append(entry);
+
+    assertThat(buffer.since(1)).isNull();
+    assertThat(buffer.since(2)).containsExactly("c", "d", "e");
+    assertThat(buffer.since(6)).isNull();
+    assertThat(buffer.since(-1)).isNull();
+  }
+}
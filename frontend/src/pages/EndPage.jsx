@@ -2,14 +2,14 @@ import { useEffect, useRef, useState } from 'react';
 import { useLocation, useNavigate, useParams } from 'react-router-dom';
 import { motion, AnimatePresence } from 'framer-motion';
 import { leaveGame, voteRematch } from '../services/api';
-import { connectWebSocket, disconnectWebSocket } from '../services/websocket';
+import { connectWebSocket, disconnectWebSocket, sendAction } from '../services/websocket';
 
 /**
  * Page de résultats de fin de partie.
  * Affiche le classement, permet de voter pour rejouer.
  *
  * Appels serveur :
- *   WS  /topic/game/{gameId}/{playerId} — écoute les votes rematch et l'expiration
+ *   WS  /topic/game/{gameId} — écoute les votes rematch et l'expiration
  *   POST /rematch                       — voter pour rejouer
  *   POST /leave                         — quitter définitivement
  */
@@ -115,12 +115,12 @@ export default function EndPage() {
 
   // ─── Actions ─────────────────────────────────────────────────────────────────
 
-  // Vote pour rejouer : POST /rematch — optimistic lock local pour éviter le double-clic
+  // Vote pour rejouer : par WebSocket (repli POST /rematch) — optimistic lock local pour éviter le double-clic
   async function handleRematch() {
     if (hasVoted) return;
     setHasVoted(true);
     try {
-      await voteRematch(gameId, playerId);
+      await (sendAction(gameId, 'rematch', { playerId }) ?? voteRematch(gameId, playerId));
     } catch {
       setHasVoted(false);
     }
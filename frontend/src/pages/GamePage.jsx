@@ -9,10 +9,11 @@ import {
   drawCard as apiDrawCard,
   callUno as apiCallUno,
   getGameState as apiGetGameState,
+  waitForGameState as apiWaitForGameState,
   reconnectPlayer as apiReconnectPlayer,
   leaveGame as apiLeaveGame,
 } from "../services/api";
-import { connectWebSocket, disconnectWebSocket } from "../services/websocket";
+import { connectWebSocket, disconnectWebSocket, sendAction } from "../services/websocket";
 import { play, isSoundEnabled, toggleSound } from "../services/sounds";
 import "../styles/game.css";
 
@@ -79,12 +80,12 @@ function clearSession() {
  * Page principale du jeu.
  *
  * Appels serveur :
- *   WS  /topic/game/{gameId}/{playerId} — mises à jour temps réel (état, overlays, fin de partie)
- *   GET /state/{playerId}               — récupère l'état courant (reconnexion / polling bot)
+ *   WS  /topic/game/{gameId} (+ /user/queue/hand pour la main) — mises à jour temps réel (état, overlays, fin de partie)
+ *   GET /state/{playerId}               — récupère l'état courant (reconnexion / long polling bot)
  *   POST /reconnect/{playerId}          — signale au backend le retour d'un joueur
- *   POST /play                          — jouer une carte
- *   POST /draw                          — piocher une carte
- *   POST /uno                           — annoncer UNO ou contre-UNO
+ *   SEND /app/game/{gameId}/play        — jouer une carte      (repli POST /play si WS coupé)
+ *   SEND /app/game/{gameId}/draw        — piocher une carte    (repli POST /draw)
+ *   SEND /app/game/{gameId}/uno         — annoncer UNO ou contre-UNO (repli POST /uno)
  *   POST /leave                         — quitter la partie
  */
 export default function GamePage() {
@@ -228,9 +229,9 @@ export default function GamePage() {
       (status, attempt, max) => {
         if (status === 'connected' || status === 'reconnected') {
           setWsStatus("connected");
-          // WS rétabli après coupure : resynchronise l'état
+          // WS rétabli après coupure : websocket.js rattrape l'état manqué, on signale seulement le retour
           if (status === 'reconnected') {
-            refreshGameState();
+            apiReconnectPlayer(gameId, playerId).catch(() => {});
           }
         } else if (status === 'reconnecting') {
           setWsStatus(`reconnecting:${attempt}:${max}`);
@@ -244,23 +245,35 @@ export default function GamePage() {
 
   // ─── Polling fallback quand c'est le tour d'un bot ───────────────────────────
   // Le bot joue côté serveur mais ne pousse pas toujours de WS update rapide.
-  // On poll GET /state/{playerId} toutes les 2s uniquement quand un bot joue.
+  // Long polling sur GET /state/{playerId} uniquement quand un bot joue : le serveur
+  // garde la requête jusqu'au prochain changement (ETag), sans rien renvoyer entre deux coups.
   useEffect(() => {
     if (!gameId || !playerId) return;
     const currentPlayerId = gameState?.players?.[gameState?.currentPlayerIndex]?.id;
     const botIsPlaying = currentPlayerId && isBot(currentPlayerId) && gameState?.status === "IN_PROGRESS";
     if (!botIsPlaying) return;
 
-    const interval = setInterval(async () => {
-      try {
-        const state = await apiGetGameState(gameId, playerId);
-        if (state) setGameState(normalizeState(state));
-      } catch {
-        // silencieux — le WS prend le relais si disponible
+    const controller = new AbortController();
+    const pause = ms => new Promise(resolve => setTimeout(resolve, ms));
+    (async () => {
+      let etag = null;
+      while (!controller.signal.aborted) {
+        try {
+          const result = await apiWaitForGameState(gameId, playerId, etag, undefined, controller.signal);
+          etag = result.etag;
+          if (result.state && !controller.signal.aborted) setGameState(normalizeState(result.state));
+          // sans ETag, le serveur ne peut pas faire attendre la requête suivante : on espace les appels
+          if (!etag) await pause(2000);
+        } catch {
+          if (controller.signal.aborted) return;
+          // silencieux — le WS prend le relais si disponible
+          await pause(2000);
+        }
       }
-    }, 2000);
+    })();
 
-    return () => clearInterval(interval);
+    // abandonne la requête en cours : le serveur n'attend plus pour rien
+    return () => controller.abort();
   // eslint-disable-next-line react-hooks/exhaustive-deps
   }, [gameState?.currentPlayerIndex, gameState?.status, gameId, playerId]);
 
@@ -282,7 +295,7 @@ export default function GamePage() {
     const curId     = gameState?.players?.[gameState?.currentPlayerIndex]?.id;
     const myTurn    = curId === playerId;
     if (turnTimeLeft === 0 && s === "IN_PROGRESS" && myTurn) {
-      apiDrawCard(gameId, playerId).catch(() => {});
+      (sendAction(gameId, 'draw', { playerId }) ?? apiDrawCard(gameId, playerId)).catch(() => {});
     }
   // eslint-disable-next-line react-hooks/exhaustive-deps
   }, [turnTimeLeft]);
@@ -448,7 +461,7 @@ export default function GamePage() {
   }
 
   // ─── Jouer une carte ─────────────────────────────────────────────────────────
-  // Vérifie la jouabilité localement avant d'envoyer POST /play.
+  // Vérifie la jouabilité localement avant d'envoyer l'action play.
   // Si la carte est un joker, ouvre le sélecteur de couleur d'abord.
   async function handlePlayCard(card, sourceEl) {
     if (!isMyTurn) return;
@@ -470,14 +483,17 @@ export default function GamePage() {
     try {
       play('playCard');
       animateCard(card, sourceEl, discardRef.current, () => {});
-      await apiPlayCard(gameId, playerId, card.id, chosenColor);
+      const expectedVersion = gameState?.stateVersion;
+      await (sendAction(gameId, 'play', { playerId, cardId: card.id, chosenColor, expectedVersion })
+        ?? apiPlayCard(gameId, playerId, card.id, chosenColor, expectedVersion));
     } catch (e) {
-      showError(e.message);
+      // 409 : double clic ou état déjà dépassé, le prochain broadcast resynchronise l'affichage
+      if (e.status !== 409) showError(e.message);
     }
   }
 
   // ─── Piocher une carte ───────────────────────────────────────────────────────
-  // Déclenche l'animation volante + POST /draw. Aussi appelé automatiquement à 0s de timer.
+  // Déclenche l'animation volante + action draw. Aussi appelé automatiquement à 0s de timer.
   function handleDraw() {
     if (!isMyTurn) return;
 
@@ -493,22 +509,24 @@ export default function GamePage() {
     }
 
     play('drawCard');
-    apiDrawCard(gameId, playerId).catch(e => showError(e.message));
+    const expectedVersion = gameState?.stateVersion;
+    (sendAction(gameId, 'draw', { playerId, expectedVersion }) ?? apiDrawCard(gameId, playerId, expectedVersion))
+      .catch(e => { if (e.status !== 409) showError(e.message); });
   }
 
   // ─── UNO & Contre-UNO ────────────────────────────────────────────────────────
-  // Un seul endpoint. Backend décide : 1 carte → UNO annoncé, sinon → contre-UNO.
+  // Une seule action. Backend décide : 1 carte → UNO annoncé, sinon → contre-UNO.
   // L'overlay est déclenché UNIQUEMENT par le broadcast WS → visible sur tous les écrans.
   function handleUno() {
     if (unoLocalLock || myHand.length !== 1 || myPlayerData?.isUnoCalled) return;
     setUnoLocalLock(true);
-    apiCallUno(gameId, playerId).catch(() => {});
+    (sendAction(gameId, 'uno', { playerId }) ?? apiCallUno(gameId, playerId)).catch(() => {});
   }
 
   function handleCounterUno() {
     if (unoLocalLock || counterUnoTargets.length === 0) return;
     setUnoLocalLock(true);
-    apiCallUno(gameId, playerId).catch(() => {});
+    (sendAction(gameId, 'uno', { playerId }) ?? apiCallUno(gameId, playerId)).catch(() => {});
   }
 
   // ─── Raccourci clavier sélecteur couleur (1-4) ───────────────────────────────
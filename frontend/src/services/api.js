@@ -21,8 +21,9 @@ async function request(url, options = {}) {
       ...options,
     });
     if (!response.ok) {
-      const error = await response.text();
-      throw new Error(error || `HTTP ${response.status}`);
+      const error = new Error((await response.text()) || `HTTP ${response.status}`);
+      error.status = response.status; // 409 = action basée sur un état périmé
+      throw error;
     }
     const ct = response.headers.get('content-type');
     if (ct && ct.includes('application/json')) return response.json();
@@ -53,19 +54,22 @@ export function joinGame(gameId, playerName) {
   });
 }
 
-/** Joue une carte. chosenColor requis pour Wild/+4. */
-export function playCard(gameId, playerId, cardId, chosenColor = null) {
+/**
+ * Joue une carte. chosenColor requis pour Wild/+4.
+ * expectedVersion (optionnel) : stateVersion de l'état affiché, refusé en 409 s'il est périmé.
+ */
+export function playCard(gameId, playerId, cardId, chosenColor = null, expectedVersion = null) {
   return request(`${BASE_URL}/${gameId}/play`, {
     method: 'POST',
-    body: JSON.stringify({ playerId, cardId, chosenColor }),
+    body: JSON.stringify({ playerId, cardId, chosenColor, expectedVersion }),
   });
 }
 
-/** Pioche une carte depuis le deck. */
-export function drawCard(gameId, playerId) {
+/** Pioche une carte depuis le deck. expectedVersion : voir playCard. */
+export function drawCard(gameId, playerId, expectedVersion = null) {
   return request(`${BASE_URL}/${gameId}/draw`, {
     method: 'POST',
-    body: JSON.stringify({ playerId }),
+    body: JSON.stringify({ playerId, expectedVersion }),
   });
 }
 
@@ -93,6 +97,26 @@ export function getGameState(gameId, playerId) {
   return request(`${BASE_URL}/${gameId}/state/${playerId}`);
 }
 
+/**
+ * Attend un changement de l'état (long polling) : le serveur répond dès que l'état n'est plus
+ * celui d'ETag `etag`, ou au bout de `waitMs` ms. `signal` (AbortSignal) permet d'abandonner l'attente.
+ * Retourne { state, etag }, avec state à null si rien n'a changé (304) ; etag est null si la réponse
+ * n'en porte pas (en-tête non exposé) : le serveur répondrait alors aussitôt à la requête suivante.
+ */
+export async function waitForGameState(gameId, playerId, etag, waitMs = 25_000, signal) {
+  const response = await fetch(`${BASE_URL}/${gameId}/state/${playerId}?waitMs=${waitMs}`, {
+    headers: etag ? { 'If-None-Match': etag } : {},
+    signal,
+  });
+  if (response.status === 304) return { state: null, etag };
+  if (!response.ok) {
+    const error = new Error((await response.text()) || `HTTP ${response.status}`);
+    error.status = response.status;
+    throw error;
+  }
+  return { state: await response.json(), etag: response.headers.get('ETag') };
+}
+
 /** Signale au backend le retour d'un joueur après fermeture d'onglet. */
 export function reconnectPlayer(gameId, playerId) {
   return request(`${BASE_URL}/${gameId}/reconnect/${playerId}`, { method: 'POST' });
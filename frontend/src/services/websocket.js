@@ -1,23 +1,73 @@
 /**
- * Service WebSocket — connexion STOMP sur SockJS.
+ * Service WebSocket — connexion STOMP sur WebSocket natif, SockJS en solution de repli.
  * Gère la reconnexion automatique jusqu'à MAX_RECONNECTS tentatives.
  *
+ * Le WebSocket natif (/ws-uno-upjv-native) évite l'enveloppe JSON de SockJS sur chaque trame et la
+ * requête /info avant la connexion. Si le navigateur ne le propose pas, ou si la connexion se ferme
+ * avant d'aboutir (proxy qui bloque l'upgrade), on passe à SockJS (/ws-uno-upjv) pour le reste de la session.
+ * En natif, si le navigateur sait décompresser (DecompressionStream), on demande au serveur de compresser
+ * les grandes trames (paramètre uno-compression=deflate dans l'URL, à la place de permessage-deflate) : elles
+ * arrivent en binaire, en DEFLATE brut, et sont décompressées ici, dans l'ordre d'arrivée, avant d'être passées
+ * à STOMP. Sinon, et avec SockJS, le navigateur négocie permessage-deflate comme d'habitude.
+ *
  * États rapportés via onStateChange :
  *   'connected'               — première connexion réussie
  *   'reconnected'             — rétabli après une coupure
  *   'reconnecting'(n, max)    — tentative n/max en cours
  *   'failed'                  — max tentatives atteint, abandon
  *   'error'                   — erreur STOMP non récupérable
+ *
+ * Deux abonnements par partie :
+ *   /topic/game/{gameId} — état public, commun à tous les joueurs
+ *   /user/queue/hand     — main du joueur ({ stateVersion, myHand }), quand elle change ; propre à la
+ *                          session, qui désigne sa partie et son joueur par les en-têtes uno-game et uno-player
+ *
+ * L'état public est soit complet, soit un patch (champ baseVersion) à appliquer à l'état
+ * de cette version. Les patchs et la main sont appliqués ici : onGameUpdate reçoit toujours
+ * un état complet, main comprise. Si l'état connu n'est pas à baseVersion (message perdu),
+ * l'état complet est redemandé au serveur.
+ *
+ * Reprise après coupure : chaque message porte le numéro de diffusion de la partie (en-tête uno-seq).
+ * On retient le dernier reçu par abonnement ; à la reconnexion, chaque réabonnement le renvoie
+ * (en-tête uno-resume) et le serveur n'envoie que les changements manqués, en un patch, ou l'état
+ * complet s'il ne les a plus. Un message reçu deux fois est écarté par sa version (stateVersion).
+ * L'état complet n'est redemandé par HTTP qu'à la première connexion.
+ *
+ * Les actions de jeu passent par cette même connexion (sendAction) : trame SEND vers
+ * /app/game/{gameId}/{action} avec un en-tête receipt. Le serveur confirme une action acceptée
+ * par une trame RECEIPT et envoie un refus sur /user/queue/errors, propre à la session.
+ *
+ * Heartbeats : le client en envoie toutes les 2 s et en attend du serveur toutes les 10 s. Le serveur
+ * déconnecte un client muet pendant trois intervalles et le marque absent de la partie ; les heartbeats
+ * sont cadencés par un Worker, que le navigateur ne ralentit pas quand l'onglet passe en arrière-plan.
  */
 
-import { Client } from '@stomp/stompjs';
+import { Client, TickerStrategy } from '@stomp/stompjs';
 import SockJS from 'sockjs-client';
+import { getGameState } from './api';
 
 // Singleton — une seule connexion active à la fois
 let stompClient   = null;
 let intentionalClose = false;
+// Dernier état public connu, base des patchs, et dernière main reçue
+let knownState = null;
+let knownHand  = null;
+let resyncing  = false;
+// Dernier numéro de diffusion reçu par abonnement (en-tête uno-seq), renvoyé à la reprise
+let lastSeq = {};
+// Actions envoyées en attente de réponse, par identifiant de receipt
+const pendingActions = new Map();
+let nextReceipt = 0;
+
+// Passe à true quand le WebSocket natif a échoué : SockJS pour toutes les connexions suivantes
+let useSockJS = typeof WebSocket === 'undefined';
 
+const WS_BASE = import.meta.env.VITE_WS_URL ?? '';
+const CAN_INFLATE = typeof DecompressionStream !== 'undefined';
 const MAX_RECONNECTS = 5;
+const ACTION_TIMEOUT_MS = 10_000;
+// Même correspondance que les statuts HTTP des endpoints REST (409 = état périmé)
+const ERROR_STATUS = { GAME_NOT_FOUND: 404, PLAYER_NOT_FOUND: 404, STALE_STATE: 409 };
 
 /**
  * Se connecte au WebSocket et s'abonne aux mises à jour de la partie.
@@ -29,29 +79,104 @@ const MAX_RECONNECTS = 5;
  */
 export function connectWebSocket(gameId, playerId, onGameUpdate, onStateChange) {
   intentionalClose = false;
+  knownState = null;
+  knownHand  = null;
+  lastSeq = {};
   let reconnectCount = 0;
+  let socketConnected = false; // la socket courante a-t-elle reçu CONNECTED ?
+
+  const deliver = (state) => {
+    knownState = state;
+    onGameUpdate({ ...state, myHand: knownHand?.myHand ?? state.myHand });
+  };
+
+  const handleHand = (hand) => {
+    if (knownHand && hand.stateVersion < knownHand.stateVersion) return; // main plus récente déjà connue
+    knownHand = hand;
+    if (knownState) deliver(knownState);
+  };
+
+  const resync = () => {
+    if (resyncing) return;
+    resyncing = true;
+    getGameState(gameId, playerId)
+      .then(state => {
+        if (!state) return;
+        if (state.myHand) handleHand({ stateVersion: state.stateVersion, myHand: state.myHand });
+        if (!knownState || state.stateVersion >= knownState.stateVersion) deliver(state);
+      })
+      .catch(() => {})
+      .finally(() => { resyncing = false; });
+  };
+
+  const handleMessage = (message) => {
+    if (message.baseVersion === undefined) {
+      if (!knownState || message.stateVersion >= knownState.stateVersion) deliver(message);
+      return;
+    }
+    if (knownState && message.stateVersion <= knownState.stateVersion) return; // déjà à jour
+    if (!knownState || knownState.stateVersion !== message.baseVersion) {
+      resync();
+      return;
+    }
+    deliver(applyDelta(knownState, message));
+  };
+
+  // Abonnement, repris à partir du dernier numéro reçu (0 : aucun)
+  const subscribeSequenced = (key, destination, handler, resuming, extraHeaders = {}) => {
+    const headers = resuming ? { ...extraHeaders, 'uno-resume': String(lastSeq[key] ?? 0) } : extraHeaders;
+    stompClient.subscribe(destination, (message) => {
+      const seq = Number(message.headers['uno-seq']);
+      if (!Number.isNaN(seq)) lastSeq[key] = seq; // pas de maximum : le serveur a pu redémarrer
+      try {
+        handler(JSON.parse(message.body));
+      } catch (e) {
+        console.error('WS parse error', e);
+      }
+    }, headers);
+  };
 
   stompClient = new Client({
-    webSocketFactory: () => new SockJS(`${import.meta.env.VITE_WS_URL ?? ''}/ws-uno-upjv`),
+    webSocketFactory: () => {
+      socketConnected = false;
+      if (useSockJS) return new SockJS(`${WS_BASE}/ws-uno-upjv`);
+      const socket = new WebSocket(nativeUrl());
+      return CAN_INFLATE ? inflating(socket) : socket;
+    },
     reconnectDelay: 3000, // délai entre chaque tentative de reconnexion automatique
+    heartbeatOutgoing: 2000, // uno.websocket.heartbeat.client-ms côté serveur
+    heartbeatIncoming: 10000, // uno.websocket.heartbeat.server-ms côté serveur
+    heartbeatStrategy: TickerStrategy.Worker,
 
     onConnect: () => {
+      socketConnected = true;
       const wasReconnect = reconnectCount > 0;
       reconnectCount = 0;
       onStateChange?.(wasReconnect ? 'reconnected' : 'connected');
 
-      // Ré-abonnement systématique à chaque (re)connexion
-      stompClient.subscribe(`/topic/game/${gameId}/${playerId}`, (message) => {
+      // Ré-abonnement systématique à chaque (re)connexion, en reprise s'il a déjà reçu des messages
+      const resuming = lastSeq.state !== undefined;
+      subscribeSequenced('state', `/topic/game/${gameId}`, handleMessage, resuming);
+      subscribeSequenced('hand', '/user/queue/hand', handleHand, resuming,
+        { 'uno-game': gameId, 'uno-player': playerId });
+      stompClient.subscribe('/user/queue/errors', (message) => {
         try {
-          onGameUpdate(JSON.parse(message.body));
+          const error = JSON.parse(message.body);
+          settleAction(error.receiptId, error);
         } catch (e) {
           console.error('WS parse error', e);
         }
       });
+      // sans reprise possible (aucun message reçu encore), on repart de l'état courant
+      if (!resuming) resync();
     },
 
     onWebSocketClose: () => {
       if (intentionalClose) return; // fermeture volontaire — on ne reconnecte pas
+      if (!socketConnected && !useSockJS) {
+        useSockJS = true; // WebSocket natif bloqué : la prochaine tentative passe par SockJS
+        return;
+      }
       reconnectCount++;
       if (reconnectCount > MAX_RECONNECTS) {
         intentionalClose = true;
@@ -73,6 +198,96 @@ export function connectWebSocket(gameId, playerId, onGameUpdate, onStateChange)
   return stompClient;
 }
 
+/**
+ * Envoie une action de jeu par la connexion STOMP ouverte.
+ * Retourne une promesse résolue à la confirmation du serveur, rejetée en cas de refus
+ * (error.status comme l'endpoint REST, error.code du serveur), ou null si la connexion n'est pas
+ * établie : l'appelant passe alors par l'API REST.
+ *
+ * @param {string} gameId  - ID de la partie
+ * @param {string} action  - 'play' | 'draw' | 'uno' | 'rematch'
+ * @param {object} payload - même corps que l'endpoint REST de l'action
+ */
+export function sendAction(gameId, action, payload) {
+  if (!stompClient?.connected) return null;
+  const receipt = `action-${++nextReceipt}`;
+  return new Promise((resolve, reject) => {
+    const timer = setTimeout(() => {
+      pendingActions.delete(receipt);
+      reject(new Error('Pas de réponse du serveur'));
+    }, ACTION_TIMEOUT_MS);
+    pendingActions.set(receipt, { resolve, reject, timer });
+    stompClient.watchForReceipt(receipt, () => settleAction(receipt, null));
+    stompClient.publish({
+      destination: `/app/game/${gameId}/${action}`,
+      headers: { receipt },
+      body: JSON.stringify(payload),
+    });
+  });
+}
+
+/** Résout (error null) ou rejette l'action en attente de ce receipt. */
+function settleAction(receipt, error) {
+  const pending = pendingActions.get(receipt);
+  if (!pending) return;
+  pendingActions.delete(receipt);
+  clearTimeout(pending.timer);
+  if (!error) {
+    pending.resolve(null);
+    return;
+  }
+  const e = new Error(error.message || error.code);
+  e.code = error.code;
+  e.status = ERROR_STATUS[error.code] ?? 400;
+  pending.reject(e);
+}
+
+/**
+ * URL du WebSocket natif : même hôte que SockJS, en ws:// ou wss://. Demande la compression du serveur
+ * quand le navigateur sait décompresser.
+ */
+function nativeUrl() {
+  const url = `${(WS_BASE || window.location.origin).replace(/^http/, 'ws')}/ws-uno-upjv-native`;
+  return CAN_INFLATE ? `${url}?uno-compression=deflate` : url;
+}
+
+/**
+ * Fait passer les messages de la socket par la décompression avant stompjs : les messages binaires sont des
+ * trames STOMP compressées par le serveur. L'ordre d'arrivée est conservé, messages texte compris.
+ */
+function inflating(socket) {
+  socket.binaryType = 'arraybuffer';
+  let handler = null;
+  let delivered = Promise.resolve();
+  socket.addEventListener('message', (event) => {
+    const frame = event.data instanceof ArrayBuffer ? inflate(event.data) : event.data;
+    delivered = delivered
+      .then(() => frame)
+      .then(data => handler?.({ data }))
+      .catch(e => console.error('WS inflate error', e));
+  });
+  // stompjs s'abonne via onmessage : on le reçoit ici et on l'appelle nous-mêmes
+  Object.defineProperty(socket, 'onmessage', { get: () => handler, set: (h) => { handler = h; } });
+  return socket;
+}
+
+/** Décompresse une trame DEFLATE brute (sans en-tête zlib) en texte. */
+function inflate(buffer) {
+  const stream = new Blob([buffer]).stream().pipeThrough(new DecompressionStream('deflate-raw'));
+  return new Response(stream).text();
+}
+
+/** Applique un patch public du serveur à l'état de version delta.baseVersion. */
+function applyDelta(state, delta) {
+  const { baseVersion, players, ...fields } = delta; // eslint-disable-line no-unused-vars
+  const next = { ...state, ...fields };
+  if (players) {
+    const changed = new Map(players.map(p => [p.id, p]));
+    next.players = state.players.map(p => (changed.has(p.id) ? { ...p, ...changed.get(p.id) } : p));
+  }
+  return next;
+}
+
 /** Ferme proprement la connexion WebSocket (ne tente pas de reconnexion). */
 export function disconnectWebSocket() {
   intentionalClose = true;